@@ -50,6 +50,17 @@ public class CollatorStringMatcher implements StringMatcher {
 	public Collator getCollator() {
 		return collator;
 	}
+
+	/**
+	 * @return part simplified the same way as compared strings
+	 */
+	public String getPart() {
+		return part;
+	}
+
+	public StringMatcherMode getMode() {
+		return mode;
+	}
 	
 	@Override
 	public boolean matches(String name) {
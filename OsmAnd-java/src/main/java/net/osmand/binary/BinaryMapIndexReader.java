@@ -31,6 +31,8 @@ import net.osmand.data.City;
 import net.osmand.data.IncompleteTransportRoute;
 import net.osmand.data.LatLon;
 import net.osmand.data.MapObject;
+import net.osmand.data.RouteCorridorIndex;
+import net.osmand.data.RouteCorridorTiles;
 import net.osmand.data.Street;
 import net.osmand.data.TransportRoute;
 import net.osmand.data.TransportStop;
@@ -61,7 +63,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -1411,12 +1412,24 @@ public class BinaryMapIndexReader {
 			poiAdapter.searchPoiIndex(req.left, req.right, req.top, req.bottom, req, poiIndex);
 			codedIS.popLimit(old);
 		}
+		if (req.corridorIndex != null) {
+			sortByRouteDistance(req.getSearchResults());
+		}
 		log.info("Read " + req.numberOfReadSubtrees + " subtrees. Go through " + req.numberOfAcceptedSubtrees + " subtrees.");   //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$
 		log.info("Search poi is done. Visit " + req.numberOfVisitedObjects + " objects. Read " + req.numberOfAcceptedObjects + " objects."); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 
 		return req.getSearchResults();
 	}
 
+	private static void sortByRouteDistance(List<Amenity> amenities) {
+		Collections.sort(amenities, new Comparator<Amenity>() {
+			@Override
+			public int compare(Amenity o1, Amenity o2) {
+				return Double.compare(o1.getRoutePoint().distanceAlongRoute, o2.getRoutePoint().distanceAlongRoute);
+			}
+		});
+	}
+
 	public List<Amenity> searchPoi(PoiRegion poiIndex, SearchRequest<Amenity> req) throws IOException {
 		req.numberOfVisitedObjects = 0;
 		req.numberOfAcceptedObjects = 0;
@@ -1506,49 +1519,25 @@ public class BinaryMapIndexReader {
 
 	public static SearchRequest<Amenity> buildSearchPoiRequest(List<Location> route, double radius,
 			SearchPoiTypeFilter poiTypeFilter, ResultMatcher<Amenity> resultMatcher) {
-		SearchRequest<Amenity> request = new SearchRequest<Amenity>();
-		float coeff = (float) (radius / MapUtils.getTileDistanceWidth(SearchRequest.ZOOM_TO_SEARCH_POI));
-		TLongObjectHashMap<List<Location>> zooms = new TLongObjectHashMap<List<Location>>();
-		for (int i = 1; i < route.size(); i++) {
-			Location cr = route.get(i);
-			Location pr = route.get(i - 1);
-			double tx = MapUtils.getTileNumberX(SearchRequest.ZOOM_TO_SEARCH_POI, cr.getLongitude());
-			double ty = MapUtils.getTileNumberY(SearchRequest.ZOOM_TO_SEARCH_POI, cr.getLatitude());
-			double px = MapUtils.getTileNumberX(SearchRequest.ZOOM_TO_SEARCH_POI, pr.getLongitude());
-			double py = MapUtils.getTileNumberY(SearchRequest.ZOOM_TO_SEARCH_POI, pr.getLatitude());
-			double topLeftX = Math.min(tx, px) - coeff;
-			double topLeftY = Math.min(ty, py) - coeff;
-			double bottomRightX = Math.max(tx, px) + coeff;
-			double bottomRightY = Math.max(ty, py) + coeff;
-			for (int x = (int) topLeftX; x <= bottomRightX; x++) {
-				for (int y = (int) topLeftY; y <= bottomRightY; y++) {
-					long hash = (((long) x) << SearchRequest.ZOOM_TO_SEARCH_POI) + y;
-					if (!zooms.containsKey(hash)) {
-						zooms.put(hash, new LinkedList<Location>());
-					}
-					List<Location> ll = zooms.get(hash);
-					ll.add(pr);
-					ll.add(cr);
-				}
-			}
+		return buildSearchPoiRequest(route, new RouteCorridorIndex(route), radius, poiTypeFilter, resultMatcher);
+	}
 
-		}
-		int sleft = Integer.MAX_VALUE, sright = 0, stop = Integer.MAX_VALUE, sbottom = 0;
-		for (long vl : zooms.keys()) {
-			long x = (vl >> SearchRequest.ZOOM_TO_SEARCH_POI) << (31 - SearchRequest.ZOOM_TO_SEARCH_POI);
-			long y = (vl & ((1 << SearchRequest.ZOOM_TO_SEARCH_POI) - 1)) << (31 - SearchRequest.ZOOM_TO_SEARCH_POI);
-			sleft = (int) Math.min(x, sleft);
-			stop = (int) Math.min(y, stop);
-			sbottom = (int) Math.max(y, sbottom);
-			sright = (int) Math.max(x, sright);
-		}
+	/**
+	 * @param corridorIndex index of the same route, it is not modified by the search and could be shared
+	 */
+	public static SearchRequest<Amenity> buildSearchPoiRequest(List<Location> route, RouteCorridorIndex corridorIndex,
+			double radius, SearchPoiTypeFilter poiTypeFilter, ResultMatcher<Amenity> resultMatcher) {
+		SearchRequest<Amenity> request = new SearchRequest<Amenity>();
+		RouteCorridorTiles corridorTiles = new RouteCorridorTiles(route, radius, SearchRequest.ZOOM_TO_SEARCH_POI);
 		request.radius = radius;
-		request.left = sleft;
+		request.left = corridorTiles.getLeft31();
 		request.zoom = -1;
-		request.right = sright;
-		request.top = stop;
-		request.bottom = sbottom;
-		request.tiles = zooms;
+		request.right = corridorTiles.getRight31();
+		request.top = corridorTiles.getTop31();
+		request.bottom = corridorTiles.getBottom31();
+		request.route = route;
+		request.corridorTiles = corridorTiles;
+		request.corridorIndex = corridorIndex;
 		request.poiTypeFilter = poiTypeFilter;
 		request.resultMatcher = resultMatcher;
 		return request;
@@ -1710,8 +1699,11 @@ public class BinaryMapIndexReader {
 		int limit = -1;
 
 		// search on the path
-		// stores tile of 16 index and pairs (even length always) of points intersecting tile
-		TLongObjectHashMap<List<Location>> tiles = null;
+		List<Location> route = null;
+		// tiles of 16 zoom around the route to skip poi boxes
+		RouteCorridorTiles corridorTiles = null;
+		// route segments to find the nearest one for poi
+		RouteCorridorIndex corridorIndex = null;
 		double radius = -1;
 
 
@@ -1745,12 +1737,6 @@ public class BinaryMapIndexReader {
 		protected SearchRequest() {
 		}
 
-		public long getTileHashOnPath(double lat, double lon) {
-			long x = (int) MapUtils.getTileNumberX(SearchRequest.ZOOM_TO_SEARCH_POI, lon);
-			long y = (int) MapUtils.getTileNumberY(SearchRequest.ZOOM_TO_SEARCH_POI, lat);
-			return (x << SearchRequest.ZOOM_TO_SEARCH_POI) | y;
-		}
-
 		public void setBBoxRadius(double lat, double lon, int radiusMeters) {
 			double dx = MapUtils.getTileNumberX(16, lon);
 			double half16t = MapUtils.getDistance(lat, MapUtils.getLongitudeFromTile(16, ((int) dx) + 0.5), 
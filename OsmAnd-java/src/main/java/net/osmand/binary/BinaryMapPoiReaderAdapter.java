@@ -19,7 +19,6 @@ import gnu.trove.set.hash.TLongHashSet;
 import net.osmand.Collator;
 import net.osmand.CollatorStringMatcher;
 import net.osmand.CollatorStringMatcher.StringMatcherMode;
-import net.osmand.Location;
 import net.osmand.PlatformUtil;
 import net.osmand.binary.BinaryMapIndexReader.SearchRequest;
 import net.osmand.binary.OsmandOdb.OsmAndPoiNameIndex.OsmAndPoiNameIndexData;
@@ -686,26 +685,19 @@ public class BinaryMapPoiReaderAdapter {
 		}
 	}
 
-	private AmenityRoutePoint dist(LatLon l, List<Location> locations, double radius) {
-		float dist = (float) (radius + 0.1);
-		AmenityRoutePoint arp = null;
-		// Special iterations because points stored by pairs!
-		for (int i = 1; i < locations.size(); i += 2) {
-			float d = (float) MapUtils.getOrthogonalDistance(l.getLatitude(), l.getLongitude(), locations.get(i - 1)
-					.getLatitude(), locations.get(i - 1).getLongitude(), locations.get(i).getLatitude(),
-					locations.get(i).getLongitude());
-			if (d < dist) {
-				arp = new Amenity.AmenityRoutePoint();
-				dist = d;
-				arp.deviateDistance = dist;
-				arp.pointA = locations.get(i - 1);
-				arp.pointB = locations.get(i);
-			}
+	private AmenityRoutePoint getRoutePoint(LatLon l, SearchRequest<Amenity> req) {
+		double[] distance = new double[1];
+		int segment = req.corridorIndex.findNearestSegment(l.getLatitude(), l.getLongitude(), req.radius, distance);
+		if (segment == -1) {
+			return null;
 		}
-		if (arp != null && arp.deviateDistance != 0 && arp.pointA != null && arp.pointB != null) {
-			arp.deviationDirectionRight = MapUtils.rightSide(l.getLatitude(), l.getLongitude(),
-					arp.pointA.getLatitude(), arp.pointA.getLongitude(),
-					arp.pointB.getLatitude(), arp.pointB.getLongitude());
+		AmenityRoutePoint arp = new Amenity.AmenityRoutePoint();
+		arp.deviateDistance = (float) distance[0];
+		arp.pointA = req.route.get(segment - 1);
+		arp.pointB = req.route.get(segment);
+		arp.distanceAlongRoute = req.corridorIndex.getDistanceAlongRoute(l.getLatitude(), l.getLongitude(), segment);
+		if (arp.deviateDistance != 0) {
+			arp.deviationDirectionRight = req.corridorIndex.isRightSide(l.getLatitude(), l.getLongitude(), segment);
 		}
 		return arp;
 	}
@@ -745,11 +737,11 @@ public class BinaryMapPoiReaderAdapter {
 
 				if (req.radius > 0) {
 					LatLon loc = am.getLocation();
-					List<Location> locs = req.tiles.get(req.getTileHashOnPath(loc.getLatitude(), loc.getLongitude()));
-					if (locs == null) {
+					if (!req.corridorTiles.containsPoint31(MapUtils.get31TileNumberX(loc.getLongitude()),
+							MapUtils.get31TileNumberY(loc.getLatitude()))) {
 						return null;
 					}
-					AmenityRoutePoint arp = dist(am.getLocation(), locs, req.radius);
+					AmenityRoutePoint arp = getRoutePoint(loc, req);
 					if (arp == null) {
 						return null;
 					} else {
@@ -977,10 +969,8 @@ public class BinaryMapPoiReaderAdapter {
 				int x = dx + (px << (zoom - pzoom));
 				int y = dy + (py << (zoom - pzoom));
 				boolean read = true;
-				if (req.tiles != null) {
-					long zx = x << (SearchRequest.ZOOM_TO_SEARCH_POI - zoom);
-					long zy = y << (SearchRequest.ZOOM_TO_SEARCH_POI - zoom);
-					read = req.tiles.contains((zx << SearchRequest.ZOOM_TO_SEARCH_POI) + zy);
+				if (req.corridorTiles != null) {
+					read = req.corridorTiles.intersectsTile(zoom, x, y);
 				}
 				int offset = readInt();
 				if (read) {
@@ -23,12 +23,21 @@ import org.apache.commons.logging.Log;
 import java.io.IOException;
 import java.text.Collator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class GeocodingUtilities {
 
@@ -46,6 +55,9 @@ public class GeocodingUtilities {
 	public static final float THRESHOLD_MULTIPLIER_SKIP_BUILDINGS_AFTER = 1.5f;
 	public static final float DISTANCE_BUILDING_PROXIMITY = 100;
 
+	private static final int BATCH_MIN_CHUNK_SIZE = 16;
+	private static final int BATCH_CHUNKS_PER_WORKER = 8;
+
 
 	public static final Comparator<GeocodingResult> DISTANCE_COMPARATOR = new Comparator<GeocodingResult>() {
 
@@ -141,7 +153,11 @@ public class GeocodingUtilities {
 		List<RouteSegmentPoint> listR = new ArrayList<BinaryRoutePlanner.RouteSegmentPoint>();
 		// we allow duplications to search in both files for boundary regions 
 		// here we use same code as for normal routing, so we take into account current profile and sort by priority & distance
-		rp.findRouteSegment(lat, lon, ctx, listR, false, true);
+		// roads further than stop radius are not used, distance is divided by road priority
+		// so only roads closer than radius multiplied by the max priority are looked up (all roads if it is unknown)
+		float maxPriority = ctx.getRouter().getMaxDestinationPriority();
+		double searchRadius = maxPriority > 0 ? STOP_SEARCHING_STREET_WITHOUT_MULTIPLIER_RADIUS * maxPriority : 0;
+		rp.findRouteSegment(lat, lon, ctx, listR, false, true, searchRadius);
 		double distSquare = 0;
 		Map<String, List<RouteRegion>> streetNames = new HashMap<>();
 		for (RouteSegmentPoint p : listR) {
@@ -220,6 +236,11 @@ public class GeocodingUtilities {
 
 	public List<GeocodingResult> justifyReverseGeocodingSearch(final GeocodingResult road, BinaryMapIndexReader reader,
 			double knownMinBuildingDistance, final ResultMatcher<GeocodingResult> result) throws IOException {
+		return justifyReverseGeocodingSearch(road, reader, knownMinBuildingDistance, result, null);
+	}
+
+	private List<GeocodingResult> justifyReverseGeocodingSearch(final GeocodingResult road, BinaryMapIndexReader reader,
+			double knownMinBuildingDistance, final ResultMatcher<GeocodingResult> result, GeocodingCache cache) throws IOException {
 		// test address index search
 		final List<GeocodingResult> streetsList = new ArrayList<GeocodingResult>();
 		boolean addCommonWords = false;
@@ -230,7 +251,21 @@ public class GeocodingUtilities {
 		}
 		final boolean addCommonWordsFinal = addCommonWords;
 		final List<String> streetNamesUsedFinal = streetNamesUsed;
-		if (streetNamesUsedFinal.size() > 0) {
+		List<Street> cachedStreets = cache == null ? null : cache.getStreets(reader, road);
+		if (cachedStreets != null) {
+			for (Street street : cachedStreets) {
+				double d = MapUtils.getDistance(street.getLocation(), road.searchPoint.getLatitude(),
+						road.searchPoint.getLongitude());
+				if (d < DISTANCE_STREET_NAME_PROXIMITY_BY_NAME) {
+					GeocodingResult rs = new GeocodingResult(road);
+					rs.street = street;
+					rs.connectionPoint = street.getLocation();
+					rs.city = street.getCity();
+					streetsList.add(rs);
+				}
+			}
+		} else if (streetNamesUsedFinal.size() > 0) {
+			final List<Street> foundStreets = cache == null ? null : new ArrayList<Street>();
 			log.info("Search street by name " + road.streetName + " " + streetNamesUsedFinal);
 			String mainWord = "";
 			for (int i = 0; i < streetNamesUsedFinal.size(); i++) {
@@ -245,6 +280,9 @@ public class GeocodingUtilities {
 						public boolean publish(MapObject object) {
 							if (object instanceof Street
 									&& prepareStreetName(object.getName(), addCommonWordsFinal).equals(streetNamesUsedFinal)) {
+								if (foundStreets != null) {
+									foundStreets.add((Street) object);
+								}
 								double d = MapUtils.getDistance(object.getLocation(), road.searchPoint.getLatitude(),
 										road.searchPoint.getLongitude());
 								// double check to suport old format
@@ -267,8 +305,18 @@ public class GeocodingUtilities {
 							return result != null && result.isCancelled();
 						}
 					}, mainWord, StringMatcherMode.CHECK_EQUALS_FROM_SPACE);
-			req.setBBoxRadius(road.getLocation().getLatitude(), road.getLocation().getLongitude(), DISTANCE_STREET_NAME_PROXIMITY_BY_NAME);
+			if (cache != null) {
+				// search around cache cell, so found streets could be reused by all points of the cell
+				LatLon center = cache.getCellCenter(road);
+				req.setBBoxRadius(center.getLatitude(), center.getLongitude(),
+						DISTANCE_STREET_NAME_PROXIMITY_BY_NAME + cache.getCellRadius(road));
+			} else {
+				req.setBBoxRadius(road.getLocation().getLatitude(), road.getLocation().getLongitude(), DISTANCE_STREET_NAME_PROXIMITY_BY_NAME);
+			}
 			reader.searchAddressDataByName(req);
+			if (cache != null && !req.isCancelled()) {
+				cache.putStreets(reader, road, foundStreets);
+			}
 		}
 
 		final List<GeocodingResult> res = new ArrayList<GeocodingResult>();
@@ -286,7 +334,7 @@ public class GeocodingUtilities {
 					continue;
 				}
 				street.connectionPoint = road.connectionPoint;
-				final List<GeocodingResult> streetBuildings = loadStreetBuildings(road, reader, street);
+				final List<GeocodingResult> streetBuildings = loadStreetBuildings(road, reader, street, cache);
 				Collections.sort(streetBuildings, DISTANCE_COMPARATOR);
 				if (streetBuildings.size() > 0) {
 					Iterator<GeocodingResult> it = streetBuildings.iterator();
@@ -357,10 +405,12 @@ public class GeocodingUtilities {
 	}
 
 	private List<GeocodingResult> loadStreetBuildings(final GeocodingResult road, BinaryMapIndexReader reader,
-			GeocodingResult street) throws IOException {
+			GeocodingResult street, GeocodingCache cache) throws IOException {
 		final List<GeocodingResult> streetBuildings = new ArrayList<GeocodingResult>();
-		reader.preloadBuildings(street.street, null);
-		log.info("Preload buildings " + street.street.getName() + " " + street.city.getName() + " " + street.street.getId());
+		if (cache == null || cache.preloadedStreets.add(street.street)) {
+			reader.preloadBuildings(street.street, null);
+			log.info("Preload buildings " + street.street.getName() + " " + street.city.getName() + " " + street.street.getId());
+		}
 		for (Building b : street.street.getBuildings()) {
 			if (b.getLatLon2() != null) {
 				double slat = b.getLocation().getLatitude();
@@ -394,6 +444,11 @@ public class GeocodingUtilities {
 	}
 
 	public List<GeocodingResult> sortGeocodingResults(List<BinaryMapIndexReader> list, List<GeocodingResult> res) throws IOException {
+		return sortGeocodingResults(list, res, null);
+	}
+
+	private List<GeocodingResult> sortGeocodingResults(List<BinaryMapIndexReader> list, List<GeocodingResult> res,
+			GeocodingCache cache) throws IOException {
 		List<GeocodingResult> complete = new ArrayList<GeocodingUtilities.GeocodingResult>();
 		double minBuildingDistance = 0;
 		for (GeocodingResult r : res) {
@@ -411,7 +466,7 @@ public class GeocodingUtilities {
 				}
 			}
 			if (reader != null) {
-				List<GeocodingResult> justified = justifyReverseGeocodingSearch(r, reader, minBuildingDistance, null);
+				List<GeocodingResult> justified = justifyReverseGeocodingSearch(r, reader, minBuildingDistance, null, cache);
 				if (!justified.isEmpty()) {
 					double md = justified.get(0).getDistance();
 					if (minBuildingDistance == 0) {
@@ -444,4 +499,163 @@ public class GeocodingUtilities {
 		return complete;
 
 	}
+
+	/**
+	 * Reverse geocoding of many points. Points are processed in tile order (so consecutive points reuse loaded
+	 * route tiles and found streets / buildings) by one thread per worker, results are returned in input order.
+	 * Every worker must have its own routing context and readers as they are not thread safe.
+	 */
+	public List<List<GeocodingResult>> reverseGeocodingSearch(final List<GeocodingWorker> workers, List<LatLon> points,
+			final boolean allowEmptyNames) throws IOException, InterruptedException {
+		final int size = points.size();
+		final List<List<GeocodingResult>> results = new ArrayList<List<GeocodingResult>>(Collections.nCopies(size,
+				(List<GeocodingResult>) null));
+		if (size == 0 || workers.isEmpty()) {
+			return results;
+		}
+		final LatLon[] sortedPoints = new LatLon[size];
+		final int[] sortedIndexes = new int[size];
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++) {
+			LatLon l = points.get(i);
+			long code = MapUtils.interleaveBits(MapUtils.get31TileNumberX(l.getLongitude()),
+					MapUtils.get31TileNumberY(l.getLatitude()));
+			// morton code of z16 tile (32 bits) + index of point
+			keys[i] = ((code >>> 30) << 31) | i;
+		}
+		Arrays.sort(keys);
+		for (int i = 0; i < size; i++) {
+			sortedIndexes[i] = (int) (keys[i] & Integer.MAX_VALUE);
+			sortedPoints[i] = points.get(sortedIndexes[i]);
+		}
+		final int chunkSize = Math.max(BATCH_MIN_CHUNK_SIZE, size / (workers.size() * BATCH_CHUNKS_PER_WORKER));
+		final AtomicInteger nextChunk = new AtomicInteger();
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (final GeocodingWorker worker : workers) {
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					int start;
+					while ((start = nextChunk.getAndAdd(chunkSize)) < size) {
+						int end = Math.min(size, start + chunkSize);
+						for (int i = start; i < end; i++) {
+							results.set(sortedIndexes[i], worker.search(sortedPoints[i], allowEmptyNames));
+						}
+					}
+					return null;
+				}
+			});
+		}
+		if (tasks.size() == 1) {
+			try {
+				tasks.get(0).call();
+			} catch (IOException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			return results;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+		try {
+			for (Future<Void> f : executor.invokeAll(tasks)) {
+				try {
+					f.get();
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) {
+						throw (IOException) e.getCause();
+					}
+					throw new RuntimeException(e.getCause());
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return results;
+	}
+
+	/**
+	 * Context of one thread of batch reverse geocoding
+	 */
+	public static class GeocodingWorker {
+		private final RoutingContext ctx;
+		private final List<BinaryMapIndexReader> readers;
+		private final GeocodingUtilities utilities = new GeocodingUtilities();
+		private final GeocodingCache cache = new GeocodingCache();
+
+		/**
+		 * @param readers readers for address lookup, if null results are not justified by address index
+		 */
+		public GeocodingWorker(RoutingContext ctx, List<BinaryMapIndexReader> readers) {
+			this.ctx = ctx;
+			this.readers = readers;
+		}
+
+		public List<GeocodingResult> search(LatLon point, boolean allowEmptyNames) throws IOException {
+			List<GeocodingResult> res = utilities.reverseGeocodingSearch(ctx, point.getLatitude(), point.getLongitude(),
+					allowEmptyNames);
+			if (readers != null) {
+				res = utilities.sortGeocodingResults(readers, res, cache);
+			}
+			return res;
+		}
+	}
+
+	private static class GeocodingCache {
+		// cell where found streets are shared
+		private static final int CELL_ZOOM = 10;
+		private static final int MAX_CACHED_STREET_REQUESTS = 1000;
+
+		private final Map<BinaryMapIndexReader, Map<String, List<Street>>> streets =
+				new HashMap<BinaryMapIndexReader, Map<String, List<Street>>>();
+		private final Set<Street> preloadedStreets = Collections.newSetFromMap(new IdentityHashMap<Street, Boolean>());
+		private int cachedRequests;
+
+		private static int cellX(GeocodingResult road) {
+			return (int) MapUtils.getTileNumberX(CELL_ZOOM, road.getLocation().getLongitude());
+		}
+
+		private static int cellY(GeocodingResult road) {
+			return (int) MapUtils.getTileNumberY(CELL_ZOOM, road.getLocation().getLatitude());
+		}
+
+		private String key(GeocodingResult road) {
+			return cellX(road) + "_" + cellY(road) + "_" + road.streetName;
+		}
+
+		LatLon getCellCenter(GeocodingResult road) {
+			return new LatLon(MapUtils.getLatitudeFromTile(CELL_ZOOM, cellY(road) + 0.5),
+					MapUtils.getLongitudeFromTile(CELL_ZOOM, cellX(road) + 0.5));
+		}
+
+		int getCellRadius(GeocodingResult road) {
+			LatLon center = getCellCenter(road);
+			return (int) Math.ceil(MapUtils.getDistance(center.getLatitude(), center.getLongitude(),
+					MapUtils.getLatitudeFromTile(CELL_ZOOM, cellY(road)),
+					MapUtils.getLongitudeFromTile(CELL_ZOOM, cellX(road))));
+		}
+
+		List<Street> getStreets(BinaryMapIndexReader reader, GeocodingResult road) {
+			Map<String, List<Street>> m = streets.get(reader);
+			return m == null ? null : m.get(key(road));
+		}
+
+		void putStreets(BinaryMapIndexReader reader, GeocodingResult road, List<Street> found) {
+			Map<String, List<Street>> m = streets.get(reader);
+			if (m == null) {
+				m = new HashMap<String, List<Street>>();
+				streets.put(reader, m);
+			}
+			if (cachedRequests >= MAX_CACHED_STREET_REQUESTS) {
+				// points are sorted by tile, so previous cells are not needed anymore
+				for (Map<String, List<Street>> c : streets.values()) {
+					c.clear();
+				}
+				preloadedStreets.clear();
+				cachedRequests = 0;
+			}
+			m.put(key(road), found);
+			cachedRequests++;
+		}
+	}
 }
@@ -0,0 +1,439 @@
+package net.osmand.binary;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import gnu.trove.iterator.TIntObjectIterator;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import net.osmand.binary.BinaryMapRouteReaderAdapter.RouteRegion;
+
+/**
+ * Compact storage of route data objects of one routing tile (subregion).
+ * Instead of an object with 8-10 arrays per road, all roads are stored in a few contiguous buffers:
+ * coordinates, types and point types in one int buffer (heap or direct), restrictions in long arrays,
+ * heights in a float array and names as references to a shared string table. {@link Accessor} is a flyweight
+ * over one road with the same methods the router uses, {@link #toRouteDataObject(int)} restores an object
+ * equal to the packed one (null and empty arrays are kept as they were). Point names are kept as is, they are rare.
+ */
+public class PackedRouteDataObjects {
+
+	private static final int NO_POINT_TYPES = -1;
+
+	private static final byte NULL_TYPES = 1;
+	private static final byte NULL_RESTRICTIONS = 1 << 1;
+	private static final byte NULL_RESTRICTIONS_VIA = 1 << 2;
+	private static final byte NULL_NAMES = 1 << 3;
+	private static final byte NULL_NAME_IDS = 1 << 4;
+	private static final byte NULL_HEIGHTS = 1 << 5;
+
+	private final int size;
+	private final RouteRegion[] regions;
+	private final long[] ids;
+	private final byte[] nulls;
+	// ints layout per road: [x0, y0, x1, y1, ...] from pointsStart, [types] from typesStart,
+	// [point types offsets (pointTypesLength + 1)][point types] from pointTypesStart, [name ids] from nameIdsStart.
+	// Offset of a null point types entry is stored inverted (~offset), so null and empty entries are different
+	private final IntBuffer ints;
+	private final int[] pointsStart;
+	private final int[] typesStart;
+	private final int[] pointTypesStart;
+	private final int[] pointTypesLength;
+	private final int[] nameIdsStart;
+	private final int[] restrictionsStart;
+	private final long[] restrictions;
+	private final int[] restrictionsViaStart;
+	private final long[] restrictionsVia;
+	private final int[] namesStart;
+	private final int[] nameTypes;
+	private final int[] nameValues;
+	private final String[] strings;
+	private final int[] heightsStart;
+	private final float[] heights;
+	private final float[] heightByCurrentLocation;
+	private final TIntObjectHashMap<String[][]> pointNames;
+	private final TIntObjectHashMap<int[][]> pointNameTypes;
+
+	public PackedRouteDataObjects(List<RouteDataObject> objects, boolean direct) {
+		size = objects.size();
+		regions = new RouteRegion[size];
+		ids = new long[size];
+		nulls = new byte[size];
+		pointsStart = new int[size + 1];
+		typesStart = new int[size];
+		pointTypesStart = new int[size];
+		pointTypesLength = new int[size];
+		nameIdsStart = new int[size];
+		restrictionsStart = new int[size + 1];
+		restrictionsViaStart = new int[size + 1];
+		namesStart = new int[size + 1];
+		heightsStart = new int[size + 1];
+		heightByCurrentLocation = new float[size];
+		pointNames = new TIntObjectHashMap<String[][]>();
+		pointNameTypes = new TIntObjectHashMap<int[][]>();
+
+		int intsSize = 0, restrictionsSize = 0, viaSize = 0, namesSize = 0, heightsSize = 0;
+		for (RouteDataObject o : objects) {
+			intsSize += 2 * o.getPointsLength() + length(o.types) + length(o.nameIds);
+			if (o.pointTypes != null) {
+				intsSize += o.pointTypes.length + 1;
+				for (int[] pt : o.pointTypes) {
+					intsSize += length(pt);
+				}
+			}
+			restrictionsSize += length(o.restrictions);
+			viaSize += length(o.restrictionsVia);
+			namesSize += o.names == null ? 0 : o.names.size();
+			heightsSize += o.heightDistanceArray == null ? 0 : o.heightDistanceArray.length;
+		}
+		if (direct) {
+			ints = ByteBuffer.allocateDirect(intsSize * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+		} else {
+			ints = IntBuffer.allocate(intsSize);
+		}
+		restrictions = new long[restrictionsSize];
+		restrictionsVia = new long[viaSize];
+		nameTypes = new int[namesSize];
+		nameValues = new int[namesSize];
+		heights = new float[heightsSize];
+		Map<String, Integer> stringIndexes = new HashMap<String, Integer>();
+
+		int pos = 0, rpos = 0, vpos = 0, npos = 0, hpos = 0;
+		for (int i = 0; i < size; i++) {
+			RouteDataObject o = objects.get(i);
+			regions[i] = o.region;
+			ids[i] = o.id;
+			byte nl = 0;
+			pointsStart[i] = pos;
+			for (int k = 0; k < o.getPointsLength(); k++) {
+				ints.put(pos++, o.pointsX[k]);
+				ints.put(pos++, o.pointsY[k]);
+			}
+			typesStart[i] = pos;
+			if (o.types == null) {
+				nl |= NULL_TYPES;
+			}
+			for (int k = 0; k < length(o.types); k++) {
+				ints.put(pos++, o.types[k]);
+			}
+			if (o.pointTypes != null) {
+				pointTypesStart[i] = pos;
+				int pts = o.pointTypes.length;
+				pointTypesLength[i] = pts;
+				int tpos = pos + pts + 1;
+				for (int k = 0; k < pts; k++) {
+					int[] pt = o.pointTypes[k];
+					ints.put(pos + k, pt == null ? ~tpos : tpos);
+					for (int t = 0; t < length(pt); t++) {
+						ints.put(tpos++, pt[t]);
+					}
+				}
+				ints.put(pos + pts, tpos);
+				pos = tpos;
+			} else {
+				pointTypesStart[i] = pos;
+				pointTypesLength[i] = NO_POINT_TYPES;
+			}
+			nameIdsStart[i] = pos;
+			if (o.nameIds == null) {
+				nl |= NULL_NAME_IDS;
+			}
+			for (int k = 0; k < length(o.nameIds); k++) {
+				ints.put(pos++, o.nameIds[k]);
+			}
+			restrictionsStart[i] = rpos;
+			if (o.restrictions == null) {
+				nl |= NULL_RESTRICTIONS;
+			}
+			for (int k = 0; k < length(o.restrictions); k++) {
+				restrictions[rpos++] = o.restrictions[k];
+			}
+			restrictionsViaStart[i] = vpos;
+			if (o.restrictionsVia == null) {
+				nl |= NULL_RESTRICTIONS_VIA;
+			}
+			for (int k = 0; k < length(o.restrictionsVia); k++) {
+				restrictionsVia[vpos++] = o.restrictionsVia[k];
+			}
+			namesStart[i] = npos;
+			if (o.names == null) {
+				nl |= NULL_NAMES;
+			} else {
+				TIntObjectIterator<String> it = o.names.iterator();
+				while (it.hasNext()) {
+					it.advance();
+					Integer ind = stringIndexes.get(it.value());
+					if (ind == null) {
+						ind = stringIndexes.size();
+						stringIndexes.put(it.value(), ind);
+					}
+					nameTypes[npos] = it.key();
+					nameValues[npos] = ind;
+					npos++;
+				}
+			}
+			heightsStart[i] = hpos;
+			if (o.heightDistanceArray == null) {
+				nl |= NULL_HEIGHTS;
+			} else {
+				System.arraycopy(o.heightDistanceArray, 0, heights, hpos, o.heightDistanceArray.length);
+				hpos += o.heightDistanceArray.length;
+			}
+			heightByCurrentLocation[i] = o.heightByCurrentLocation;
+			if (o.pointNames != null || o.pointNameTypes != null) {
+				pointNames.put(i, o.pointNames);
+				pointNameTypes.put(i, o.pointNameTypes);
+			}
+			nulls[i] = nl;
+		}
+		pointsStart[size] = pos;
+		restrictionsStart[size] = rpos;
+		restrictionsViaStart[size] = vpos;
+		namesStart[size] = npos;
+		heightsStart[size] = hpos;
+		strings = new String[stringIndexes.size()];
+		for (Map.Entry<String, Integer> e : stringIndexes.entrySet()) {
+			strings[e.getValue()] = e.getKey();
+		}
+	}
+
+	private static int length(int[] a) {
+		return a == null ? 0 : a.length;
+	}
+
+	private static int length(long[] a) {
+		return a == null ? 0 : a.length;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isDirect() {
+		return ints.isDirect();
+	}
+
+	/**
+	 * Estimated memory in bytes (same meaning as RoutingContext estimated size of route data objects)
+	 */
+	public int getEstimatedSize() {
+		int sz = 24 * 4 + ints.capacity() * 4;
+		sz += size * (8 + 1 + 4 * 10);
+		sz += (restrictions.length + restrictionsVia.length) * 8 + (nameTypes.length + nameValues.length) * 4;
+		sz += heights.length * 4;
+		for (String s : strings) {
+			sz += 12 + (s == null ? 0 : s.length() * 2);
+		}
+		return sz;
+	}
+
+	public Accessor accessor() {
+		return new Accessor();
+	}
+
+	private boolean isNull(int index, byte flag) {
+		return (nulls[index] & flag) != 0;
+	}
+
+	public RouteDataObject toRouteDataObject(int index) {
+		RouteDataObject o = new RouteDataObject(regions[index]);
+		o.id = ids[index];
+		int pts = (typesStart[index] - pointsStart[index]) / 2;
+		o.pointsX = new int[pts];
+		o.pointsY = new int[pts];
+		for (int k = 0; k < pts; k++) {
+			o.pointsX[k] = ints.get(pointsStart[index] + 2 * k);
+			o.pointsY[k] = ints.get(pointsStart[index] + 2 * k + 1);
+		}
+		if (!isNull(index, NULL_TYPES)) {
+			o.types = readInts(typesStart[index], pointTypesStart[index]);
+		}
+		if (pointTypesLength[index] != NO_POINT_TYPES) {
+			o.pointTypes = new int[pointTypesLength[index]][];
+			for (int k = 0; k < o.pointTypes.length; k++) {
+				o.pointTypes[k] = readPointTypes(index, k);
+			}
+		}
+		if (!isNull(index, NULL_NAME_IDS)) {
+			o.nameIds = readInts(nameIdsStart[index], pointsStart[index + 1]);
+		}
+		if (!isNull(index, NULL_RESTRICTIONS)) {
+			int rs = restrictionsStart[index], re = restrictionsStart[index + 1];
+			o.restrictions = new long[re - rs];
+			System.arraycopy(restrictions, rs, o.restrictions, 0, re - rs);
+		}
+		if (!isNull(index, NULL_RESTRICTIONS_VIA)) {
+			int vs = restrictionsViaStart[index], ve = restrictionsViaStart[index + 1];
+			o.restrictionsVia = new long[ve - vs];
+			System.arraycopy(restrictionsVia, vs, o.restrictionsVia, 0, ve - vs);
+		}
+		if (!isNull(index, NULL_NAMES)) {
+			o.names = new TIntObjectHashMap<String>();
+			for (int k = namesStart[index]; k < namesStart[index + 1]; k++) {
+				o.names.put(nameTypes[k], strings[nameValues[k]]);
+			}
+		}
+		if (!isNull(index, NULL_HEIGHTS)) {
+			int hs = heightsStart[index], he = heightsStart[index + 1];
+			o.heightDistanceArray = new float[he - hs];
+			System.arraycopy(heights, hs, o.heightDistanceArray, 0, he - hs);
+		}
+		o.heightByCurrentLocation = heightByCurrentLocation[index];
+		o.pointNames = pointNames.get(index);
+		o.pointNameTypes = pointNameTypes.get(index);
+		return o;
+	}
+
+	private int[] readInts(int s, int e) {
+		int[] res = new int[e - s];
+		for (int k = s; k < e; k++) {
+			res[k - s] = ints.get(k);
+		}
+		return res;
+	}
+
+	private int[] readPointTypes(int index, int point) {
+		int offsets = pointTypesStart[index];
+		int s = ints.get(offsets + point);
+		if (s < 0) {
+			return null;
+		}
+		int e = ints.get(offsets + point + 1);
+		return readInts(s, e < 0 ? ~e : e);
+	}
+
+	/**
+	 * Flyweight view of one packed road, could be moved to another road with {@link #moveTo(int)}
+	 */
+	public class Accessor {
+		private int index;
+
+		public Accessor moveTo(int index) {
+			this.index = index;
+			return this;
+		}
+
+		public int getIndex() {
+			return index;
+		}
+
+		public long getId() {
+			return ids[index];
+		}
+
+		public RouteRegion getRegion() {
+			return regions[index];
+		}
+
+		public int getPointsLength() {
+			return (typesStart[index] - pointsStart[index]) / 2;
+		}
+
+		public int getPoint31XTile(int i) {
+			return ints.get(pointsStart[index] + 2 * i);
+		}
+
+		public int getPoint31YTile(int i) {
+			return ints.get(pointsStart[index] + 2 * i + 1);
+		}
+
+		public int getTypesLength() {
+			return pointTypesStart[index] - typesStart[index];
+		}
+
+		public int getType(int i) {
+			return ints.get(typesStart[index] + i);
+		}
+
+		/**
+		 * Allocates new array, use {@link #getType(int)} in loops
+		 */
+		public int[] getTypes() {
+			return isNull(index, NULL_TYPES) ? null : readInts(typesStart[index], pointTypesStart[index]);
+		}
+
+		public boolean containsType(int type) {
+			int len = getTypesLength();
+			for (int k = 0; k < len; k++) {
+				if (getType(k) == type) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public int getOneway() {
+			int len = getTypesLength();
+			for (int k = 0; k < len; k++) {
+				int oneway = RouteDataObject.getOneway(regions[index], getType(k));
+				if (oneway != 0) {
+					return oneway;
+				}
+			}
+			return 0;
+		}
+
+		public boolean hasPointTypes() {
+			return pointTypesLength[index] != NO_POINT_TYPES;
+		}
+
+		public boolean hasPointType(int point, int type) {
+			int[] pt = getPointTypes(point);
+			for (int k = 0; pt != null && k < pt.length; k++) {
+				if (pt[k] == type) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return types of the point, null if the point has no types (point types array could be shorter than points)
+		 */
+		public int[] getPointTypes(int point) {
+			if (point >= pointTypesLength[index]) {
+				return null;
+			}
+			return readPointTypes(index, point);
+		}
+
+		public int getRestrictionLength() {
+			return restrictionsStart[index + 1] - restrictionsStart[index];
+		}
+
+		public int getRestrictionType(int i) {
+			return (int) (restrictions[restrictionsStart[index] + i] & RouteDataObject.RESTRICTION_MASK);
+		}
+
+		public long getRestrictionId(int i) {
+			return restrictions[restrictionsStart[index] + i] >> RouteDataObject.RESTRICTION_SHIFT;
+		}
+
+		public long getRestrictionVia(int i) {
+			if (restrictionsViaStart[index + 1] - restrictionsViaStart[index] > i) {
+				return restrictionsVia[restrictionsViaStart[index] + i];
+			}
+			return 0;
+		}
+
+		public String getName() {
+			return getNameByType(regions[index].nameTypeRule);
+		}
+
+		public String getNameByType(int nameType) {
+			for (int k = namesStart[index]; k < namesStart[index + 1]; k++) {
+				if (nameTypes[k] == nameType) {
+					return strings[nameValues[k]];
+				}
+			}
+			return null;
+		}
+
+		public RouteDataObject toRouteDataObject() {
+			return PackedRouteDataObjects.this.toRouteDataObject(index);
+		}
+	}
+}
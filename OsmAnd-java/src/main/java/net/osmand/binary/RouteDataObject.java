@@ -798,16 +798,27 @@ public class RouteDataObject {
 	public int getOneway() {
 		int sz = types.length;
 		for (int i = 0; i < sz; i++) {
-			RouteTypeRule r = region.quickGetEncodingRule(types[i]);
-			if (r.onewayDirection() != 0) {
-				return r.onewayDirection();
-			} else if (r.roundabout()) {
-				return 1;
+			int oneway = getOneway(region, types[i]);
+			if (oneway != 0) {
+				return oneway;
 			}
 		}
 		return 0;
 	}
 
+	/**
+	 * Oneway direction of a single type, roundabouts are oneway forward (shared with packed roads)
+	 */
+	static int getOneway(RouteRegion region, int type) {
+		RouteTypeRule r = region.quickGetEncodingRule(type);
+		if (r.onewayDirection() != 0) {
+			return r.onewayDirection();
+		} else if (r.roundabout()) {
+			return 1;
+		}
+		return 0;
+	}
+
 	public String getRoute() {
 		int sz = types.length;
 		for (int i = 0; i < sz; i++) {
@@ -85,6 +85,8 @@ public class Amenity extends MapObject {
 		public boolean deviationDirectionRight;
 		public Location pointA;
 		public Location pointB;
+		// distance from the start of the route to the projection on the route
+		public double distanceAlongRoute;
 	}
 
 	public String getMapIconName() {
@@ -0,0 +1,240 @@
+package net.osmand.data;
+
+import java.util.Arrays;
+
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * Uniform grid of placed labels to check collisions of new labels without allocations.
+ * Label is a rectangle rotated around its center, it is put to the cells of the bbox of the rectangle
+ * and of the rotated rectangle (intersection of not rotated rectangles is used for small rotations).
+ * Rectangles out of the grid bounds are put to the border cells.
+ */
+public class LabelGrid {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final float cellSize;
+	private float left;
+	private float top;
+	private int columns;
+	private int rows;
+	// first entry of the cell, entries of the cell are linked by next
+	private int[] cells = new int[0];
+
+	private int[] entryLabel = new int[INITIAL_CAPACITY];
+	private int[] entryNext = new int[INITIAL_CAPACITY];
+	private int entries;
+
+	private float[] lefts = new float[INITIAL_CAPACITY];
+	private float[] tops = new float[INITIAL_CAPACITY];
+	private float[] rights = new float[INITIAL_CAPACITY];
+	private float[] bottoms = new float[INITIAL_CAPACITY];
+	private float[] rotates = new float[INITIAL_CAPACITY];
+	// query number when the label was found last time (to return label once for all its cells)
+	private int[] visited = new int[INITIAL_CAPACITY];
+	private int labels;
+	private int query;
+
+	public LabelGrid(float cellSize) {
+		this.cellSize = cellSize;
+	}
+
+	/**
+	 * Removes all labels and sets the bounds of the grid
+	 */
+	public void reset(float left, float top, float right, float bottom) {
+		this.left = left;
+		this.top = top;
+		columns = Math.max(1, (int) Math.ceil((right - left) / cellSize));
+		rows = Math.max(1, (int) Math.ceil((bottom - top) / cellSize));
+		if (cells.length < columns * rows) {
+			cells = new int[columns * rows];
+		}
+		Arrays.fill(cells, 0, columns * rows, -1);
+		entries = 0;
+		labels = 0;
+	}
+
+	public int size() {
+		return labels;
+	}
+
+	public float getLeft(int label) {
+		return lefts[label];
+	}
+
+	public float getTop(int label) {
+		return tops[label];
+	}
+
+	public float getRight(int label) {
+		return rights[label];
+	}
+
+	public float getBottom(int label) {
+		return bottoms[label];
+	}
+
+	public float getRotate(int label) {
+		return rotates[label];
+	}
+
+	/**
+	 * @return index of the label, labels are indexed in order of insertion
+	 */
+	public int insert(float left, float top, float right, float bottom, float rotate) {
+		if (labels == lefts.length) {
+			int capacity = labels * 2;
+			lefts = Arrays.copyOf(lefts, capacity);
+			tops = Arrays.copyOf(tops, capacity);
+			rights = Arrays.copyOf(rights, capacity);
+			bottoms = Arrays.copyOf(bottoms, capacity);
+			rotates = Arrays.copyOf(rotates, capacity);
+			visited = Arrays.copyOf(visited, capacity);
+		}
+		int label = labels++;
+		lefts[label] = left;
+		tops[label] = top;
+		rights[label] = right;
+		bottoms[label] = bottom;
+		rotates[label] = rotate;
+		visited[label] = query;
+		float extX = getRotatedHalfWidth(left, top, right, bottom, rotate);
+		float extY = getRotatedHalfHeight(left, top, right, bottom, rotate);
+		float cx = (left + right) / 2;
+		float cy = (top + bottom) / 2;
+		int fromX = getColumn(cx - extX);
+		int toX = getColumn(cx + extX);
+		int fromY = getRow(cy - extY);
+		int toY = getRow(cy + extY);
+		for (int y = fromY; y <= toY; y++) {
+			for (int x = fromX; x <= toX; x++) {
+				if (entries == entryLabel.length) {
+					entryLabel = Arrays.copyOf(entryLabel, entries * 2);
+					entryNext = Arrays.copyOf(entryNext, entries * 2);
+				}
+				int cell = y * columns + x;
+				entryLabel[entries] = label;
+				entryNext[entries] = cells[cell];
+				cells[cell] = entries++;
+			}
+		}
+		return label;
+	}
+
+	/**
+	 * Finds labels which bbox intersects bbox of the rectangle (see class description), each label is returned once
+	 *
+	 * @param result cleared and filled with indexes of the labels
+	 */
+	public void query(float left, float top, float right, float bottom, float rotate, TIntArrayList result) {
+		result.resetQuick();
+		if (++query == 0) {
+			Arrays.fill(visited, 0, labels, -1);
+			query = 1;
+		}
+		float extX = getRotatedHalfWidth(left, top, right, bottom, rotate);
+		float extY = getRotatedHalfHeight(left, top, right, bottom, rotate);
+		float cx = (left + right) / 2;
+		float cy = (top + bottom) / 2;
+		int fromX = getColumn(cx - extX);
+		int toX = getColumn(cx + extX);
+		int fromY = getRow(cy - extY);
+		int toY = getRow(cy + extY);
+		for (int y = fromY; y <= toY; y++) {
+			for (int x = fromX; x <= toX; x++) {
+				for (int e = cells[y * columns + x]; e != -1; e = entryNext[e]) {
+					int label = entryLabel[e];
+					if (visited[label] != query) {
+						visited[label] = query;
+						result.add(label);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if the rotated rectangle intersects the label
+	 * (same estimation as {@link #intersects(float, float, float, float, float, float, float, float, float, float)})
+	 */
+	public boolean intersects(int label, float left, float top, float right, float bottom, float rotate) {
+		return intersects(left, top, right, bottom, rotate,
+				lefts[label], tops[label], rights[label], bottoms[label], rotates[label]);
+	}
+
+	/**
+	 * Estimates intersection of rectangles rotated around their centers. Rectangles with small rotation are
+	 * compared as not rotated, rectangles with close or orthogonal directions are compared in the system
+	 * of the s rectangle.
+	 */
+	public static boolean intersects(float tLeft, float tTop, float tRight, float tBottom, float tRot,
+	                                 float sLeft, float sTop, float sRight, float sBottom, float sRot) {
+		if (Math.abs(tRot) < Math.PI / 15 && Math.abs(sRot) < Math.PI / 15) {
+			return intersectsRect(tLeft, tTop, tRight, tBottom, sLeft, sTop, sRight, sBottom);
+		}
+		double tCenterX = (tLeft + tRight) / 2d;
+		double tCenterY = (tTop + tBottom) / 2d;
+		double sCenterX = (sLeft + sRight) / 2d;
+		double sCenterY = (sTop + sBottom) / 2d;
+		double dist = Math.sqrt((tCenterX - sCenterX) * (tCenterX - sCenterX) + (tCenterY - sCenterY) * (tCenterY - sCenterY));
+		if (dist < 3) {
+			return true;
+		}
+		double tWidth = Math.abs(tRight - tLeft);
+		double tHeight = Math.abs(tBottom - tTop);
+		// difference close to 90/270 degrees
+		if (Math.abs(Math.cos(tRot - sRot)) < 0.3) {
+			// rotate one rectangle to 90 degrees
+			tRot += Math.PI / 2;
+			double w = tWidth;
+			tWidth = tHeight;
+			tHeight = w;
+			tLeft = (float) (tCenterX - tWidth / 2);
+			tTop = (float) (tCenterY - tHeight / 2);
+			tRight = (float) (tLeft + tWidth);
+			tBottom = (float) (tTop + tHeight);
+		}
+		// determine difference close to 180/0 degrees
+		if (Math.abs(Math.sin(tRot - sRot)) < 0.3) {
+			// rotate t box (calculate offset for t center suppose we rotate around s center)
+			float diff = (float) (-Math.atan2(tCenterX - sCenterX, tCenterY - sCenterY) + Math.PI / 2);
+			diff -= sRot;
+			double l = sCenterX + dist * Math.cos(diff) - tWidth / 2;
+			double t = sCenterY - dist * Math.sin(diff) - tHeight / 2;
+			return intersectsRect((float) l, (float) t, (float) (l + tWidth), (float) (t + tHeight),
+					sLeft, sTop, sRight, sBottom);
+		}
+		// other cases are not covered
+		return intersectsRect(tLeft, tTop, tRight, tBottom, sLeft, sTop, sRight, sBottom);
+	}
+
+	private static boolean intersectsRect(float aLeft, float aTop, float aRight, float aBottom,
+	                                      float bLeft, float bTop, float bRight, float bBottom) {
+		return Math.min(aLeft, aRight) <= Math.max(bLeft, bRight)
+				&& Math.max(aLeft, aRight) >= Math.min(bLeft, bRight)
+				&& Math.min(aBottom, aTop) <= Math.max(bBottom, bTop)
+				&& Math.max(aBottom, aTop) >= Math.min(bBottom, bTop);
+	}
+
+	private static float getRotatedHalfWidth(float left, float top, float right, float bottom, float rotate) {
+		float w = Math.abs(right - left) / 2;
+		float h = Math.abs(bottom - top) / 2;
+		return rotate == 0 ? w : Math.max(w, (float) (Math.abs(Math.cos(rotate)) * w + Math.abs(Math.sin(rotate)) * h));
+	}
+
+	private static float getRotatedHalfHeight(float left, float top, float right, float bottom, float rotate) {
+		float w = Math.abs(right - left) / 2;
+		float h = Math.abs(bottom - top) / 2;
+		return rotate == 0 ? h : Math.max(h, (float) (Math.abs(Math.sin(rotate)) * w + Math.abs(Math.cos(rotate)) * h));
+	}
+
+	private int getColumn(float x) {
+		return Math.max(0, Math.min(columns - 1, (int) Math.floor((x - left) / cellSize)));
+	}
+
+	private int getRow(float y) {
+		return Math.max(0, Math.min(rows - 1, (int) Math.floor((y - top) / cellSize)));
+	}
+}
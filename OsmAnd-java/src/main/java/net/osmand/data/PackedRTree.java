@@ -0,0 +1,303 @@
+package net.osmand.data;
+
+import java.util.Arrays;
+
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * Static R-tree of int rectangles (e.g. 31 tile coordinates) packed into arrays.
+ * Tree is bulk loaded by Sort-Tile-Recursive algorithm, items are identified by indexes in order of adding.
+ * Queries don't allocate objects, so the tree could be used from several threads.
+ */
+public class PackedRTree {
+
+	public static final int DEFAULT_NODE_SIZE = 16;
+
+	public interface Visitor {
+
+		/**
+		 * @return false to stop search
+		 */
+		boolean visit(int item);
+	}
+
+	private final int nodeSize;
+	private final int size;
+	// boxes of items (sorted by tree) and nodes level by level (left, top, right, bottom)
+	private final int[] boxes;
+	// item for positions of items and position of the first child for positions of nodes
+	private final int[] indices;
+	// end position of each level
+	private final int[] levelBounds;
+
+	private PackedRTree(int nodeSize, int size, int[] boxes, int[] indices, int[] levelBounds) {
+		this.nodeSize = nodeSize;
+		this.size = size;
+		this.boxes = boxes;
+		this.indices = indices;
+		this.levelBounds = levelBounds;
+	}
+
+	public static PackedRTree buildForPoints(int[] x, int[] y) {
+		Builder builder = new Builder(x.length);
+		for (int i = 0; i < x.length; i++) {
+			builder.add(x[i], y[i], x[i], y[i]);
+		}
+		return builder.build();
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Visits items which boxes intersect the box (bounds are inclusive)
+	 *
+	 * @return false if the search is stopped by visitor
+	 */
+	public boolean queryInBox(int left, int top, int right, int bottom, Visitor visitor) {
+		int root = boxes.length / 4 - 1;
+		if (size == 0 || !intersects(root, left, top, right, bottom)) {
+			return true;
+		}
+		return queryNode(root, levelBounds.length - 1, left, top, right, bottom, visitor);
+	}
+
+	/**
+	 * @param result cleared and filled with items which boxes intersect the box
+	 */
+	public void queryInBox(int left, int top, int right, int bottom, TIntArrayList result) {
+		result.resetQuick();
+		int root = boxes.length / 4 - 1;
+		if (size > 0 && intersects(root, left, top, right, bottom)) {
+			collectNode(root, levelBounds.length - 1, left, top, right, bottom, result);
+		}
+	}
+
+	private boolean queryNode(int pos, int level, int left, int top, int right, int bottom, Visitor visitor) {
+		if (level == 0) {
+			return visitor.visit(indices[pos]);
+		}
+		int end = Math.min(indices[pos] + nodeSize, levelBounds[level - 1]);
+		for (int child = indices[pos]; child < end; child++) {
+			if (intersects(child, left, top, right, bottom)
+					&& !queryNode(child, level - 1, left, top, right, bottom, visitor)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void collectNode(int pos, int level, int left, int top, int right, int bottom, TIntArrayList result) {
+		if (level == 0) {
+			result.add(indices[pos]);
+			return;
+		}
+		int end = Math.min(indices[pos] + nodeSize, levelBounds[level - 1]);
+		for (int child = indices[pos]; child < end; child++) {
+			if (intersects(child, left, top, right, bottom)) {
+				collectNode(child, level - 1, left, top, right, bottom, result);
+			}
+		}
+	}
+
+	private boolean intersects(int pos, int left, int top, int right, int bottom) {
+		int b = pos * 4;
+		return boxes[b] <= right && boxes[b + 2] >= left && boxes[b + 1] <= bottom && boxes[b + 3] >= top;
+	}
+
+	/**
+	 * Finds nearest items to the point by distance to their boxes.
+	 * Number of found items is limited by length of items array.
+	 *
+	 * @param maxDistance items farther than this are not found
+	 * @param items       filled with the found items from the nearest one
+	 * @param sqDistances filled with squared distances to the found items (same length as items)
+	 * @return number of found items
+	 */
+	public int findNearest(int x, int y, double maxDistance, int[] items, double[] sqDistances) {
+		if (size == 0 || items.length == 0) {
+			return 0;
+		}
+		Arrays.fill(sqDistances, 0, items.length, maxDistance * maxDistance);
+		return nearestNode(boxes.length / 4 - 1, levelBounds.length - 1, x, y, items, sqDistances, 0);
+	}
+
+	private int nearestNode(int pos, int level, int x, int y, int[] items, double[] sqDistances, int found) {
+		if (level == 0) {
+			double d = sqDistance(pos, x, y);
+			int k = items.length;
+			if (d > sqDistances[k - 1] || (found == k && d == sqDistances[k - 1])) {
+				return found;
+			}
+			// insert item keeping distances sorted
+			int i = Math.min(found, k - 1);
+			while (i > 0 && sqDistances[i - 1] > d) {
+				sqDistances[i] = sqDistances[i - 1];
+				items[i] = items[i - 1];
+				i--;
+			}
+			sqDistances[i] = d;
+			items[i] = indices[pos];
+			return Math.min(found + 1, k);
+		}
+		int start = indices[pos];
+		int end = Math.min(start + nodeSize, levelBounds[level - 1]);
+		// visit the nearest child first to limit distance of the search earlier
+		int nearest = start;
+		double nearestDistance = Double.POSITIVE_INFINITY;
+		for (int child = start; child < end; child++) {
+			double d = sqDistance(child, x, y);
+			if (d < nearestDistance) {
+				nearestDistance = d;
+				nearest = child;
+			}
+		}
+		found = nearestNode(nearest, level - 1, x, y, items, sqDistances, found);
+		for (int child = start; child < end; child++) {
+			if (child != nearest && sqDistance(child, x, y) <= sqDistances[items.length - 1]) {
+				found = nearestNode(child, level - 1, x, y, items, sqDistances, found);
+			}
+		}
+		return found;
+	}
+
+	private double sqDistance(int pos, int x, int y) {
+		int b = pos * 4;
+		double dx = x < boxes[b] ? (double) boxes[b] - x : (x > boxes[b + 2] ? (double) x - boxes[b + 2] : 0);
+		double dy = y < boxes[b + 1] ? (double) boxes[b + 1] - y : (y > boxes[b + 3] ? (double) y - boxes[b + 3] : 0);
+		return dx * dx + dy * dy;
+	}
+
+	public static class Builder {
+
+		private final int nodeSize;
+		private int[] boxes;
+		private int size;
+
+		public Builder(int capacity) {
+			this(capacity, DEFAULT_NODE_SIZE);
+		}
+
+		public Builder(int capacity, int nodeSize) {
+			if (nodeSize < 2) {
+				throw new IllegalArgumentException("Node size should be at least 2");
+			}
+			this.nodeSize = nodeSize;
+			this.boxes = new int[Math.max(1, capacity) * 4];
+		}
+
+		/**
+		 * @return index of the item
+		 */
+		public int add(int left, int top, int right, int bottom) {
+			if (size * 4 == boxes.length) {
+				boxes = Arrays.copyOf(boxes, boxes.length * 2);
+			}
+			int b = size * 4;
+			boxes[b] = Math.min(left, right);
+			boxes[b + 1] = Math.min(top, bottom);
+			boxes[b + 2] = Math.max(left, right);
+			boxes[b + 3] = Math.max(top, bottom);
+			return size++;
+		}
+
+		public PackedRTree build() {
+			TIntArrayList bounds = new TIntArrayList();
+			int count = size;
+			int nodes = count;
+			bounds.add(count);
+			while (count > 1) {
+				count = (count + nodeSize - 1) / nodeSize;
+				nodes += count;
+				bounds.add(nodes);
+			}
+			int[] levelBounds = bounds.toArray();
+			int[] treeBoxes = new int[nodes * 4];
+			int[] indices = new int[nodes];
+			System.arraycopy(boxes, 0, treeBoxes, 0, size * 4);
+			for (int i = 0; i < size; i++) {
+				indices[i] = i;
+			}
+			int levelStart = 0;
+			for (int level = 0; level < levelBounds.length - 1; level++) {
+				int levelEnd = levelBounds[level];
+				sortTileRecursive(treeBoxes, indices, levelStart, levelEnd, nodeSize);
+				int parent = levelEnd;
+				for (int child = levelStart; child < levelEnd; child += nodeSize, parent++) {
+					int end = Math.min(child + nodeSize, levelEnd);
+					int left = Integer.MAX_VALUE;
+					int top = Integer.MAX_VALUE;
+					int right = Integer.MIN_VALUE;
+					int bottom = Integer.MIN_VALUE;
+					for (int i = child; i < end; i++) {
+						left = Math.min(left, treeBoxes[i * 4]);
+						top = Math.min(top, treeBoxes[i * 4 + 1]);
+						right = Math.max(right, treeBoxes[i * 4 + 2]);
+						bottom = Math.max(bottom, treeBoxes[i * 4 + 3]);
+					}
+					treeBoxes[parent * 4] = left;
+					treeBoxes[parent * 4 + 1] = top;
+					treeBoxes[parent * 4 + 2] = right;
+					treeBoxes[parent * 4 + 3] = bottom;
+					indices[parent] = child;
+				}
+				levelStart = levelEnd;
+			}
+			return new PackedRTree(nodeSize, size, treeBoxes, indices, levelBounds);
+		}
+
+		/**
+		 * Orders entries of the level by vertical slices of centers x and by centers y inside slices,
+		 * so consecutive groups of nodeSize entries are close to each other
+		 */
+		private static void sortTileRecursive(int[] boxes, int[] indices, int start, int end, int nodeSize) {
+			int count = end - start;
+			if (count <= nodeSize) {
+				return;
+			}
+			int nodes = (count + nodeSize - 1) / nodeSize;
+			int sliceSize = nodeSize * (int) Math.ceil(Math.sqrt(nodes));
+			long[] keys = new long[count];
+			for (int i = 0; i < count; i++) {
+				keys[i] = sortKey(centerX(boxes, start + i), i);
+			}
+			Arrays.sort(keys);
+			for (int sliceStart = 0; sliceStart < count; sliceStart += sliceSize) {
+				int sliceEnd = Math.min(sliceStart + sliceSize, count);
+				long[] sliceKeys = new long[sliceEnd - sliceStart];
+				for (int i = sliceStart; i < sliceEnd; i++) {
+					int ind = (int) keys[i];
+					sliceKeys[i - sliceStart] = sortKey(centerY(boxes, start + ind), ind);
+				}
+				Arrays.sort(sliceKeys);
+				System.arraycopy(sliceKeys, 0, keys, sliceStart, sliceKeys.length);
+			}
+			int[] sortedBoxes = new int[count * 4];
+			int[] sortedIndices = new int[count];
+			for (int i = 0; i < count; i++) {
+				int ind = (int) keys[i];
+				System.arraycopy(boxes, (start + ind) * 4, sortedBoxes, i * 4, 4);
+				sortedIndices[i] = indices[start + ind];
+			}
+			System.arraycopy(sortedBoxes, 0, boxes, start * 4, count * 4);
+			System.arraycopy(sortedIndices, 0, indices, start, count);
+		}
+
+		private static long sortKey(int center, int ind) {
+			return ((long) center << 32) | ind;
+		}
+
+		private static int centerX(int[] boxes, int pos) {
+			return (int) (((long) boxes[pos * 4] + boxes[pos * 4 + 2]) >> 1);
+		}
+
+		private static int centerY(int[] boxes, int pos) {
+			return (int) (((long) boxes[pos * 4 + 1] + boxes[pos * 4 + 3]) >> 1);
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package net.osmand.data;
+
+import net.osmand.Location;
+import net.osmand.util.MapUtils;
+
+import java.util.List;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+/**
+ * Index of route segments by tiles to find the nearest segment of a route for a point
+ * without checking every segment. Segment i connects route points i - 1 and i.
+ */
+public class RouteCorridorIndex {
+
+	private static final int TILE_ZOOM = 15;
+	private static final int TILE_SHIFT = 31 - TILE_ZOOM;
+	// segments are sampled with step less than half of a tile
+	private static final int SAMPLE_STEP = 1 << (TILE_SHIFT - 1);
+	private static final double EARTH_RADIUS = 6372800;
+
+	private final double[] lats;
+	private final double[] lons;
+	// distance from the start of the route to the point
+	private final double[] distances;
+	private final TLongObjectHashMap<TIntArrayList> tiles = new TLongObjectHashMap<>();
+
+	public RouteCorridorIndex(List<? extends Location> locations) {
+		int size = locations.size();
+		lats = new double[size];
+		lons = new double[size];
+		distances = new double[size];
+		int prevX = 0;
+		int prevY = 0;
+		for (int i = 0; i < size; i++) {
+			Location l = locations.get(i);
+			lats[i] = l.getLatitude();
+			lons[i] = l.getLongitude();
+			int x = MapUtils.get31TileNumberX(lons[i]);
+			int y = MapUtils.get31TileNumberY(lats[i]);
+			if (i > 0) {
+				distances[i] = distances[i - 1] + MapUtils.getDistance(lats[i - 1], lons[i - 1], lats[i], lons[i]);
+				indexSegment(i, prevX, prevY, x, y);
+			}
+			prevX = x;
+			prevY = y;
+		}
+	}
+
+	private void indexSegment(int segment, int x1, int y1, int x2, int y2) {
+		long dx = (long) x2 - x1;
+		long dy = (long) y2 - y1;
+		long steps = Math.max(Math.abs(dx), Math.abs(dy)) / SAMPLE_STEP + 1;
+		for (long k = 0; k <= steps; k++) {
+			int x = (int) (x1 + dx * k / steps);
+			int y = (int) (y1 + dy * k / steps);
+			long key = tileKey(x >>> TILE_SHIFT, y >>> TILE_SHIFT);
+			TIntArrayList list = tiles.get(key);
+			if (list == null) {
+				list = new TIntArrayList(4);
+				tiles.put(key, list);
+			}
+			if (list.isEmpty() || list.get(list.size() - 1) != segment) {
+				list.add(segment);
+			}
+		}
+	}
+
+	private static long tileKey(int tileX, int tileY) {
+		return ((long) tileX << 32) | tileY;
+	}
+
+	public int getPointsCount() {
+		return lats.length;
+	}
+
+	public double getLatitude(int pointIndex) {
+		return lats[pointIndex];
+	}
+
+	public double getLongitude(int pointIndex) {
+		return lons[pointIndex];
+	}
+
+	public double getDistanceFromStart(int pointIndex) {
+		return distances[pointIndex];
+	}
+
+	public double getRouteDistance() {
+		return distances.length == 0 ? 0 : distances[distances.length - 1];
+	}
+
+	/**
+	 * @param distance array to return the distance to the segment, could be null
+	 * @return index of the end point of the nearest segment not farther than radius or -1 if there is no such segment
+	 */
+	public int findNearestSegment(double lat, double lon, double radius, double[] distance) {
+		return findNearestSegment(lat, lon, radius, 1, distance);
+	}
+
+	/**
+	 * Same as {@link #findNearestSegment(double, double, double, double[])} but checks only segments starting from fromSegment
+	 */
+	public int findNearestSegment(double lat, double lon, double radius, int fromSegment, double[] distance) {
+		return findNearestSegment(lat, lon, radius, fromSegment, lats.length - 1, distance);
+	}
+
+	/**
+	 * Same as {@link #findNearestSegment(double, double, double, double[])} but checks only segments from fromSegment to toSegment inclusive
+	 */
+	public int findNearestSegment(double lat, double lon, double radius, int fromSegment, int toSegment, double[] distance) {
+		double dLat = Math.toDegrees(radius / EARTH_RADIUS);
+		double dLon = dLat / Math.max(0.01, Math.cos(Math.toRadians(lat)));
+		// sampled points could be in the neighbour tile of the crossed one
+		int left = (MapUtils.get31TileNumberX(lon - dLon) >>> TILE_SHIFT) - 1;
+		int right = (MapUtils.get31TileNumberX(lon + dLon) >>> TILE_SHIFT) + 1;
+		int top = (MapUtils.get31TileNumberY(lat + dLat) >>> TILE_SHIFT) - 1;
+		int bottom = (MapUtils.get31TileNumberY(lat - dLat) >>> TILE_SHIFT) + 1;
+		int nearest = -1;
+		double minDistance = Double.POSITIVE_INFINITY;
+		for (int tileX = left; tileX <= right; tileX++) {
+			for (int tileY = top; tileY <= bottom; tileY++) {
+				TIntArrayList segments = tiles.get(tileKey(tileX, tileY));
+				if (segments == null) {
+					continue;
+				}
+				for (int k = 0; k < segments.size(); k++) {
+					int i = segments.getQuick(k);
+					if (i < fromSegment || i > toSegment) {
+						continue;
+					}
+					double d = getSegmentDistance(lat, lon, i);
+					if (d <= radius && (d < minDistance || (d == minDistance && i < nearest))) {
+						minDistance = d;
+						nearest = i;
+					}
+				}
+			}
+		}
+		if (distance != null) {
+			distance[0] = minDistance;
+		}
+		return nearest;
+	}
+
+	/**
+	 * Distance from the point to the segment (same as {@link MapUtils#getOrthogonalDistance})
+	 */
+	public double getSegmentDistance(double lat, double lon, int segment) {
+		double fromLat = lats[segment - 1];
+		double fromLon = lons[segment - 1];
+		double toLat = lats[segment];
+		double toLon = lons[segment];
+		double coeff = MapUtils.getProjectionCoeff(lat, lon, fromLat, fromLon, toLat, toLon);
+		return MapUtils.getDistance(fromLat + (toLat - fromLat) * coeff, fromLon + (toLon - fromLon) * coeff, lat, lon);
+	}
+
+	/**
+	 * @return last segment starting not farther than distance from the start of the route
+	 */
+	public int getSegmentByDistance(double distance) {
+		int l = 1;
+		int r = lats.length - 1;
+		while (l < r) {
+			int m = (l + r + 1) / 2;
+			if (distances[m - 1] <= distance) {
+				l = m;
+			} else {
+				r = m - 1;
+			}
+		}
+		return l;
+	}
+
+	/**
+	 * @return position of the projection of the point on the segment (0 - start point, 1 - end point)
+	 */
+	public double getProjectionCoeff(double lat, double lon, int segment) {
+		return MapUtils.getProjectionCoeff(lat, lon, lats[segment - 1], lons[segment - 1], lats[segment], lons[segment]);
+	}
+
+	public double getDistanceAlongRoute(double lat, double lon, int segment) {
+		double fromLat = lats[segment - 1];
+		double fromLon = lons[segment - 1];
+		double coeff = MapUtils.getProjectionCoeff(lat, lon, fromLat, fromLon, lats[segment], lons[segment]);
+		return distances[segment - 1] + (distances[segment] - distances[segment - 1]) * coeff;
+	}
+
+	public boolean isRightSide(double lat, double lon, int segment) {
+		return MapUtils.rightSide(lat, lon, lats[segment - 1], lons[segment - 1], lats[segment], lons[segment]);
+	}
+}
@@ -0,0 +1,153 @@
+package net.osmand.data;
+
+import net.osmand.Location;
+import net.osmand.util.MapUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import gnu.trove.list.array.TLongArrayList;
+
+/**
+ * Tiles of the zoom (not more than 16) which are not farther than radius from the route.
+ * Tiles are stored as sorted non overlapping ranges of x in rows (y << 32 | fromX << 16 | toX).
+ */
+public class RouteCorridorTiles {
+
+	public static final int MAX_ZOOM = 16;
+	private static final int X_BITS = 16;
+	private static final long X_MASK = (1 << X_BITS) - 1;
+
+	private final int zoom;
+	private final long[] ranges;
+	private int left31 = Integer.MAX_VALUE;
+	private int right31 = 0;
+	private int top31 = Integer.MAX_VALUE;
+	private int bottom31 = 0;
+
+	public RouteCorridorTiles(List<? extends Location> route, double radius, int zoom) {
+		if (zoom > MAX_ZOOM || zoom < 0) {
+			throw new IllegalArgumentException("Unsupported zoom " + zoom);
+		}
+		this.zoom = zoom;
+		int maxTile = (1 << zoom) - 1;
+		float coeff = (float) (radius / MapUtils.getTileDistanceWidth(zoom));
+		TLongArrayList rowRanges = new TLongArrayList();
+		for (int i = 1; i < route.size(); i++) {
+			Location cr = route.get(i);
+			Location pr = route.get(i - 1);
+			double tx = MapUtils.getTileNumberX(zoom, cr.getLongitude());
+			double ty = MapUtils.getTileNumberY(zoom, cr.getLatitude());
+			double px = MapUtils.getTileNumberX(zoom, pr.getLongitude());
+			double py = MapUtils.getTileNumberY(zoom, pr.getLatitude());
+			long fromX = Math.max(0, (int) (Math.min(tx, px) - coeff));
+			long toX = Math.min(maxTile, (int) (Math.max(tx, px) + coeff));
+			int fromY = Math.max(0, (int) (Math.min(ty, py) - coeff));
+			int toY = Math.min(maxTile, (int) (Math.max(ty, py) + coeff));
+			for (long y = fromY; y <= toY; y++) {
+				rowRanges.add((y << 32) | (fromX << X_BITS) | toX);
+			}
+		}
+		rowRanges.sort();
+		TLongArrayList merged = new TLongArrayList();
+		for (int i = 0; i < rowRanges.size(); i++) {
+			long range = rowRanges.getQuick(i);
+			int last = merged.size() - 1;
+			if (last >= 0 && getY(merged.getQuick(last)) == getY(range)
+					&& getFromX(range) <= getToX(merged.getQuick(last)) + 1) {
+				long toX = Math.max(getToX(merged.getQuick(last)), getToX(range));
+				merged.setQuick(last, (merged.getQuick(last) & ~X_MASK) | toX);
+			} else {
+				merged.add(range);
+			}
+		}
+		ranges = merged.toArray();
+		int shift = 31 - zoom;
+		for (long range : ranges) {
+			left31 = Math.min(left31, getFromX(range) << shift);
+			right31 = Math.max(right31, (int) (((getToX(range) + 1L) << shift) - 1));
+		}
+		if (ranges.length > 0) {
+			top31 = getY(ranges[0]) << shift;
+			bottom31 = (int) (((getY(ranges[ranges.length - 1]) + 1L) << shift) - 1);
+		}
+	}
+
+	private static int getY(long range) {
+		return (int) (range >>> 32);
+	}
+
+	private static int getFromX(long range) {
+		return (int) ((range >>> X_BITS) & X_MASK);
+	}
+
+	private static int getToX(long range) {
+		return (int) (range & X_MASK);
+	}
+
+	public int getZoom() {
+		return zoom;
+	}
+
+	public boolean isEmpty() {
+		return ranges.length == 0;
+	}
+
+	public int getLeft31() {
+		return left31;
+	}
+
+	public int getRight31() {
+		return right31;
+	}
+
+	public int getTop31() {
+		return top31;
+	}
+
+	public int getBottom31() {
+		return bottom31;
+	}
+
+	public boolean containsPoint31(int x31, int y31) {
+		int shift = 31 - zoom;
+		return intersectsRow(y31 >>> shift, x31 >>> shift, x31 >>> shift);
+	}
+
+	/**
+	 * @return true if the tile of any zoom intersects the corridor
+	 */
+	public boolean intersectsTile(int tileZoom, int x, int y) {
+		if (tileZoom > zoom) {
+			return intersectsRow(y >>> (tileZoom - zoom), x >>> (tileZoom - zoom), x >>> (tileZoom - zoom));
+		}
+		int dz = zoom - tileZoom;
+		if (dz == 0) {
+			return intersectsRow(y, x, x);
+		}
+		int fromX = x << dz;
+		int toX = ((x + 1) << dz) - 1;
+		long fromRow = (long) y << dz;
+		long toRow = ((long) (y + 1) << dz) - 1;
+		int ind = Arrays.binarySearch(ranges, fromRow << 32);
+		if (ind < 0) {
+			ind = -ind - 1;
+		}
+		for (; ind < ranges.length && getY(ranges[ind]) <= toRow; ind++) {
+			if (getFromX(ranges[ind]) <= toX && getToX(ranges[ind]) >= fromX) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean intersectsRow(int y, int fromX, int toX) {
+		// the last range of the row starting not after toX has the biggest end among ranges starting before toX
+		long key = ((long) y << 32) | (Math.min(toX, X_MASK) << X_BITS) | X_MASK;
+		int ind = Arrays.binarySearch(ranges, key);
+		if (ind < 0) {
+			ind = -ind - 2;
+		}
+		return ind >= 0 && getY(ranges[ind]) == y && getToX(ranges[ind]) >= fromX;
+	}
+}
@@ -0,0 +1,140 @@
+package net.osmand.gpx;
+
+import net.osmand.data.QuadRect;
+import net.osmand.gpx.GPXUtilities.WptPt;
+
+import java.util.Arrays;
+import java.util.List;
+
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * Bounding boxes of consecutive point ranges of a track segment (two levels: chunks of points and groups of chunks).
+ * Allows to draw or hit test only the parts of a long track which intersect the visible area.
+ * Neighbour chunks share their border point, so every line of the track lies inside of a chunk box.
+ * Index could be extended with {@link #update()} when points are appended (recording track).
+ */
+public class GpxPointsIndex {
+
+	private static final int CHUNK_SHIFT = 6;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int GROUP_SHIFT = 5;
+
+	private final List<WptPt> points;
+	private int size;
+	private int chunksCount;
+	// chunk boxes as left, top, right, bottom
+	private double[] chunks = new double[0];
+	private double[] groups = new double[0];
+
+	public GpxPointsIndex(List<WptPt> points) {
+		this.points = points;
+		update();
+	}
+
+	public List<WptPt> getPoints() {
+		return points;
+	}
+
+	public synchronized int getSize() {
+		return size;
+	}
+
+	/**
+	 * Indexes points added since last update. Recalculates only the last chunk and the new ones.
+	 */
+	public synchronized void update() {
+		int newSize = points.size();
+		if (newSize == size) {
+			return;
+		}
+		int firstChunk;
+		if (newSize < size) {
+			firstChunk = 0;
+		} else {
+			firstChunk = Math.max(0, chunksCount - 1);
+		}
+		int newChunksCount = newSize <= 1 ? newSize : ((newSize - 2) >> CHUNK_SHIFT) + 1;
+		if (chunks.length < newChunksCount * 4) {
+			chunks = Arrays.copyOf(chunks, Math.max(newChunksCount * 4, chunks.length * 2));
+		}
+		for (int c = firstChunk; c < newChunksCount; c++) {
+			int start = c << CHUNK_SHIFT;
+			int end = Math.min(start + CHUNK_SIZE, newSize - 1);
+			double left = Double.POSITIVE_INFINITY, right = Double.NEGATIVE_INFINITY;
+			double top = Double.NEGATIVE_INFINITY, bottom = Double.POSITIVE_INFINITY;
+			for (int i = start; i <= end; i++) {
+				WptPt pt = points.get(i);
+				left = Math.min(left, pt.lon);
+				right = Math.max(right, pt.lon);
+				top = Math.max(top, pt.lat);
+				bottom = Math.min(bottom, pt.lat);
+			}
+			setBox(chunks, c, left, top, right, bottom);
+		}
+		int newGroupsCount = ((newChunksCount - 1) >> GROUP_SHIFT) + 1;
+		if (groups.length < newGroupsCount * 4) {
+			groups = Arrays.copyOf(groups, Math.max(newGroupsCount * 4, groups.length * 2));
+		}
+		for (int g = firstChunk >> GROUP_SHIFT; g < newGroupsCount && newChunksCount > 0; g++) {
+			int start = g << GROUP_SHIFT;
+			int end = Math.min(start + (1 << GROUP_SHIFT), newChunksCount);
+			double left = Double.POSITIVE_INFINITY, right = Double.NEGATIVE_INFINITY;
+			double top = Double.NEGATIVE_INFINITY, bottom = Double.POSITIVE_INFINITY;
+			for (int c = start; c < end; c++) {
+				left = Math.min(left, chunks[c * 4]);
+				top = Math.max(top, chunks[c * 4 + 1]);
+				right = Math.max(right, chunks[c * 4 + 2]);
+				bottom = Math.min(bottom, chunks[c * 4 + 3]);
+			}
+			setBox(groups, g, left, top, right, bottom);
+		}
+		size = newSize;
+		chunksCount = newChunksCount;
+	}
+
+	private static void setBox(double[] boxes, int ind, double left, double top, double right, double bottom) {
+		boxes[ind * 4] = left;
+		boxes[ind * 4 + 1] = top;
+		boxes[ind * 4 + 2] = right;
+		boxes[ind * 4 + 3] = bottom;
+	}
+
+	private static boolean intersects(double[] boxes, int ind, double left, double top, double right, double bottom) {
+		return boxes[ind * 4] <= right && boxes[ind * 4 + 2] >= left
+				&& boxes[ind * 4 + 3] <= top && boxes[ind * 4 + 1] >= bottom;
+	}
+
+	public TIntArrayList getRanges(QuadRect latLonBounds) {
+		return getRanges(latLonBounds.left, latLonBounds.top, latLonBounds.right, latLonBounds.bottom);
+	}
+
+	/**
+	 * @return sorted non overlapping inclusive index ranges (from, to pairs) of points which could be inside
+	 * of the bounds or could form a line crossing the bounds
+	 */
+	public synchronized TIntArrayList getRanges(double left, double top, double right, double bottom) {
+		TIntArrayList ranges = new TIntArrayList();
+		int groupsCount = chunksCount == 0 ? 0 : ((chunksCount - 1) >> GROUP_SHIFT) + 1;
+		for (int g = 0; g < groupsCount; g++) {
+			if (!intersects(groups, g, left, top, right, bottom)) {
+				continue;
+			}
+			int end = Math.min((g + 1) << GROUP_SHIFT, chunksCount);
+			for (int c = g << GROUP_SHIFT; c < end; c++) {
+				if (intersects(chunks, c, left, top, right, bottom)) {
+					int from = c << CHUNK_SHIFT;
+					int to = Math.min(from + CHUNK_SIZE, size - 1);
+					int last = ranges.size() - 1;
+					if (last > 0 && ranges.getQuick(last) >= from) {
+						ranges.setQuick(last, to);
+					} else {
+						ranges.add(from);
+						ranges.add(to);
+					}
+				}
+			}
+		}
+		return ranges;
+	}
+}
@@ -3,7 +3,6 @@ package net.osmand.map;
 import net.osmand.PlatformUtil;
 import net.osmand.osm.io.NetworkUtils;
 import net.osmand.util.Algorithms;
-import net.osmand.util.LIFOBlockingDeque;
 
 import org.apache.commons.logging.Log;
 
@@ -20,8 +19,9 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -36,6 +36,10 @@ public class MapTileDownloader {
 	public static final long TIMEOUT_AFTER_EXCEEDING_LIMIT_ERRORS = 15000;
 	public static final int TILE_DOWNLOAD_MAX_ERRORS_PER_TIMEOUT = 50;
 	private static final int CONNECTION_TIMEOUT = 30000;
+	// tiles around the viewport which are still downloaded after the map is moved
+	private static final int VIEWPORT_TILES_MARGIN = 1;
+	// zoom difference with the map counts as distance of that number of tiles
+	private static final double ZOOM_DISTANCE_PENALTY = 2;
 
 	private static MapTileDownloader downloader = null;
 
@@ -44,8 +48,10 @@ public class MapTileDownloader {
 	private final ThreadPoolExecutor threadPoolExecutor;
 	private List<WeakReference<IMapDownloaderCallback>> callbacks = new LinkedList<>();
 
-	private final Map<File, DownloadRequest> pendingToDownload = new ConcurrentHashMap<>();
-	private final Map<File, DownloadRequest> currentlyDownloaded = new ConcurrentHashMap<>();
+	private final ConcurrentMap<File, DownloadMapWorker> pendingToDownload = new ConcurrentHashMap<>();
+	private final ConcurrentMap<File, DownloadRequest> currentlyDownloaded = new ConcurrentHashMap<>();
+	private Viewport viewport;
+	private long requestsCounter;
 
 	private int currentErrors = 0;
 	private long timeForErrorCounter = 0;
@@ -90,6 +96,10 @@ public class MapTileDownloader {
 		public String referer = null;
 		public String userAgent = null;
 		public boolean error;
+		/**
+		 * Request of the visible map, it is cancelled if map is moved away before download is started
+		 */
+		public boolean cancellable;
 
 		public DownloadRequest(String url, File fileToSave, String tileId, int xTile, int yTile, int zoom) {
 			this.url = url;
@@ -121,7 +131,9 @@ public class MapTileDownloader {
 
 	public MapTileDownloader(int numberOfThreads) {
 		threadPoolExecutor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads,
-				TILE_DOWNLOAD_SECONDS_TO_WORK, TimeUnit.SECONDS, new LIFOBlockingDeque<Runnable>());
+				TILE_DOWNLOAD_SECONDS_TO_WORK, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>());
+		// all requests go through the priority queue
+		threadPoolExecutor.prestartAllCoreThreads();
 	}
 	
 	public void setNoHttps(boolean noHttps) {
@@ -186,6 +198,24 @@ public class MapTileDownloader {
 		pendingToDownload.clear();
 	}
 
+	/**
+	 * Updates visible tiles of the map (tile numbers at zoom). Queued cancellable requests
+	 * which are not visible anymore are cancelled, new requests are prioritized by distance to the center.
+	 */
+	public synchronized void updateViewport(int zoom, double left, double top, double right, double bottom) {
+		Viewport v = new Viewport(zoom, (int) Math.floor(left), (int) Math.floor(top),
+				(int) Math.floor(right), (int) Math.floor(bottom), viewport == null ? 0 : viewport.generation + 1);
+		if (v.equals(viewport)) {
+			return;
+		}
+		viewport = v;
+		for (DownloadMapWorker worker : new ArrayList<>(pendingToDownload.values())) {
+			if (worker.cancellable && !v.isVisible(worker.request) && threadPoolExecutor.remove(worker)) {
+				pendingToDownload.remove(worker.request.fileToSave, worker);
+			}
+		}
+	}
+
 	public void requestToDownload(DownloadRequest request) {
 		long now = System.currentTimeMillis();
 		if ((int) (now - timeForErrorCounter) > TIMEOUT_AFTER_EXCEEDING_LIMIT_ERRORS) {
@@ -200,13 +230,29 @@ public class MapTileDownloader {
 		if (noHttps) {
 			request.url = request.url.replace("https://", "http://");
 		}
-		if (!isFileCurrentlyDownloaded(request.fileToSave)
-				&& !isFilePendingToDownload(request.fileToSave)) {
-			pendingToDownload.put(request.fileToSave, request);
-			threadPoolExecutor.execute(new DownloadMapWorker(request));
+		if (request.fileToSave != null && !isFileCurrentlyDownloaded(request.fileToSave)) {
+			enqueue(request);
 		}
 	}
 
+	private synchronized void enqueue(DownloadRequest request) {
+		DownloadMapWorker pending = pendingToDownload.get(request.fileToSave);
+		DownloadMapWorker worker;
+		if (pending == null) {
+			worker = new DownloadMapWorker(request, request.cancellable, viewport, requestsCounter++);
+		} else {
+			// same tile requested again (other layer or next frame), keep single download with higher priority
+			worker = new DownloadMapWorker(pending.request, pending.cancellable && request.cancellable,
+					viewport, requestsCounter++);
+			boolean keepPending = pending.cancellable == worker.cancellable && pending.compareTo(worker) <= 0;
+			if (keepPending || !threadPoolExecutor.remove(pending)) {
+				return;
+			}
+		}
+		pendingToDownload.put(request.fileToSave, worker);
+		threadPoolExecutor.execute(worker);
+	}
+
 	public boolean shouldSkipRequests() {
 		return currentErrors > TILE_DOWNLOAD_MAX_ERRORS_PER_TIMEOUT;
 	}
@@ -214,20 +260,29 @@ public class MapTileDownloader {
 	private class DownloadMapWorker implements Runnable, Comparable<DownloadMapWorker> {
 
 		private final DownloadRequest request;
+		private final long order;
+		private final long generation;
+		private final double distance;
+		private final boolean cancellable;
 
-		private DownloadMapWorker(DownloadRequest request) {
+		private DownloadMapWorker(DownloadRequest request, boolean cancellable, Viewport viewport, long order) {
 			this.request = request;
+			this.cancellable = cancellable;
+			this.order = order;
+			this.generation = viewport == null ? 0 : viewport.generation;
+			this.distance = viewport == null ? 0 : viewport.getDistance(request);
 		}
 
 		@Override
 		public void run() {
 			if (request != null && request.fileToSave != null && request.url != null) {
-				pendingToDownload.remove(request.fileToSave);
-				if (currentlyDownloaded.containsKey(request.fileToSave)) {
+				if (!pendingToDownload.remove(request.fileToSave, this)) {
+					// cancelled or superseded
+					return;
+				}
+				if (currentlyDownloaded.putIfAbsent(request.fileToSave, request) != null) {
 					return;
 				}
-
-				currentlyDownloaded.put(request.fileToSave, request);
 				if (log.isDebugEnabled()) {
 					log.debug("Start downloading tile : " + request.url); 
 				}
@@ -258,7 +313,8 @@ public class MapTileDownloader {
 					log.warn("Cannot download tile : " + request.url, e); 
 				} finally {
 					currentlyDownloaded.remove(request.fileToSave);
-					if (connection != null) {
+					// stream is read till the end and closed, so connection is kept alive for the next tiles
+					if (connection != null && request.error) {
 						connection.disconnect();
 					}
 				}
@@ -270,7 +326,65 @@ public class MapTileDownloader {
 
 		@Override
 		public int compareTo(DownloadMapWorker o) {
-			return 0;
+			if (cancellable != o.cancellable) {
+				return cancellable ? -1 : 1;
+			}
+			if (generation != o.generation) {
+				return generation > o.generation ? -1 : 1;
+			}
+			int cmp = Double.compare(distance, o.distance);
+			return cmp != 0 ? cmp : Long.compare(o.order, order);
+		}
+	}
+
+	private static class Viewport {
+
+		private final int zoom;
+		private final int left;
+		private final int top;
+		private final int right;
+		private final int bottom;
+		private final long generation;
+
+		private Viewport(int zoom, int left, int top, int right, int bottom, long generation) {
+			this.zoom = zoom;
+			this.left = left;
+			this.top = top;
+			this.right = right;
+			this.bottom = bottom;
+			this.generation = generation;
+		}
+
+		private boolean isVisible(DownloadRequest request) {
+			double scale = Math.scalb(1.0, zoom - request.zoom);
+			return request.xTile * scale < right + 1 + VIEWPORT_TILES_MARGIN
+					&& (request.xTile + 1) * scale > left - VIEWPORT_TILES_MARGIN
+					&& request.yTile * scale < bottom + 1 + VIEWPORT_TILES_MARGIN
+					&& (request.yTile + 1) * scale > top - VIEWPORT_TILES_MARGIN;
+		}
+
+		private double getDistance(DownloadRequest request) {
+			double scale = Math.scalb(1.0, zoom - request.zoom);
+			double dx = (request.xTile + 0.5) * scale - (left + right + 1) / 2.0;
+			double dy = (request.yTile + 0.5) * scale - (top + bottom + 1) / 2.0;
+			return Math.sqrt(dx * dx + dy * dy) + Math.abs(zoom - request.zoom) * ZOOM_DISTANCE_PENALTY;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Viewport v = (Viewport) o;
+			return zoom == v.zoom && left == v.left && top == v.top && right == v.right && bottom == v.bottom;
+		}
+
+		@Override
+		public int hashCode() {
+			return (((zoom * 31 + left) * 31 + top) * 31 + right) * 31 + bottom;
 		}
 	}
 
@@ -0,0 +1,223 @@
+package net.osmand.map;
+
+import net.osmand.data.LatLon;
+import net.osmand.data.QuadRect;
+import net.osmand.util.MapUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * Enumerates map tiles of a zoom range which intersect region polygons (or a bounding box).
+ * Tiles are visited row by row (zoom, y, x), so enumeration could be resumed from any row.
+ */
+public class RegionTilesEnumerator {
+
+	public interface TileVisitor {
+
+		/**
+		 * @return false to stop enumeration
+		 */
+		boolean visitTile(int zoom, int x, int y);
+	}
+
+	private final int minZoom;
+	private final int maxZoom;
+	// polygons in tile numbers of zoom 0 (x, y pairs)
+	private final List<double[]> polygons = new ArrayList<>();
+	private double left = Double.POSITIVE_INFINITY;
+	private double top = Double.POSITIVE_INFINITY;
+	private double right = Double.NEGATIVE_INFINITY;
+	private double bottom = Double.NEGATIVE_INFINITY;
+
+	public RegionTilesEnumerator(List<List<LatLon>> polygons, int minZoom, int maxZoom, boolean ellipticYTile) {
+		this.minZoom = minZoom;
+		this.maxZoom = maxZoom;
+		for (List<LatLon> polygon : polygons) {
+			if (polygon == null || polygon.size() < 3) {
+				continue;
+			}
+			double[] coords = new double[polygon.size() * 2];
+			for (int i = 0; i < polygon.size(); i++) {
+				LatLon l = polygon.get(i);
+				double x = MapUtils.getTileNumberX(0, l.getLongitude());
+				double y = ellipticYTile ? MapUtils.getTileEllipsoidNumberY(0, l.getLatitude())
+						: MapUtils.getTileNumberY(0, l.getLatitude());
+				coords[i * 2] = x;
+				coords[i * 2 + 1] = y;
+				left = Math.min(left, x);
+				right = Math.max(right, x);
+				top = Math.min(top, y);
+				bottom = Math.max(bottom, y);
+			}
+			this.polygons.add(coords);
+		}
+	}
+
+	public static RegionTilesEnumerator fromBoundingBox(QuadRect latLonRect, int minZoom, int maxZoom,
+	                                                   boolean ellipticYTile) {
+		List<LatLon> polygon = Arrays.asList(new LatLon(latLonRect.top, latLonRect.left),
+				new LatLon(latLonRect.top, latLonRect.right), new LatLon(latLonRect.bottom, latLonRect.right),
+				new LatLon(latLonRect.bottom, latLonRect.left));
+		return new RegionTilesEnumerator(Arrays.asList(polygon), minZoom, maxZoom, ellipticYTile);
+	}
+
+	public static RegionTilesEnumerator fromRegion(WorldRegion region, int minZoom, int maxZoom,
+	                                              boolean ellipticYTile) {
+		List<List<LatLon>> polygons = new ArrayList<>();
+		for (List<LatLon> polygon : region.getPolygons()) {
+			if (polygon != null && polygon.size() >= 3) {
+				polygons.add(polygon);
+			}
+		}
+		if (polygons.isEmpty() && region.getBoundingBox() != null) {
+			return fromBoundingBox(region.getBoundingBox(), minZoom, maxZoom, ellipticYTile);
+		}
+		return new RegionTilesEnumerator(polygons, minZoom, maxZoom, ellipticYTile);
+	}
+
+	public int getMinZoom() {
+		return minZoom;
+	}
+
+	public int getMaxZoom() {
+		return maxZoom;
+	}
+
+	public boolean isEmpty() {
+		return polygons.isEmpty();
+	}
+
+	public int getFirstRow(int zoom) {
+		return isEmpty() ? 0 : clamp((int) Math.floor(top * (1 << zoom)), zoom);
+	}
+
+	public int getLastRow(int zoom) {
+		return isEmpty() ? -1 : clamp((int) Math.floor(bottom * (1 << zoom)), zoom);
+	}
+
+	public long getTilesCount(int zoom) {
+		long count = 0;
+		for (int y = getFirstRow(zoom); y <= getLastRow(zoom); y++) {
+			TIntArrayList row = getRowTiles(zoom, y);
+			for (int i = 0; i < row.size(); i += 2) {
+				count += row.getQuick(i + 1) - row.getQuick(i) + 1;
+			}
+		}
+		return count;
+	}
+
+	public long getTilesCount() {
+		long count = 0;
+		for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+			count += getTilesCount(zoom);
+		}
+		return count;
+	}
+
+	/**
+	 * Visits tiles starting from the row y of the zoom (use minZoom and 0 to visit all tiles)
+	 *
+	 * @return true if all tiles were visited
+	 */
+	public boolean enumerate(int startZoom, int startY, TileVisitor visitor) {
+		for (int zoom = Math.max(minZoom, startZoom); zoom <= maxZoom; zoom++) {
+			int firstRow = getFirstRow(zoom);
+			if (zoom == startZoom) {
+				firstRow = Math.max(firstRow, startY);
+			}
+			for (int y = firstRow; y <= getLastRow(zoom); y++) {
+				TIntArrayList row = getRowTiles(zoom, y);
+				for (int i = 0; i < row.size(); i += 2) {
+					for (int x = row.getQuick(i); x <= row.getQuick(i + 1); x++) {
+						if (!visitor.visitTile(zoom, x, y)) {
+							return false;
+						}
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return sorted inclusive ranges (from, to pairs) of x of the tiles in the row y which intersect polygons
+	 */
+	public TIntArrayList getRowTiles(int zoom, int y) {
+		double scale = 1 << zoom;
+		double rowTop = y / scale;
+		double rowBottom = (y + 1) / scale;
+		double rowCenter = (y + 0.5) / scale;
+		// x intervals (from, to pairs) in tile numbers of zoom 0
+		double[] intervals = new double[16];
+		int intervalsSize = 0;
+		double[] crossings = new double[8];
+		for (double[] coords : polygons) {
+			int crossingsSize = 0;
+			int n = coords.length / 2;
+			if (intervals.length < intervalsSize + n * 4) {
+				intervals = Arrays.copyOf(intervals, intervalsSize + n * 4);
+			}
+			if (crossings.length < n) {
+				crossings = new double[n];
+			}
+			for (int i = 0; i < n; i++) {
+				int j = (i + 1) % n;
+				double x1 = coords[i * 2], y1 = coords[i * 2 + 1];
+				double x2 = coords[j * 2], y2 = coords[j * 2 + 1];
+				double minY = Math.min(y1, y2), maxY = Math.max(y1, y2);
+				if (maxY < rowTop || minY > rowBottom) {
+					continue;
+				}
+				// tiles crossed by the border
+				double xa = x1, xb = x2;
+				if (y1 != y2) {
+					xa = x1 + (x2 - x1) * (Math.max(minY, rowTop) - y1) / (y2 - y1);
+					xb = x1 + (x2 - x1) * (Math.min(maxY, rowBottom) - y1) / (y2 - y1);
+				}
+				intervals[intervalsSize++] = Math.min(xa, xb);
+				intervals[intervalsSize++] = Math.max(xa, xb);
+				// tiles inside of the polygon (even-odd rule on the row center line)
+				if ((y1 <= rowCenter) != (y2 <= rowCenter)) {
+					crossings[crossingsSize++] = x1 + (x2 - x1) * (rowCenter - y1) / (y2 - y1);
+				}
+			}
+			Arrays.sort(crossings, 0, crossingsSize);
+			for (int i = 0; i + 1 < crossingsSize; i += 2) {
+				intervals[intervalsSize++] = crossings[i];
+				intervals[intervalsSize++] = crossings[i + 1];
+			}
+		}
+		return toTileRanges(intervals, intervalsSize / 2, scale, zoom);
+	}
+
+	private static TIntArrayList toTileRanges(double[] intervals, int size, double scale, int zoom) {
+		long[] ranges = new long[size];
+		for (int i = 0; i < size; i++) {
+			long from = clamp((int) Math.floor(intervals[i * 2] * scale), zoom);
+			long to = clamp((int) Math.floor(intervals[i * 2 + 1] * scale), zoom);
+			ranges[i] = (from << 32) | to;
+		}
+		Arrays.sort(ranges);
+		TIntArrayList result = new TIntArrayList();
+		for (long range : ranges) {
+			int from = (int) (range >>> 32);
+			int to = (int) range;
+			int last = result.size() - 1;
+			if (last > 0 && from <= result.getQuick(last) + 1) {
+				result.setQuick(last, Math.max(to, result.getQuick(last)));
+			} else {
+				result.add(from);
+				result.add(to);
+			}
+		}
+		return result;
+	}
+
+	private static int clamp(int tile, int zoom) {
+		return Math.max(0, Math.min((1 << zoom) - 1, tile));
+	}
+}
@@ -545,6 +545,11 @@ public class GeneralRouter implements VehicleRouter {
 		return sp;
 	}
 
+	@Override
+	public float getMaxDestinationPriority() {
+		return getObjContext(RouteDataObjectAttribute.DESTINATION_PRIORITIES).getMaxFloatValue(1f);
+	}
+
 	private void putCache(RouteDataObjectAttribute attr, RouteDataObject road, Float val) {
 		putCache(attr, road.region, road.types, val, false);
 	}
@@ -885,6 +890,25 @@ public class GeneralRouter implements VehicleRouter {
 			return ((Number)o).intValue();
 		}
 		
+		/**
+		 * @return maximum of rule values and defValue or -1 if some rule value is calculated for the road
+		 */
+		public float getMaxFloatValue(float defValue) {
+			float max = defValue;
+			for (RouteAttributeEvalRule rule : rules) {
+				Object value = rule.selectValue;
+				if (value instanceof String && value.toString().startsWith(":") && paramContext != null) {
+					String param = paramContext.vars.get(value.toString().substring(1));
+					value = param == null ? null : parseValue(param, rule.selectType);
+				}
+				if (rule.selectExpression != null || !(value instanceof Number)) {
+					return -1;
+				}
+				max = Math.max(max, ((Number) value).floatValue());
+			}
+			return max;
+		}
+
 		public float evaluateFloat(RouteDataObject ro, float defValue) {
 			Object o = evaluate(ro);			
 			if(!(o instanceof Number)) {
@@ -7,9 +7,8 @@ import java.util.List;
 
 import net.osmand.binary.RouteDataObject;
 import net.osmand.data.LatLon;
+import net.osmand.data.PackedRTree;
 import net.osmand.data.QuadPoint;
-import net.osmand.data.QuadRect;
-import net.osmand.data.QuadTree;
 import net.osmand.util.MapUtils;
 
 public class PrecalculatedRouteDirection {
@@ -24,13 +23,12 @@ public class PrecalculatedRouteDirection {
 	private static final int[] SHIFTS = new int[]{1 << (31 - 15), 1 << (31 - 13), 1 << (31 - 12), 
 		1 << (31 - 11), 1 << (31 - 7)};
 	
-	private List<Integer> cachedS = new ArrayList<Integer>();
+	private final NearestPointVisitor nearestPoint = new NearestPointVisitor();
 	
 	private long startPoint = 0;
 	private long endPoint = 0;
 //	private DataTileManager<Integer> indexedPoints = new DataTileManager<Integer>(17);
-	QuadTree<Integer> quadTree = new QuadTree<Integer>(new QuadRect(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE),
-			8, 0.55f);
+	private PackedRTree pointsTree;
 	private float startFinishTime;
 	private float endFinishTime; 
 	
@@ -67,9 +65,9 @@ public class PrecalculatedRouteDirection {
 			pointsX[shiftInd] = parent.pointsX[i];
 			pointsY[shiftInd] = parent.pointsY[i];
 //			indexedPoints.registerObjectXY(parent.pointsX.get(i), parent.pointsY.get(i), pointsX.size() - 1);
-			quadTree.insert(shiftInd, parent.pointsX[i], parent.pointsY[i]);
 			tms[shiftInd] = parent.tms[i] - parent.tms[inverse ? s1 : s2];
 		}
+		pointsTree = PackedRTree.buildForPoints(pointsX, pointsY);
 	}
 	
 	public static PrecalculatedRouteDirection build(List<RouteSegmentResult> ls, float cutoffDistance, float maxSpeed){
@@ -146,12 +144,12 @@ public class PrecalculatedRouteDirection {
 			float dist = (float) MapUtils.measuredDist31(px.get(ip), py.get(ip), px.get(i), py.get(i));
 			float tm = dist / speedSegments.get(i);// routeSpd;
 			times.add(tm);
-			quadTree.insert(i, px.get(i), py.get(i));
 			// indexedPoints.registerObjectXY();
 			totaltm += tm;
 		}
 		pointsX = px.toArray();
 		pointsY = py.toArray();
+		pointsTree = PackedRTree.buildForPoints(pointsX, pointsY);
 		tms = new float[times.size()];
 		float totDec = totaltm;
 		for(int i = 0; i < times.size(); i++) {
@@ -216,32 +214,37 @@ public class PrecalculatedRouteDirection {
 	}
 
 	public int getIndex(int x31, int y31) {
-		int ind = -1;
-		cachedS.clear();
-//		indexedPoints.getObjects(x31 - SHIFT, y31 - SHIFT, x31 + SHIFT, y31 + SHIFT, cachedS);
-		quadTree.queryInBox(new QuadRect(x31 - SHIFT, y31 - SHIFT, x31 + SHIFT, y31 + SHIFT), cachedS);
-		if (cachedS.size() == 0) {
-			for (int k = 0; k < SHIFTS.length; k++) {
-				quadTree.queryInBox(new QuadRect(x31 - SHIFTS[k], y31 - SHIFTS[k], x31 + SHIFTS[k], y31 + SHIFTS[k]), cachedS);
-//				indexedPoints.getObjects(x31 - SHIFTS[k], y31 - SHIFTS[k], x31 + SHIFTS[k], y31 + SHIFTS[k],cachedS);
-				if (cachedS.size() != 0) {
-					break;
-				}
-			}
-			if (cachedS.size() == 0) {
-				return -1;
-			}
+		int ind = getNearestIndex(x31, y31, SHIFT);
+		for (int k = 0; k < SHIFTS.length && ind == -1; k++) {
+			ind = getNearestIndex(x31, y31, SHIFTS[k]);
 		}
-		double minDist = 0;
-		for (int i = 0; i < cachedS.size(); i++) {
-			Integer n = cachedS.get(i);
-			double ds = BinaryRoutePlanner.squareRootDist(x31, y31, pointsX[n], pointsY[n]);
-			if (ds < minDist || i == 0) {
-				ind = n;
+		return ind;
+	}
+
+	private int getNearestIndex(int x31, int y31, int shift) {
+		nearestPoint.x31 = x31;
+		nearestPoint.y31 = y31;
+		nearestPoint.ind = -1;
+		pointsTree.queryInBox(x31 - shift, y31 - shift, (int) Math.min((long) x31 + shift, Integer.MAX_VALUE),
+				(int) Math.min((long) y31 + shift, Integer.MAX_VALUE), nearestPoint);
+		return nearestPoint.ind;
+	}
+
+	private class NearestPointVisitor implements PackedRTree.Visitor {
+		int x31;
+		int y31;
+		int ind;
+		double minDist;
+
+		@Override
+		public boolean visit(int item) {
+			double ds = BinaryRoutePlanner.squareRootDist(x31, y31, pointsX[item], pointsY[item]);
+			if (ind == -1 || ds < minDist || (ds == minDist && item < ind)) {
+				ind = item;
 				minDist = ds;
 			}
+			return true;
 		}
-		return ind;
 	}
 
 	private long calc(int x31, int y31) {
@@ -0,0 +1,412 @@
+package net.osmand.router;
+
+import net.osmand.Location;
+import net.osmand.binary.BinaryMapRouteReaderAdapter.RouteRegion;
+import net.osmand.binary.BinaryMapRouteReaderAdapter.RouteTypeRule;
+import net.osmand.binary.RouteDataObject;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.osmand.binary.RouteDataObject.HEIGHT_UNDEFINED;
+
+/**
+ * Compact binary alternative to the GPX route extension written by {@link RouteExporter} and read by {@link RouteImporter}.
+ * Values are rounded the same way as the GPX writer does (lat/lon 7 digits, elevation 1 digit, floats 2 digits),
+ * so a route read back is the same as the one imported from the exported GPX.
+ * <p>
+ * Layout (all numbers are varints, signed ones are zigzag encoded):
+ * <pre>
+ * version
+ * strings:   count, (length, utf-8 bytes)*
+ * locations: count, (dLat, dLon, dElevation + 1 or 0 if undefined)*
+ * route point indexes: count, (dIndex)*
+ * rules:     count, (tag string, value string + 1 or 0 if null)*
+ * segments:  count, (length, time, speed, turn, osm id, types, point types, names, point names)*
+ * </pre>
+ * Reading works directly on a {@link ByteBuffer} (heap, direct or memory mapped) without intermediate strings.
+ */
+public class RouteBinarySerializer {
+
+	public static final int VERSION = 1;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final double LAT_LON_MULTIPLIER = 1e7;
+	private static final double ELEVATION_MULTIPLIER = 10;
+	private static final double FLOAT_MULTIPLIER = 100;
+
+	private static final int TURN_SKIP = 1;
+	private static final int TURN_ANGLE = 2;
+	private static final int TURN_LANES = 4;
+
+	public static byte[] writeRoute(List<RouteSegmentResult> route, List<Location> locations, List<Integer> routePointIndexes) {
+		if (locations == null) {
+			locations = new ArrayList<>();
+		}
+		if (routePointIndexes == null) {
+			routePointIndexes = new ArrayList<>();
+		}
+		RouteDataResources resources = new RouteDataResources(locations, routePointIndexes);
+		if (route == null) {
+			route = new ArrayList<>();
+		}
+		for (RouteSegmentResult sr : route) {
+			sr.collectTypes(resources);
+		}
+		for (RouteSegmentResult sr : route) {
+			sr.collectNames(resources);
+		}
+		Map<RouteTypeRule, Integer> rules = resources.getRules();
+		StringTable strings = new StringTable();
+
+		// segments go first as point names could add rules
+		Output segments = new Output(route.size() * 32);
+		segments.writeUInt(route.size());
+		for (RouteSegmentResult sr : route) {
+			int length = Math.abs(sr.getEndPointIndex() - sr.getStartPointIndex()) + 1;
+			// points are written in the route direction, same as in gpx
+			segments.writeUInt(length);
+			segments.writeSInt(roundFloat(sr.getSegmentTime()));
+			segments.writeSInt(roundFloat(sr.getSegmentSpeed()));
+			TurnType turnType = sr.getTurnType();
+			if (turnType == null) {
+				segments.writeUInt(0);
+			} else {
+				segments.writeUInt(strings.indexOf(turnType.toXmlString()) + 1);
+				int[] lanes = turnType.getLanes();
+				boolean hasLanes = lanes != null && lanes.length > 0;
+				int flags = (turnType.isSkipToSpeak() ? TURN_SKIP : 0) | (turnType.getTurnAngle() != 0 ? TURN_ANGLE : 0)
+						| (hasLanes ? TURN_LANES : 0);
+				segments.writeUInt(flags);
+				if (turnType.getTurnAngle() != 0) {
+					segments.writeSInt(roundFloat(turnType.getTurnAngle()));
+				}
+				if (hasLanes) {
+					segments.writeUInt(strings.indexOf(TurnType.lanesToString(lanes)));
+				}
+			}
+			segments.writeSLong(sr.getObject().getId() >> 6);
+			segments.writeArray(sr.getTypesToWrite(rules));
+			segments.writeArray(sr.getPointTypesToWrite(rules));
+			segments.writeArray(sr.getNameIdsToWrite(rules));
+			segments.writeArray(sr.getPointNamesToWrite(rules));
+		}
+
+		Output rulesOut = new Output(rules.size() * 4 + 4);
+		rulesOut.writeUInt(rules.size());
+		for (RouteTypeRule rule : rules.keySet()) {
+			rulesOut.writeUInt(strings.indexOf(rule.getTag()));
+			rulesOut.writeUInt(rule.getValue() == null ? 0 : strings.indexOf(rule.getValue()) + 1);
+		}
+
+		Output out = new Output(segments.size + rulesOut.size + locations.size() * 6 + strings.size() * 16 + 16);
+		out.writeUInt(VERSION);
+		out.writeUInt(strings.size());
+		for (String s : strings.list) {
+			byte[] bytes = s.getBytes(UTF_8);
+			out.writeUInt(bytes.length);
+			out.writeBytes(bytes, 0, bytes.length);
+		}
+		out.writeUInt(locations.size());
+		long prevLat = 0;
+		long prevLon = 0;
+		long prevElevation = 0;
+		for (Location loc : locations) {
+			long lat = Math.round(Math.rint(loc.getLatitude() * LAT_LON_MULTIPLIER));
+			long lon = Math.round(Math.rint(loc.getLongitude() * LAT_LON_MULTIPLIER));
+			out.writeSLong(lat - prevLat);
+			out.writeSLong(lon - prevLon);
+			prevLat = lat;
+			prevLon = lon;
+			if (loc.hasAltitude() && !Double.isNaN(loc.getAltitude())) {
+				long elevation = Math.round(Math.rint(loc.getAltitude() * ELEVATION_MULTIPLIER));
+				out.writeULong(zigzag(elevation - prevElevation) + 1);
+				prevElevation = elevation;
+			} else {
+				out.writeUInt(0);
+			}
+		}
+		out.writeUInt(routePointIndexes.size());
+		int prevIndex = 0;
+		for (int index : routePointIndexes) {
+			out.writeSInt(index - prevIndex);
+			prevIndex = index;
+		}
+		out.writeBytes(rulesOut.buf, 0, rulesOut.size);
+		out.writeBytes(segments.buf, 0, segments.size);
+		return Arrays.copyOf(out.buf, out.size);
+	}
+
+	public static List<RouteSegmentResult> readRoute(byte[] data, boolean leftSide) {
+		return readRoute(ByteBuffer.wrap(data), leftSide);
+	}
+
+	public static List<RouteSegmentResult> readRoute(ByteBuffer buffer, boolean leftSide) {
+		Input in = new Input(buffer.slice());
+		int version = in.readUInt();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported binary route version " + version);
+		}
+		String[] strings = new String[in.readUInt()];
+		for (int i = 0; i < strings.length; i++) {
+			strings[i] = in.readString(in.readUInt());
+		}
+
+		RouteRegion region = new RouteRegion();
+		RouteDataResources resources = new RouteDataResources();
+		List<Location> locations = resources.getLocations();
+		int locationsCount = in.readUInt();
+		long lat = 0;
+		long lon = 0;
+		long elevation = 0;
+		double lastElevation = HEIGHT_UNDEFINED;
+		for (int i = 0; i < locationsCount; i++) {
+			lat += in.readSLong();
+			lon += in.readSLong();
+			Location loc = new Location("", lat / LAT_LON_MULTIPLIER, lon / LAT_LON_MULTIPLIER);
+			long ele = in.readULong();
+			if (ele != 0) {
+				elevation += unzigzag(ele - 1);
+				lastElevation = elevation / ELEVATION_MULTIPLIER;
+				loc.setAltitude(lastElevation);
+			} else if (lastElevation != HEIGHT_UNDEFINED) {
+				loc.setAltitude(lastElevation);
+			}
+			locations.add(loc);
+		}
+		List<Integer> routePointIndexes = resources.getRoutePointIndexes();
+		int indexesCount = in.readUInt();
+		int index = 0;
+		for (int i = 0; i < indexesCount; i++) {
+			index += in.readSInt();
+			routePointIndexes.add(index);
+		}
+		int rulesCount = in.readUInt();
+		for (int i = 0; i < rulesCount; i++) {
+			String t = strings[in.readUInt()];
+			int v = in.readUInt();
+			region.initRouteEncodingRule(i, t, v == 0 ? null : strings[v - 1]);
+		}
+
+		int segmentsCount = in.readUInt();
+		List<RouteSegmentResult> route = new ArrayList<>(segmentsCount);
+		Map<Integer, int[]> lanesCache = new HashMap<>();
+		for (int i = 0; i < segmentsCount; i++) {
+			RouteSegmentResult sr = new RouteSegmentResult(new RouteDataObject(region), leftSide);
+			int length = in.readUInt();
+			sr.setSegmentTime(unroundFloat(in.readSInt()));
+			sr.setSegmentSpeed(unroundFloat(in.readSInt()));
+			int turn = in.readUInt();
+			if (turn != 0) {
+				TurnType turnType = TurnType.fromString(strings[turn - 1], leftSide);
+				int flags = in.readUInt();
+				turnType.setSkipToSpeak((flags & TURN_SKIP) != 0 || turnType.isSkipToSpeak());
+				if ((flags & TURN_ANGLE) != 0) {
+					turnType.setTurnAngle(unroundFloat(in.readSInt()));
+				}
+				int[] lanes = null;
+				if ((flags & TURN_LANES) != 0) {
+					int lanesString = in.readUInt();
+					lanes = lanesCache.get(lanesString);
+					if (lanes == null) {
+						lanes = TurnType.lanesFromString(strings[lanesString]);
+						lanesCache.put(lanesString, lanes);
+					}
+					lanes = lanes == null ? null : lanes.clone();
+				}
+				turnType.setLanes(lanes);
+				sr.setTurnType(turnType);
+			}
+			long osmId = in.readSLong();
+			int[] types = in.readArray();
+			int[][] pointTypes = in.readArrays();
+			int[] nameIds = in.readArray();
+			int[][] pointNames = in.readArrays();
+			try {
+				sr.readRouteData(resources, length, osmId, types, pointTypes, nameIds, pointNames);
+			} catch (IllegalStateException e) {
+				RouteImporter.log.error(e.getMessage());
+				break;
+			}
+			route.add(sr);
+		}
+		for (RouteSegmentResult sr : route) {
+			sr.fillNames(resources);
+		}
+		return route;
+	}
+
+	private static int roundFloat(float value) {
+		return (int) Math.rint(value * FLOAT_MULTIPLIER);
+	}
+
+	private static float unroundFloat(int value) {
+		return (float) (value / FLOAT_MULTIPLIER);
+	}
+
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static class StringTable {
+		private final List<String> list = new ArrayList<>();
+		private final Map<String, Integer> indexes = new HashMap<>();
+
+		int indexOf(String s) {
+			Integer index = indexes.get(s);
+			if (index == null) {
+				index = list.size();
+				list.add(s);
+				indexes.put(s, index);
+			}
+			return index;
+		}
+
+		int size() {
+			return list.size();
+		}
+	}
+
+	private static class Output {
+		private byte[] buf;
+		private int size;
+
+		Output(int capacity) {
+			buf = new byte[Math.max(16, capacity)];
+		}
+
+		private void ensureCapacity(int extra) {
+			if (size + extra > buf.length) {
+				buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+			}
+		}
+
+		void writeBytes(byte[] bytes, int offset, int length) {
+			ensureCapacity(length);
+			System.arraycopy(bytes, offset, buf, size, length);
+			size += length;
+		}
+
+		void writeULong(long value) {
+			ensureCapacity(10);
+			while ((value & ~0x7FL) != 0) {
+				buf[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buf[size++] = (byte) value;
+		}
+
+		void writeUInt(int value) {
+			writeULong(value & 0xFFFFFFFFL);
+		}
+
+		void writeSLong(long value) {
+			writeULong(zigzag(value));
+		}
+
+		void writeSInt(int value) {
+			writeULong(zigzag(value));
+		}
+
+		// null is written as 0, otherwise length + 1
+		void writeArray(int[] array) {
+			if (array == null) {
+				writeUInt(0);
+				return;
+			}
+			writeUInt(array.length + 1);
+			for (int value : array) {
+				writeUInt(value);
+			}
+		}
+
+		void writeArray(int[][] array) {
+			if (array == null) {
+				writeUInt(0);
+				return;
+			}
+			writeUInt(array.length + 1);
+			for (int[] values : array) {
+				writeArray(values != null && values.length > 0 ? values : null);
+			}
+		}
+	}
+
+	private static class Input {
+		private final ByteBuffer buf;
+
+		Input(ByteBuffer buf) {
+			this.buf = buf;
+		}
+
+		long readULong() {
+			long result = 0;
+			int shift = 0;
+			while (true) {
+				byte b = buf.get();
+				result |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return result;
+				}
+				shift += 7;
+			}
+		}
+
+		int readUInt() {
+			return (int) readULong();
+		}
+
+		long readSLong() {
+			return unzigzag(readULong());
+		}
+
+		int readSInt() {
+			return (int) unzigzag(readULong());
+		}
+
+		String readString(int length) {
+			if (buf.hasArray()) {
+				String s = new String(buf.array(), buf.arrayOffset() + buf.position(), length, UTF_8);
+				buf.position(buf.position() + length);
+				return s;
+			}
+			byte[] bytes = new byte[length];
+			buf.get(bytes);
+			return new String(bytes, UTF_8);
+		}
+
+		int[] readArray() {
+			int length = readUInt() - 1;
+			if (length < 0) {
+				return null;
+			}
+			int[] array = new int[length];
+			for (int i = 0; i < length; i++) {
+				array[i] = readUInt();
+			}
+			return array;
+		}
+
+		int[][] readArrays() {
+			int length = readUInt() - 1;
+			if (length < 0) {
+				return null;
+			}
+			int[][] array = new int[length][];
+			for (int i = 0; i < length; i++) {
+				array[i] = readArray();
+			}
+			return array;
+		}
+	}
+}
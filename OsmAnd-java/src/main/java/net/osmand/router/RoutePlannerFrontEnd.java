@@ -146,22 +146,47 @@ public class RoutePlannerFrontEnd {
 	
 	public RouteSegmentPoint findRouteSegment(double lat, double lon, RoutingContext ctx, List<RouteSegmentPoint> list, boolean transportStop, 
 			boolean allowDuplications) throws IOException {
+		return findRouteSegment(lat, lon, ctx, list, transportStop, allowDuplications, 0);
+	}
+
+	/**
+	 * @param maxDistance if positive only roads closer than maxDistance (meters) are returned, they are looked up
+	 * through segment index of loaded tiles instead of projecting on every point of every road
+	 */
+	public RouteSegmentPoint findRouteSegment(double lat, double lon, RoutingContext ctx, List<RouteSegmentPoint> list, boolean transportStop, 
+			boolean allowDuplications, double maxDistance) throws IOException {
 		long now = System.nanoTime();
 		int px = MapUtils.get31TileNumberX(lon);
 		int py = MapUtils.get31TileNumberY(lat);
-		ArrayList<RouteDataObject> dataObjects = new ArrayList<RouteDataObject>();
-		ctx.loadTileData(px, py, 17, dataObjects, allowDuplications);
-		if (dataObjects.isEmpty()) {
-			ctx.loadTileData(px, py, 15, dataObjects, allowDuplications);
-		}
-		if (dataObjects.isEmpty()) {
-			ctx.loadTileData(px, py, 14, dataObjects, allowDuplications);
-		}
 		if (list == null) {
 			list = new ArrayList<BinaryRoutePlanner.RouteSegmentPoint>();
 		}
-		for (RouteDataObject r : dataObjects) {
-			if (r.getPointsLength() > 1) {
+		List<RouteSegmentPoint> roads = new ArrayList<BinaryRoutePlanner.RouteSegmentPoint>();
+		if (maxDistance > 0) {
+			ctx.loadNearestSegments(px, py, 17, maxDistance, roads, allowDuplications);
+			if (roads.isEmpty()) {
+				ctx.loadNearestSegments(px, py, 15, maxDistance, roads, allowDuplications);
+			}
+			if (roads.isEmpty()) {
+				ctx.loadNearestSegments(px, py, 14, maxDistance, roads, allowDuplications);
+			}
+			for (int i = 0; i < roads.size(); i++) {
+				RouteSegmentPoint p = roads.get(i);
+				RouteSegmentPoint road = new RouteSegmentPoint(new RouteDataObject(p.road), p.getSegmentStart(), p.distSquare);
+				road.preciseX = p.preciseX;
+				road.preciseY = p.preciseY;
+				roads.set(i, road);
+			}
+		} else {
+			ArrayList<RouteDataObject> dataObjects = new ArrayList<RouteDataObject>();
+			ctx.loadTileData(px, py, 17, dataObjects, allowDuplications);
+			if (dataObjects.isEmpty()) {
+				ctx.loadTileData(px, py, 15, dataObjects, allowDuplications);
+			}
+			if (dataObjects.isEmpty()) {
+				ctx.loadTileData(px, py, 14, dataObjects, allowDuplications);
+			}
+			for (RouteDataObject r : dataObjects) {
 				RouteSegmentPoint road = null;
 				for (int j = 1; j < r.getPointsLength(); j++) {
 					QuadPoint pr = MapUtils.getProjectionPoint31(px, py, r.getPoint31XTile(j - 1),
@@ -176,20 +201,22 @@ public class RoutePlannerFrontEnd {
 					}
 				}
 				if (road != null) {
-					if (!transportStop) {
-						float prio = ctx.getRouter().defineDestinationPriority(road.road);
-						if (prio > 0) {
-							road.distSquare = (road.distSquare + GPS_POSSIBLE_ERROR * GPS_POSSIBLE_ERROR)
-									/ (prio * prio);
-							list.add(road);
-						}
-					} else {
-						list.add(road);
-					}
-					
+					roads.add(road);
 				}
 			}
 		}
+		for (RouteSegmentPoint road : roads) {
+			if (!transportStop) {
+				float prio = ctx.getRouter().defineDestinationPriority(road.road);
+				if (prio > 0) {
+					road.distSquare = (road.distSquare + GPS_POSSIBLE_ERROR * GPS_POSSIBLE_ERROR)
+							/ (prio * prio);
+					list.add(road);
+				}
+			} else {
+				list.add(road);
+			}
+		}
 		Collections.sort(list, new Comparator<RouteSegmentPoint>() {
 
 			@Override
@@ -602,7 +629,8 @@ public class RoutePlannerFrontEnd {
 	private boolean initRoutingPoint(GpxPoint start, GpxRouteApproximation gctx, double distThreshold) throws IOException {
 		if (start != null && start.pnt == null) {
 			gctx.routePointsSearched++;
-			RouteSegmentPoint rsp = findRouteSegment(start.loc.getLatitude(), start.loc.getLongitude(), gctx.ctx, null, false);
+			RouteSegmentPoint rsp = findRouteSegment(start.loc.getLatitude(), start.loc.getLongitude(), gctx.ctx, null, false,
+					false, distThreshold);
 			if (rsp != null) {
 				if (MapUtils.getDistance(rsp.getPreciseLatLon(), start.loc) < distThreshold) {
 					start.pnt = rsp;
@@ -0,0 +1,159 @@
+package net.osmand.router;
+
+import net.osmand.data.RouteCorridorIndex;
+
+/**
+ * Tracks position on the route for consecutive locations. Segments after the current one are checked
+ * in a small window, the spatial index of the route is used only when location jumps out of the window
+ * (e.g. after a tunnel or lost GPS signal). The jump is limited by the distance which could be passed since
+ * the previous location, so on self-crossing and out-and-back routes later parts of the route are not matched.
+ * Projection is calculated from the primitive arrays of the index without allocations.
+ */
+public class RouteProgressTracker {
+
+	public static final int LOOK_AHEAD_SEGMENTS = 15;
+	// search jumps forward only when the location is farther than this from the segments in the window
+	private static final double JUMP_DISTANCE = 50;
+	// jump along the route is allowed at least for this distance
+	private static final double MIN_JUMP_DISTANCE = 200;
+	// fastest expected speed (m/s) to limit the jump by elapsed time
+	private static final double MAX_JUMP_SPEED = 70;
+	// route between two locations could be longer than straight line
+	private static final double JUMP_ROUTE_FACTOR = 2;
+
+	private final RouteCorridorIndex index;
+	private final double[] distance = new double[1];
+
+	// index of the next route point (current segment connects currentRoute - 1 and currentRoute)
+	private int currentRoute;
+	private double deviation = Double.POSITIVE_INFINITY;
+	private double projectionLat;
+	private double projectionLon;
+	private double distanceAlongRoute;
+
+	public RouteProgressTracker(RouteCorridorIndex index) {
+		this.index = index;
+	}
+
+	public RouteCorridorIndex getIndex() {
+		return index;
+	}
+
+	public int getCurrentRoute() {
+		return currentRoute;
+	}
+
+	public void setCurrentRoute(int currentRoute) {
+		this.currentRoute = currentRoute;
+	}
+
+	/**
+	 * @return distance from the last location to the route or infinity if the location is not matched
+	 */
+	public double getDeviation() {
+		return deviation;
+	}
+
+	public double getProjectionLatitude() {
+		return projectionLat;
+	}
+
+	public double getProjectionLongitude() {
+		return projectionLon;
+	}
+
+	public double getDistanceAlongRoute() {
+		return distanceAlongRoute;
+	}
+
+	public double getDistanceToFinish() {
+		return index.getRouteDistance() - distanceAlongRoute;
+	}
+
+	/**
+	 * Distance along the route which could be passed between two locations
+	 *
+	 * @param elapsedTime time between locations in ms, 0 if unknown
+	 * @param travelledDistance straight line distance between locations
+	 */
+	public static double getMaxJumpDistance(long elapsedTime, double travelledDistance) {
+		double jump = travelledDistance * JUMP_ROUTE_FACTOR;
+		if (elapsedTime > 0) {
+			jump = Math.min(jump, elapsedTime / 1000d * MAX_JUMP_SPEED);
+		}
+		return MIN_JUMP_DISTANCE + jump;
+	}
+
+	/**
+	 * @return start point index of the nearest segment among the next segments
+	 * (same as looking ahead with orthogonal distances from each segment)
+	 */
+	public int lookAheadNearestSegment(double lat, double lon, int fromPoint, int segments) {
+		double minDistance = Double.POSITIVE_INFINITY;
+		int nearest = fromPoint;
+		int points = index.getPointsCount();
+		for (int i = fromPoint; i < fromPoint + segments && i + 1 < points; i++) {
+			double d = index.getSegmentDistance(lat, lon, i + 1);
+			if (d < minDistance) {
+				minDistance = d;
+				nearest = i;
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Finds the nearest segment starting from fromSegment by the spatial index, segments starting farther than
+	 * maxJumpDistance along the route from fromSegment are not checked
+	 *
+	 * @return index of the end point of the segment or -1 if there is no segment within the radius
+	 */
+	public int findForwardSegment(double lat, double lon, double radius, int fromSegment, double maxJumpDistance) {
+		fromSegment = Math.max(1, fromSegment);
+		if (fromSegment >= index.getPointsCount()) {
+			return -1;
+		}
+		int toSegment = index.getSegmentByDistance(index.getDistanceFromStart(fromSegment - 1) + maxJumpDistance);
+		return index.findNearestSegment(lat, lon, radius, fromSegment, toSegment, distance);
+	}
+
+	/**
+	 * Moves current position forward to the nearest segment of the window, or of the next part of the route
+	 * if the location is too far from the window
+	 *
+	 * @param maxDeviation location farther than this from the route is not matched
+	 * @param maxJumpDistance max distance along the route from the current segment (see {@link #getMaxJumpDistance})
+	 * @return true if the location is matched to the route
+	 */
+	public boolean updateLocation(double lat, double lon, double maxDeviation, double maxJumpDistance) {
+		int points = index.getPointsCount();
+		if (points < 2) {
+			deviation = Double.POSITIVE_INFINITY;
+			return false;
+		}
+		int fromSegment = Math.max(1, currentRoute);
+		int nearest = lookAheadNearestSegment(lat, lon, fromSegment - 1, LOOK_AHEAD_SEGMENTS) + 1;
+		double nearestDistance = index.getSegmentDistance(lat, lon, nearest);
+		if (nearestDistance > Math.min(JUMP_DISTANCE, maxDeviation)) {
+			int jump = findForwardSegment(lat, lon, Math.min(nearestDistance, maxDeviation), fromSegment, maxJumpDistance);
+			if (jump != -1 && distance[0] < nearestDistance) {
+				nearest = jump;
+				nearestDistance = distance[0];
+			}
+		}
+		if (nearestDistance > maxDeviation) {
+			deviation = nearestDistance;
+			return false;
+		}
+		currentRoute = nearest;
+		deviation = nearestDistance;
+		double coeff = index.getProjectionCoeff(lat, lon, nearest);
+		double fromLat = index.getLatitude(nearest - 1);
+		double fromLon = index.getLongitude(nearest - 1);
+		projectionLat = fromLat + (index.getLatitude(nearest) - fromLat) * coeff;
+		projectionLon = fromLon + (index.getLongitude(nearest) - fromLon) * coeff;
+		distanceAlongRoute = index.getDistanceFromStart(nearest - 1)
+				+ (index.getDistanceFromStart(nearest) - index.getDistanceFromStart(nearest - 1)) * coeff;
+		return true;
+	}
+}
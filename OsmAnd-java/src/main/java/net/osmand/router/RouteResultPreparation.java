@@ -15,6 +15,13 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.xmlpull.v1.XmlPullParser;
@@ -51,6 +58,16 @@ public class RouteResultPreparation {
 	public static final int SHIFT_ID = 6;
 	protected static final Log LOG = PlatformUtil.getLog(RouteResultPreparation.class);
 	public static final String UNMATCHED_HIGHWAY_TYPE = "unmatched";
+	// minimal segments per thread to prepare result in parallel
+	static int PARALLEL_MIN_CHUNK = 500;
+	private static final int PARALLEL_CHUNKS_PER_THREAD = 4;
+	// shared by all routes, idle threads are stopped
+	private static ExecutorService preparationExecutor;
+
+	private interface ChunkTask {
+		void process(int start, int end);
+	}
+
 	/**
 	 * Helper method to prepare final result 
 	 */
@@ -228,9 +245,14 @@ public class RouteResultPreparation {
 	}
 
 	public void prepareTurnResults(RoutingContext ctx, List<RouteSegmentResult> result) {
-		for (int i = 0; i < result.size(); i ++) {
-			TurnType turnType = getTurnInfo(result, i, ctx.leftSideNavigation);
-			result.get(i).setTurnType(turnType);
+		int threads = getPreparationThreads(ctx, result.size());
+		if (threads > 1) {
+			calculateTurnsInParallel(result, ctx.leftSideNavigation, threads);
+		} else {
+			for (int i = 0; i < result.size(); i++) {
+				TurnType turnType = getTurnInfo(result, i, ctx.leftSideNavigation);
+				result.get(i).setTurnType(turnType);
+			}
 		}
 		
 		determineTurnsToMerge(ctx.leftSideNavigation, result);
@@ -240,6 +262,86 @@ public class RouteResultPreparation {
 		addTurnInfoDescriptions(result);
 	}
 
+	private void calculateTurnsInParallel(final List<RouteSegmentResult> result, final boolean leftSide, int threads) {
+		// Turn of segment depends on previous segment turn only through its lanes (turn lanes continuation).
+		// Chunks are calculated in parallel without first segment, then first segments are calculated in order
+		// and following segments are recalculated while previous turn has (or had) lanes.
+		int chunkSize = getChunkSize(result.size(), threads);
+		processInParallel(result.size(), chunkSize, threads, new ChunkTask() {
+			@Override
+			public void process(int start, int end) {
+				for (int i = start; i < end; i++) {
+					result.get(i).setTurnType(i == start && start > 0 ? null : getTurnInfo(result, i, leftSide));
+				}
+			}
+		});
+		for (int start = chunkSize; start < result.size(); start += chunkSize) {
+			int end = Math.min(result.size(), start + chunkSize);
+			boolean affectsNext = true;
+			for (int i = start; i < end && affectsNext; i++) {
+				TurnType old = result.get(i).getTurnType();
+				TurnType t = getTurnInfo(result, i, leftSide);
+				result.get(i).setTurnType(t);
+				affectsNext = hasLanes(old) || hasLanes(t);
+			}
+		}
+	}
+
+	private static int getPreparationThreads(RoutingContext ctx, int size) {
+		return Math.min(ctx.config.routePreparationThreads, size / PARALLEL_MIN_CHUNK);
+	}
+
+	private static int getChunkSize(int size, int threads) {
+		int chunks = threads * PARALLEL_CHUNKS_PER_THREAD;
+		return (size + chunks - 1) / chunks;
+	}
+
+	private static synchronized ExecutorService getPreparationExecutor() {
+		if (preparationExecutor == null) {
+			preparationExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "RoutePreparation");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return preparationExecutor;
+	}
+
+	private static void processInParallel(final int size, final int chunkSize, int threads, final ChunkTask task) {
+		// every thread takes next chunk until all chunks are processed
+		final AtomicInteger nextChunk = new AtomicInteger();
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (int t = 0; t < threads; t++) {
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					int start;
+					while ((start = nextChunk.getAndIncrement() * chunkSize) < size) {
+						task.process(start, Math.min(size, start + chunkSize));
+					}
+					return null;
+				}
+			});
+		}
+		try {
+			for (Future<Void> f : getPreparationExecutor().invokeAll(tasks)) {
+				f.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	private static boolean hasLanes(TurnType t) {
+		return t != null && t.getLanes() != null;
+	}
+
 	protected void ignorePrecedingStraightsOnSameIntersection(boolean leftside, List<RouteSegmentResult> result) {
 		//Issue 2571: Ignore TurnType.C if immediately followed by another turn in non-motorway cases, as these likely belong to the very same intersection
 		RouteSegmentResult nextSegment = null;
@@ -290,7 +392,7 @@ public class RouteResultPreparation {
 	// reference speed 30ms (108kmh) - 2ms (7kmh)
 	private static final double SLOW_DOWN_SPEED = 2;
 	
-	public static void calculateTimeSpeed(RoutingContext ctx, List<RouteSegmentResult> result) {
+	public static void calculateTimeSpeed(RoutingContext ctx, final List<RouteSegmentResult> result) {
 		// Naismith's/Scarf rules add additional travel time when moving uphill
 		boolean useNaismithRule = false;
 		double scarfSeconds = 0; // Additional time as per Naismith/Scarf
@@ -305,10 +407,13 @@ public class RouteResultPreparation {
 			useNaismithRule = true;
 		}
 
+		// router is not thread safe, so speeds, obstacles and heights are evaluated here
+		// and distances with times are calculated in parallel
+		final double[] speeds = new double[result.size()];
+		final double[][] obstacles = new double[result.size()][];
 		for (int i = 0; i < result.size(); i++) {
 			RouteSegmentResult rr = result.get(i);
 			RouteDataObject road = rr.getObject();
-			double distOnRoadToPass = 0;
 			double speed = ctx.getRouter().defineVehicleSpeed(road);
 			if (speed == 0) {
 				speed = ctx.getRouter().getDefaultSpeed();
@@ -317,53 +422,88 @@ public class RouteResultPreparation {
 					speed = speed - (speed / SLOW_DOWN_SPEED_THRESHOLD - 1) * SLOW_DOWN_SPEED;
 				}
 			}
+			speeds[i] = speed;
 			boolean plus = rr.getStartPointIndex() < rr.getEndPointIndex();
 			int next;
-			double distance = 0;
-
+			for (int j = rr.getStartPointIndex(), k = 0; j != rr.getEndPointIndex(); j = next, k++) {
+				next = plus ? j + 1 : j - 1;
+				double obstacle = ctx.getRouter().defineObstacle(road, j, plus);
+				if (obstacle > 0) {
+					if (obstacles[i] == null) {
+						obstacles[i] = new double[Math.abs(rr.getEndPointIndex() - rr.getStartPointIndex())];
+					}
+					obstacles[i][k] = obstacle;
+				}
+			}
 			//for Naismith/Scarf
-			float[] heightDistanceArray = null;
 			if (useNaismithRule) {
 				road.calculateHeightArray();
-				heightDistanceArray = road.heightDistanceArray;
 			}
+		}
+		final boolean naismithRule = useNaismithRule;
+		final double scarf = scarfSeconds;
+		ChunkTask task = new ChunkTask() {
+			@Override
+			public void process(int start, int end) {
+				for (int i = start; i < end; i++) {
+					calculateSegmentTimeSpeed(result.get(i), speeds[i], obstacles[i], naismithRule, scarf);
+				}
+			}
+		};
+		int threads = getPreparationThreads(ctx, result.size());
+		if (threads > 1) {
+			processInParallel(result.size(), getChunkSize(result.size(), threads), threads, task);
+		} else {
+			task.process(0, result.size());
+		}
+	}
 
-			for (int j = rr.getStartPointIndex(); j != rr.getEndPointIndex(); j = next) {
-				next = plus ? j + 1 : j - 1;
-				double d = measuredDist(road.getPoint31XTile(j), road.getPoint31YTile(j), road.getPoint31XTile(next),
-						road.getPoint31YTile(next));
-				distance += d;
-				double obstacle = ctx.getRouter().defineObstacle(road, j, plus);
-				if (obstacle < 0) {
-					obstacle = 0;
-				}
-				distOnRoadToPass += d / speed + obstacle;  //this is time in seconds
-
-				//for Naismith/Scarf
-				if (useNaismithRule) {
-					int heightIndex = 2 * j + 1;
-					int nextHeightIndex = 2 * next + 1;
-					if (heightDistanceArray != null && heightIndex < heightDistanceArray.length && nextHeightIndex < heightDistanceArray.length) {
-						float heightDiff = heightDistanceArray[nextHeightIndex] - heightDistanceArray[heightIndex];
-						if (heightDiff > 0) { // ascent only
-							// Naismith/Scarf rule: An ascent adds 7.92 times the hiking time its vertical elevation gain takes to cover horizontally
-							//   (- Naismith original: Add 1 hour per vertical 2000ft (600m) at assumed horizontal speed 3mph)
-							//   (- Swiss Alpine Club: Uses conservative 1 hour per 400m at 4km/h)
-							distOnRoadToPass += heightDiff * scarfSeconds;
-						}
+	private static void calculateSegmentTimeSpeed(RouteSegmentResult rr, double speed, double[] obstacles,
+	                                              boolean useNaismithRule, double scarfSeconds) {
+		RouteDataObject road = rr.getObject();
+		double distOnRoadToPass = 0;
+		boolean plus = rr.getStartPointIndex() < rr.getEndPointIndex();
+		int next;
+		double distance = 0;
+
+		//for Naismith/Scarf
+		float[] heightDistanceArray = null;
+		if (useNaismithRule) {
+			heightDistanceArray = road.heightDistanceArray;
+		}
+
+		for (int j = rr.getStartPointIndex(), k = 0; j != rr.getEndPointIndex(); j = next, k++) {
+			next = plus ? j + 1 : j - 1;
+			double d = measuredDist(road.getPoint31XTile(j), road.getPoint31YTile(j), road.getPoint31XTile(next),
+					road.getPoint31YTile(next));
+			distance += d;
+			double obstacle = obstacles == null ? 0 : obstacles[k];
+			distOnRoadToPass += d / speed + obstacle;  //this is time in seconds
+
+			//for Naismith/Scarf
+			if (useNaismithRule) {
+				int heightIndex = 2 * j + 1;
+				int nextHeightIndex = 2 * next + 1;
+				if (heightDistanceArray != null && heightIndex < heightDistanceArray.length && nextHeightIndex < heightDistanceArray.length) {
+					float heightDiff = heightDistanceArray[nextHeightIndex] - heightDistanceArray[heightIndex];
+					if (heightDiff > 0) { // ascent only
+						// Naismith/Scarf rule: An ascent adds 7.92 times the hiking time its vertical elevation gain takes to cover horizontally
+						//   (- Naismith original: Add 1 hour per vertical 2000ft (600m) at assumed horizontal speed 3mph)
+						//   (- Swiss Alpine Club: Uses conservative 1 hour per 400m at 4km/h)
+						distOnRoadToPass += heightDiff * scarfSeconds;
 					}
 				}
 			}
+		}
 
-			// last point turn time can be added
-			// if(i + 1 < result.size()) { distOnRoadToPass += ctx.getRouter().calculateTurnTime(); }
-			rr.setDistance((float) distance);
-			rr.setSegmentTime((float) distOnRoadToPass);
-			if (distOnRoadToPass != 0) {
-				rr.setSegmentSpeed((float) (distance / distOnRoadToPass));  //effective segment speed incl. obstacle and height effects
-			} else {
-				rr.setSegmentSpeed((float) speed);
-			}
+		// last point turn time can be added
+		// if(i + 1 < result.size()) { distOnRoadToPass += ctx.getRouter().calculateTurnTime(); }
+		rr.setDistance((float) distance);
+		rr.setSegmentTime((float) distOnRoadToPass);
+		if (distOnRoadToPass != 0) {
+			rr.setSegmentSpeed((float) (distance / distOnRoadToPass));  //effective segment speed incl. obstacle and height effects
+		} else {
+			rr.setSegmentSpeed((float) speed);
 		}
 	}
 
@@ -393,6 +533,8 @@ public class RouteResultPreparation {
 	}
 
 	private void splitRoadsAndAttachRoadSegments(RoutingContext ctx, List<RouteSegmentResult> result, boolean recalculation) throws IOException {
+		// roads are attached in this thread as tiles are loaded through the context,
+		// then segments are split in parallel and split parts take attached roads of their points
 		for (int i = 0; i < result.size(); i++) {
 			if (ctx.checkIfMemoryLimitCritical(ctx.config.memoryLimitation)) {
 				ctx.unloadUnusedTiles(ctx.config.memoryLimitation);
@@ -400,7 +542,6 @@ public class RouteResultPreparation {
 			RouteSegmentResult rr = result.get(i);
 			boolean plus = rr.getStartPointIndex() < rr.getEndPointIndex();
 			int next;
-			boolean unmatched = UNMATCHED_HIGHWAY_TYPE.equals(rr.getObject().getHighway());
 			for (int j = rr.getStartPointIndex(); j != rr.getEndPointIndex(); j = next) {
 				next = plus ? j + 1 : j - 1;
 				if (j == rr.getStartPointIndex()) {
@@ -409,51 +550,84 @@ public class RouteResultPreparation {
 				if (next != rr.getEndPointIndex()) {
 					attachRoadSegments(ctx, result, i, next, plus, recalculation);
 				}
-				List<RouteSegmentResult> attachedRoutes = rr.getAttachedRoutes(next);
-				boolean tryToSplit = next != rr.getEndPointIndex() && !rr.getObject().roundabout() && attachedRoutes != null;
-				if (rr.getDistance(next, plus) == 0) {
-					// same point will be processed next step
-					tryToSplit = false;
-				}
-				if (tryToSplit) {
-					float distBearing = unmatched ? RouteSegmentResult.DIST_BEARING_DETECT_UNMATCHED : RouteSegmentResult.DIST_BEARING_DETECT;
-					// avoid small zigzags
-					float before = rr.getBearingEnd(next, distBearing);
-					float after = rr.getBearingBegin(next, distBearing);
-					if (rr.getDistance(next, plus) < distBearing) {
-						after = before;
-					} else if (rr.getDistance(next, !plus) < distBearing) {
-						before = after;
-					}
-					double contAngle = Math.abs(MapUtils.degreesDiff(before, after));
-					boolean straight = contAngle < TURN_DEGREE_MIN;
-					boolean isSplit = false;
-					
-					if (unmatched && Math.abs(contAngle) >= UNMATCHED_TURN_DEGREE_MINIMUM) {
+			}
+		}
+		final List<RouteSegmentResult> segments = new ArrayList<RouteSegmentResult>(result);
+		final List<RouteSegmentResult>[] splitSegments = new List[segments.size()];
+		ChunkTask task = new ChunkTask() {
+			@Override
+			public void process(int start, int end) {
+				for (int i = start; i < end; i++) {
+					splitSegments[i] = splitRoad(segments.get(i));
+				}
+			}
+		};
+		int threads = getPreparationThreads(ctx, segments.size());
+		if (threads > 1) {
+			processInParallel(segments.size(), getChunkSize(segments.size(), threads), threads, task);
+		} else {
+			task.process(0, segments.size());
+		}
+		result.clear();
+		for (List<RouteSegmentResult> split : splitSegments) {
+			result.addAll(split);
+		}
+	}
+
+	private static List<RouteSegmentResult> splitRoad(RouteSegmentResult rr) {
+		List<RouteSegmentResult> split = new ArrayList<RouteSegmentResult>(1);
+		split.add(rr);
+		boolean plus = rr.getStartPointIndex() < rr.getEndPointIndex();
+		int next;
+		boolean unmatched = UNMATCHED_HIGHWAY_TYPE.equals(rr.getObject().getHighway());
+		for (int j = rr.getStartPointIndex(); j != rr.getEndPointIndex(); j = next) {
+			next = plus ? j + 1 : j - 1;
+			List<RouteSegmentResult> attachedRoutes = rr.getAttachedRoutes(next);
+			boolean tryToSplit = next != rr.getEndPointIndex() && !rr.getObject().roundabout() && attachedRoutes != null;
+			if (rr.getDistance(next, plus) == 0) {
+				// same point will be processed next step
+				tryToSplit = false;
+			}
+			if (tryToSplit) {
+				float distBearing = unmatched ? RouteSegmentResult.DIST_BEARING_DETECT_UNMATCHED : RouteSegmentResult.DIST_BEARING_DETECT;
+				// avoid small zigzags
+				float before = rr.getBearingEnd(next, distBearing);
+				float after = rr.getBearingBegin(next, distBearing);
+				if (rr.getDistance(next, plus) < distBearing) {
+					after = before;
+				} else if (rr.getDistance(next, !plus) < distBearing) {
+					before = after;
+				}
+				double contAngle = Math.abs(MapUtils.degreesDiff(before, after));
+				boolean straight = contAngle < TURN_DEGREE_MIN;
+				boolean isSplit = false;
+				
+				if (unmatched && Math.abs(contAngle) >= UNMATCHED_TURN_DEGREE_MINIMUM) {
+					isSplit = true;
+				}
+				// split if needed
+				for (RouteSegmentResult rs : attachedRoutes) {
+					double diff = MapUtils.degreesDiff(before, rs.getBearingBegin());
+					if (Math.abs(diff) <= TURN_DEGREE_MIN) {
+						isSplit = true;
+					} else if (!straight && Math.abs(diff) < SPLIT_TURN_DEGREE_NOT_STRAIGHT) {
 						isSplit = true;
 					}
-					// split if needed
-					for (RouteSegmentResult rs : attachedRoutes) {
-						double diff = MapUtils.degreesDiff(before, rs.getBearingBegin());
-						if (Math.abs(diff) <= TURN_DEGREE_MIN) {
-							isSplit = true;
-						} else if (!straight && Math.abs(diff) < SPLIT_TURN_DEGREE_NOT_STRAIGHT) {
-							isSplit = true;
-						}
-					}
-					if (isSplit) {
-						int endPointIndex = rr.getEndPointIndex();
-						RouteSegmentResult split = new RouteSegmentResult(rr.getObject(), next, endPointIndex);
-						split.copyPreattachedRoutes(rr, Math.abs(next - rr.getStartPointIndex()));
-						rr.setEndPointIndex(next);
-						result.add(i + 1, split);
-						i++;
-						// switch current segment to the splitted
-						rr = split;
-					}
+				}
+				if (isSplit) {
+					int endPointIndex = rr.getEndPointIndex();
+					RouteSegmentResult splitSegment = new RouteSegmentResult(rr.getObject(), next, endPointIndex);
+					int shift = Math.abs(next - rr.getStartPointIndex());
+					splitSegment.copyPreattachedRoutes(rr, shift);
+					splitSegment.copyAttachedRoutes(rr, shift);
+					rr.setEndPointIndex(next);
+					split.add(splitSegment);
+					// switch current segment to the splitted
+					rr = splitSegment;
 				}
 			}
 		}
+		return split;
 	}
 
 	private void checkAndInitRouteRegion(RoutingContext ctx, RouteDataObject road) throws IOException {
@@ -0,0 +1,224 @@
+package net.osmand.router;
+
+import java.util.Collection;
+import java.util.List;
+
+import net.osmand.binary.RouteDataObject;
+import net.osmand.data.QuadPoint;
+import net.osmand.router.BinaryRoutePlanner.RouteSegmentPoint;
+import net.osmand.util.MapUtils;
+
+/**
+ * Uniform grid over the road segments of a loaded routing tile.
+ * Used to snap a point to the nearest roads (start / end segments, reverse geocoding) without
+ * projecting the point on every segment of every road of the tile.
+ * Grid is stored as primitive arrays (cell offsets + segment ids), queries don't allocate
+ * besides the returned points. Instance is not thread safe (shares query buffers).
+ */
+public class RouteSegmentGridIndex {
+
+	// cell ~ tile of 18th zoom (~150 m)
+	private static final int CELL_SHIFT = 31 - 18;
+	private static final int MAX_CELLS = 1 << 14;
+	private static final int METERS_PROBE_31 = 1 << 16;
+
+	private final RouteDataObject[] roads;
+	// segment id -> road index and end point index of segment [point - 1, point]
+	private final int[] segmentRoad;
+	private final int[] segmentPoint;
+
+	private final int left;
+	private final int top;
+	private final int cellShift;
+	private final int cols;
+	private final int rows;
+	private final int[] cellStart;
+	private final int[] cellSegments;
+
+	// query buffers
+	private int queryStamp;
+	private final int[] segmentStamp;
+	private final int[] roadStamp;
+	private final int[] roadBestSegment;
+	private final double[] roadBestDist;
+	private final int[] roadBestX;
+	private final int[] roadBestY;
+	private final int[] touchedRoads;
+
+	public RouteSegmentGridIndex(Collection<RouteDataObject> objects) {
+		int segments = 0;
+		int l = Integer.MAX_VALUE, t = Integer.MAX_VALUE, r = Integer.MIN_VALUE, b = Integer.MIN_VALUE;
+		roads = objects.toArray(new RouteDataObject[0]);
+		for (RouteDataObject ro : roads) {
+			int len = ro.getPointsLength();
+			if (len > 1) {
+				segments += len - 1;
+			}
+			for (int i = 0; i < len; i++) {
+				l = Math.min(l, ro.getPoint31XTile(i));
+				r = Math.max(r, ro.getPoint31XTile(i));
+				t = Math.min(t, ro.getPoint31YTile(i));
+				b = Math.max(b, ro.getPoint31YTile(i));
+			}
+		}
+		segmentRoad = new int[segments];
+		segmentPoint = new int[segments];
+		int sh = CELL_SHIFT;
+		if (segments == 0) {
+			l = t = r = b = 0;
+		} else {
+			while ((long) (((r - l) >> sh) + 1) * (((b - t) >> sh) + 1) > MAX_CELLS) {
+				sh++;
+			}
+		}
+		left = l;
+		top = t;
+		cellShift = sh;
+		cols = ((r - l) >> sh) + 1;
+		rows = ((b - t) >> sh) + 1;
+
+		int seg = 0;
+		int[] counts = new int[cols * rows + 1];
+		for (int ri = 0; ri < roads.length; ri++) {
+			RouteDataObject ro = roads[ri];
+			for (int j = 1; j < ro.getPointsLength(); j++) {
+				segmentRoad[seg] = ri;
+				segmentPoint[seg] = j;
+				int cl = cellX(Math.min(ro.getPoint31XTile(j - 1), ro.getPoint31XTile(j)));
+				int cr = cellX(Math.max(ro.getPoint31XTile(j - 1), ro.getPoint31XTile(j)));
+				int ct = cellY(Math.min(ro.getPoint31YTile(j - 1), ro.getPoint31YTile(j)));
+				int cb = cellY(Math.max(ro.getPoint31YTile(j - 1), ro.getPoint31YTile(j)));
+				for (int cy = ct; cy <= cb; cy++) {
+					for (int cx = cl; cx <= cr; cx++) {
+						counts[cy * cols + cx + 1]++;
+					}
+				}
+				seg++;
+			}
+		}
+		for (int i = 1; i < counts.length; i++) {
+			counts[i] += counts[i - 1];
+		}
+		cellStart = counts;
+		cellSegments = new int[counts[counts.length - 1]];
+		int[] fill = new int[cols * rows];
+		for (int s = 0; s < segments; s++) {
+			RouteDataObject ro = roads[segmentRoad[s]];
+			int j = segmentPoint[s];
+			int cl = cellX(Math.min(ro.getPoint31XTile(j - 1), ro.getPoint31XTile(j)));
+			int cr = cellX(Math.max(ro.getPoint31XTile(j - 1), ro.getPoint31XTile(j)));
+			int ct = cellY(Math.min(ro.getPoint31YTile(j - 1), ro.getPoint31YTile(j)));
+			int cb = cellY(Math.max(ro.getPoint31YTile(j - 1), ro.getPoint31YTile(j)));
+			for (int cy = ct; cy <= cb; cy++) {
+				for (int cx = cl; cx <= cr; cx++) {
+					int cell = cy * cols + cx;
+					cellSegments[cellStart[cell] + fill[cell]++] = s;
+				}
+			}
+		}
+
+		segmentStamp = new int[segments];
+		roadStamp = new int[roads.length];
+		roadBestSegment = new int[roads.length];
+		roadBestDist = new double[roads.length];
+		roadBestX = new int[roads.length];
+		roadBestY = new int[roads.length];
+		touchedRoads = new int[roads.length];
+	}
+
+	private int cellX(int x31) {
+		return Math.max(0, Math.min(cols - 1, (int) (((long) x31 - left) >> cellShift)));
+	}
+
+	private int cellY(int y31) {
+		return Math.max(0, Math.min(rows - 1, (int) (((long) y31 - top) >> cellShift)));
+	}
+
+	public int getRoadsCount() {
+		return roads.length;
+	}
+
+	public int getSegmentsCount() {
+		return segmentRoad.length;
+	}
+
+	/**
+	 * @return estimated memory of the index arrays (roads are counted by tile statistics)
+	 */
+	public int getEstimatedSize() {
+		int arrays = 12;
+		int sz = 16 + arrays * 16;
+		sz += roads.length * (4 + 4 * 5 + 8);
+		sz += segmentRoad.length * 4 * 3;
+		sz += (cellStart.length + cellSegments.length) * 4;
+		return sz;
+	}
+
+	/**
+	 * Finds for every road the closest segment to the point (same projection as full scan of road points)
+	 * and adds it to the list if it is not further than maxDistance (meters).
+	 * @return number of added points
+	 */
+	public int searchNearestRoads(int px, int py, double maxDistance, List<RouteSegmentPoint> toFillIn) {
+		if (segmentRoad.length == 0) {
+			return 0;
+		}
+		double metersPer31 = MapUtils.squareRootDist31(px, py, px + METERS_PROBE_31, py) / METERS_PROBE_31;
+		long r31 = metersPer31 > 0 ? (long) (maxDistance * 1.1 / metersPer31) + 1 : Integer.MAX_VALUE;
+		long ql = px - r31, qr = px + r31, qt = py - r31, qb = py + r31;
+		if (qr < left || qb < top || ql > left + ((long) cols << cellShift) || qt > top + ((long) rows << cellShift)) {
+			return 0;
+		}
+		int cl = cellX((int) Math.max(Integer.MIN_VALUE, ql));
+		int cr = cellX((int) Math.min(Integer.MAX_VALUE, qr));
+		int ct = cellY((int) Math.max(Integer.MIN_VALUE, qt));
+		int cb = cellY((int) Math.min(Integer.MAX_VALUE, qb));
+		double maxDistSquare = maxDistance * maxDistance;
+		int stamp = ++queryStamp;
+		int touched = 0;
+		for (int cy = ct; cy <= cb; cy++) {
+			for (int cx = cl; cx <= cr; cx++) {
+				int cell = cy * cols + cx;
+				for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+					int s = cellSegments[k];
+					if (segmentStamp[s] == stamp) {
+						continue;
+					}
+					segmentStamp[s] = stamp;
+					int ri = segmentRoad[s];
+					int j = segmentPoint[s];
+					RouteDataObject ro = roads[ri];
+					int x1 = ro.getPoint31XTile(j - 1), y1 = ro.getPoint31YTile(j - 1);
+					int x2 = ro.getPoint31XTile(j), y2 = ro.getPoint31YTile(j);
+					if (Math.max(x1, x2) < ql || Math.min(x1, x2) > qr || Math.max(y1, y2) < qt || Math.min(y1, y2) > qb) {
+						continue;
+					}
+					QuadPoint pr = MapUtils.getProjectionPoint31(px, py, x1, y1, x2, y2);
+					double distSquare = MapUtils.squareDist31TileMetric((int) pr.x, (int) pr.y, px, py);
+					if (distSquare > maxDistSquare) {
+						continue;
+					}
+					if (roadStamp[ri] != stamp) {
+						roadStamp[ri] = stamp;
+						touchedRoads[touched++] = ri;
+					} else if (distSquare > roadBestDist[ri]
+							|| (distSquare == roadBestDist[ri] && j > roadBestSegment[ri])) {
+						continue;
+					}
+					roadBestDist[ri] = distSquare;
+					roadBestSegment[ri] = j;
+					roadBestX[ri] = (int) pr.x;
+					roadBestY[ri] = (int) pr.y;
+				}
+			}
+		}
+		for (int i = 0; i < touched; i++) {
+			int ri = touchedRoads[i];
+			RouteSegmentPoint p = new RouteSegmentPoint(roads[ri], roadBestSegment[ri], roadBestDist[ri]);
+			p.preciseX = roadBestX[ri];
+			p.preciseY = roadBestY[ri];
+			toFillIn.add(p);
+		}
+		return touched;
+	}
+}
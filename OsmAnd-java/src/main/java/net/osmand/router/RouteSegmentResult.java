@@ -309,40 +309,53 @@ public class RouteSegmentResult implements StringExternalizable<RouteDataBundle>
 			}
 		}
 		bundle.putLong("id", object.id >> 6); // OsmAnd ID to OSM ID
-		bundle.putArray("types", convertTypes(object.types, rules));
+		bundle.putArray("types", getTypesToWrite(rules));
+		bundle.putArray("pointTypes", getPointTypesToWrite(rules));
+		bundle.putArray("names", getNameIdsToWrite(rules));
+		bundle.putArray("pointNames", getPointNamesToWrite(rules));
 
+		resources.updateNextSegmentStartLocation(length);
+	}
+
+	int[] getTypesToWrite(Map<RouteTypeRule, Integer> rules) {
+		return convertTypes(object.types, rules);
+	}
+
+	int[][] getPointTypesToWrite(Map<RouteTypeRule, Integer> rules) {
 		int start = Math.min(startPointIndex, endPointIndex);
 		int end = Math.max(startPointIndex, endPointIndex) + 1;
 		if (object.pointTypes != null && start < object.pointTypes.length) {
 			int[][] types = Arrays.copyOfRange(object.pointTypes, start, Math.min(end, object.pointTypes.length));
-			if (reversed) {
+			if (endPointIndex < startPointIndex) {
 				Algorithms.reverseArray(types);
 			}
-			bundle.putArray("pointTypes", convertTypes(types, rules));
-		}
-		if (object.nameIds != null) {
-			bundle.putArray("names", convertNameIds(object.nameIds, rules));
+			return convertTypes(types, rules);
 		}
+		return null;
+	}
+
+	int[] getNameIdsToWrite(Map<RouteTypeRule, Integer> rules) {
+		return object.nameIds != null ? convertNameIds(object.nameIds, rules) : null;
+	}
+
+	int[][] getPointNamesToWrite(Map<RouteTypeRule, Integer> rules) {
+		int start = Math.min(startPointIndex, endPointIndex);
+		int end = Math.max(startPointIndex, endPointIndex) + 1;
 		if (object.pointNameTypes != null && start < object.pointNameTypes.length && object.pointNames != null) {
 			int[][] types = Arrays.copyOfRange(object.pointNameTypes, start, Math.min(end, object.pointNameTypes.length));
 			String[][] names = Arrays.copyOfRange(object.pointNames, start, Math.min(end, object.pointNames.length));
-			if (reversed) {
+			if (endPointIndex < startPointIndex) {
 				Algorithms.reverseArray(types);
 				Algorithms.reverseArray(names);
 			}
-			bundle.putArray("pointNames", convertPointNames(types, names, rules));
+			return convertPointNames(types, names, rules);
 		}
-
-		resources.updateNextSegmentStartLocation(length);
+		return null;
 	}
 
 	@Override
 	public void readFromBundle(RouteDataBundle bundle) {
 		int length = bundle.getInt("length", 0);
-		boolean plus = length >= 0;
-		length = Math.abs(length);
-		startPointIndex = plus ? 0 : length - 1;
-		endPointIndex = plus ? length - 1 : 0;
 		segmentTime = bundle.getFloat("segmentTime", segmentTime);
 		speed = bundle.getFloat("speed", speed);
 		String turnTypeStr = bundle.getString("turnType", null);
@@ -353,16 +366,25 @@ public class RouteSegmentResult implements StringExternalizable<RouteDataBundle>
 			int[] turnLanes = TurnType.lanesFromString(bundle.getString("turnLanes", null));
 			turnType.setLanes(turnLanes);
 		}
-		object.id = bundle.getLong("id", object.id) << 6;
-		object.types = bundle.getIntArray("types", null);
-		object.pointTypes = bundle.getIntIntArray("pointTypes", null);
-		object.nameIds = bundle.getIntArray("names", null);
-		int[][] pointNames = bundle.getIntIntArray("pointNames", null);
+		readRouteData(bundle.getResources(), length, bundle.getLong("id", object.id), bundle.getIntArray("types", null),
+				bundle.getIntIntArray("pointTypes", null), bundle.getIntArray("names", null),
+				bundle.getIntIntArray("pointNames", null));
+	}
+
+	void readRouteData(RouteDataResources resources, int length, long osmId, int[] types, int[][] pointTypes,
+			int[] nameIds, int[][] pointNames) {
+		boolean plus = length >= 0;
+		length = Math.abs(length);
+		startPointIndex = plus ? 0 : length - 1;
+		endPointIndex = plus ? length - 1 : 0;
+		object.id = osmId << 6;
+		object.types = types;
+		object.pointTypes = pointTypes;
+		object.nameIds = nameIds;
 		if (pointNames != null) {
-			bundle.getResources().getPointNamesMap().put(object, pointNames);
+			resources.getPointNamesMap().put(object, pointNames);
 		}
 
-		RouteDataResources resources = bundle.getResources();
 		object.pointsX = new int[length];
 		object.pointsY = new int[length];
 		object.heightDistanceArray = new float[length * 2];
@@ -460,6 +482,19 @@ public class RouteSegmentResult implements StringExternalizable<RouteDataBundle>
 		}
 	}
 
+	public void copyAttachedRoutes(RouteSegmentResult toCopy, int shift) {
+		// routes attached at the first point stay attached to the last point of toCopy
+		List<RouteSegmentResult> first = toCopy.attachedRoutes[shift];
+		if (first != null) {
+			attachedRoutes[0] = new ArrayList<RouteSegmentResult>(first.size());
+			for (RouteSegmentResult r : first) {
+				attachedRoutes[0].add(new RouteSegmentResult(r.getObject(), r.getStartPointIndex(), r.getEndPointIndex()));
+			}
+		}
+		int l = Math.min(attachedRoutes.length, toCopy.attachedRoutes.length - shift);
+		System.arraycopy(toCopy.attachedRoutes, shift + 1, attachedRoutes, 1, l - 1);
+	}
+
 	public void clearAttachedRoutes() {
 		attachedRoutes = null;
 	}
@@ -61,6 +61,9 @@ public class RoutingConfiguration {
 	// 1.6 Time to calculate all access restrictions based on conditions
 	public long routeCalculationTime = 0;
 
+	// 1.7 Threads to attach roads, calculate times and turns of long route results (1 - prepare in the same thread)
+	public int routePreparationThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
 
 	// extra points to be inserted in ways (quad tree is based on 31 coords)
 	private QuadTree<DirectionPoint> directionPoints;
@@ -217,6 +220,7 @@ public class RoutingConfiguration {
 				i.nativeMemoryLimitation = memoryLimits.nativeMemoryLimitMb * (1l << 20);
 			}
 			i.planRoadDirection = parseSilentInt(getAttribute(i.router, "planRoadDirection"), i.planRoadDirection);
+			i.routePreparationThreads = parseSilentInt(getAttribute(i.router, "routePreparationThreads"), i.routePreparationThreads);
 			if (directionPointsBuilder != null) {
 				QuadRect rect = new QuadRect(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE);
 				List<net.osmand.osm.edit.Node> lst = directionPointsBuilder.queryInBox(rect, new ArrayList<Node>());
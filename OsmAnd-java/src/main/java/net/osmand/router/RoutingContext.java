@@ -26,6 +26,7 @@ import net.osmand.binary.BinaryMapIndexReader.SearchRequest;
 import net.osmand.binary.BinaryMapRouteReaderAdapter;
 import net.osmand.binary.BinaryMapRouteReaderAdapter.RouteRegion;
 import net.osmand.binary.BinaryMapRouteReaderAdapter.RouteSubregion;
+import net.osmand.binary.PackedRouteDataObjects;
 import net.osmand.binary.RouteDataObject;
 import net.osmand.data.QuadPoint;
 import net.osmand.data.QuadRect;
@@ -216,6 +217,7 @@ public class RoutingContext {
 					global.size -= tl.tileStatistics.size;
 				}
 			}
+			global.size -= tl.releasePacked();
 		}
 		subregionTiles.clear();
 		indexedSubregions.clear();
@@ -268,7 +270,10 @@ public class RoutingContext {
 		long now = System.nanoTime();
 		boolean wasUnloaded = ts.isUnloaded();
 		int ucount = ts.getUnloadCont();
-		if (nativeLib == null) {
+		if (nativeLib == null && ts.isPacked() && toLoad == null && excludeNotAllowed != null) {
+			// conditional tags were applied before packing, tile with direction points is not packed
+			global.size -= ts.loadPacked(excludeNotAllowed);
+		} else if (nativeLib == null) {
 
 			List<DirectionPoint> points = Collections.emptyList();
 			if (config.getDirectionPoints() != null) {
@@ -292,7 +297,8 @@ public class RoutingContext {
 				BinaryMapIndexReader reader = reverseMap.get(ts.subregion.routeReg);
 				ts.setLoadedNonNative();
 				List<RouteDataObject> res = reader.loadRouteIndexData(ts.subregion);
-				
+				// tile could be packed on unload only if all roads are restored exactly as they are loaded
+				ts.packable = toLoad == null && excludeNotAllowed != null && points.isEmpty();
 				if (toLoad != null) {
 					toLoad.addAll(res);
 				} else {
@@ -308,6 +314,9 @@ public class RoutingContext {
 										connectPoint(ts, ro, points);
 									}
 									ts.add(ro);
+								} else {
+									// road of another tile, set of excluded ids could be different on reload
+									ts.packable = false;
 								}
 							}
 							if (excludeNotAllowed != null && ro.getId() > 0) {
@@ -425,6 +434,45 @@ public class RoutingContext {
 	}
 	
 	public void loadTileData(int x31, int y31, int zoomAround, final List<RouteDataObject> toFillIn, boolean allowDuplications) {
+		TLongIterator it = loadTilesAround(x31, y31, zoomAround).iterator();
+		TLongObjectHashMap<RouteDataObject> excludeDuplications = new TLongObjectHashMap<RouteDataObject>();
+		while (it.hasNext()) {
+			getAllObjects(it.next(), toFillIn, excludeDuplications);
+			if (allowDuplications) {
+				excludeDuplications.clear();
+			}
+		}
+	}
+
+	/**
+	 * Same tiles as {@link #loadTileData} but instead of returning all roads, returns closest segment
+	 * of every road within maxDistance (meters) using segment index of loaded tiles.
+	 */
+	public void loadNearestSegments(int x31, int y31, int zoomAround, double maxDistance, final List<RouteSegmentPoint> toFillIn,
+			boolean allowDuplications) {
+		TLongIterator it = loadTilesAround(x31, y31, zoomAround).iterator();
+		TLongHashSet excludeDuplications = new TLongHashSet();
+		List<RouteSegmentPoint> tileSegments = new ArrayList<RouteSegmentPoint>();
+		while (it.hasNext()) {
+			List<RoutingSubregionTile> subregions = indexedSubregions.get(it.next());
+			if (subregions != null) {
+				for (RoutingSubregionTile rs : subregions) {
+					tileSegments.clear();
+					rs.getSegmentIndex(this).searchNearestRoads(x31, y31, maxDistance, tileSegments);
+					for (RouteSegmentPoint p : tileSegments) {
+						if (excludeDuplications.add(p.road.id)) {
+							toFillIn.add(p);
+						}
+					}
+				}
+			}
+			if (allowDuplications) {
+				excludeDuplications.clear();
+			}
+		}
+	}
+
+	private TLongHashSet loadTilesAround(int x31, int y31, int zoomAround) {
 		int t =  config.ZOOM_TO_LOAD_TILES - zoomAround;
 		int coordinatesShift = (1 << (31 - config.ZOOM_TO_LOAD_TILES));
 		if(t <= 0) {
@@ -440,14 +488,7 @@ public class RoutingContext {
                 ts.add(getRoutingTile(x31 + i * coordinatesShift, y31 + j * coordinatesShift, 0));
             }
         }
-		TLongIterator it = ts.iterator();
-		TLongObjectHashMap<RouteDataObject> excludeDuplications = new TLongObjectHashMap<RouteDataObject>();
-		while (it.hasNext()) {
-			getAllObjects(it.next(), toFillIn, excludeDuplications);
-			if (allowDuplications) {
-				excludeDuplications.clear();
-			}
-		}
+		return ts;
 	}
 	
 	@SuppressWarnings("unused")
@@ -648,6 +689,22 @@ public class RoutingContext {
 		return getCurrentEstimatedSize() > 0.9 * memoryLimit;
 	}
 	
+	private static final Comparator<RoutingSubregionTile> TILES_BY_USAGE = new Comparator<RoutingSubregionTile>() {
+		private int pow(int base, int pw) {
+			int r = 1;
+			for (int i = 0; i < pw; i++) {
+				r *= base;
+			}
+			return r;
+		}
+		@Override
+		public int compare(RoutingSubregionTile o1, RoutingSubregionTile o2) {
+			int v1 = (o1.access + 1) * pow(10, o1.getUnloadCont() -1);
+			int v2 = (o2.access + 1) * pow(10, o2.getUnloadCont() -1);
+			return v1 < v2 ? -1 : (v1 == v2 ? 0 : 1);
+		}
+	};
+
 	public void unloadUnusedTiles(long memoryLimit) {
 		float desirableSize = memoryLimit * 0.7f;
 		List<RoutingSubregionTile> list = new ArrayList<RoutingSubregionTile>(subregionTiles.size() / 2);
@@ -661,26 +718,13 @@ public class RoutingContext {
 		if(calculationProgress != null) {
 			calculationProgress.maxLoadedTiles = Math.max(calculationProgress.maxLoadedTiles, getCurrentlyLoadedTiles());
 		}
-		Collections.sort(list, new Comparator<RoutingSubregionTile>() {
-			private int pow(int base, int pw) {
-				int r = 1;
-				for (int i = 0; i < pw; i++) {
-					r *= base;
-				}
-				return r;
-			}
-			@Override
-			public int compare(RoutingSubregionTile o1, RoutingSubregionTile o2) {
-				int v1 = (o1.access + 1) * pow(10, o1.getUnloadCont() -1);
-				int v2 = (o2.access + 1) * pow(10, o2.getUnloadCont() -1);
-				return v1 < v2 ? -1 : (v1 == v2 ? 0 : 1);
-			}
-		});
+		Collections.sort(list, TILES_BY_USAGE);
 		int i = 0;
 		while(getCurrentEstimatedSize() >= desirableSize && (list.size() - i) > loaded / 5 && i < list.size()) {
 			RoutingSubregionTile unload = list.get(i);
 			i++;
 //			System.out.println("Unload " + unload);
+			global.size += unload.pack();
 			unload.unload();
 			if(calculationProgress != null) {
 				calculationProgress.unloadedTiles ++;
@@ -689,11 +733,34 @@ public class RoutingContext {
 			// tile could be cleaned from routing tiles and deleted from whole list
 			
 		}
+		releasePackedTiles(memoryLimit * PACKED_TILES_MEMORY_RATIO);
 		for(RoutingSubregionTile t : subregionTiles) {
 			t.access /= 3;
 		}
 	}
 	
+	// packed unloaded tiles are kept while they take less than this part of memory limit
+	private static final float PACKED_TILES_MEMORY_RATIO = 0.2f;
+
+	private void releasePackedTiles(float packedLimit) {
+		List<RoutingSubregionTile> packed = new ArrayList<RoutingSubregionTile>();
+		int packedSize = 0;
+		for (RoutingSubregionTile t : subregionTiles) {
+			if (t.packedObjects != null) {
+				packed.add(t);
+				packedSize += t.packedObjects.getEstimatedSize();
+			}
+		}
+		if (packedSize > packedLimit) {
+			Collections.sort(packed, TILES_BY_USAGE);
+			for (int i = 0; i < packed.size() && packedSize > packedLimit; i++) {
+				int size = packed.get(i).releasePacked();
+				packedSize -= size;
+				global.size -= size;
+			}
+		}
+	}
+
 	private void getAllObjects(long tileId, final List<RouteDataObject> toFillIn, TLongObjectHashMap<RouteDataObject> excludeDuplications) {
 		List<RoutingSubregionTile> subregions = indexedSubregions.get(tileId);
 		if (subregions != null) {
@@ -739,6 +806,11 @@ public class RoutingContext {
 		private int isLoaded = 0;
 		private TLongObjectMap<RouteSegment> routes = null;
 		private TLongHashSet excludedIds = null;
+		private RouteSegmentGridIndex segmentIndex = null;
+		// roads of unloaded tile, reloaded without reading the file
+		private PackedRouteDataObjects packedObjects = null;
+		private TLongHashSet packedExcludedIds = null;
+		boolean packable = false;
 
 		public RoutingSubregionTile(RouteSubregion subregion) {
 			this.subregion = subregion;
@@ -747,6 +819,22 @@ public class RoutingContext {
 		public TLongObjectMap<RouteSegment> getRoutes() {
 			return routes;
 		}
+
+		public RouteSegmentGridIndex getSegmentIndex(RoutingContext ctx) {
+			if (segmentIndex == null) {
+				// built once per loaded tile, objects are not changed after load
+				List<RouteDataObject> objects = new ArrayList<RouteDataObject>();
+				loadAllObjects(objects, null, new TLongObjectHashMap<RouteDataObject>());
+				segmentIndex = new RouteSegmentGridIndex(objects);
+				// released with the tile, so it is counted in the tile size
+				int size = segmentIndex.getEstimatedSize();
+				tileStatistics.size += size;
+				if (ctx != null && ctx.global != null) {
+					ctx.global.size += size;
+				}
+			}
+			return segmentIndex;
+		}
 		
 		public void loadAllObjects(final List<RouteDataObject> toFillIn, RoutingContext ctx, TLongObjectHashMap<RouteDataObject> excludeDuplications) {
 			if(routes != null) {
@@ -844,10 +932,67 @@ public class RoutingContext {
 			searchResult = null;
 			routes = null;
 			excludedIds = null;
+			segmentIndex = null;
 		}
 		
+		/**
+		 * Packs roads of the loaded tile, so it could be loaded again without reading the file.
+		 * @return estimated size of packed data
+		 */
+		public int pack() {
+			if (!packable || routes == null || !isLoaded()) {
+				return 0;
+			}
+			List<RouteDataObject> objects = new ArrayList<RouteDataObject>();
+			loadAllObjects(objects, null, new TLongObjectHashMap<RouteDataObject>());
+			packedObjects = new PackedRouteDataObjects(objects, false);
+			packedExcludedIds = excludedIds;
+			return packedObjects.getEstimatedSize();
+		}
+
+		/**
+		 * @return estimated size of released packed data
+		 */
+		public int releasePacked() {
+			int size = packedObjects == null ? 0 : packedObjects.getEstimatedSize();
+			packedObjects = null;
+			packedExcludedIds = null;
+			return size;
+		}
+
+		public boolean isPacked() {
+			return packedObjects != null;
+		}
+
+		/**
+		 * Loads the tile from packed roads and releases them
+		 * @return estimated size of released packed data
+		 */
+		public int loadPacked(TLongHashSet excludeNotAllowed) {
+			PackedRouteDataObjects packed = packedObjects;
+			TLongHashSet packedExcluded = packedExcludedIds;
+			int size = releasePacked();
+			setLoadedNonNative();
+			packable = true;
+			PackedRouteDataObjects.Accessor accessor = packed.accessor();
+			for (int i = 0; i < packed.size(); i++) {
+				if (!excludeNotAllowed.contains(accessor.moveTo(i).getId())) {
+					add(accessor.toRouteDataObject());
+				} else {
+					packable = false;
+				}
+			}
+			if (packedExcluded != null) {
+				excludeNotAllowed.addAll(packedExcluded);
+			}
+			excludedIds = packedExcluded;
+			return size;
+		}
+
 		public void setLoadedNonNative(){
 			isLoaded = Math.abs(isLoaded) + 1;
+			segmentIndex = null;
+			packable = false;
 			routes = new TLongObjectHashMap<BinaryRoutePlanner.RouteSegment>();
 			tileStatistics = new TileStatistics();
 		}
@@ -873,6 +1018,7 @@ public class RoutingContext {
 		
 		public void setLoadedNative(NativeRouteSearchResult r, RoutingContext ctx) {
 			isLoaded = Math.abs(isLoaded) + 1;
+			segmentIndex = null;
 			tileStatistics = new TileStatistics();
 			if (r.objects != null) {
 				searchResult = null;
@@ -62,6 +62,11 @@ public interface VehicleRouter {
 	 */
 	float defineDestinationPriority(RouteDataObject road);
 
+	/**
+	 * @return maximum destination priority of roads or -1 if it can't be determined without roads
+	 */
+	float getMaxDestinationPriority();
+
 	/**
 	 * Used for A* routing to calculate g(x)
 	 * 
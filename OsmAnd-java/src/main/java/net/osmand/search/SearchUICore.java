@@ -19,6 +19,7 @@ import net.osmand.search.core.SearchCoreFactory;
 import net.osmand.search.core.SearchCoreFactory.SearchAmenityByNameAPI;
 import net.osmand.search.core.SearchCoreFactory.SearchAmenityByTypeAPI;
 import net.osmand.search.core.SearchCoreFactory.SearchAmenityTypesAPI;
+import net.osmand.search.core.SearchCoreFactory.SearchBaseAPI;
 import net.osmand.search.core.SearchCoreFactory.SearchBuildingAndIntersectionsByStreetAPI;
 import net.osmand.search.core.SearchCoreFactory.SearchStreetByCityAPI;
 import net.osmand.search.core.SearchExportSettings;
@@ -42,7 +43,6 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -56,9 +56,16 @@ public class SearchUICore {
 	private static final int TIMEOUT_BETWEEN_CHARS = 700;
 	private static final int TIMEOUT_BEFORE_SEARCH = 50;
 	private static final int TIMEOUT_BEFORE_FILTER = 20;
+	private static final int SEARCH_CACHE_SIZE = 16;
+	private static final int SEARCH_CACHE_MAX_RESULTS = 20000;
 	private static final Log LOG = PlatformUtil.getLog(SearchUICore.class);
 	private SearchPhrase phrase;
 	private SearchResultCollection currentSearchResult;
+	// finished searches of the last phrases (the last one is the most recent)
+	private final LinkedList<CachedSearch> searchCache = new LinkedList<>();
+	private int searchCacheResults;
+	// APIs created by init, APIs registered by app (favorites, history, etc.) are always searched
+	private final Set<SearchCoreAPI> cacheableApis = new HashSet<>();
 
 	private ThreadPoolExecutor singleThreadedExecutor;
 	private LinkedBlockingQueue<Runnable> taskQueue;
@@ -98,6 +105,8 @@ public class SearchUICore {
 		private final List<SearchResult> searchResults = new ArrayList<>();
 		private SearchPhrase phrase;
 		private boolean useLimit;
+		// number of first results which are sorted (results added without resort are appended)
+		private int sortedResults;
 		private static final int DEPTH_TO_CHECK_SAME_SEARCH_RESULTS = 20;
 
 		public SearchResultCollection(SearchPhrase phrase) {
@@ -107,6 +116,7 @@ public class SearchUICore {
 		public SearchResultCollection combineWithCollection(SearchResultCollection collection, boolean resort, boolean removeDuplicates) {
 			SearchResultCollection src = new SearchResultCollection(phrase);
 			src.addSearchResults(searchResults, false, false);
+			src.sortedResults = sortedResults;
 			src.addSearchResults(collection.searchResults, resort, removeDuplicates);
 			return src;
 		}
@@ -124,8 +134,7 @@ public class SearchUICore {
 				LOG.info("Add search results resortAll=" + (resortAll ? "true" : "false") + " removeDuplicates=" + (removeDuplicates ? "true" : "false") + " Results=" + sr.size() + " Current results=" + this.searchResults.size());
 			}
 			if (resortAll) {
-				this.searchResults.addAll(sr);
-				sortSearchResults();
+				mergeSearchResults(sr);
 				if (removeDuplicates) {
 					filterSearchDuplicateResults();
 				}
@@ -200,26 +209,62 @@ public class SearchUICore {
 				LOG.info("Sorting search results <" + phrase + "> Results=" + searchResults.size());
 			}
 			Collections.sort(searchResults, new SearchResultComparator(phrase));
+			sortedResults = searchResults.size();
 			if (debugMode) {
 				LOG.info("Search results sorted <" + phrase + ">");
 			}
 		}
 
+		/**
+		 * Sorts added results with not sorted tail of the collection and merges them with sorted results,
+		 * so order is the same as after sorting of all results (existing results go first for equal ones)
+		 */
+		private void mergeSearchResults(List<SearchResult> sr) {
+			if (debugMode) {
+				LOG.info("Merging search results <" + phrase + "> Results=" + searchResults.size() + " Added=" + sr.size());
+			}
+			SearchResultComparator cmp = new SearchResultComparator(phrase);
+			List<SearchResult> sorted = searchResults.subList(0, sortedResults);
+			List<SearchResult> added = new ArrayList<>(searchResults.size() - sortedResults + sr.size());
+			added.addAll(searchResults.subList(sortedResults, searchResults.size()));
+			added.addAll(sr);
+			Collections.sort(added, cmp);
+			List<SearchResult> merged = new ArrayList<>(sorted.size() + added.size());
+			int i = 0;
+			int j = 0;
+			while (i < sorted.size() && j < added.size()) {
+				if (cmp.compare(sorted.get(i), added.get(j)) <= 0) {
+					merged.add(sorted.get(i++));
+				} else {
+					merged.add(added.get(j++));
+				}
+			}
+			merged.addAll(sorted.subList(i, sorted.size()));
+			merged.addAll(added.subList(j, added.size()));
+			searchResults.clear();
+			searchResults.addAll(merged);
+			sortedResults = searchResults.size();
+			if (debugMode) {
+				LOG.info("Search results merged <" + phrase + "> Results=" + searchResults.size());
+			}
+		}
+
 		public void filterSearchDuplicateResults() {
 			if (debugMode) {
 				LOG.info("Filter duplicate results <" + phrase + "> Results=" + searchResults.size());
 			}
+			boolean sorted = sortedResults == searchResults.size();
 			filterSearchDuplicateResults(searchResults);
+			sortedResults = sorted ? searchResults.size() : 0;
 			if (debugMode) {
 				LOG.info("Duplicate results filtered <" + phrase + "> Results=" + searchResults.size());
 			}
 		}
 
 		private void filterSearchDuplicateResults(List<SearchResult> lst) {
-			ListIterator<SearchResult> it = lst.listIterator();
 			LinkedList<SearchResult> lstUnique = new LinkedList<SearchResult>();
-			while (it.hasNext()) {
-				SearchResult r = it.next();
+			List<SearchResult> filtered = new ArrayList<>(lst.size());
+			for (SearchResult r : lst) {
 				boolean same = false;
 				for (SearchResult rs : lstUnique) {
 					same = sameSearchResult(rs, r);
@@ -227,15 +272,18 @@ public class SearchUICore {
 						break;
 					}
 				}
-				if (same) {
-					it.remove();
-				} else {
+				if (!same) {
 					lstUnique.add(r);
 					if (lstUnique.size() > DEPTH_TO_CHECK_SAME_SEARCH_RESULTS) {
-						lstUnique.remove(0);
+						lstUnique.removeFirst();
 					}
+					filtered.add(r);
 				}
 			}
+			if (filtered.size() < lst.size()) {
+				lst.clear();
+				lst.addAll(filtered);
+			}
 		}
 
 		public boolean sameSearchResult(SearchResult r1, SearchResult r2) {
@@ -389,6 +437,7 @@ public class SearchUICore {
 	}
 
 	public void init() {
+		int registeredApis = apis.size();
 		SearchAmenityByNameAPI amenitiesApi = new SearchCoreFactory.SearchAmenityByNameAPI();
 		apis.add(amenitiesApi);
 		apis.add(new SearchCoreFactory.SearchLocationAndUrlAPI(amenitiesApi));
@@ -401,6 +450,7 @@ public class SearchUICore {
 		SearchStreetByCityAPI cityApi = new SearchCoreFactory.SearchStreetByCityAPI(streetsApi);
 		apis.add(cityApi);
 		apis.add(new SearchCoreFactory.SearchAddressByNameAPI(streetsApi, cityApi));
+		cacheableApis.addAll(apis.subList(registeredApis, apis.size()));
 	}
 
 	public void clearCustomSearchPoiFilters() {
@@ -429,6 +479,54 @@ public class SearchUICore {
 
 	public void registerAPI(SearchCoreAPI api) {
 		apis.add(api);
+		clearSearchCache();
+	}
+
+	public void clearSearchCache() {
+		synchronized (searchCache) {
+			searchCache.clear();
+			searchCacheResults = 0;
+		}
+	}
+
+	private CachedSearch getCachedSearch(SearchPhrase phrase) {
+		synchronized (searchCache) {
+			for (CachedSearch cachedSearch : searchCache) {
+				if (cachedSearch.isSamePhrase(phrase)) {
+					return cachedSearch;
+				}
+			}
+		}
+		return null;
+	}
+
+	private CachedSearch getNarrowableSearch(SearchPhrase phrase) {
+		synchronized (searchCache) {
+			// the most recent search has the longest prefix while typing forward
+			for (int i = searchCache.size() - 1; i >= 0; i--) {
+				CachedSearch cachedSearch = searchCache.get(i);
+				if (cachedSearch.isNarrowedBy(phrase)) {
+					return cachedSearch;
+				}
+			}
+		}
+		return null;
+	}
+
+	private void putCachedSearch(CachedSearch cachedSearch) {
+		synchronized (searchCache) {
+			if (searchCache.remove(cachedSearch)) {
+				searchCacheResults -= cachedSearch.resultsCount;
+			}
+			if (cachedSearch.resultsCount > SEARCH_CACHE_MAX_RESULTS) {
+				return;
+			}
+			searchCache.add(cachedSearch);
+			searchCacheResults += cachedSearch.resultsCount;
+			while (searchCache.size() > SEARCH_CACHE_SIZE || searchCacheResults > SEARCH_CACHE_MAX_RESULTS) {
+				searchCacheResults -= searchCache.removeFirst().resultsCount;
+			}
+		}
 	}
 
 
@@ -483,11 +581,13 @@ public class SearchUICore {
 
 	public SearchPhrase resetPhrase() {
 		this.phrase = this.phrase.generateNewPhrase("", searchSettings);
+		clearSearchCache();
 		return this.phrase;
 	}
 
 	public SearchPhrase resetPhrase(String text) {
 		this.phrase = this.phrase.generateNewPhrase(text, searchSettings);
+		clearSearchCache();
 		return this.phrase;
 	}
 	
@@ -534,7 +634,12 @@ public class SearchUICore {
 					if (debugMode) {
 						LOG.info("Search started <" + phrase.toString() + ">");
 					}
-					if (delayedExecution) {
+					// results of the same phrase (e.g. after backspace) are restored without waiting for next char
+					if (getCachedSearch(phrase) != null) {
+						if (debugMode) {
+							LOG.info("Restore cached search <" + phrase + ">");
+						}
+					} else if (delayedExecution) {
 						long startTime = System.currentTimeMillis();
 						if (debugMode) {
 							LOG.info("Wait for next char <" + phrase.toString() + ">");
@@ -589,7 +694,7 @@ public class SearchUICore {
 						}
 						return;
 					}
-					searchInternal(phrase, rm);
+					searchWithCache(phrase, rm);
 					if (!rm.isCancelled()) {
 						SearchResultCollection collection = new SearchResultCollection(phrase);
 						if (rm.totalLimit != -1 && rm.count > rm.totalLimit) {
@@ -682,6 +787,43 @@ public class SearchUICore {
 	}
 
 	void searchInternal(final SearchPhrase phrase, SearchResultMatcher matcher) {
+		searchInternal(phrase, matcher, null, null);
+	}
+
+	/**
+	 * Results of the same phrase (e.g. after backspace) are published again from the cache and results
+	 * of the phrase which extends the only unknown word are filtered from the cached ones when possible.
+	 * APIs registered by app are always searched.
+	 */
+	void searchWithCache(SearchPhrase phrase, SearchResultMatcher matcher) {
+		CachedSearch cachedSearch = null;
+		CachedSearch sourceSearch = null;
+		CachedSearch newSearch = null;
+		// exported objects are collected by search of APIs
+		if (!phrase.getSettings().isExportObjects()) {
+			cachedSearch = getCachedSearch(phrase);
+			sourceSearch = cachedSearch != null ? cachedSearch : getNarrowableSearch(phrase);
+			// results are not complete if total limit is set
+			if (cachedSearch == null && matcher.totalLimit == -1) {
+				newSearch = new CachedSearch(phrase);
+			}
+		}
+		searchInternal(phrase, matcher, newSearch, sourceSearch);
+		if (!matcher.isCancelled()) {
+			if (newSearch != null && newSearch.complete) {
+				putCachedSearch(newSearch);
+			} else if (cachedSearch != null) {
+				putCachedSearch(cachedSearch);
+			}
+		}
+	}
+
+	private void searchInternal(final SearchPhrase phrase, SearchResultMatcher matcher, CachedSearch cachedSearch,
+								CachedSearch sourceSearch) {
+		boolean samePhrase = sourceSearch != null && sourceSearch.isSamePhrase(phrase);
+		if (samePhrase) {
+			sourceSearch.restoreSearchState(phrase);
+		}
 		preparePhrase(phrase);
 		ArrayList<SearchCoreAPI> lst = new ArrayList<>(apis);
 		Collections.sort(lst, new Comparator<SearchCoreAPI>() {
@@ -703,10 +845,31 @@ public class SearchUICore {
 				if (debugMode) {
 					LOG.info("Run API search <" + phrase + "> API=<" + api + ">");
 				}
-				api.search(phrase, matcher);
+				boolean cacheable = cacheableApis.contains(api);
+				List<SearchResult> apiResults = new ArrayList<>();
+				matcher.collectResults(cachedSearch != null && cacheable ? apiResults : null);
+				List<SearchResult> sourceResults = null;
+				if (sourceSearch != null && cacheable) {
+					sourceResults = samePhrase ? sourceSearch.getApiResults(api) : sourceSearch.getNarrowableResults(api);
+				}
+				boolean narrowable;
+				if (sourceResults != null) {
+					if (debugMode) {
+						LOG.info((samePhrase ? "Restore" : "Narrow") + " results of <" + sourceSearch.text + "> API=<" + api + ">");
+					}
+					publishCachedResults(phrase, samePhrase ? null : (SearchBaseAPI) api, sourceResults, matcher);
+					narrowable = samePhrase ? sourceSearch.isNarrowable(api) : true;
+				} else {
+					api.search(phrase, matcher);
+					narrowable = api instanceof SearchBaseAPI && ((SearchBaseAPI) api).isNarrowable(phrase);
+				}
+				matcher.collectResults(null);
 				if (debugMode) {
 					LOG.info("API search finishing <" + phrase + "> API=<" + api + ">");
 				}
+				if (cachedSearch != null && cacheable) {
+					cachedSearch.addApiResults(api, apiResults, narrowable);
+				}
 				matcher.apiSearchFinished(api, phrase);
 				if (debugMode) {
 					LOG.info("API search done <" + phrase + "> API=<" + api + ">");
@@ -714,6 +877,137 @@ public class SearchUICore {
 			} catch (Throwable e) {
 				e.printStackTrace();
 				LOG.error(e.getMessage(), e);
+				matcher.collectResults(null);
+				if (cachedSearch != null) {
+					cachedSearch.complete = false;
+				}
+			}
+		}
+		if (cachedSearch != null) {
+			cachedSearch.complete &= !matcher.isCancelled();
+			cachedSearch.unselectedPoiType = phrase.getUnselectedPoiType();
+			cachedSearch.poiTypeApiUnselectedPoiType = getUnselectedPoiType();
+			cachedSearch.poiTypeApiNameFilter = getCustomNameFilter();
+		}
+	}
+
+	/**
+	 * @param narrowingApi API to filter the results for the extended phrase, null to publish all results
+	 */
+	private void publishCachedResults(SearchPhrase phrase, SearchBaseAPI narrowingApi, List<SearchResult> results,
+									  SearchResultMatcher matcher) {
+		for (SearchResult r : results) {
+			if (matcher.isCancelled()) {
+				return;
+			}
+			SearchResult res = new SearchResult(r);
+			if (narrowingApi == null || narrowingApi.filterNarrowedResult(phrase, res)) {
+				SearchResult parent = matcher.setParentSearchResult(res.parentSearchResult);
+				matcher.publish(res);
+				matcher.setParentSearchResult(parent);
+			}
+		}
+	}
+
+	/**
+	 * Results of the finished search by APIs created by init, they are published again for the same phrase
+	 * (same text, selected words and settings) instead of searching in the indexes.
+	 * Results of narrowable APIs are filtered for the phrase which extends the only unknown word.
+	 */
+	private class CachedSearch {
+		private final SearchSettings settings;
+		private final List<BinaryMapIndexReader> offlineIndexes;
+		private final String text;
+		private final List<SearchResult> wordResults = new ArrayList<>();
+		private final boolean acceptPrivate;
+		// the only unknown word if it is not complete, null otherwise
+		private final String unknownWord;
+
+		private final List<SearchCoreAPI> searchApis = new ArrayList<>();
+		// results as they were before publish, which changes names of the results
+		private final List<List<SearchResult>> apiResults = new ArrayList<>();
+		private final List<SearchCoreAPI> narrowableApis = new ArrayList<>();
+		private AbstractPoiType unselectedPoiType;
+		private AbstractPoiType poiTypeApiUnselectedPoiType;
+		private String poiTypeApiNameFilter;
+		private boolean complete = true;
+		private int resultsCount;
+
+		CachedSearch(SearchPhrase phrase) {
+			settings = phrase.getSettings();
+			offlineIndexes = settings.getOfflineIndexes();
+			text = phrase.getText(true);
+			for (SearchWord word : phrase.getWords()) {
+				wordResults.add(word.getResult());
+			}
+			acceptPrivate = phrase.isAcceptPrivate();
+			if (phrase.isUnknownSearchWordPresent() && !phrase.hasMoreThanOneUnknownSearchWord()
+					&& !phrase.isLastUnknownSearchWordComplete()) {
+				unknownWord = phrase.getFirstUnknownSearchWord();
+			} else {
+				unknownWord = null;
+			}
+		}
+
+		boolean isSamePhrase(SearchPhrase phrase) {
+			return text.equals(phrase.getText(true)) && isSameSearch(phrase);
+		}
+
+		/**
+		 * @return true if the phrase extends the only unknown word of this search
+		 */
+		boolean isNarrowedBy(SearchPhrase phrase) {
+			if (unknownWord == null || phrase.hasMoreThanOneUnknownSearchWord()) {
+				return false;
+			}
+			String newText = phrase.getText(true);
+			String newUnknownWord = phrase.getFirstUnknownSearchWord();
+			return newText.length() > text.length() && newText.startsWith(text)
+					&& newUnknownWord.startsWith(unknownWord) && isSameSearch(phrase);
+		}
+
+		private boolean isSameSearch(SearchPhrase phrase) {
+			if (phrase.getSettings() != settings || settings.getOfflineIndexes() != offlineIndexes
+					|| phrase.isAcceptPrivate() != acceptPrivate || phrase.getFileRequest() != null
+					|| phrase.getWords().size() != wordResults.size()) {
+				return false;
+			}
+			for (int i = 0; i < wordResults.size(); i++) {
+				if (phrase.getWords().get(i).getResult() != wordResults.get(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		void addApiResults(SearchCoreAPI api, List<SearchResult> results, boolean narrowable) {
+			searchApis.add(api);
+			apiResults.add(results);
+			resultsCount += results.size();
+			if (narrowable) {
+				narrowableApis.add(api);
+			}
+		}
+
+		boolean isNarrowable(SearchCoreAPI api) {
+			return narrowableApis.contains(api);
+		}
+
+		List<SearchResult> getApiResults(SearchCoreAPI api) {
+			int ind = searchApis.indexOf(api);
+			return ind != -1 ? apiResults.get(ind) : null;
+		}
+
+		List<SearchResult> getNarrowableResults(SearchCoreAPI api) {
+			return isNarrowable(api) ? getApiResults(api) : null;
+		}
+
+		void restoreSearchState(SearchPhrase phrase) {
+			phrase.setUnselectedPoiType(unselectedPoiType);
+			for (SearchCoreAPI api : apis) {
+				if (api instanceof SearchAmenityByTypeAPI) {
+					((SearchAmenityByTypeAPI) api).restoreSearchState(poiTypeApiUnselectedPoiType, poiTypeApiNameFilter);
+				}
 			}
 		}
 	}
@@ -744,6 +1038,8 @@ public class SearchUICore {
 		private SearchPhrase phrase;
 		private List<MapObject> exportedObjects;
 		private List<City> exportedCities;
+		// copies of the published results before publish changes them
+		private List<SearchResult> collectedResults;
 
 		public SearchResultMatcher(ResultMatcher<SearchResult> matcher, SearchPhrase phrase, int request,
 								   AtomicInteger requestNumber, int totalLimit) {
@@ -768,6 +1064,10 @@ public class SearchUICore {
 			return requestResults;
 		}
 
+		void collectResults(List<SearchResult> collectedResults) {
+			this.collectedResults = collectedResults;
+		}
+
 		public int getCount() {
 			return requestResults.size();
 		}
@@ -822,6 +1122,7 @@ public class SearchUICore {
 
 		@Override
 		public boolean publish(SearchResult object) {
+			SearchResult original = collectedResults != null ? new SearchResult(object) : null;
 			if (phrase != null && object.otherNames != null && !phrase.getFirstUnknownNameStringMatcher().matches(object.localeName)) {
 				for (String s : object.otherNames) {
 					if (phrase.getFirstUnknownNameStringMatcher().matches(s)) {
@@ -847,6 +1148,10 @@ public class SearchUICore {
 				count++;
 				if (totalLimit == -1 || count < totalLimit) {
 					requestResults.add(object);
+					if (original != null) {
+						original.parentSearchResult = parentSearchResult;
+						collectedResults.add(original);
+					}
 				}
 				return true;
 			}
@@ -0,0 +1,213 @@
+package net.osmand.search.core;
+
+import net.osmand.Collator;
+import net.osmand.CollatorStringMatcher.StringMatcherMode;
+import net.osmand.OsmAndCollator;
+import net.osmand.osm.AbstractPoiType;
+import net.osmand.search.core.SearchPhrase.NameStringMatcher;
+
+import java.text.CollationElementIterator;
+import java.text.RuleBasedCollator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sorted words of names (translation, english translation, key and synonyms) of poi types to find types
+ * which names could match the name matcher without checking all names by collator.
+ * Letters of words are replaced by the first letter equal to them by primary collator, so words starting
+ * with the part are found by binary search. Found types should be checked by the matcher.
+ * Names with letters which are ignored or expanded by collator (e.g. 'æ') are always returned.
+ */
+public class PoiTypeNameIndex {
+
+	private static final char NOT_SINGLE_ELEMENT = 0;
+
+	private final java.text.Collator elementsCollator = OsmAndCollator.primaryJavaCollator();
+	private final Collator collator = OsmAndCollator.wrapCollator(elementsCollator);
+	// letter -> representative letter (first letter of its collator group) or NOT_SINGLE_ELEMENT
+	private final Map<Character, Character> letters = new HashMap<>();
+	private final StringBuilder representatives = new StringBuilder();
+
+	private final List<AbstractPoiType> types = new ArrayList<>();
+	private final List<AbstractPoiType> alwaysMatchedTypes = new ArrayList<>();
+	private String[] words;
+	private int[] wordTypes;
+
+	public PoiTypeNameIndex(Collection<? extends AbstractPoiType> poiTypes) {
+		Map<AbstractPoiType, Boolean> added = new IdentityHashMap<>();
+		final List<String> foundWords = new ArrayList<>();
+		final List<Integer> foundTypes = new ArrayList<>();
+		StringBuilder word = new StringBuilder();
+		for (AbstractPoiType pt : poiTypes) {
+			if (added.put(pt, Boolean.TRUE) != null) {
+				continue;
+			}
+			int type = types.size();
+			types.add(pt);
+			boolean alwaysMatched = false;
+			for (String name : new String[] {pt.getTranslation(), pt.getEnTranslation(), pt.getKeyName(), pt.getSynonyms()}) {
+				if (name == null) {
+					continue;
+				}
+				String simplified = simplify(name);
+				for (int i = 0; i <= simplified.length(); i++) {
+					char c = i < simplified.length() ? simplified.charAt(i) : ' ';
+					if (!isSpace(c)) {
+						char r = getRepresentative(c);
+						if (r != NOT_SINGLE_ELEMENT) {
+							word.append(r);
+						} else {
+							alwaysMatched = true;
+						}
+					} else if (word.length() > 0) {
+						foundWords.add(word.toString());
+						foundTypes.add(type);
+						word.setLength(0);
+					}
+				}
+			}
+			if (alwaysMatched) {
+				alwaysMatchedTypes.add(pt);
+			}
+		}
+		Integer[] order = new Integer[foundWords.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return foundWords.get(o1).compareTo(foundWords.get(o2));
+			}
+		});
+		words = new String[order.length];
+		wordTypes = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			words[i] = foundWords.get(order[i]);
+			wordTypes[i] = foundTypes.get(order[i]);
+		}
+	}
+
+	/**
+	 * @return types which names could match the matcher or null if the matcher is not supported by index
+	 * (then all types should be checked)
+	 */
+	public Set<AbstractPoiType> findCandidates(NameStringMatcher nm) {
+		StringMatcherMode mode = nm.getMode();
+		boolean equals = mode == StringMatcherMode.CHECK_EQUALS_FROM_SPACE;
+		if (!equals && mode != StringMatcherMode.CHECK_STARTS_FROM_SPACE) {
+			return null;
+		}
+		String part = nm.getNamePart();
+		if (part.isEmpty()) {
+			return null;
+		}
+		StringBuilder sb = new StringBuilder(part.length());
+		for (int i = 0; i < part.length(); i++) {
+			char c = part.charAt(i);
+			Character r = letters.get(c);
+			if (isSpace(c) || (r == null && !isSingleCollationElement(c)) || (r != null && r == NOT_SINGLE_ELEMENT)) {
+				return null;
+			}
+			if (r == null) {
+				r = findRepresentative(c);
+				if (r == null) {
+					// no word contains this letter
+					return newTypesSet(alwaysMatchedTypes);
+				}
+			}
+			sb.append(r.charValue());
+		}
+		String key = sb.toString();
+		Set<AbstractPoiType> result = newTypesSet(alwaysMatchedTypes);
+		for (int i = lowerBound(key); i < words.length && words[i].startsWith(key); i++) {
+			if (!equals || words[i].length() == key.length()) {
+				result.add(types.get(wordTypes[i]));
+			}
+		}
+		return result;
+	}
+
+	private Set<AbstractPoiType> newTypesSet(List<AbstractPoiType> types) {
+		Set<AbstractPoiType> set = Collections.newSetFromMap(new IdentityHashMap<AbstractPoiType, Boolean>());
+		set.addAll(types);
+		return set;
+	}
+
+	private int lowerBound(String key) {
+		int low = 0;
+		int high = words.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (words[mid].compareTo(key) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private char getRepresentative(char c) {
+		Character r = letters.get(c);
+		if (r == null) {
+			if (!isSingleCollationElement(c)) {
+				r = NOT_SINGLE_ELEMENT;
+			} else {
+				r = findRepresentative(c);
+				if (r == null) {
+					r = c;
+					representatives.append(c);
+				}
+			}
+			letters.put(c, r);
+		}
+		return r;
+	}
+
+	private Character findRepresentative(char c) {
+		String s = String.valueOf(c);
+		for (int i = 0; i < representatives.length(); i++) {
+			if (collator.equals(s, String.valueOf(representatives.charAt(i)))) {
+				return representatives.charAt(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if the letter has one primary collation element (it is not ignored or expanded)
+	 */
+	private boolean isSingleCollationElement(char c) {
+		if (!(elementsCollator instanceof RuleBasedCollator)) {
+			return c < 128;
+		}
+		CollationElementIterator it = ((RuleBasedCollator) elementsCollator).getCollationElementIterator(String.valueOf(c));
+		int primaries = 0;
+		int e;
+		while ((e = it.next()) != CollationElementIterator.NULLORDER) {
+			if (CollationElementIterator.primaryOrder(e) != 0) {
+				primaries++;
+			}
+		}
+		return primaries == 1;
+	}
+
+	// same simplification and word separators as CollatorStringMatcher
+	private static String simplify(String s) {
+		return s.toLowerCase(Locale.getDefault()).replace("ß", "ss");
+	}
+
+	private static boolean isSpace(char c) {
+		return !Character.isLetter(c) && !Character.isDigit(c);
+	}
+}
@@ -154,6 +154,23 @@ public class SearchCoreFactory {
 			return 0;
 		}
 
+		/**
+		 * @return true if the results of the last search by the phrase include all results of the phrase
+		 * with the only unknown word extended, so they could be filtered by {@link #filterNarrowedResult}
+		 */
+		public boolean isNarrowable(SearchPhrase phrase) {
+			return false;
+		}
+
+		/**
+		 * Checks the result of the narrowable search by the extended phrase and prepares it for the phrase
+		 *
+		 * @return true if the result is a result of the extended phrase
+		 */
+		public boolean filterNarrowedResult(SearchPhrase phrase, SearchResult result) {
+			return false;
+		}
+
 		protected SearchPhrase subSearchApiOrPublish(SearchPhrase phrase, SearchResultMatcher resultMatcher, SearchResult res, SearchBaseAPI api)
 				throws IOException {
 			return subSearchApiOrPublish(phrase, resultMatcher, res, api, true);
@@ -569,12 +586,23 @@ public class SearchCoreFactory {
 		private static final int BBOX_RADIUS_POI_IN_CITY = 25 * 1000;
 		private static final int FIRST_WORD_MIN_LENGTH = 3;
 
+		private int resultsLimit = LIMIT;
+		private boolean limitReached;
+
 		public SearchAmenityByNameAPI() {
 			super(ObjectType.POI);
 		}
 
+		/**
+		 * Sets max amenities to check, results of the search which reached it are not narrowed
+		 */
+		public void setResultsLimit(int resultsLimit) {
+			this.resultsLimit = resultsLimit;
+		}
+
 		@Override
 		public boolean search(final SearchPhrase phrase, final SearchResultMatcher resultMatcher) throws IOException {
+			limitReached = false;
 			if (!phrase.isUnknownSearchWordPresent()) {
 				return false;
 			}
@@ -618,7 +646,8 @@ public class SearchCoreFactory {
 							if (phrase.getSettings().isExportObjects()) {
 								resultMatcher.exportObject(phrase, object);
 							}
-							if (limit++ > LIMIT) {
+							if (limit++ > resultsLimit) {
+								limitReached = true;
 								return false;
 							}
 							String poiID = object.getType().getKeyName() + "_" + object.getId();
@@ -655,7 +684,7 @@ public class SearchCoreFactory {
 
 						@Override
 						public boolean isCancelled() {
-							return resultMatcher.isCancelled() && (limit < LIMIT);
+							return resultMatcher.isCancelled() && (limit < resultsLimit);
 						}
 					}, rawDataCollector);
 			
@@ -696,6 +725,23 @@ public class SearchCoreFactory {
 			return super.isSearchMoreAvailable(phrase) && getSearchPriority(phrase) != -1;
 		}
 
+		@Override
+		public boolean isNarrowable(SearchPhrase phrase) {
+			return !limitReached;
+		}
+
+		@Override
+		public boolean filterNarrowedResult(SearchPhrase phrase, SearchResult result) {
+			NameStringMatcher nm = phrase.getMainUnknownNameStringMatcher();
+			if (!nm.matches(result.localeName) && !nm.matches(result.otherNames)
+					&& !(result.object instanceof Amenity && nm.matches(((Amenity) result.object).getAdditionalInfoValues(false)))) {
+				return false;
+			}
+			result.setRequiredSearchPhrase(phrase);
+			phrase.countUnknownWordsMatchMainResult(result);
+			return true;
+		}
+
 		@Override
 		public int getMinimalSearchRadius(SearchPhrase phrase) {
 			return phrase.getRadiusSearch(BBOX_RADIUS);
@@ -719,6 +765,7 @@ public class SearchCoreFactory {
 		private Map<String, PoiType> translatedNames = new LinkedHashMap<>();
 		private List<AbstractPoiType> topVisibleFilters;
 		private List<PoiCategory> categories;
+		private PoiTypeNameIndex poiTypeNameIndex;
 		private List<CustomSearchPoiFilter> customPoiFilters = new ArrayList<>();
 		private Map<String, Integer> activePoiFilters = new HashMap<>();
 		private MapPoiTypes types;
@@ -748,8 +795,12 @@ public class SearchCoreFactory {
 
 		public Map<String, PoiTypeResult> getPoiTypeResults(NameStringMatcher nm, NameStringMatcher nmAdditional) {
 			Map<String, PoiTypeResult> results = new LinkedHashMap<>();
+			// only types found by index are checked by matchers (null if all types should be checked)
+			Set<AbstractPoiType> candidates = poiTypeNameIndex == null ? null : poiTypeNameIndex.findCandidates(nm);
+			Set<AbstractPoiType> additionalCandidates = poiTypeNameIndex == null || nmAdditional == null ? null
+					: poiTypeNameIndex.findCandidates(nmAdditional);
 			for (AbstractPoiType pf : topVisibleFilters) {
-				PoiTypeResult res = checkPoiType(nm, pf);
+				PoiTypeResult res = checkPoiType(nm, candidates, pf);
 				if(res != null) {
 					results.put(res.pt.getKeyName(), res);
 				}
@@ -759,12 +810,12 @@ public class SearchCoreFactory {
 			//	addAditonals(nmAdditional, results, types.getOtherMapCategory());
 			// }
 			for (PoiCategory c : categories) {
-				PoiTypeResult res = checkPoiType(nm, c);
+				PoiTypeResult res = checkPoiType(nm, candidates, c);
 				if(res != null) {
 					results.put(res.pt.getKeyName(), res);
 				}
 				if (nmAdditional != null) {
-					addAditonals(nmAdditional, results, c);
+					addAditonals(nmAdditional, additionalCandidates, results, c);
 				}
 			}
 			Iterator<Entry<String, PoiType>> it = translatedNames.entrySet().iterator();
@@ -772,19 +823,20 @@ public class SearchCoreFactory {
 				Entry<String, PoiType> e = it.next();
 				PoiType pt = e.getValue();
 				if (pt.getCategory() != types.getOtherMapCategory() && !pt.isReference()) {
-					PoiTypeResult res = checkPoiType(nm, pt);
+					PoiTypeResult res = checkPoiType(nm, candidates, pt);
 					if(res != null) {
 						results.put(res.pt.getKeyName(), res);
 					}
 					if (nmAdditional != null) {
-						addAditonals(nmAdditional, results, pt);
+						addAditonals(nmAdditional, additionalCandidates, results, pt);
 					}
 				}
 			}
 			return results;
 		}
 
-		private void addAditonals(NameStringMatcher nm, Map<String, PoiTypeResult> results, AbstractPoiType pt) {
+		private void addAditonals(NameStringMatcher nm, Set<AbstractPoiType> candidates,
+		                          Map<String, PoiTypeResult> results, AbstractPoiType pt) {
 			List<PoiType> additionals = pt.getPoiAdditionals();
 			if (additionals != null) {
 				for (PoiType a : additionals) {
@@ -802,7 +854,7 @@ public class SearchCoreFactory {
 						String enTranslation = a.getEnTranslation().toLowerCase();
 						if (!"no".equals(enTranslation) // && !"yes".equals(enTranslation)
 						) {
-							PoiTypeResult ptr = checkPoiType(nm, a);
+							PoiTypeResult ptr = checkPoiType(nm, candidates, a);
 							if (ptr != null) {
 								results.put(a.getKeyName(), ptr);
 							}
@@ -812,7 +864,10 @@ public class SearchCoreFactory {
 			}
 		}
 
-		private PoiTypeResult checkPoiType(NameStringMatcher nm, AbstractPoiType pf) {
+		private PoiTypeResult checkPoiType(NameStringMatcher nm, Set<AbstractPoiType> candidates, AbstractPoiType pf) {
+			if (candidates != null && !candidates.contains(pf)) {
+				return null;
+			}
 			PoiTypeResult res = null;
 			if (nm.matches(pf.getTranslation())) {
 				res = addIfMatch(nm, pf.getTranslation(), pf, res);
@@ -851,6 +906,7 @@ public class SearchCoreFactory {
 				topVisibleFilters = types.getTopVisibleFilters();
 				topVisibleFilters.remove(types.getOsmwiki());
 				categories = types.getCategories(false);
+				poiTypeNameIndex = new PoiTypeNameIndex(getIndexedPoiTypes());
 
 				if (DISPLAY_DEFAULT_POI_TYPES) {
 					List<String> order = new ArrayList<>();
@@ -895,6 +951,21 @@ public class SearchCoreFactory {
 			}
 		}
 
+		private List<AbstractPoiType> getIndexedPoiTypes() {
+			List<AbstractPoiType> indexedTypes = new ArrayList<>();
+			List<AbstractPoiType> withAdditionals = new ArrayList<>();
+			withAdditionals.addAll(categories);
+			withAdditionals.addAll(translatedNames.values());
+			indexedTypes.addAll(topVisibleFilters);
+			indexedTypes.addAll(withAdditionals);
+			for (AbstractPoiType pt : withAdditionals) {
+				if (pt.getPoiAdditionals() != null) {
+					indexedTypes.addAll(pt.getPoiAdditionals());
+				}
+			}
+			return indexedTypes;
+		}
+
 		@Override
 		public boolean search(SearchPhrase phrase, SearchResultMatcher resultMatcher) throws IOException {
 			boolean showTopFiltersOnly = !phrase.isUnknownSearchWordPresent();
@@ -1029,6 +1100,14 @@ public class SearchCoreFactory {
 			return nameFilter;
 		}
 
+		/**
+		 * Restores state of the search which results are reused without calling search
+		 */
+		public void restoreSearchState(AbstractPoiType unselectedPoiType, String nameFilter) {
+			this.unselectedPoiType = unselectedPoiType;
+			this.nameFilter = nameFilter;
+		}
+
 		@Override
 		public boolean isSearchMoreAvailable(SearchPhrase phrase) {
 			return getSearchPriority(phrase) != -1 && super.isSearchMoreAvailable(phrase);
@@ -1277,8 +1356,12 @@ public class SearchCoreFactory {
 		}
 
 		private static int LIMIT = 10000;
+		// streets are not narrowed if buildings of some of them were searched by streetsAPI
+		private boolean narrowable;
+
 		@Override
 		public boolean search(SearchPhrase phrase, SearchResultMatcher resultMatcher) throws IOException {
+			narrowable = true;
 			SearchWord sw = phrase.getLastSelectedWord();
 			if (isLastWordCityGroup(phrase) && sw.getResult() != null && sw.getResult().file != null) {
 				City c = (City) sw.getResult().object;
@@ -1308,8 +1391,11 @@ public class SearchCoreFactory {
 					res.priority = SEARCH_STREET_BY_CITY_PRIORITY;
 					//res.priorityDistance = 1;
 					res.objectType = ObjectType.STREET;
-					subSearchApiOrPublish(phrase, resultMatcher, res, streetsAPI, pub);
+					if (subSearchApiOrPublish(phrase, resultMatcher, res, streetsAPI, pub) != null || !pub) {
+						narrowable = false;
+					}
 					if (limit++ > LIMIT) {
+						narrowable = false;
 						break;
 					}
 
@@ -1319,6 +1405,23 @@ public class SearchCoreFactory {
 			return true;
 		}
 
+		@Override
+		public boolean isNarrowable(SearchPhrase phrase) {
+			// only street results are published for the only unknown word matched by their names
+			return narrowable;
+		}
+
+		@Override
+		public boolean filterNarrowedResult(SearchPhrase phrase, SearchResult result) {
+			NameStringMatcher nm = phrase.getMainUnknownNameStringMatcher();
+			if (result.objectType != ObjectType.STREET || !(nm.matches(result.localeName) || nm.matches(result.otherNames))) {
+				return false;
+			}
+			result.setRequiredSearchPhrase(phrase);
+			phrase.countUnknownWordsMatchMainResult(result);
+			return true;
+		}
+
 		@Override
 		public int getSearchPriority(SearchPhrase p) {
 			if (isLastWordCityGroup(p)) {
@@ -1331,6 +1434,8 @@ public class SearchCoreFactory {
 
 	public static class SearchBuildingAndIntersectionsByStreetAPI extends SearchBaseAPI {
 		Street cacheBuilding;
+		// names of interpolated buildings are made from the searched number, so they are not narrowed
+		private boolean narrowable;
 
 		public SearchBuildingAndIntersectionsByStreetAPI() {
 			super(ObjectType.HOUSE, ObjectType.STREET_INTERSECTION);
@@ -1343,6 +1448,7 @@ public class SearchCoreFactory {
 
 		@Override
 		public boolean search(SearchPhrase phrase, final SearchResultMatcher resultMatcher) throws IOException {
+			narrowable = true;
 			Street s = null;
 			int priority = SEARCH_BUILDING_BY_STREET_PRIORITY;
 			if (phrase.isLastWord(ObjectType.STREET)) {
@@ -1404,6 +1510,9 @@ public class SearchCoreFactory {
 				NameStringMatcher buildingMatch = phrase.getUnknownWordToSearchBuildingNameMatcher();
 				NameStringMatcher startMatch = new NameStringMatcher(lw, StringMatcherMode.CHECK_ONLY_STARTS_WITH);
 				for (Building b : s.getBuildings()) {
+					if (b.getInterpolationType() != null || b.getInterpolationInterval() > 0) {
+						narrowable = false;
+					}
 					SearchResult res = new SearchResult(phrase);
 					boolean interpolation = b.belongsToInterpolation(lw);
 					if ((!buildingMatch.matches(b.getName()) && !interpolation)
@@ -1431,11 +1540,8 @@ public class SearchCoreFactory {
 
 					resultMatcher.publish(res);
 				}
-				String streetIntersection = phrase.getUnknownWordToSearch();
 				NameStringMatcher streetMatch = phrase.getMainUnknownNameStringMatcher();
-				if (Algorithms.isEmpty(streetIntersection) ||
-						(!Character.isDigit(streetIntersection.charAt(0)) &&
-								CommonWords.getCommonSearch(streetIntersection) == -1) ) {
+				if (isStreetIntersectionSearch(phrase)) {
 					for (Street street : s.getIntersectedStreets()) {
 						SearchResult res = new SearchResult(phrase);
 						if ((!streetMatch.matches(street.getName()) && !streetMatch.matches(street.getOtherNames(true)))
@@ -1461,6 +1567,44 @@ public class SearchCoreFactory {
 			return true;
 		}
 
+		private boolean isStreetIntersectionSearch(SearchPhrase phrase) {
+			String streetIntersection = phrase.getUnknownWordToSearch();
+			return Algorithms.isEmpty(streetIntersection) ||
+					(!Character.isDigit(streetIntersection.charAt(0)) &&
+							CommonWords.getCommonSearch(streetIntersection) == -1);
+		}
+
+		@Override
+		public boolean isNarrowable(SearchPhrase phrase) {
+			return narrowable;
+		}
+
+		@Override
+		public boolean filterNarrowedResult(SearchPhrase phrase, SearchResult result) {
+			if (result.objectType == ObjectType.HOUSE) {
+				Building b = (Building) result.object;
+				if (!phrase.getUnknownWordToSearchBuildingNameMatcher().matches(b.getName())) {
+					return false;
+				}
+				NameStringMatcher startMatch = new NameStringMatcher(phrase.getUnknownWordToSearchBuilding(),
+						StringMatcherMode.CHECK_ONLY_STARTS_WITH);
+				result.setRequiredSearchPhrase(phrase);
+				result.firstUnknownWordMatches = startMatch.matches(result.localeName);
+				return true;
+			} else if (result.objectType == ObjectType.STREET_INTERSECTION) {
+				Street street = (Street) result.object;
+				NameStringMatcher streetMatch = phrase.getMainUnknownNameStringMatcher();
+				if (!isStreetIntersectionSearch(phrase)
+						|| (!streetMatch.matches(street.getName()) && !streetMatch.matches(street.getOtherNames(true)))) {
+					return false;
+				}
+				result.setRequiredSearchPhrase(phrase);
+				phrase.countUnknownWordsMatchMainResult(result);
+				return true;
+			}
+			return false;
+		}
+
 		@Override
 		public int getSearchPriority(SearchPhrase p) {
 			if (isLastWordCityGroup(p)) {
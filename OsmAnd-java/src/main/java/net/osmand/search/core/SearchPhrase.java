@@ -787,6 +787,14 @@ public class SearchPhrase {
 		public NameStringMatcher(String namePart, StringMatcherMode mode) {
 			sm = new CollatorStringMatcher(namePart, mode);
 		}
+
+		public String getNamePart() {
+			return sm.getPart();
+		}
+
+		public StringMatcherMode getMode() {
+			return sm.getMode();
+		}
 		
 		public boolean matches(Collection<String> map) {
 			if(map == null) {
@@ -3,6 +3,7 @@ package net.osmand.search.core;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.TreeSet;
 
 import net.osmand.binary.BinaryMapIndexReader;
 import net.osmand.data.City;
@@ -64,6 +65,38 @@ public class SearchResult {
 		this.requiredSearchPhrase = sp;
 	}
 
+	public SearchResult(SearchResult r) {
+		this.requiredSearchPhrase = r.requiredSearchPhrase;
+		this.parentSearchResult = r.parentSearchResult;
+		this.wordsSpan = r.wordsSpan;
+		this.firstUnknownWordMatches = r.firstUnknownWordMatches;
+		this.otherWordsMatch = r.otherWordsMatch != null ? new TreeSet<>(r.otherWordsMatch) : null;
+		this.object = r.object;
+		this.objectType = r.objectType;
+		this.file = r.file;
+		this.priority = r.priority;
+		this.priorityDistance = r.priorityDistance;
+		this.location = r.location;
+		this.preferredZoom = r.preferredZoom;
+		this.localeName = r.localeName;
+		this.alternateName = r.alternateName;
+		this.otherNames = r.otherNames;
+		this.localeRelatedObjectName = r.localeRelatedObjectName;
+		this.relatedObject = r.relatedObject;
+		this.distRelatedObjectName = r.distRelatedObjectName;
+		this.unknownPhraseMatchWeight = r.unknownPhraseMatchWeight;
+	}
+
+	/**
+	 * Sets the phrase and resets the matched words counted for the previous phrase
+	 */
+	public void setRequiredSearchPhrase(SearchPhrase phrase) {
+		requiredSearchPhrase = phrase;
+		firstUnknownWordMatches = false;
+		otherWordsMatch = null;
+		unknownPhraseMatchWeight = 0;
+	}
+
 	// maximum corresponds to the top entry
 	public double getUnknownPhraseMatchWeight() {
 		if (unknownPhraseMatchWeight != 0) {
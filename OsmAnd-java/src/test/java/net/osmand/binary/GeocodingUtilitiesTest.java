@@ -0,0 +1,127 @@
+package net.osmand.binary;
+
+import net.osmand.binary.GeocodingUtilities.GeocodingResult;
+import net.osmand.binary.GeocodingUtilities.GeocodingWorker;
+import net.osmand.data.LatLon;
+import net.osmand.router.RoutePlannerFrontEnd;
+import net.osmand.router.RouteTestingTest;
+import net.osmand.router.RoutingConfiguration;
+import net.osmand.router.RoutingConfiguration.RoutingMemoryLimits;
+import net.osmand.router.RoutingContext;
+import net.osmand.router.TestEntry;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Batch reverse geocoding returns the same results as reverse geocoding of every point
+ */
+public class GeocodingUtilitiesTest {
+
+	private static final String MAP_FILE = "src/test/resources/routing/Routing_test_archive.obf";
+
+	private final List<RandomAccessFile> files = new ArrayList<RandomAccessFile>();
+
+	@After
+	public void tearDown() throws IOException {
+		for (RandomAccessFile raf : files) {
+			raf.close();
+		}
+		files.clear();
+	}
+
+	private BinaryMapIndexReader openReader() throws IOException {
+		File fl = new File(MAP_FILE);
+		RandomAccessFile raf = new RandomAccessFile(fl, "r");
+		files.add(raf);
+		return new BinaryMapIndexReader(raf, fl);
+	}
+
+	private static RoutingContext buildContext(BinaryMapIndexReader reader) {
+		RoutingMemoryLimits memoryLimits = new RoutingMemoryLimits(RoutingConfiguration.DEFAULT_MEMORY_LIMIT * 3,
+				RoutingConfiguration.DEFAULT_NATIVE_MEMORY_LIMIT);
+		RoutingConfiguration config = RoutingConfiguration.getDefault().build("geocoding", memoryLimits,
+				new HashMap<String, String>());
+		return new RoutePlannerFrontEnd().buildRoutingContext(config, null, new BinaryMapIndexReader[] {reader},
+				RoutePlannerFrontEnd.RouteCalculationMode.NORMAL);
+	}
+
+	/**
+	 * Start and end points of routing tests and points around them (in the same and neighbour tiles)
+	 */
+	private static List<LatLon> createPoints() throws IOException {
+		List<LatLon> points = new ArrayList<LatLon>();
+		Random random = new Random(5);
+		for (Object[] o : RouteTestingTest.data()) {
+			TestEntry te = (TestEntry) o[1];
+			for (LatLon l : new LatLon[] {te.getStartPoint(), te.getEndPoint()}) {
+				if (l == null) {
+					continue;
+				}
+				points.add(l);
+				for (int i = 0; i < 4; i++) {
+					points.add(new LatLon(l.getLatitude() + (random.nextDouble() - 0.5) * 0.005,
+							l.getLongitude() + (random.nextDouble() - 0.5) * 0.005));
+				}
+			}
+		}
+		// input order should not matter
+		Collections.shuffle(points, random);
+		return points;
+	}
+
+	private static List<String> formatResults(List<GeocodingResult> results) {
+		List<String> res = new ArrayList<String>();
+		for (GeocodingResult r : results) {
+			res.add(r.toString() + " " + r.getLocation());
+		}
+		return res;
+	}
+
+	private void checkBatchSearch(int threads) throws IOException, InterruptedException {
+		List<LatLon> points = createPoints();
+		Assert.assertFalse(points.isEmpty());
+
+		BinaryMapIndexReader reader = openReader();
+		RoutingContext ctx = buildContext(reader);
+		List<BinaryMapIndexReader> readers = Collections.singletonList(reader);
+		List<List<String>> expected = new ArrayList<List<String>>();
+		for (LatLon l : points) {
+			GeocodingUtilities utilities = new GeocodingUtilities();
+			List<GeocodingResult> res = utilities.reverseGeocodingSearch(ctx, l.getLatitude(), l.getLongitude(), false);
+			expected.add(formatResults(utilities.sortGeocodingResults(readers, res)));
+		}
+
+		List<GeocodingWorker> workers = new ArrayList<GeocodingWorker>();
+		for (int i = 0; i < threads; i++) {
+			// every worker has its own reader and context
+			BinaryMapIndexReader workerReader = openReader();
+			workers.add(new GeocodingWorker(buildContext(workerReader), Collections.singletonList(workerReader)));
+		}
+		List<List<GeocodingResult>> results = new GeocodingUtilities().reverseGeocodingSearch(workers, points, false);
+		Assert.assertEquals(points.size(), results.size());
+		for (int i = 0; i < points.size(); i++) {
+			Assert.assertEquals("Point " + points.get(i), expected.get(i), formatResults(results.get(i)));
+		}
+	}
+
+	@Test
+	public void testBatchSearch() throws IOException, InterruptedException {
+		checkBatchSearch(1);
+	}
+
+	@Test
+	public void testParallelBatchSearch() throws IOException, InterruptedException {
+		checkBatchSearch(3);
+	}
+}
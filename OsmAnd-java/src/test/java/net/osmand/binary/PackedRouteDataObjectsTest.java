@@ -0,0 +1,151 @@
+package net.osmand.binary;
+
+import net.osmand.binary.BinaryMapRouteReaderAdapter.RouteRegion;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PackedRouteDataObjectsTest {
+
+	public static RouteRegion createRegion() {
+		RouteRegion region = new RouteRegion();
+		region.initRouteEncodingRule(0, "highway", "residential");
+		region.initRouteEncodingRule(1, "name", "");
+		region.initRouteEncodingRule(2, "ref", "");
+		region.initRouteEncodingRule(3, "oneway", "yes");
+		region.initRouteEncodingRule(4, "oneway", "-1");
+		region.initRouteEncodingRule(5, "junction", "roundabout");
+		region.initRouteEncodingRule(6, "highway", "traffic_signals");
+		return region;
+	}
+
+	public static List<RouteDataObject> createObjects(RouteRegion region) {
+		List<RouteDataObject> objects = new ArrayList<RouteDataObject>();
+		for (int i = 0; i < 20; i++) {
+			RouteDataObject o;
+			if (i % 4 == 3) {
+				o = new RouteDataObject(region);
+			} else {
+				o = new RouteDataObject(region, new int[] { 1, 2 }, new String[] { "Street " + (i % 3), "ref" + i });
+			}
+			o.id = 1000 + i;
+			int pts = 2 + i % 5;
+			o.pointsX = new int[pts];
+			o.pointsY = new int[pts];
+			for (int k = 0; k < pts; k++) {
+				o.pointsX[k] = (1 << 30) + i * 100 + k;
+				o.pointsY[k] = (1 << 29) + i * 100 - k;
+			}
+			if (i % 5 == 4) {
+				o.types = new int[] { 0 };
+			} else {
+				o.types = new int[] { 0, 3 + i % 3 };
+			}
+			if (i % 2 == 0) {
+				// shorter than points, with null and empty entries
+				o.pointTypes = new int[pts - 1][];
+				o.pointTypes[0] = new int[0];
+				o.pointTypes[pts - 2] = new int[] { 6, 7 };
+			}
+			if (i % 3 == 0) {
+				o.restrictions = new long[] { ((long) i << RouteDataObject.RESTRICTION_SHIFT) + 2 };
+				o.restrictionsVia = new long[] { 55 };
+			} else if (i % 3 == 1) {
+				o.restrictions = new long[0];
+			}
+			if (i % 6 == 0) {
+				o.heightDistanceArray = new float[2 * pts];
+				for (int k = 0; k < o.heightDistanceArray.length; k++) {
+					o.heightDistanceArray[k] = i + k * 0.5f;
+				}
+				o.heightByCurrentLocation = i;
+			} else if (i % 6 == 1) {
+				o.heightDistanceArray = new float[0];
+			}
+			if (i == 5) {
+				o.pointNames = new String[][] { null, { "Stop" } };
+				o.pointNameTypes = new int[][] { null, { 1 } };
+			}
+			objects.add(o);
+		}
+		return objects;
+	}
+
+	public static void assertSameObject(RouteDataObject o, RouteDataObject copy) {
+		Assert.assertSame(o.region, copy.region);
+		Assert.assertEquals(o.getId(), copy.getId());
+		Assert.assertArrayEquals(o.pointsX, copy.pointsX);
+		Assert.assertArrayEquals(o.pointsY, copy.pointsY);
+		Assert.assertArrayEquals(o.types, copy.types);
+		Assert.assertTrue(Arrays.deepEquals(o.pointTypes, copy.pointTypes));
+		Assert.assertArrayEquals(o.restrictions, copy.restrictions);
+		Assert.assertArrayEquals(o.restrictionsVia, copy.restrictionsVia);
+		Assert.assertArrayEquals(o.nameIds, copy.nameIds);
+		Assert.assertEquals(o.names, copy.names);
+		Assert.assertArrayEquals(o.heightDistanceArray, copy.heightDistanceArray, 0f);
+		Assert.assertEquals(o.heightByCurrentLocation, copy.heightByCurrentLocation, 0f);
+		Assert.assertSame(o.pointNames, copy.pointNames);
+		Assert.assertSame(o.pointNameTypes, copy.pointNameTypes);
+		Assert.assertEquals(o.getOneway(), copy.getOneway());
+	}
+
+	private void checkPacked(boolean direct) {
+		List<RouteDataObject> objects = createObjects(createRegion());
+		PackedRouteDataObjects packed = new PackedRouteDataObjects(objects, direct);
+		Assert.assertEquals(objects.size(), packed.size());
+		Assert.assertEquals(direct, packed.isDirect());
+		PackedRouteDataObjects.Accessor a = packed.accessor();
+		for (int i = 0; i < objects.size(); i++) {
+			RouteDataObject o = objects.get(i);
+			a.moveTo(i);
+			Assert.assertEquals(o.getId(), a.getId());
+			Assert.assertEquals(o.getPointsLength(), a.getPointsLength());
+			Assert.assertEquals(o.pointTypes != null, a.hasPointTypes());
+			for (int k = 0; k < o.getPointsLength(); k++) {
+				Assert.assertEquals(o.getPoint31XTile(k), a.getPoint31XTile(k));
+				Assert.assertEquals(o.getPoint31YTile(k), a.getPoint31YTile(k));
+				Assert.assertArrayEquals(o.getPointTypes(k), a.getPointTypes(k));
+				int[] pt = o.getPointTypes(k);
+				Assert.assertEquals(pt != null && pt.length > 0 && pt[0] == 6, a.hasPointType(k, 6));
+			}
+			Assert.assertArrayEquals(o.getTypes(), a.getTypes());
+			Assert.assertEquals(o.getOneway(), a.getOneway());
+			Assert.assertEquals(o.getRestrictionLength(), a.getRestrictionLength());
+			for (int k = 0; k < o.getRestrictionLength(); k++) {
+				Assert.assertEquals(o.getRestrictionType(k), a.getRestrictionType(k));
+				Assert.assertEquals(o.getRestrictionId(k), a.getRestrictionId(k));
+				Assert.assertEquals(o.getRestrictionVia(k), a.getRestrictionVia(k));
+			}
+			Assert.assertEquals(o.getName(), a.getName());
+			Assert.assertEquals(o.names == null ? null : o.names.get(2), a.getNameByType(2));
+
+			assertSameObject(o, a.toRouteDataObject());
+		}
+		Assert.assertTrue(packed.getEstimatedSize() > 0);
+	}
+
+	@Test
+	public void testHeapPacking() {
+		checkPacked(false);
+	}
+
+	@Test
+	public void testDirectPacking() {
+		checkPacked(true);
+	}
+
+	@Test
+	public void testOneway() {
+		List<RouteDataObject> objects = createObjects(createRegion());
+		PackedRouteDataObjects.Accessor a = new PackedRouteDataObjects(objects, false).accessor();
+		// types are [highway, oneway=yes | oneway=-1 | roundabout] or only [highway]
+		Assert.assertEquals(1, a.moveTo(0).getOneway());
+		Assert.assertEquals(-1, a.moveTo(1).getOneway());
+		Assert.assertEquals(1, a.moveTo(2).getOneway());
+		Assert.assertEquals(0, a.moveTo(4).getOneway());
+	}
+}
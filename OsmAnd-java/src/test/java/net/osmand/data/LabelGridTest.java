@@ -0,0 +1,60 @@
+package net.osmand.data;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+import gnu.trove.list.array.TIntArrayList;
+
+public class LabelGridTest {
+
+	@Test
+	public void testQueryFindsAllIntersectingLabels() {
+		Random random = new Random(7);
+		LabelGrid grid = new LabelGrid(64);
+		for (int run = 0; run < 2; run++) {
+			// grid is reused with other bounds
+			grid.reset(-100, -100, 1180 + run * 200, 2020);
+			for (int i = 0; i < 1500; i++) {
+				float x = random.nextFloat() * 1500 - 200;
+				float y = random.nextFloat() * 2400 - 200;
+				float rotate = random.nextBoolean() ? 0 : (float) (random.nextFloat() * Math.PI * 2);
+				grid.insert(x, y, x + 20 + random.nextFloat() * 300, y + 10 + random.nextFloat() * 30, rotate);
+			}
+			TIntArrayList result = new TIntArrayList();
+			for (int test = 0; test < 500; test++) {
+				float x = random.nextFloat() * 1500 - 200;
+				float y = random.nextFloat() * 2400 - 200;
+				float right = x + 20 + random.nextFloat() * 300;
+				float bottom = y + 10 + random.nextFloat() * 30;
+				float rotate = (float) (random.nextFloat() * Math.PI);
+				grid.query(x, y, right, bottom, rotate, result);
+				boolean[] found = new boolean[grid.size()];
+				for (int i = 0; i < result.size(); i++) {
+					Assert.assertFalse("Label is returned twice", found[result.get(i)]);
+					found[result.get(i)] = true;
+				}
+				for (int label = 0; label < grid.size(); label++) {
+					if (!found[label]) {
+						// not rotated rectangles don't intersect
+						Assert.assertFalse(LabelGrid.intersects(x, y, right, bottom, 0,
+								grid.getLeft(label), grid.getTop(label), grid.getRight(label), grid.getBottom(label), 0));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRotatedLabels() {
+		// parallel labels along the same rotated road
+		Assert.assertTrue(LabelGrid.intersects(0, 0, 100, 20, 1, 40, 40, 140, 60, 1));
+		Assert.assertFalse(LabelGrid.intersects(0, 0, 100, 20, 1, 300, 300, 400, 320, 1));
+		// orthogonal labels
+		Assert.assertTrue(LabelGrid.intersects(0, 0, 100, 20, 0.5f, 40, -30, 60, 70, (float) (0.5f + Math.PI / 2)));
+		// not rotated labels
+		Assert.assertFalse(LabelGrid.intersects(0, 0, 100, 20, 0, 101, 0, 200, 20, 0));
+		Assert.assertTrue(LabelGrid.intersects(0, 0, 100, 20, 0, 100, 20, 200, 40, 0));
+	}
+}
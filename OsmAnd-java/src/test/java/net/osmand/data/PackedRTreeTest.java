@@ -0,0 +1,147 @@
+package net.osmand.data;
+
+import net.osmand.data.PackedRTree.Visitor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import gnu.trove.list.array.TIntArrayList;
+
+public class PackedRTreeTest {
+
+	@Test
+	public void testQueriesMatchBruteForce() {
+		Random random = new Random(3);
+		for (int size : new int[] {0, 1, 15, 16, 17, 1000, 5000}) {
+			int[][] boxes = randomBoxes(random, size);
+			PackedRTree.Builder builder = new PackedRTree.Builder(4);
+			for (int[] b : boxes) {
+				builder.add(b[0], b[1], b[2], b[3]);
+			}
+			PackedRTree tree = builder.build();
+			Assert.assertEquals(size, tree.size());
+			TIntArrayList result = new TIntArrayList();
+			final TIntArrayList visited = new TIntArrayList();
+			int[] nearest = new int[5];
+			double[] distances = new double[5];
+			for (int test = 0; test < 200; test++) {
+				int left = random.nextInt(1 << 20);
+				int top = random.nextInt(1 << 20);
+				int right = left + random.nextInt(1 << 16);
+				int bottom = top + random.nextInt(1 << 16);
+				tree.queryInBox(left, top, right, bottom, result);
+				visited.resetQuick();
+				tree.queryInBox(left, top, right, bottom, new Visitor() {
+					@Override
+					public boolean visit(int item) {
+						visited.add(item);
+						return true;
+					}
+				});
+				TIntArrayList expected = new TIntArrayList();
+				for (int i = 0; i < size; i++) {
+					int[] b = boxes[i];
+					if (b[0] <= right && b[2] >= left && b[1] <= bottom && b[3] >= top) {
+						expected.add(i);
+					}
+				}
+				result.sort();
+				visited.sort();
+				Assert.assertEquals(expected, result);
+				Assert.assertEquals(expected, visited);
+
+				double maxDistance = random.nextInt(1 << 17);
+				int found = tree.findNearest(left, top, maxDistance, nearest, distances);
+				double[] expectedDistances = new double[size];
+				for (int i = 0; i < size; i++) {
+					expectedDistances[i] = sqDistance(boxes[i], left, top);
+				}
+				Arrays.sort(expectedDistances);
+				int expectedFound = 0;
+				while (expectedFound < nearest.length && expectedFound < size
+						&& expectedDistances[expectedFound] <= maxDistance * maxDistance) {
+					expectedFound++;
+				}
+				Assert.assertEquals(expectedFound, found);
+				for (int i = 0; i < found; i++) {
+					Assert.assertEquals(expectedDistances[i], distances[i], 0);
+					Assert.assertEquals(distances[i], sqDistance(boxes[nearest[i]], left, top), 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testVisitorStopsSearch() {
+		PackedRTree tree = PackedRTree.buildForPoints(new int[] {1, 2, 3, 4}, new int[] {1, 2, 3, 4});
+		final int[] visited = new int[1];
+		boolean completed = tree.queryInBox(0, 0, 10, 10, new Visitor() {
+			@Override
+			public boolean visit(int item) {
+				return ++visited[0] < 2;
+			}
+		});
+		Assert.assertFalse(completed);
+		Assert.assertEquals(2, visited[0]);
+	}
+
+	@Test
+	public void testQueriesMatchQuadTree() {
+		Random random = new Random(5);
+		int items = 20000;
+		int[] x = new int[items];
+		int[] y = new int[items];
+		QuadTree<Integer> quadTree = new QuadTree<Integer>(new QuadRect(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE), 8, 0.55f);
+		for (int i = 0; i < items; i++) {
+			x[i] = random.nextInt(Integer.MAX_VALUE);
+			y[i] = random.nextInt(Integer.MAX_VALUE);
+			quadTree.insert(i, x[i], y[i]);
+		}
+		PackedRTree tree = PackedRTree.buildForPoints(x, y);
+		int shift = 1 << 22;
+		List<Integer> quadTreeResult = new ArrayList<>();
+		TIntArrayList treeResult = new TIntArrayList();
+		int found = 0;
+		for (int i = 0; i < 2000; i++) {
+			int qx = random.nextInt(Integer.MAX_VALUE - (1 << 24));
+			int qy = random.nextInt(Integer.MAX_VALUE - (1 << 24));
+			quadTree.queryInBox(new QuadRect(qx, qy, qx + shift, qy + shift), quadTreeResult);
+			TIntArrayList expected = new TIntArrayList();
+			// quad tree returns all items of the nodes intersecting the box
+			for (int item : quadTreeResult) {
+				if (x[item] >= qx && x[item] <= qx + shift && y[item] >= qy && y[item] <= qy + shift) {
+					expected.add(item);
+				}
+			}
+			tree.queryInBox(qx, qy, qx + shift, qy + shift, treeResult);
+			expected.sort();
+			treeResult.sort();
+			Assert.assertEquals(expected, treeResult);
+			found += treeResult.size();
+		}
+		Assert.assertTrue(found > 0);
+	}
+
+	private static int[][] randomBoxes(Random random, int size) {
+		int[][] boxes = new int[size][];
+		for (int i = 0; i < size; i++) {
+			int left = random.nextInt(1 << 20);
+			int top = random.nextInt(1 << 20);
+			boolean point = random.nextBoolean();
+			boxes[i] = new int[] {left, top, point ? left : left + random.nextInt(1 << 12),
+					point ? top : top + random.nextInt(1 << 12)};
+		}
+		return boxes;
+	}
+
+	private static double sqDistance(int[] b, int x, int y) {
+		double dx = x < b[0] ? (double) b[0] - x : (x > b[2] ? (double) x - b[2] : 0);
+		double dy = y < b[1] ? (double) b[1] - y : (y > b[3] ? (double) y - b[3] : 0);
+		return dx * dx + dy * dy;
+	}
+}
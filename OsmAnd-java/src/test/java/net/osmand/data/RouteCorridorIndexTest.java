@@ -0,0 +1,137 @@
+package net.osmand.data;
+
+import net.osmand.Location;
+import net.osmand.util.MapUtils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class RouteCorridorIndexTest {
+
+	@Test
+	public void testNearestSegmentMatchesBruteForce() {
+		Random random = new Random(11);
+		List<Location> route = new ArrayList<>();
+		double lat = 52.1;
+		double lon = 4.3;
+		for (int i = 0; i < 2000; i++) {
+			route.add(new Location("", lat, lon));
+			// mostly short segments and some long straight ones
+			double step = random.nextInt(20) == 0 ? 0.05 : 0.001;
+			lat += (random.nextDouble() - 0.3) * step;
+			lon += (random.nextDouble() - 0.3) * step;
+		}
+		RouteCorridorIndex index = new RouteCorridorIndex(route);
+		double[] distance = new double[1];
+		for (int test = 0; test < 1000; test++) {
+			Location l = route.get(random.nextInt(route.size()));
+			double pLat = l.getLatitude() + (random.nextDouble() - 0.5) * 0.05;
+			double pLon = l.getLongitude() + (random.nextDouble() - 0.5) * 0.05;
+			double radius = 100 + random.nextInt(2000);
+			int expected = -1;
+			double minDistance = Double.POSITIVE_INFINITY;
+			for (int i = 1; i < route.size(); i++) {
+				double d = MapUtils.getOrthogonalDistance(pLat, pLon, route.get(i - 1).getLatitude(),
+						route.get(i - 1).getLongitude(), route.get(i).getLatitude(), route.get(i).getLongitude());
+				if (d < minDistance) {
+					minDistance = d;
+					expected = i;
+				}
+			}
+			int actual = index.findNearestSegment(pLat, pLon, radius, distance);
+			if (minDistance <= radius) {
+				Assert.assertEquals(minDistance, distance[0], 0.01);
+				Assert.assertEquals(minDistance, index.getSegmentDistance(pLat, pLon, expected), 0.01);
+			} else {
+				Assert.assertEquals(-1, actual);
+			}
+			// forward search from the current segment
+			int fromSegment = 1 + random.nextInt(route.size() - 1);
+			double forwardDistance = Double.POSITIVE_INFINITY;
+			for (int i = fromSegment; i < route.size(); i++) {
+				forwardDistance = Math.min(forwardDistance, index.getSegmentDistance(pLat, pLon, i));
+			}
+			int forward = index.findNearestSegment(pLat, pLon, radius, fromSegment, distance);
+			if (forwardDistance <= radius) {
+				Assert.assertTrue(forward >= fromSegment);
+				Assert.assertEquals(forwardDistance, distance[0], 0.01);
+			} else {
+				Assert.assertEquals(-1, forward);
+			}
+			// forward search limited by the distance along the route
+			int toSegment = index.getSegmentByDistance(index.getDistanceFromStart(fromSegment - 1) + radius * 5);
+			Assert.assertTrue(index.getDistanceFromStart(toSegment - 1) <= index.getDistanceFromStart(fromSegment - 1) + radius * 5);
+			Assert.assertTrue(toSegment == route.size() - 1
+					|| index.getDistanceFromStart(toSegment) > index.getDistanceFromStart(fromSegment - 1) + radius * 5);
+			double limitedDistance = Double.POSITIVE_INFINITY;
+			for (int i = fromSegment; i <= toSegment; i++) {
+				limitedDistance = Math.min(limitedDistance, index.getSegmentDistance(pLat, pLon, i));
+			}
+			int limited = index.findNearestSegment(pLat, pLon, radius, fromSegment, toSegment, distance);
+			if (limitedDistance <= radius) {
+				Assert.assertTrue(limited >= fromSegment && limited <= toSegment);
+				Assert.assertEquals(limitedDistance, distance[0], 0.01);
+			} else {
+				Assert.assertEquals(-1, limited);
+			}
+		}
+	}
+
+	@Test
+	public void testCorridorTilesMatchSegmentBoxes() {
+		Random random = new Random(5);
+		List<Location> route = new ArrayList<>();
+		double lat = 48.8;
+		double lon = 2.3;
+		for (int i = 0; i < 300; i++) {
+			route.add(new Location("", lat, lon));
+			lat += (random.nextDouble() - 0.5) * 0.01;
+			lon += (random.nextDouble() - 0.2) * 0.01;
+		}
+		int zoom = 16;
+		double radius = 300;
+		RouteCorridorTiles corridor = new RouteCorridorTiles(route, radius, zoom);
+		float coeff = (float) (radius / MapUtils.getTileDistanceWidth(zoom));
+		Set<Long> expected = new HashSet<>();
+		for (int i = 1; i < route.size(); i++) {
+			double tx = MapUtils.getTileNumberX(zoom, route.get(i).getLongitude());
+			double ty = MapUtils.getTileNumberY(zoom, route.get(i).getLatitude());
+			double px = MapUtils.getTileNumberX(zoom, route.get(i - 1).getLongitude());
+			double py = MapUtils.getTileNumberY(zoom, route.get(i - 1).getLatitude());
+			for (int x = (int) (Math.min(tx, px) - coeff); x <= Math.max(tx, px) + coeff; x++) {
+				for (int y = (int) (Math.min(ty, py) - coeff); y <= Math.max(ty, py) + coeff; y++) {
+					expected.add(((long) x << 32) | y);
+				}
+			}
+		}
+		int shift = 31 - zoom;
+		int fromX = corridor.getLeft31() >>> shift;
+		int toX = corridor.getRight31() >>> shift;
+		int fromY = corridor.getTop31() >>> shift;
+		int toY = corridor.getBottom31() >>> shift;
+		for (int x = fromX - 2; x <= toX + 2; x++) {
+			for (int y = fromY - 2; y <= toY + 2; y++) {
+				boolean contains = expected.contains(((long) x << 32) | y);
+				Assert.assertEquals(contains, corridor.intersectsTile(zoom, x, y));
+				Assert.assertEquals(contains, corridor.containsPoint31((x << shift) + 5, (y << shift) + 5));
+			}
+		}
+		for (int x = (fromX >> 3) - 1; x <= (toX >> 3) + 1; x++) {
+			for (int y = (fromY >> 3) - 1; y <= (toY >> 3) + 1; y++) {
+				boolean intersects = false;
+				for (int dx = 0; dx < 8; dx++) {
+					for (int dy = 0; dy < 8; dy++) {
+						intersects |= expected.contains(((long) ((x << 3) + dx) << 32) | ((y << 3) + dy));
+					}
+				}
+				Assert.assertEquals(intersects, corridor.intersectsTile(zoom - 3, x, y));
+			}
+		}
+	}
+}
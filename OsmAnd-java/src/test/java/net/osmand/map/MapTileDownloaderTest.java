@@ -0,0 +1,123 @@
+package net.osmand.map;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import net.osmand.map.MapTileDownloader.DownloadRequest;
+import net.osmand.map.MapTileDownloader.IMapDownloaderCallback;
+import net.osmand.util.Algorithms;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class MapTileDownloaderTest {
+
+	private static final byte[] TILE = {1, 2, 3, 4};
+
+	private HttpServer server;
+	private ExecutorService serverExecutor;
+	private File dir;
+	private final List<String> served = Collections.synchronizedList(new ArrayList<String>());
+	private final CountDownLatch unblock = new CountDownLatch(1);
+	private final CountDownLatch blockerStarted = new CountDownLatch(1);
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("tiles").toFile();
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		serverExecutor = Executors.newCachedThreadPool();
+		server.setExecutor(serverExecutor);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				String path = exchange.getRequestURI().getPath();
+				if (path.equals("/blocker")) {
+					blockerStarted.countDown();
+					try {
+						unblock.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				} else {
+					served.add(path);
+				}
+				exchange.sendResponseHeaders(200, TILE.length);
+				OutputStream os = exchange.getResponseBody();
+				os.write(TILE);
+				os.close();
+			}
+		});
+		server.start();
+	}
+
+	@After
+	public void tearDown() {
+		server.stop(0);
+		serverExecutor.shutdownNow();
+		Algorithms.removeAllFiles(dir);
+	}
+
+	@Test
+	public void testPriorityCoalescingAndCancel() throws Exception {
+		MapTileDownloader downloader = new MapTileDownloader(1);
+		final CountDownLatch downloaded = new CountDownLatch(5);
+		downloader.addDownloaderCallback(new IMapDownloaderCallback() {
+			@Override
+			public void tileDownloaded(DownloadRequest request) {
+				downloaded.countDown();
+			}
+		});
+		downloader.updateViewport(10, 100, 100, 103.5, 103.5);
+
+		downloader.requestToDownload(request("blocker", 10, 0, 0, false));
+		Assert.assertTrue(blockerStarted.await(10, TimeUnit.SECONDS));
+
+		// queued while the only worker is busy
+		downloader.requestToDownload(request("far", 10, 103, 103, true));
+		downloader.requestToDownload(request("near", 10, 101, 101, true));
+		downloader.requestToDownload(request("obsolete", 10, 110, 110, true));
+		downloader.requestToDownload(request("bulk", 10, 200, 200, false));
+		// same tile requested by another layer
+		downloader.requestToDownload(request("near", 10, 101, 101, true));
+
+		// map is moved, obsolete tile is cancelled but not the bulk one
+		downloader.updateViewport(10, 101, 101, 104.5, 104.5);
+		Assert.assertFalse(downloader.isFilePendingToDownload(file("obsolete")));
+		Assert.assertTrue(downloader.isFilePendingToDownload(file("bulk")));
+		downloader.requestToDownload(request("new", 10, 104, 104, true));
+
+		unblock.countDown();
+		Assert.assertTrue(downloaded.await(10, TimeUnit.SECONDS));
+		Assert.assertEquals(Arrays.asList("/new", "/near", "/far", "/bulk"), served);
+		Assert.assertFalse(file("obsolete").exists());
+		Assert.assertTrue(file("near").exists());
+	}
+
+	private DownloadRequest request(String name, int zoom, int x, int y, boolean cancellable) {
+		String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/" + name;
+		DownloadRequest request = new DownloadRequest(url, file(name), name, x, y, zoom);
+		request.cancellable = cancellable;
+		return request;
+	}
+
+	private File file(String name) {
+		return new File(dir, name + ".png");
+	}
+}
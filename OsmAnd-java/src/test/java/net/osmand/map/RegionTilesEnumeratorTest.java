@@ -0,0 +1,166 @@
+package net.osmand.map;
+
+import net.osmand.data.LatLon;
+import net.osmand.data.QuadRect;
+import net.osmand.map.RegionTilesEnumerator.TileVisitor;
+import net.osmand.util.MapUtils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class RegionTilesEnumeratorTest {
+
+	@Test
+	public void testBoundingBoxMatchesTileBorders() {
+		QuadRect rect = new QuadRect(13.1, 52.7, 13.8, 52.3);
+		RegionTilesEnumerator tiles = RegionTilesEnumerator.fromBoundingBox(rect, 8, 13, false);
+		for (int zoom = 8; zoom <= 13; zoom++) {
+			long width = (long) MapUtils.getTileNumberX(zoom, rect.right) - (long) MapUtils.getTileNumberX(zoom, rect.left) + 1;
+			long height = (long) MapUtils.getTileNumberY(zoom, rect.bottom) - (long) MapUtils.getTileNumberY(zoom, rect.top) + 1;
+			Assert.assertEquals(width * height, tiles.getTilesCount(zoom));
+		}
+	}
+
+	@Test
+	public void testPolygonMatchesBruteForce() {
+		Random random = new Random(7);
+		for (int test = 0; test < 20; test++) {
+			List<LatLon> polygon = new ArrayList<>();
+			int n = 3 + random.nextInt(8);
+			for (int i = 0; i < n; i++) {
+				// star shaped polygon around the center
+				double angle = 2 * Math.PI * i / n;
+				double radius = 0.05 + random.nextDouble() * 0.4;
+				polygon.add(new LatLon(48.123 + radius * Math.sin(angle), 11.567 + radius * Math.cos(angle)));
+			}
+			RegionTilesEnumerator tiles = new RegionTilesEnumerator(Arrays.asList(polygon), 9, 12, false);
+			for (int zoom = 9; zoom <= 12; zoom++) {
+				Set<Long> expected = bruteForce(polygon, zoom);
+				final Set<Long> actual = new HashSet<>();
+				final int z = zoom;
+				tiles.enumerate(zoom, 0, new TileVisitor() {
+					@Override
+					public boolean visitTile(int tileZoom, int x, int y) {
+						if (tileZoom == z) {
+							// every tile is visited once
+							Assert.assertTrue(actual.add(((long) x << 32) | y));
+						}
+						return true;
+					}
+				});
+				Assert.assertEquals(expected, actual);
+				Assert.assertEquals(expected.size(), tiles.getTilesCount(zoom));
+			}
+		}
+	}
+
+	@Test
+	public void testResumeFromRow() {
+		QuadRect rect = new QuadRect(13.1, 52.7, 13.8, 52.3);
+		RegionTilesEnumerator tiles = RegionTilesEnumerator.fromBoundingBox(rect, 10, 12, false);
+		List<int[]> all = new ArrayList<>();
+		Assert.assertTrue(tiles.enumerate(10, 0, new TilesCollector(all)));
+		int[] middle = all.get(all.size() / 2);
+		List<int[]> resumed = new ArrayList<>();
+		tiles.enumerate(middle[0], middle[2], new TilesCollector(resumed));
+		int first = 0;
+		while (all.get(first)[0] != middle[0] || all.get(first)[2] != middle[2]) {
+			first++;
+		}
+		Assert.assertEquals(all.size() - first, resumed.size());
+	}
+
+	private static class TilesCollector implements TileVisitor {
+
+		private final List<int[]> tiles;
+
+		TilesCollector(List<int[]> tiles) {
+			this.tiles = tiles;
+		}
+
+		@Override
+		public boolean visitTile(int zoom, int x, int y) {
+			tiles.add(new int[] {zoom, x, y});
+			return true;
+		}
+	}
+
+	private static Set<Long> bruteForce(List<LatLon> polygon, int zoom) {
+		int n = polygon.size();
+		double[] xs = new double[n];
+		double[] ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = MapUtils.getTileNumberX(zoom, polygon.get(i).getLongitude());
+			ys[i] = MapUtils.getTileNumberY(zoom, polygon.get(i).getLatitude());
+		}
+		double minX = Double.MAX_VALUE, maxX = 0, minY = Double.MAX_VALUE, maxY = 0;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, xs[i]);
+			maxX = Math.max(maxX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		Set<Long> result = new HashSet<>();
+		for (int x = (int) minX - 1; x <= (int) maxX + 1; x++) {
+			for (int y = (int) minY - 1; y <= (int) maxY + 1; y++) {
+				if (intersects(xs, ys, x, y)) {
+					result.add(((long) x << 32) | y);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static boolean intersects(double[] xs, double[] ys, int tx, int ty) {
+		int n = xs.length;
+		for (int i = 0; i < n; i++) {
+			if (xs[i] >= tx && xs[i] < tx + 1 && ys[i] >= ty && ys[i] < ty + 1) {
+				return true;
+			}
+		}
+		if (inside(xs, ys, tx + 0.5, ty + 0.5)) {
+			return true;
+		}
+		double[][] sides = {{tx, ty, tx + 1, ty}, {tx + 1, ty, tx + 1, ty + 1},
+				{tx, ty + 1, tx + 1, ty + 1}, {tx, ty, tx, ty + 1}};
+		for (int i = 0; i < n; i++) {
+			int j = (i + 1) % n;
+			for (double[] s : sides) {
+				if (segmentsIntersect(xs[i], ys[i], xs[j], ys[j], s[0], s[1], s[2], s[3])) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean inside(double[] xs, double[] ys, double px, double py) {
+		boolean inside = false;
+		for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+			if ((ys[i] > py) != (ys[j] > py) && px < (xs[j] - xs[i]) * (py - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+				inside = !inside;
+			}
+		}
+		return inside;
+	}
+
+	private static boolean segmentsIntersect(double x1, double y1, double x2, double y2,
+	                                         double x3, double y3, double x4, double y4) {
+		double d1 = cross(x3, y3, x4, y4, x1, y1);
+		double d2 = cross(x3, y3, x4, y4, x2, y2);
+		double d3 = cross(x1, y1, x2, y2, x3, y3);
+		double d4 = cross(x1, y1, x2, y2, x4, y4);
+		return ((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0));
+	}
+
+	private static double cross(double ax, double ay, double bx, double by, double px, double py) {
+		return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+	}
+}
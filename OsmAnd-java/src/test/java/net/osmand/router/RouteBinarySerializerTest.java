@@ -0,0 +1,141 @@
+package net.osmand.router;
+
+import net.osmand.Location;
+import net.osmand.binary.BinaryMapRouteReaderAdapter.RouteRegion;
+import net.osmand.binary.RouteDataObject;
+import net.osmand.gpx.GPXFile;
+import net.osmand.gpx.GPXUtilities;
+import net.osmand.util.MapUtils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+public class RouteBinarySerializerTest {
+
+	@Test
+	public void testRoundTripMatchesGpx() throws Exception {
+		RouteRegion region = new RouteRegion();
+		region.initRouteEncodingRule(0, "highway", "primary");
+		region.initRouteEncodingRule(1, "name", "");
+		region.initRouteEncodingRule(2, "ref", "");
+		region.initRouteEncodingRule(3, "highway", "traffic_signals");
+		region.initRouteEncodingRule(4, "oneway", "yes");
+
+		RouteDataObject a = createObject(region, 100, new double[][] {
+				{52.5200001, 13.4049999}, {52.5210456, 13.4061234}, {52.5223456, 13.4071234}});
+		a.types = new int[] {0, 4};
+		a.pointTypes = new int[][] {null, {3}, null};
+		a.nameIds = new int[] {1};
+		a.names = new TIntObjectHashMap<>();
+		a.names.put(1, "Main street");
+
+		RouteDataObject b = createObject(region, 200, new double[][] {
+				{52.5250001, 13.4150001}, {52.5241234, 13.4121234}, {52.5232345, 13.4091234}, {52.5223456, 13.4071234}});
+		b.types = new int[] {0};
+		b.nameIds = new int[] {1, 2};
+		b.names = new TIntObjectHashMap<>();
+		b.names.put(1, "Second street");
+		b.names.put(2, "B 2");
+
+		RouteSegmentResult sa = new RouteSegmentResult(a, 0, 2);
+		sa.setSegmentTime(12.345f);
+		sa.setSegmentSpeed(13.8889f);
+		TurnType turn = TurnType.valueOf(TurnType.TR, false);
+		turn.setTurnAngle(87.456f);
+		turn.setSkipToSpeak(true);
+		turn.setLanes(new int[] {TurnType.TL << 1, (TurnType.C << 1) + 1});
+		sa.setTurnType(turn);
+		RouteSegmentResult sb = new RouteSegmentResult(b, 3, 1);
+		sb.setSegmentTime(30.1f);
+		sb.setSegmentSpeed(8.33f);
+		List<RouteSegmentResult> route = Arrays.asList(sa, sb);
+
+		List<Location> locations = new ArrayList<>();
+		locations.add(location(a, 0, 34.54));
+		locations.add(location(a, 1, Double.NaN));
+		locations.add(location(a, 2, 36.06));
+		locations.add(location(b, 2, 37.1));
+		locations.add(location(b, 1, Double.NaN));
+		List<Integer> routePointIndexes = new ArrayList<>();
+
+		RouteExporter exporter = new RouteExporter("test", route, locations, routePointIndexes, null);
+		StringWriter writer = new StringWriter();
+		GPXUtilities.writeGpx(writer, exporter.exportRoute(), null);
+		GPXFile gpx = GPXUtilities.loadGPXFile(new ByteArrayInputStream(writer.toString().getBytes("UTF-8")));
+		List<RouteSegmentResult> fromGpx = new RouteImporter(gpx, false).importRoute();
+
+		byte[] data = RouteBinarySerializer.writeRoute(route, locations, routePointIndexes);
+		ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+		direct.put(data).flip();
+		assertSameRoute(fromGpx, RouteBinarySerializer.readRoute(data, false));
+		assertSameRoute(fromGpx, RouteBinarySerializer.readRoute(direct, false));
+		Assert.assertTrue(data.length * 5 < writer.toString().length());
+	}
+
+	private static RouteDataObject createObject(RouteRegion region, long osmId, double[][] points) {
+		RouteDataObject o = new RouteDataObject(region);
+		o.id = osmId << 6;
+		o.pointsX = new int[points.length];
+		o.pointsY = new int[points.length];
+		for (int i = 0; i < points.length; i++) {
+			o.pointsX[i] = MapUtils.get31TileNumberX(points[i][1]);
+			o.pointsY[i] = MapUtils.get31TileNumberY(points[i][0]);
+		}
+		return o;
+	}
+
+	private static Location location(RouteDataObject o, int i, double altitude) {
+		Location l = new Location("", MapUtils.get31LatitudeY(o.getPoint31YTile(i)), MapUtils.get31LongitudeX(o.getPoint31XTile(i)));
+		if (!Double.isNaN(altitude)) {
+			l.setAltitude(altitude);
+		}
+		return l;
+	}
+
+	private static void assertSameRoute(List<RouteSegmentResult> expected, List<RouteSegmentResult> actual) {
+		Assert.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			RouteSegmentResult e = expected.get(i);
+			RouteSegmentResult r = actual.get(i);
+			Assert.assertEquals(e.getStartPointIndex(), r.getStartPointIndex());
+			Assert.assertEquals(e.getEndPointIndex(), r.getEndPointIndex());
+			Assert.assertEquals(e.getSegmentTime(), r.getSegmentTime(), 0);
+			Assert.assertEquals(e.getSegmentSpeed(), r.getSegmentSpeed(), 0);
+			Assert.assertEquals(e.getDistance(), r.getDistance(), 0);
+			if (e.getTurnType() == null) {
+				Assert.assertNull(r.getTurnType());
+			} else {
+				Assert.assertEquals(e.getTurnType().toXmlString(), r.getTurnType().toXmlString());
+				Assert.assertEquals(e.getTurnType().isSkipToSpeak(), r.getTurnType().isSkipToSpeak());
+				Assert.assertEquals(e.getTurnType().getTurnAngle(), r.getTurnType().getTurnAngle(), 0);
+				Assert.assertArrayEquals(e.getTurnType().getLanes(), r.getTurnType().getLanes());
+			}
+			RouteDataObject eo = e.getObject();
+			RouteDataObject ro = r.getObject();
+			Assert.assertEquals(eo.getId(), ro.getId());
+			Assert.assertArrayEquals(eo.pointsX, ro.pointsX);
+			Assert.assertArrayEquals(eo.pointsY, ro.pointsY);
+			Assert.assertArrayEquals(eo.heightDistanceArray, ro.heightDistanceArray, 0);
+			Assert.assertArrayEquals(eo.types, ro.types);
+			Assert.assertArrayEquals(eo.nameIds, ro.nameIds);
+			Assert.assertEquals(eo.names, ro.names);
+			Assert.assertEquals(eo.getName(), ro.getName());
+			Assert.assertEquals(eo.getRef("", false, true), ro.getRef("", false, true));
+			Assert.assertEquals(eo.getPointsLength(), ro.getPointsLength());
+			for (int k = 0; k < eo.getPointsLength(); k++) {
+				Assert.assertArrayEquals(eo.getPointTypes(k), ro.getPointTypes(k));
+			}
+			Assert.assertEquals(eo.getOneway(), ro.getOneway());
+			Assert.assertEquals(eo.getHighway(), ro.getHighway());
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package net.osmand.router;
+
+import net.osmand.Location;
+import net.osmand.data.RouteCorridorIndex;
+import net.osmand.gpx.GPXFile;
+import net.osmand.gpx.GPXUtilities;
+import net.osmand.gpx.GPXUtilities.WptPt;
+import net.osmand.util.MapUtils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class RouteProgressTrackerTest {
+
+	private static final double METERS_IN_DEGREE = 111000;
+
+	/**
+	 * Records the route every 10 meters at 10 m/s with noise, route points from gapStart to gapEnd are not recorded
+	 * @param expectedRoute end point of the segment for every recorded point
+	 */
+	private static List<WptPt> replayTrack(List<Location> route, int gapStart, int gapEnd, Random random,
+	                                       List<Integer> expectedRoute) {
+		StringBuilder gpx = new StringBuilder("<?xml version='1.0' encoding='UTF-8'?><gpx version='1.1' creator='test'><trk><trkseg>");
+		long time = 1600000000000L;
+		for (int i = 1; i < route.size(); i++) {
+			Location from = route.get(i - 1);
+			Location to = route.get(i);
+			double length = MapUtils.getDistance(from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude());
+			for (double d = 0; d < length; d += 10) {
+				time += 1000;
+				if (i > gapStart && i < gapEnd) {
+					continue;
+				}
+				double noise = (random.nextDouble() - 0.5) * 10 / METERS_IN_DEGREE;
+				double pLat = from.getLatitude() + (to.getLatitude() - from.getLatitude()) * d / length + noise;
+				double pLon = from.getLongitude() + (to.getLongitude() - from.getLongitude()) * d / length + noise;
+				gpx.append(String.format(Locale.US, "<trkpt lat='%.7f' lon='%.7f'><time>%s</time></trkpt>",
+						pLat, pLon, GPXUtilities.formatTime(time)));
+				expectedRoute.add(i);
+			}
+		}
+		gpx.append("</trkseg></trk></gpx>");
+		GPXFile file = GPXUtilities.loadGPXFile(new ByteArrayInputStream(gpx.toString().getBytes(StandardCharsets.UTF_8)));
+		List<WptPt> points = file.getAllSegmentsPoints();
+		Assert.assertEquals(expectedRoute.size(), points.size());
+		return points;
+	}
+
+	private static RouteProgressTracker checkReplay(List<Location> route, List<WptPt> points, List<Integer> expectedRoute) {
+		RouteProgressTracker tracker = new RouteProgressTracker(new RouteCorridorIndex(route));
+		int prevRoute = 0;
+		double prevDistance = 0;
+		WptPt prev = null;
+		for (int i = 0; i < points.size(); i++) {
+			WptPt p = points.get(i);
+			double maxJump = prev == null ? Double.POSITIVE_INFINITY : RouteProgressTracker.getMaxJumpDistance(
+					p.time - prev.time, MapUtils.getDistance(prev.lat, prev.lon, p.lat, p.lon));
+			Assert.assertTrue(tracker.updateLocation(p.lat, p.lon, 50, maxJump));
+			int currentRoute = tracker.getCurrentRoute();
+			Assert.assertTrue(currentRoute >= prevRoute);
+			Assert.assertTrue(tracker.getDeviation() < 15);
+			// noisy points near route points could be matched to the neighbour segment
+			Assert.assertTrue(Math.abs(currentRoute - expectedRoute.get(i)) <= 1);
+			Assert.assertTrue(tracker.getDistanceAlongRoute() > prevDistance - 15);
+			Assert.assertTrue(MapUtils.getDistance(p.lat, p.lon, tracker.getProjectionLatitude(),
+					tracker.getProjectionLongitude()) < 15);
+			prevRoute = currentRoute;
+			prevDistance = tracker.getDistanceAlongRoute();
+			prev = p;
+		}
+		Assert.assertTrue(tracker.getDistanceToFinish() < 60);
+		return tracker;
+	}
+
+	@Test
+	public void testReplayedTrackWithSignalLoss() {
+		Random random = new Random(3);
+		List<Location> route = new ArrayList<Location>();
+		double lat = 50.45;
+		double lon = 30.52;
+		double bearing = 0;
+		for (int i = 0; i < 1500; i++) {
+			route.add(new Location("", lat, lon));
+			bearing += (random.nextDouble() - 0.5) * 0.6;
+			double step = 20 + random.nextInt(40);
+			lat += Math.cos(bearing) * step / METERS_IN_DEGREE;
+			lon += Math.sin(bearing) * step / (METERS_IN_DEGREE * Math.cos(Math.toRadians(lat)));
+		}
+		List<Integer> expectedRoute = new ArrayList<Integer>();
+		List<WptPt> points = replayTrack(route, 500, 560, random, expectedRoute);
+		RouteProgressTracker tracker = checkReplay(route, points, expectedRoute);
+		// far from the route
+		int currentRoute = tracker.getCurrentRoute();
+		Assert.assertFalse(tracker.updateLocation(lat + 1, lon, 50, Double.POSITIVE_INFINITY));
+		Assert.assertEquals(currentRoute, tracker.getCurrentRoute());
+	}
+
+	private static List<Location> createOutAndBackRoute(double offset) {
+		// 3 km to the east and back 3 km to the west, return part is shifted to the north
+		List<Location> route = new ArrayList<Location>();
+		double lat = 45.1;
+		double lon = 7.6;
+		double lonStep = 50 / (METERS_IN_DEGREE * Math.cos(Math.toRadians(lat)));
+		for (int i = 0; i <= 60; i++) {
+			route.add(new Location("", lat, lon + i * lonStep));
+		}
+		for (int i = 60; i >= 0; i--) {
+			route.add(new Location("", lat + offset / METERS_IN_DEGREE, lon + i * lonStep));
+		}
+		return route;
+	}
+
+	@Test
+	public void testReplayedOutAndBackTrackWithSignalLoss() {
+		Random random = new Random(7);
+		List<Location> route = createOutAndBackRoute(20);
+		// 1.5 km on the way out are not recorded, return part is 20 m away
+		List<Integer> expectedRoute = new ArrayList<Integer>();
+		List<WptPt> points = replayTrack(route, 10, 40, random, expectedRoute);
+		checkReplay(route, points, expectedRoute);
+	}
+
+	@Test
+	public void testForwardJumpIsLimited() {
+		List<Location> route = createOutAndBackRoute(6);
+		RouteProgressTracker tracker = new RouteProgressTracker(new RouteCorridorIndex(route));
+		// 1250 m after the start on the way out but closer to the return part
+		Location l = route.get(25);
+		double lat = l.getLatitude() + 4 / METERS_IN_DEGREE;
+		double lon = l.getLongitude() + 1 / (METERS_IN_DEGREE * Math.cos(Math.toRadians(lat)));
+		// return part is found without the limit
+		int segment = tracker.findForwardSegment(lat, lon, 50, 5, Double.POSITIVE_INFINITY);
+		Assert.assertTrue(segment > 61);
+		// 1000 m passed in 100 seconds since the last location on the segment 5
+		double maxJump = RouteProgressTracker.getMaxJumpDistance(100000, 1000);
+		Assert.assertEquals(26, tracker.findForwardSegment(lat, lon, 50, 5, maxJump));
+		// 30 seconds passed, distance is unknown
+		maxJump = RouteProgressTracker.getMaxJumpDistance(30000, Double.POSITIVE_INFINITY);
+		Assert.assertEquals(26, tracker.findForwardSegment(lat, lon, 50, 5, maxJump));
+
+		tracker.setCurrentRoute(5);
+		Assert.assertTrue(tracker.updateLocation(lat, lon, 50, maxJump));
+		Assert.assertEquals(26, tracker.getCurrentRoute());
+		Assert.assertEquals(tracker.getIndex().getDistanceFromStart(25) + 1, tracker.getDistanceAlongRoute(), 0.5);
+	}
+}
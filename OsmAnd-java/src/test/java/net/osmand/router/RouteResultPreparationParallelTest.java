@@ -0,0 +1,109 @@
+package net.osmand.router;
+
+import net.osmand.binary.BinaryMapIndexReader;
+import net.osmand.router.RoutingConfiguration.RoutingMemoryLimits;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes of turn lanes tests are prepared in the same thread and in parallel, results should be identical
+ */
+@RunWith(Parameterized.class)
+public class RouteResultPreparationParallelTest {
+
+	private static int minChunk;
+	private final TestEntry te;
+
+	public RouteResultPreparationParallelTest(String name, TestEntry te) {
+		this.te = te;
+	}
+
+	@BeforeClass
+	public static void setUp() {
+		minChunk = RouteResultPreparation.PARALLEL_MIN_CHUNK;
+		// test routes are short, prepare them in parallel anyway
+		RouteResultPreparation.PARALLEL_MIN_CHUNK = 1;
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		RouteResultPreparation.PARALLEL_MIN_CHUNK = minChunk;
+	}
+
+	@Parameterized.Parameters(name = "{index}: {0}")
+	public static Collection<Object[]> data() throws IOException {
+		return RouteResultPreparationTest.data();
+	}
+
+	private List<RouteSegmentResult> searchRoute(int threads) throws Exception {
+		File fl = new File("src/test/resources/Turn_lanes_test.obf");
+		RandomAccessFile raf = new RandomAccessFile(fl, "r");
+		try {
+			RoutePlannerFrontEnd fe = new RoutePlannerFrontEnd();
+			Map<String, String> params = te.getParams();
+			params = params == null ? new HashMap<String, String>() : new HashMap<String, String>(params);
+			params.put("car", "true");
+			RoutingMemoryLimits memoryLimit = new RoutingMemoryLimits(RoutingConfiguration.DEFAULT_MEMORY_LIMIT * 3,
+					RoutingConfiguration.DEFAULT_NATIVE_MEMORY_LIMIT);
+			RoutingConfiguration config = RoutingConfiguration.getDefault().build("car", memoryLimit, params);
+			config.routePreparationThreads = threads;
+			RoutingContext ctx = fe.buildRoutingContext(config, null,
+					new BinaryMapIndexReader[] {new BinaryMapIndexReader(raf, fl)},
+					RoutePlannerFrontEnd.RouteCalculationMode.NORMAL);
+			ctx.leftSideNavigation = false;
+			List<RouteSegmentResult> result = fe.searchRoute(ctx, te.getStartPoint(), te.getEndPoint(), null);
+			Assert.assertNotNull(result);
+			return result;
+		} finally {
+			raf.close();
+		}
+	}
+
+	private static List<String> describe(List<RouteSegmentResult> result) {
+		List<String> segments = new ArrayList<String>();
+		for (RouteSegmentResult s : result) {
+			StringBuilder b = new StringBuilder();
+			b.append(s.getObject().getId()).append(' ').append(s.getStartPointIndex()).append('-').append(s.getEndPointIndex());
+			b.append(" distance ").append(s.getDistance()).append(" time ").append(s.getSegmentTime());
+			b.append(" speed ").append(s.getSegmentSpeed());
+			TurnType t = s.getTurnType();
+			if (t != null) {
+				b.append(" turn ").append(t.toXmlString()).append(' ').append(t.isSkipToSpeak());
+				if (t.getLanes() != null) {
+					b.append(' ').append(TurnType.lanesToString(t.getLanes()));
+				}
+			}
+			b.append(" attached");
+			int next;
+			boolean plus = s.getStartPointIndex() < s.getEndPointIndex();
+			for (int j = s.getStartPointIndex(); j != s.getEndPointIndex(); j = next) {
+				next = plus ? j + 1 : j - 1;
+				b.append(' ').append(s.getAttachedRoutes(j).size());
+			}
+			b.append(' ').append(s.getDescription());
+			segments.add(b.toString());
+		}
+		return segments;
+	}
+
+	@Test
+	public void testParallelPreparation() throws Exception {
+		List<String> sequential = describe(searchRoute(1));
+		Assert.assertFalse(sequential.isEmpty());
+		Assert.assertEquals(sequential, describe(searchRoute(4)));
+	}
+}
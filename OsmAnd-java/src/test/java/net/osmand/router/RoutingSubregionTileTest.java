@@ -0,0 +1,58 @@
+package net.osmand.router;
+
+import net.osmand.binary.BinaryMapRouteReaderAdapter.RouteRegion;
+import net.osmand.binary.BinaryMapRouteReaderAdapter.RouteSubregion;
+import net.osmand.binary.PackedRouteDataObjectsTest;
+import net.osmand.binary.RouteDataObject;
+import net.osmand.router.BinaryRoutePlanner.RouteSegment;
+import net.osmand.router.RoutingContext.RoutingSubregionTile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+import gnu.trove.set.hash.TLongHashSet;
+
+public class RoutingSubregionTileTest {
+
+	@Test
+	public void testTileReloadFromPacked() {
+		RouteRegion region = PackedRouteDataObjectsTest.createRegion();
+		List<RouteDataObject> objects = PackedRouteDataObjectsTest.createObjects(region);
+		RoutingSubregionTile tile = new RoutingSubregionTile(new RouteSubregion(region));
+		Assert.assertEquals(0, tile.pack());
+
+		TLongHashSet excludeNotAllowed = new TLongHashSet();
+		tile.setLoadedNonNative();
+		tile.packable = true;
+		for (RouteDataObject o : objects) {
+			tile.add(o);
+		}
+		Assert.assertTrue(tile.pack() > 0);
+		tile.unload();
+		Assert.assertTrue(tile.isPacked());
+		Assert.assertTrue(tile.isUnloaded());
+
+		// road of another tile is not loaded again
+		excludeNotAllowed.add(objects.get(0).getId());
+		Assert.assertTrue(tile.loadPacked(excludeNotAllowed) > 0);
+		Assert.assertFalse(tile.isPacked());
+		Assert.assertTrue(tile.isLoaded());
+		Assert.assertFalse(tile.packable);
+		for (int i = 0; i < objects.size(); i++) {
+			RouteDataObject o = objects.get(i);
+			RouteSegment s = tile.getRoutes().get((((long) o.getPoint31XTile(0)) << 31) + o.getPoint31YTile(0));
+			if (i == 0) {
+				Assert.assertNull(s);
+			} else {
+				Assert.assertNotNull(s);
+				Assert.assertNotSame(o, s.getRoad());
+				PackedRouteDataObjectsTest.assertSameObject(o, s.getRoad());
+			}
+		}
+		// only tile loaded with all its roads is packed again
+		Assert.assertEquals(0, tile.pack());
+		Assert.assertEquals(0, tile.releasePacked());
+	}
+}
@@ -2,7 +2,9 @@ package net.osmand.search;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -97,6 +99,63 @@ public class SearchUICoreGenericTest {
 		Assert.assertSame(b2, cll.getCurrentSearchResults().get(2));
 	}
 
+	@Test
+	public void testDuplicatesOutOfDepth() throws IOException {
+		SearchSettings ss = new SearchSettings((SearchSettings)null);
+		ss = ss.setOriginalLocation(new LatLon(0, 0));
+		SearchPhrase phrase = SearchPhrase.emptyPhrase(ss);
+		List<SearchResult> rs = new ArrayList<>();
+		SearchResult a1 = searchResult(rs, phrase, "a", 100);
+		a1.priority = 1;
+		for (int i = 0; i < 25; i++) {
+			searchResult(rs, phrase, "b" + i, 100).priority = 2;
+		}
+		// same as a1 but sorted after more unique results than checked for duplicates
+		SearchResult a2 = searchResult(rs, phrase, "a", 100);
+		a2.priority = 3;
+		SearchResultCollection cll = new SearchUICore.SearchResultCollection(phrase);
+		cll.addSearchResults(rs, true, true);
+		Assert.assertEquals(27, cll.getCurrentSearchResults().size());
+		Assert.assertSame(a1, cll.getCurrentSearchResults().get(0));
+		Assert.assertSame(a2, cll.getCurrentSearchResults().get(26));
+
+		// within the depth duplicate is removed
+		rs.remove(a2);
+		rs.add(5, a2);
+		a2.priority = 1;
+		cll = new SearchUICore.SearchResultCollection(phrase);
+		cll.addSearchResults(rs, true, true);
+		Assert.assertEquals(26, cll.getCurrentSearchResults().size());
+		Assert.assertFalse(cll.getCurrentSearchResults().contains(a2));
+	}
+
+	@Test
+	public void testMergeSortedBatches() throws IOException {
+		SearchSettings ss = new SearchSettings((SearchSettings)null);
+		ss = ss.setOriginalLocation(new LatLon(0, 0));
+		SearchPhrase phrase = SearchPhrase.emptyPhrase(ss);
+		Random random = new Random(1);
+		List<SearchResult> all = new ArrayList<>();
+		SearchResultCollection cll = new SearchUICore.SearchResultCollection(phrase);
+		for (int batch = 0; batch < 21; batch++) {
+			List<SearchResult> rs = new ArrayList<>();
+			int size = random.nextInt(30);
+			for (int i = 0; i < size; i++) {
+				// few names and distances, so there are many equal results
+				searchResult(rs, phrase, "n" + random.nextInt(5), 100 * random.nextInt(4));
+			}
+			all.addAll(rs);
+			// some batches are appended without resort and sorted with the next one
+			cll.addSearchResults(rs, batch % 3 != 1, false);
+		}
+		// order is the same as after the stable sort of all results
+		Collections.sort(all, new SearchUICore.SearchResultComparator(phrase));
+		Assert.assertEquals(all.size(), cll.getCurrentSearchResults().size());
+		for (int i = 0; i < all.size(); i++) {
+			Assert.assertSame(all.get(i), cll.getCurrentSearchResults().get(i));
+		}
+	}
+
 	private SearchResult searchResult(List<SearchResult> rs, SearchPhrase phrase, String text, int dist) {
 		SearchResult res = new SearchResult(phrase);
 		res.localeName = text;
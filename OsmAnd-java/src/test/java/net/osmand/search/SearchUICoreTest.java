@@ -83,15 +83,18 @@ public class SearchUICoreTest {
     	return arrayList;
     }
 
-    @Test
-	public void testSearch() throws IOException, JSONException {
-	    File obfFile = new File(testFile.getParentFile(), testFile.getName().replace(".json", ".obf"));
-		File obfZipFile = new File(testFile.getParentFile(), testFile.getName().replace(".json", ".obf.gz"));
+	private File getObfFile() {
+		return new File(testFile.getParentFile(), testFile.getName().replace(".json", ".obf"));
+	}
+
+	private JSONObject readSourceJson() throws IOException {
 		String sourceJsonText = Algorithms.getFileAsString(testFile);
 		Assert.assertNotNull(sourceJsonText);
 		Assert.assertTrue(sourceJsonText.length() > 0);
+		return new JSONObject(sourceJsonText);
+	}
 
-		JSONObject sourceJson = new JSONObject(sourceJsonText);
+	private static List<String> readPhrases(JSONObject sourceJson) {
 		JSONArray phrasesJson = sourceJson.optJSONArray("phrases");
 		String singlePhrase = sourceJson.optString("phrase", null);
 		List<String> phrases = new ArrayList<>();
@@ -106,6 +109,15 @@ public class SearchUICoreTest {
 				}
 			}
 		}
+		return phrases;
+	}
+
+	/**
+	 * @return settings with the unpacked obf file, null if the obf file is missing or the test is disabled
+	 */
+	private SearchSettings readSettings(JSONObject sourceJson) throws IOException {
+		File obfFile = getObfFile();
+		File obfZipFile = new File(testFile.getParentFile(), testFile.getName().replace(".json", ".obf.gz"));
 		JSONObject settingsJson = sourceJson.getJSONObject("settings");
 		BinaryMapIndexReader reader = null;
 		boolean useData = settingsJson.optBoolean("useData", true);
@@ -113,7 +125,7 @@ public class SearchUICoreTest {
 			boolean obfZipFileExists = obfZipFile.exists();
 			if (!obfZipFileExists) {
 				System.out.printf("Could not find obf file: %s%n", obfZipFile.getPath());
-				return;
+				return null;
 			}
 			//Assert.assertTrue(obfZipFileExists);
 
@@ -127,8 +139,37 @@ public class SearchUICoreTest {
 		}
 		 boolean disabled = settingsJson.optBoolean("disabled", false);
 		 if (disabled) {
-			 return;
+			 return null;
 		 }
+		SearchSettings s = SearchSettings.parseJSON(settingsJson);
+		if (reader != null) {
+			s.setOfflineIndexes(Collections.singletonList(reader));
+		}
+		return s;
+	}
+
+	private static ResultMatcher<SearchResult> createResultMatcher() {
+		return new ResultMatcher<SearchResult>() {
+			@Override
+			public boolean publish(SearchResult object) {
+				return true;
+			}
+
+			@Override
+			public boolean isCancelled() {
+				return false;
+			}
+		};
+	}
+
+    @Test
+	public void testSearch() throws IOException, JSONException {
+		JSONObject sourceJson = readSourceJson();
+		List<String> phrases = readPhrases(sourceJson);
+		SearchSettings s = readSettings(sourceJson);
+		if (s == null) {
+			return;
+		}
 		List<List<String>> results = new ArrayList<>();
 		for (int i = 0; i < phrases.size(); i++) {
 			results.add(new ArrayList<String>());
@@ -145,25 +186,10 @@ public class SearchUICoreTest {
 			return;
 		}
 
-		SearchSettings s = SearchSettings.parseJSON(settingsJson);
-		if (reader != null) {
-			s.setOfflineIndexes(Collections.singletonList(reader));
-		}
-
 		final SearchUICore core = new SearchUICore(MapPoiTypes.getDefault(), "en", false);
 		core.init();
 
-		ResultMatcher<SearchResult> rm = new ResultMatcher<SearchResult>() {
-			@Override
-			public boolean publish(SearchResult object) {
-				return true;
-			}
-
-			@Override
-			public boolean isCancelled() {
-				return false;
-			}
-		};
+		ResultMatcher<SearchResult> rm = createResultMatcher();
 
 		boolean simpleTest = true;
 		SearchPhrase emptyPhrase = SearchPhrase.emptyPhrase(s);
@@ -219,12 +245,178 @@ public class SearchUICoreTest {
 			}
 		}
 
-		obfFile.delete();
+		getObfFile().delete();
 	}
 
-	private List<SearchResult> getSearchResult(SearchPhrase phrase, ResultMatcher<SearchResult> rm, SearchUICore core){
+	@Test
+	public void testCachedSearch() throws IOException, JSONException {
+		checkCachedSearch(-1);
+	}
+
+	@Test
+	public void testCachedSearchAfterLimitReached() throws IOException, JSONException {
+		// results of the amenity search cut by the limit are not narrowed
+		checkCachedSearch(1);
+	}
+
+	/**
+	 * Searches the phrases with the last char removed, then the phrases and the shorter phrases again with cache
+	 * and compares results with the search without cache
+	 *
+	 * @param amenityResultsLimit limit of the amenities by name, -1 to keep the default
+	 */
+	private void checkCachedSearch(int amenityResultsLimit) throws IOException, JSONException {
+		JSONObject sourceJson = readSourceJson();
+		List<String> phrases = readPhrases(sourceJson);
+		SearchSettings s = readSettings(sourceJson);
+		if (s == null) {
+			return;
+		}
+		SearchUICore core = new SearchUICore(MapPoiTypes.getDefault(), "en", false);
+		core.init();
+		SearchUICore cachedCore = new SearchUICore(MapPoiTypes.getDefault(), "en", false);
+		cachedCore.init();
+		if (amenityResultsLimit != -1) {
+			core.getApiByClass(SearchCoreFactory.SearchAmenityByNameAPI.class).setResultsLimit(amenityResultsLimit);
+			cachedCore.getApiByClass(SearchCoreFactory.SearchAmenityByNameAPI.class).setResultsLimit(amenityResultsLimit);
+		}
+		ResultMatcher<SearchResult> rm = createResultMatcher();
+		SearchPhrase emptyPhrase = SearchPhrase.emptyPhrase(s);
+		for (String text : phrases) {
+			if (text.length() < 2 || text.startsWith("POI_TYPE:")
+					|| !Character.isLetterOrDigit(text.charAt(text.length() - 1))
+					|| !Character.isLetterOrDigit(text.charAt(text.length() - 2))) {
+				continue;
+			}
+			String prefix = text.substring(0, text.length() - 1);
+			cachedCore.clearSearchCache();
+			SearchPhrase prefixPhrase = emptyPhrase.generateNewPhrase(prefix, s);
+			List<String> prefixResults = formatResults(getSearchResult(prefixPhrase, rm, cachedCore, true), prefixPhrase);
+			// typing forward, results of the extended word are filtered from the cached ones
+			SearchPhrase phrase = emptyPhrase.generateNewPhrase(text, s);
+			List<String> expected = formatResults(getSearchResult(phrase, rm, core), phrase);
+			phrase = emptyPhrase.generateNewPhrase(text, s);
+			Assert.assertEquals("Phrase: " + text, expected, formatResults(getSearchResult(phrase, rm, cachedCore, true), phrase));
+			// backspace, same results are published again
+			prefixPhrase = emptyPhrase.generateNewPhrase(prefix, s);
+			Assert.assertEquals("Phrase: " + prefix, prefixResults,
+					formatResults(getSearchResult(prefixPhrase, rm, cachedCore, true), prefixPhrase));
+		}
+		getObfFile().delete();
+	}
+
+	@Test
+	public void testMergeSearchResults() throws IOException, JSONException {
+		JSONObject sourceJson = readSourceJson();
+		List<String> phrases = readPhrases(sourceJson);
+		SearchSettings s = readSettings(sourceJson);
+		if (s == null) {
+			return;
+		}
+		SearchUICore core = new SearchUICore(MapPoiTypes.getDefault(), "en", false);
+		core.init();
+		ResultMatcher<SearchResult> rm = createResultMatcher();
+		SearchPhrase emptyPhrase = SearchPhrase.emptyPhrase(s);
+		for (String text : phrases) {
+			if (text.startsWith("POI_TYPE:")) {
+				continue;
+			}
+			SearchPhrase phrase = emptyPhrase.generateNewPhrase(text, s);
+			List<SearchResult> requestResults = getRequestResults(phrase, rm, core);
+			List<SearchResult> sorted = new ArrayList<>(requestResults);
+			Collections.sort(sorted, new SearchUICore.SearchResultComparator(phrase));
+			// results are added in batches (as by api and region), some of them without resort
+			SearchResultCollection collection = new SearchResultCollection(phrase);
+			int batch = 0;
+			for (int i = 0; i < requestResults.size(); i += 1 + batch * 7) {
+				List<SearchResult> batchResults = requestResults.subList(i, Math.min(requestResults.size(), i + 1 + batch * 7));
+				collection.addSearchResults(batchResults, batch++ % 3 != 1, false);
+			}
+			collection.addSearchResults(Collections.<SearchResult>emptyList(), true, false);
+			assertSameResults(text, sorted, collection.getCurrentSearchResults());
+
+			int half = requestResults.size() / 2;
+			SearchResultCollection first = new SearchResultCollection(phrase)
+					.addSearchResults(requestResults.subList(0, half), true, false);
+			SearchResultCollection second = new SearchResultCollection(phrase)
+					.addSearchResults(requestResults.subList(half, requestResults.size()), true, false);
+			assertSameResults(text, sorted, first.combineWithCollection(second, true, false).getCurrentSearchResults());
+		}
+		getObfFile().delete();
+	}
+
+	@Test
+	public void testFilterDuplicateResults() throws IOException, JSONException {
+		JSONObject sourceJson = readSourceJson();
+		List<String> phrases = readPhrases(sourceJson);
+		SearchSettings s = readSettings(sourceJson);
+		if (s == null) {
+			return;
+		}
+		SearchUICore core = new SearchUICore(MapPoiTypes.getDefault(), "en", false);
+		core.init();
+		ResultMatcher<SearchResult> rm = createResultMatcher();
+		SearchPhrase emptyPhrase = SearchPhrase.emptyPhrase(s);
+		for (String text : phrases) {
+			if (text.startsWith("POI_TYPE:")) {
+				continue;
+			}
+			SearchPhrase phrase = emptyPhrase.generateNewPhrase(text, s);
+			List<SearchResult> requestResults = getRequestResults(phrase, rm, core);
+			SearchResultCollection collection = new SearchResultCollection(phrase);
+			collection.addSearchResults(requestResults, true, true);
+			// sorted result is removed only if it is same as one of the last 20 unique results,
+			// same results farther in the sorted list (e.g. natural objects with the same name) are kept
+			List<SearchResult> sorted = new ArrayList<>(requestResults);
+			Collections.sort(sorted, new SearchUICore.SearchResultComparator(phrase));
+			List<SearchResult> expected = new ArrayList<>();
+			for (SearchResult r : sorted) {
+				boolean same = false;
+				for (int k = Math.max(0, expected.size() - 20); k < expected.size() && !same; k++) {
+					same = collection.sameSearchResult(expected.get(k), r);
+				}
+				if (!same) {
+					expected.add(r);
+				}
+			}
+			assertSameResults(text, expected, collection.getCurrentSearchResults());
+		}
+		getObfFile().delete();
+	}
+
+	private List<SearchResult> getRequestResults(SearchPhrase phrase, ResultMatcher<SearchResult> rm, SearchUICore core) {
 		SearchResultMatcher matcher = new SearchResultMatcher(rm, phrase, 1, new AtomicInteger(1), -1);
 		core.searchInternal(phrase, matcher);
+		return matcher.getRequestResults();
+	}
+
+	private static void assertSameResults(String text, List<SearchResult> expected, List<SearchResult> results) {
+		Assert.assertEquals("Phrase: " + text, expected.size(), results.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertSame("Phrase: " + text + " result " + i, expected.get(i), results.get(i));
+		}
+	}
+
+	private List<String> formatResults(List<SearchResult> searchResults, SearchPhrase phrase) {
+		List<String> results = new ArrayList<>();
+		for (SearchResult r : searchResults) {
+			results.add(formatResult(false, r, phrase));
+		}
+		return results;
+	}
+
+	private List<SearchResult> getSearchResult(SearchPhrase phrase, ResultMatcher<SearchResult> rm, SearchUICore core){
+		return getSearchResult(phrase, rm, core, false);
+	}
+
+	private List<SearchResult> getSearchResult(SearchPhrase phrase, ResultMatcher<SearchResult> rm, SearchUICore core,
+	                                           boolean useCache) {
+		SearchResultMatcher matcher = new SearchResultMatcher(rm, phrase, 1, new AtomicInteger(1), -1);
+		if (useCache) {
+			core.searchWithCache(phrase, matcher);
+		} else {
+			core.searchInternal(phrase, matcher);
+		}
 		SearchResultCollection collection = new SearchResultCollection(phrase);
 		collection.addSearchResults(matcher.getRequestResults(), true, true);
 		if (matcher.totalLimit != -1 && matcher.count > matcher.totalLimit) {
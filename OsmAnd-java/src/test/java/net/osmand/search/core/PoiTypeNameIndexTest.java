@@ -0,0 +1,99 @@
+package net.osmand.search.core;
+
+import net.osmand.CollatorStringMatcher.StringMatcherMode;
+import net.osmand.osm.AbstractPoiType;
+import net.osmand.osm.MapPoiTypes;
+import net.osmand.osm.PoiCategory;
+import net.osmand.search.core.SearchPhrase.NameStringMatcher;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class PoiTypeNameIndexTest {
+
+	private static final String[] WORDS = {"café", "cafe", "Kaffee", "Straße", "strasse", "ice-cream", "Ærø", "æble",
+			"ёлка", "елка", "Łódź", "lodz", "bike_rental", "fast food", "Bäckerei", "backerei", "œuvre", "24/7", "ıspanak"};
+
+	@Test
+	public void testCandidatesContainAllMatchedTypes() {
+		final Map<String, String> translations = new HashMap<>();
+		final Map<String, String> synonyms = new HashMap<>();
+		MapPoiTypes poiTypes = new MapPoiTypes(null);
+		poiTypes.setPoiTranslator(new MapPoiTypes.PoiTranslator() {
+			@Override
+			public String getTranslation(AbstractPoiType type) {
+				return translations.get(type.getKeyName());
+			}
+
+			@Override
+			public String getTranslation(String keyName) {
+				return translations.get(keyName);
+			}
+
+			@Override
+			public String getEnTranslation(AbstractPoiType type) {
+				return null;
+			}
+
+			@Override
+			public String getEnTranslation(String keyName) {
+				return null;
+			}
+
+			@Override
+			public String getSynonyms(AbstractPoiType type) {
+				return synonyms.get(type.getKeyName());
+			}
+
+			@Override
+			public String getSynonyms(String keyName) {
+				return synonyms.get(keyName);
+			}
+
+			@Override
+			public String getAllLanguagesTranslationSuffix() {
+				return "";
+			}
+		});
+		Random random = new Random(11);
+		List<AbstractPoiType> types = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			String key = WORDS[random.nextInt(WORDS.length)].toLowerCase().replace(' ', '_') + "_" + i;
+			translations.put(key, WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+			synonyms.put(key, WORDS[random.nextInt(WORDS.length)] + ";" + WORDS[random.nextInt(WORDS.length)]);
+			types.add(new PoiCategory(poiTypes, key, i));
+		}
+		PoiTypeNameIndex index = new PoiTypeNameIndex(types);
+		int checked = 0;
+		for (String word : WORDS) {
+			for (int length = 1; length <= word.length(); length++) {
+				for (StringMatcherMode mode : new StringMatcherMode[] {StringMatcherMode.CHECK_STARTS_FROM_SPACE,
+						StringMatcherMode.CHECK_EQUALS_FROM_SPACE}) {
+					NameStringMatcher nm = new NameStringMatcher(word.substring(0, length), mode);
+					Set<AbstractPoiType> candidates = index.findCandidates(nm);
+					if (candidates == null) {
+						continue;
+					}
+					checked++;
+					for (AbstractPoiType pt : types) {
+						if (nm.matches(pt.getTranslation()) || nm.matches(pt.getEnTranslation())
+								|| nm.matches(pt.getKeyName()) || nm.matches(pt.getSynonyms())) {
+							Assert.assertTrue(word.substring(0, length) + " " + mode + " " + pt.getKeyName(),
+									candidates.contains(pt));
+						}
+					}
+				}
+			}
+		}
+		Assert.assertTrue(checked > 0);
+		Set<AbstractPoiType> cafes = index.findCandidates(new NameStringMatcher("caf", StringMatcherMode.CHECK_STARTS_FROM_SPACE));
+		Assert.assertTrue(cafes.size() < types.size());
+	}
+}
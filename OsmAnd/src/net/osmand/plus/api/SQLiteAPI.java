@@ -25,6 +25,12 @@ public interface SQLiteAPI {
 
 		boolean isClosed();
 
+		void beginTransaction();
+
+		void setTransactionSuccessful();
+
+		void endTransaction();
+
 	}
 	
 	interface SQLiteCursor {
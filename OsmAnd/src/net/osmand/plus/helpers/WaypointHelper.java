@@ -20,6 +20,7 @@ import net.osmand.data.Amenity.AmenityRoutePoint;
 import net.osmand.data.FavouritePoint;
 import net.osmand.data.LocationPoint;
 import net.osmand.data.PointDescription;
+import net.osmand.data.RouteCorridorIndex;
 import net.osmand.data.WptLocationPoint;
 import net.osmand.plus.OsmandApplication;
 import net.osmand.plus.R;
@@ -47,7 +48,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -614,32 +617,6 @@ public class WaypointHelper {
 		}
 	}
 
-	private float dist(LocationPoint l, List<Location> locations, int[] ind, boolean[] devDirRight) {
-		float dist = Float.POSITIVE_INFINITY;
-		// Special iterations because points stored by pairs!
-		for (int i = 1; i < locations.size(); i++) {
-			double ld = MapUtils.getOrthogonalDistance(
-					l.getLatitude(), l.getLongitude(),
-					locations.get(i - 1).getLatitude(), locations.get(i - 1).getLongitude(),
-					locations.get(i).getLatitude(), locations.get(i).getLongitude());
-			if (ld < dist) {
-				if (ind != null) {
-					ind[0] = i;
-				}
-				dist = (float) ld;
-			}
-		}
-
-		if (ind != null && dist < Float.POSITIVE_INFINITY) {
-			int i = ind[0];
-			devDirRight[0] = MapUtils.rightSide(l.getLatitude(), l.getLongitude(),
-					locations.get(i - 1).getLatitude(), locations.get(i - 1).getLongitude(),
-					locations.get(i).getLatitude(), locations.get(i).getLongitude());
-		}
-
-		return dist;
-	}
-
 	protected synchronized void setLocationPoints(List<List<LocationPointWrapper>> locationPoints, RouteCalculationResult route) {
 		this.locationPoints = locationPoints;
 		this.locationPointsStates.clear();
@@ -670,15 +647,23 @@ public class WaypointHelper {
 	protected void calculatePoi(RouteCalculationResult route, List<LocationPointWrapper> locationPoints, boolean announcePOI) {
 		if (app.getPoiFilters().isShowingAnyPoi()) {
 			List<Location> locs = route.getImmutableAllLocations();
+			// index is built once for the route and shared by all filters and poi files
+			RouteCorridorIndex corridorIndex = route.getCorridorIndex();
 			List<Amenity> amenities = new ArrayList<>();
 			for (PoiUIFilter pf : app.getPoiFilters().getSelectedPoiFilters()) {
-				amenities.addAll(pf.searchAmenitiesOnThePath(locs, poiSearchDeviationRadius));
+				amenities.addAll(pf.searchAmenitiesOnThePath(locs, corridorIndex, poiSearchDeviationRadius));
+			}
+			Map<Location, Integer> locationIndexes = new IdentityHashMap<>(locs.size());
+			if (!amenities.isEmpty()) {
+				for (int i = 0; i < locs.size(); i++) {
+					locationIndexes.put(locs.get(i), i);
+				}
 			}
 			for (Amenity a : amenities) {
 				AmenityRoutePoint routePoint = a.getRoutePoint();
 				if (routePoint != null) {
-					int i = locs.indexOf(routePoint.pointA);
-					if (i >= 0) {
+					Integer i = locationIndexes.get(routePoint.pointA);
+					if (i != null) {
 						LocationPointWrapper lwp = new LocationPointWrapper(POI, new AmenityLocationPoint(a),
 								(float) routePoint.deviateDistance, i);
 						lwp.deviationDirectionRight = routePoint.deviationDirectionRight;
@@ -746,15 +731,14 @@ public class WaypointHelper {
 
 	private void findLocationPoints(RouteCalculationResult rt, int type, List<LocationPointWrapper> locationPoints,
 	                                List<? extends LocationPoint> points, boolean announce) {
-		List<Location> immutableAllLocations = rt.getImmutableAllLocations();
-		int[] ind = new int[1];
-		boolean[] devDirRight = new boolean[1];
+		RouteCorridorIndex corridorIndex = rt.getCorridorIndex();
+		int rad = getSearchDeviationRadius(type);
+		double[] dist = new double[1];
 		for (LocationPoint p : points) {
-			float dist = dist(p, immutableAllLocations, ind, devDirRight);
-			int rad = getSearchDeviationRadius(type);
-			if (dist <= rad) {
-				LocationPointWrapper lpw = new LocationPointWrapper(type, p, dist, ind[0]);
-				lpw.deviationDirectionRight = devDirRight[0];
+			int ind = corridorIndex.findNearestSegment(p.getLatitude(), p.getLongitude(), rad, dist);
+			if (ind != -1) {
+				LocationPointWrapper lpw = new LocationPointWrapper(type, p, (float) dist[0], ind);
+				lpw.deviationDirectionRight = corridorIndex.isRightSide(p.getLatitude(), p.getLongitude(), ind);
 				lpw.setAnnounce(announce);
 				locationPoints.add(lpw);
 			}
@@ -1,16 +1,19 @@
 package net.osmand.plus.myplaces.tracks.filters
 
+import android.os.AsyncTask
 import com.google.gson.annotations.Expose
+import net.osmand.data.QuadRect
 import net.osmand.plus.OsmandApplication
 import net.osmand.plus.R
 import net.osmand.plus.configmap.tracks.TrackItem
 import net.osmand.plus.myplaces.tracks.filters.FilterType.OTHER
+import java.io.File
 
 class OtherTrackFilter(val app: OsmandApplication, filterChangedListener: FilterChangedListener?) :
 	BaseTrackFilter(R.string.shared_string_other, OTHER, filterChangedListener) {
 
 	override fun isEnabled(): Boolean {
-		return isVisibleOnMap || hasWaypoints
+		return isVisibleOnMap || hasWaypoints || isInMapArea
 	}
 
 	@Expose
@@ -27,6 +30,37 @@ class OtherTrackFilter(val app: OsmandApplication, filterChangedListener: Filter
 			filterChangedListener?.onFilterChanged()
 		}
 
+	@Expose
+	var isInMapArea: Boolean = false
+		set(value) {
+			field = value
+			mapAreaFiles = null
+			if (value) {
+				loadMapAreaFiles()
+			}
+			filterChangedListener?.onFilterChanged()
+		}
+
+	// tracks in the map area at the moment the option is applied, loaded from the database in background
+	@Volatile
+	private var mapAreaFiles: Set<File>? = null
+	@Volatile
+	private var mapAreaFilesTask: MapAreaFilesTask? = null
+
+	override fun initFilter() {
+		if (isInMapArea && mapAreaFiles == null && mapAreaFilesTask == null) {
+			loadMapAreaFiles()
+		}
+	}
+
+	private fun loadMapAreaFiles() {
+		mapAreaFilesTask?.cancel(false)
+		val bounds = app.osmandMap.mapView.currentRotatedTileBox.copy().latLonBounds
+		val task = MapAreaFilesTask(bounds)
+		mapAreaFilesTask = task
+		task.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR)
+	}
+
 	override fun isTrackAccepted(trackItem: TrackItem): Boolean {
 		if (isVisibleOnMap) {
 			val selectedGpxHelper = app.selectedGpxHelper
@@ -40,6 +74,14 @@ class OtherTrackFilter(val app: OsmandApplication, filterChangedListener: Filter
 				return false
 			}
 		}
+		if (isInMapArea) {
+			// tracks are not accepted until the files are loaded, filter is applied again after loading
+			val file = trackItem.file
+			val files = mapAreaFiles
+			if (file == null || files == null || !files.contains(file)) {
+				return false
+			}
+		}
 		return true
 	}
 
@@ -47,6 +89,7 @@ class OtherTrackFilter(val app: OsmandApplication, filterChangedListener: Filter
 		var selectedCount = 0;
 		if (isVisibleOnMap) selectedCount++
 		if (hasWaypoints) selectedCount++
+		if (isInMapArea) selectedCount++
 		return selectedCount
 	}
 
@@ -54,6 +97,7 @@ class OtherTrackFilter(val app: OsmandApplication, filterChangedListener: Filter
 		if (value is OtherTrackFilter) {
 			isVisibleOnMap = value.isVisibleOnMap
 			hasWaypoints = value.hasWaypoints
+			isInMapArea = value.isInMapArea
 			filterChangedListener?.onFilterChanged()
 		}
 	}
@@ -62,7 +106,26 @@ class OtherTrackFilter(val app: OsmandApplication, filterChangedListener: Filter
 		return super.equals(other) &&
 				other is OtherTrackFilter &&
 				other.isVisibleOnMap == isVisibleOnMap &&
-				other.hasWaypoints == hasWaypoints
+				other.hasWaypoints == hasWaypoints &&
+				other.isInMapArea == isInMapArea
 	}
 
+	private inner class MapAreaFilesTask(private val bounds: QuadRect) : AsyncTask<Void, Void, Set<File>>() {
+
+		@Deprecated("Deprecated in Java")
+		override fun doInBackground(vararg params: Void): Set<File> {
+			return app.gpxDbHelper.getTrackFiles(bounds)
+		}
+
+		@Deprecated("Deprecated in Java")
+		override fun onPostExecute(result: Set<File>) {
+			if (mapAreaFilesTask === this) {
+				mapAreaFilesTask = null
+				if (isInMapArea) {
+					mapAreaFiles = result
+					filterChangedListener?.onFilterChanged()
+				}
+			}
+		}
+	}
 }
\ No newline at end of file
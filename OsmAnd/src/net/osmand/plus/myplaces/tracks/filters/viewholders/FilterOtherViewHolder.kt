@@ -24,8 +24,10 @@ class FilterOtherViewHolder(itemView: View, nightMode: Boolean) :
 	private var filter: OtherTrackFilter? = null
 	private var isVisibleOnMapCheckBox: AppCompatCheckBox
 	private var hasWaypointsCheckBox: AppCompatCheckBox
+	private var inMapAreaCheckBox: AppCompatCheckBox
 	private var visibleOnMapRow: View
 	private var waypointsRow: View
+	private var mapAreaRow: View
 	private val divider: View
 
 	init {
@@ -51,8 +53,14 @@ class FilterOtherViewHolder(itemView: View, nightMode: Boolean) :
 			nightMode,
 			net.osmand.plus.utils.ColorUtilities.getActiveColor(app, nightMode),
 			hasWaypointsCheckBox)
+		inMapAreaCheckBox = itemView.findViewById(R.id.map_area_check)
+		UiUtilities.setupCompoundButton(
+			nightMode,
+			net.osmand.plus.utils.ColorUtilities.getActiveColor(app, nightMode),
+			inMapAreaCheckBox)
 		visibleOnMapRow = itemView.findViewById(R.id.visible_on_map_row)
 		waypointsRow = itemView.findViewById(R.id.waypoints_row)
+		mapAreaRow = itemView.findViewById(R.id.map_area_row)
 
 	}
 
@@ -67,6 +75,10 @@ class FilterOtherViewHolder(itemView: View, nightMode: Boolean) :
 			filter.hasWaypoints = !filter.hasWaypoints
 			updateValues()
 		}
+		mapAreaRow.setOnClickListener {
+			filter.isInMapArea = !filter.isInMapArea
+			updateValues()
+		}
 		updateExpandState()
 		updateValues()
 	}
@@ -85,6 +97,7 @@ class FilterOtherViewHolder(itemView: View, nightMode: Boolean) :
 			selectedValue.text = "$selectedParamsCount"
 			isVisibleOnMapCheckBox.isChecked = it.isVisibleOnMap
 			hasWaypointsCheckBox.isChecked = it.hasWaypoints
+			inMapAreaCheckBox.isChecked = it.isInMapArea
 		}
 	}
 }
\ No newline at end of file
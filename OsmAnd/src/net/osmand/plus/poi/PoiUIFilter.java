@@ -19,6 +19,7 @@ import net.osmand.Location;
 import net.osmand.ResultMatcher;
 import net.osmand.data.Amenity;
 import net.osmand.data.LatLon;
+import net.osmand.data.RouteCorridorIndex;
 import net.osmand.osm.AbstractPoiType;
 import net.osmand.osm.MapPoiTypes;
 import net.osmand.osm.PoiCategory;
@@ -355,8 +356,10 @@ public class PoiUIFilter implements Comparable<PoiUIFilter>, CustomSearchPoiFilt
 		return results;
 	}
 
-	public List<Amenity> searchAmenitiesOnThePath(List<Location> locs, int poiSearchDeviationRadius) {
-		return app.getResourceManager().searchAmenitiesOnThePath(locs, poiSearchDeviationRadius, this, wrapResultMatcher(null));
+	public List<Amenity> searchAmenitiesOnThePath(List<Location> locs, @NonNull RouteCorridorIndex corridorIndex,
+	                                              int poiSearchDeviationRadius) {
+		return app.getResourceManager().searchAmenitiesOnThePath(locs, corridorIndex, poiSearchDeviationRadius, this,
+				wrapResultMatcher(null));
 	}
 
 	protected List<Amenity> searchAmenitiesInternal(double lat, double lon, double topLatitude,
@@ -0,0 +1,184 @@
+package net.osmand.plus.render;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.osmand.binary.BinaryMapDataObject;
+import net.osmand.util.Algorithms;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+/**
+ * Decoded map objects of map files by tiles (file, zoom, tile), so when the map is moved
+ * only tiles which were not visible before are read from files.
+ * Least recently used tiles are removed when estimated size of objects exceeds the limit.
+ */
+class MapObjectsTilesCache {
+
+	// cache tiles are 2 times bigger than map tiles of the zoom
+	private static final int TILE_ZOOM_SHIFT = 1;
+
+	private final Map<TileKey, TileObjects> tiles = new LinkedHashMap<>(64, 0.75f, true);
+	private final long maxBytes;
+	private long bytes;
+	private String filterKey;
+
+	MapObjectsTilesCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	static int getTileShift(int zoom) {
+		return Math.max(0, Math.min(31, 31 - zoom + TILE_ZOOM_SHIFT));
+	}
+
+	static int getTileLeft(int tile, int shift) {
+		return (int) ((long) tile << shift);
+	}
+
+	static int getTileRight(int tile, int shift) {
+		return (int) Math.min((((long) tile + 1) << shift) - 1, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Clears cache if objects were read with another search filter (e.g. rendering style or its properties changed)
+	 */
+	synchronized void setFilterKey(@NonNull String filterKey) {
+		if (!Algorithms.objectEquals(this.filterKey, filterKey)) {
+			clear();
+			this.filterKey = filterKey;
+		}
+	}
+
+	@Nullable
+	synchronized TileObjects get(@NonNull TileKey key) {
+		return tiles.get(key);
+	}
+
+	synchronized void put(@NonNull TileKey key, @NonNull TileObjects objects) {
+		TileObjects prev = tiles.put(key, objects);
+		if (prev != null) {
+			bytes -= prev.bytes;
+		}
+		bytes += objects.bytes;
+		Iterator<TileObjects> it = tiles.values().iterator();
+		while (bytes > maxBytes && it.hasNext()) {
+			bytes -= it.next().bytes;
+			it.remove();
+		}
+	}
+
+	synchronized void removeFile(@NonNull String fileName) {
+		Iterator<Map.Entry<TileKey, TileObjects>> it = tiles.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<TileKey, TileObjects> entry = it.next();
+			if (entry.getKey().fileName.equals(fileName)) {
+				bytes -= entry.getValue().bytes;
+				it.remove();
+			}
+		}
+	}
+
+	synchronized void clear() {
+		tiles.clear();
+		bytes = 0;
+	}
+
+	static class TileKey {
+
+		final String fileName;
+		final int zoom;
+		final int x;
+		final int y;
+
+		TileKey(@NonNull String fileName, int zoom, int x, int y) {
+			this.fileName = fileName;
+			this.zoom = zoom;
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			TileKey key = (TileKey) o;
+			return zoom == key.zoom && x == key.x && y == key.y && fileName.equals(key.fileName);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = fileName.hashCode();
+			result = 31 * result + zoom;
+			result = 31 * result + x;
+			result = 31 * result + y;
+			return result;
+		}
+	}
+
+	static class TileObjects {
+
+		final List<BinaryMapDataObject> objects;
+		// first tile (x, y pairs) of the objects bbox, object is taken only from its first visible tile
+		final int[] firstTiles;
+		final boolean ocean;
+		final boolean land;
+		final long bytes;
+
+		TileObjects(@NonNull List<BinaryMapDataObject> objects, int shift, boolean ocean, boolean land) {
+			this.objects = objects;
+			this.ocean = ocean;
+			this.land = land;
+			firstTiles = new int[objects.size() * 2];
+			long bytes = 0;
+			for (int i = 0; i < objects.size(); i++) {
+				BinaryMapDataObject object = objects.get(i);
+				int minX = Integer.MAX_VALUE;
+				int minY = Integer.MAX_VALUE;
+				for (int p = 0; p < object.getPointsLength(); p++) {
+					minX = Math.min(minX, object.getPoint31XTile(p));
+					minY = Math.min(minY, object.getPoint31YTile(p));
+				}
+				firstTiles[i * 2] = minX >>> shift;
+				firstTiles[i * 2 + 1] = minY >>> shift;
+				bytes += estimateSize(object);
+			}
+			this.bytes = bytes;
+		}
+
+		boolean isFirstVisibleTile(int ind, int tileX, int tileY, int leftTile, int topTile) {
+			return Math.max(firstTiles[ind * 2], leftTile) == tileX && Math.max(firstTiles[ind * 2 + 1], topTile) == tileY;
+		}
+
+		private static long estimateSize(@NonNull BinaryMapDataObject object) {
+			long size = 96 + object.getPointsLength() * 8L;
+			if (object.getTypes() != null) {
+				size += object.getTypes().length * 4L;
+			}
+			int[][] inner = object.getPolygonInnerCoordinates();
+			if (inner != null) {
+				for (int[] coordinates : inner) {
+					size += 16 + coordinates.length * 4L;
+				}
+			}
+			if (object.getAdditionalTypes() != null) {
+				size += object.getAdditionalTypes().length * 4L;
+			}
+			TIntObjectHashMap<String> names = object.getObjectNames();
+			if (names != null) {
+				for (String name : names.valueCollection()) {
+					size += 48 + name.length() * 2L;
+				}
+			}
+			return size;
+		}
+	}
+}
@@ -8,6 +8,7 @@ import android.os.Looper;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import net.osmand.NativeLibrary.NativeSearchResult;
 import net.osmand.PlatformUtil;
@@ -29,6 +30,8 @@ import net.osmand.plus.OsmandApplication;
 import net.osmand.plus.plugins.PluginsHelper;
 import net.osmand.plus.R;
 import net.osmand.plus.plugins.development.OsmandDevelopmentPlugin;
+import net.osmand.plus.render.MapObjectsTilesCache.TileKey;
+import net.osmand.plus.render.MapObjectsTilesCache.TileObjects;
 import net.osmand.plus.render.OsmandRenderer.RenderingContext;
 import net.osmand.plus.settings.backend.OsmAndAppCustomization.OsmAndAppCustomizationListener;
 import net.osmand.plus.settings.backend.OsmandSettings;
@@ -49,13 +52,20 @@ import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import gnu.trove.iterator.TIntObjectIterator;
 import gnu.trove.list.TLongList;
@@ -74,6 +84,7 @@ public class MapRenderRepositories {
 	private static final int zoomOnlyForBasemaps = 11;
 
 	private static final int REPLACE_LOCAL_NAMES_MAX_ZOOM = 6;
+	private static final int MAP_READ_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
 	private static final List<String> LOCALES_WITHOUT_TRANSLITERATION_ON_BASEMAP = Arrays.asList("ru", "uk", "be", "bg", "mk", "sr");
 
 	static int zoomForBaseRouteRendering  = 14;
@@ -113,6 +124,9 @@ public class MapRenderRepositories {
 	private RenderingContext currentRenderingContext;
 	private RenderingContext visibleRenderingContext;
 	private SearchRequest<BinaryMapDataObject> searchRequest;
+	private final Set<SearchRequest<BinaryMapDataObject>> searchRequests = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	private final MapObjectsTilesCache objectsCache = new MapObjectsTilesCache(Runtime.getRuntime().maxMemory() / 16);
+	private final ExecutorService mapReadExecutor = Executors.newFixedThreadPool(MAP_READ_THREADS);
 	private OsmandSettings settings;
 
 	public MapRenderRepositories(OsmandApplication context) {
@@ -186,6 +200,7 @@ public class MapRenderRepositories {
 		LinkedHashMap<String, BinaryMapIndexReader> cpfiles = new LinkedHashMap<String, BinaryMapIndexReader>(files);
 		BinaryMapIndexReader bmir = cpfiles.remove(file);
 		files = cpfiles;
+		objectsCache.removeFile(file);
 		if (nativeFiles.contains(file)) {
 			NativeOsmandLibrary lib = NativeOsmandLibrary.getLoadedLibrary();
 			if (lib != null) {
@@ -216,6 +231,7 @@ public class MapRenderRepositories {
 
 	public void clearAllResources() {
 		clearCache();
+		renderer.clearCachedResources();
 		bmp = null;
 		bmpLocation = null;
 		for (String f : new ArrayList<String>(files.keySet())) {
@@ -270,6 +286,9 @@ public class MapRenderRepositories {
 		if (searchRequest != null) {
 			searchRequest.setInterrupted(true);
 		}
+		for (SearchRequest<BinaryMapDataObject> request : searchRequests) {
+			request.setInterrupted(true);
+		}
 		log.info("RENDER MAP: Interrupt rendering map");
 	}
 	
@@ -529,7 +548,159 @@ public class MapRenderRepositories {
 	                                            ArrayList<BinaryMapDataObject> tempResult, ArrayList<BinaryMapDataObject> basemapResult,
 	                                            TLongSet ids, int[] count, boolean[] ocean, boolean[] land, List<BinaryMapDataObject> coastLines,
 	                                            List<BinaryMapDataObject> basemapCoastLines, int leftX, int rightX, int bottomY, int topY) {
-		BinaryMapIndexReader.SearchFilter searchFilter = new BinaryMapIndexReader.SearchFilter() {
+		int shift = MapObjectsTilesCache.getTileShift(zoom);
+		int leftTile = leftX >>> shift;
+		int rightTile = rightX >>> shift;
+		int topTile = topY >>> shift;
+		int bottomTile = bottomY >>> shift;
+		Map<String, BinaryMapIndexReader> files = this.files;
+		Map<TileKey, TileObjects> tiles = readMapObjectTiles(files, zoom, renderingReq, leftTile, rightTile, topTile, bottomTile);
+		if (tiles == null) {
+			return null;
+		}
+		MapIndex mi = null;
+		boolean containsJapanMapData = false;
+		for (Entry<String, BinaryMapIndexReader> entry : files.entrySet()) {
+			BinaryMapIndexReader c = entry.getValue();
+			boolean basemap = c.isBasemap();
+			boolean found = false;
+			for (int tileY = topTile; tileY <= bottomTile; tileY++) {
+				for (int tileX = leftTile; tileX <= rightTile; tileX++) {
+					TileObjects tileObjects = tiles.get(new TileKey(entry.getKey(), zoom, tileX, tileY));
+					if (tileObjects == null) {
+						continue;
+					}
+					List<BinaryMapDataObject> res = tileObjects.objects;
+					for (int i = 0; i < res.size(); i++) {
+						// object crossing several tiles is added only once
+						if (!tileObjects.isFirstVisibleTile(i, tileX, tileY, leftTile, topTile)) {
+							continue;
+						}
+						BinaryMapDataObject r = res.get(i);
+						found = true;
+						if (checkForDuplicateObjectIds && !basemap) {
+							if (ids.contains(r.getId()) && r.getId() > 0) {
+								// do not add object twice
+								continue;
+							}
+							ids.add(r.getId());
+						}
+						count[0]++;
+
+						if (r.containsType(r.getMapIndex().coastlineEncodingType)) {
+							if (basemap) {
+								basemapCoastLines.add(r);
+							} else {
+								coastLines.add(r);
+							}
+						} else {
+							// do not mess coastline and other types
+							if (basemap) {
+								basemapResult.add(r);
+							} else {
+								tempResult.add(r);
+							}
+						}
+					}
+					if (tileObjects.ocean) {
+						mi = c.getMapIndexes().get(0);
+						ocean[0] = true;
+					}
+					if (tileObjects.land) {
+						mi = c.getMapIndexes().get(0);
+						land[0] = true;
+					}
+				}
+			}
+			if (found) {
+				if (basemap) {
+					renderedState |= 1;
+				} else {
+					renderedState |= 2;
+				}
+				if (c.getCountryName().equals("Japan")) {
+					containsJapanMapData = true;
+				}
+			}
+		}
+		TransliterationHelper.setJapanese(containsJapanMapData);
+		return mi;
+	}
+
+	/**
+	 * Takes tiles from the cache and reads missing ones, every file is read in its own thread.
+	 *
+	 * @return null if loading was interrupted
+	 */
+	@Nullable
+	private Map<TileKey, TileObjects> readMapObjectTiles(Map<String, BinaryMapIndexReader> files, int zoom,
+	                                                     RenderingRuleSearchRequest renderingReq, int leftTile,
+	                                                     int rightTile, int topTile, int bottomTile) {
+		Map<TileKey, TileObjects> tiles = new ConcurrentHashMap<>();
+		List<Future<?>> tasks = new ArrayList<>();
+		for (Entry<String, BinaryMapIndexReader> entry : files.entrySet()) {
+			String fileName = entry.getKey();
+			List<TileKey> missingTiles = new ArrayList<>();
+			for (int tileY = topTile; tileY <= bottomTile; tileY++) {
+				for (int tileX = leftTile; tileX <= rightTile; tileX++) {
+					TileKey key = new TileKey(fileName, zoom, tileX, tileY);
+					TileObjects tileObjects = objectsCache.get(key);
+					if (tileObjects != null) {
+						tiles.put(key, tileObjects);
+					} else {
+						missingTiles.add(key);
+					}
+				}
+			}
+			if (!missingTiles.isEmpty()) {
+				// rendering request is changed by search filter
+				RenderingRuleSearchRequest req = new RenderingRuleSearchRequest(renderingReq);
+				tasks.add(mapReadExecutor.submit(() -> readMapObjectTiles(entry.getValue(), missingTiles, zoom, req, tiles)));
+			}
+		}
+		for (Future<?> task : tasks) {
+			try {
+				task.get();
+			} catch (InterruptedException | ExecutionException e) {
+				log.error(e.getMessage(), e);
+			}
+		}
+		return checkWhetherInterrupted() ? null : tiles;
+	}
+
+	private void readMapObjectTiles(BinaryMapIndexReader c, List<TileKey> missingTiles, int zoom,
+	                                RenderingRuleSearchRequest renderingReq, Map<TileKey, TileObjects> tiles) {
+		BinaryMapIndexReader.SearchFilter searchFilter = zoom > 16 ? null : createSearchFilter(zoom, renderingReq);
+		int shift = MapObjectsTilesCache.getTileShift(zoom);
+		for (TileKey key : missingTiles) {
+			if (checkWhetherInterrupted()) {
+				return;
+			}
+			SearchRequest<BinaryMapDataObject> sr = BinaryMapIndexReader.buildSearchRequest(
+					MapObjectsTilesCache.getTileLeft(key.x, shift), MapObjectsTilesCache.getTileRight(key.x, shift),
+					MapObjectsTilesCache.getTileLeft(key.y, shift), MapObjectsTilesCache.getTileRight(key.y, shift),
+					zoom, searchFilter);
+			searchRequests.add(sr);
+			List<BinaryMapDataObject> res;
+			try {
+				res = c.searchMapIndex(sr);
+			} catch (IOException e) {
+				res = new ArrayList<>();
+				log.debug("Search failed " + c.getRegionNames(), e); //$NON-NLS-1$
+			} finally {
+				searchRequests.remove(sr);
+			}
+			if (sr.isCancelled()) {
+				return;
+			}
+			TileObjects tileObjects = new TileObjects(new ArrayList<>(res), shift, sr.isOcean(), sr.isLand());
+			tiles.put(key, tileObjects);
+			objectsCache.put(key, tileObjects);
+		}
+	}
+
+	private BinaryMapIndexReader.SearchFilter createSearchFilter(int zoom, RenderingRuleSearchRequest renderingReq) {
+		return new BinaryMapIndexReader.SearchFilter() {
 			@Override
 			public boolean accept(TIntArrayList types, BinaryMapIndexReader.MapIndex root) {
 				for (int j = 0; j < types.size(); j++) {
@@ -556,72 +727,6 @@ public class MapRenderRepositories {
 			}
 
 		};
-		if (zoom > 16) {
-			searchFilter = null;
-		}
-		MapIndex mi = null;
-		searchRequest = BinaryMapIndexReader.buildSearchRequest(leftX, rightX, topY, bottomY, zoom, searchFilter);
-		boolean containsJapanMapData = false;
-		for (BinaryMapIndexReader c : files.values()) {
-			boolean basemap = c.isBasemap();
-			searchRequest.clearSearchResults();
-			List<BinaryMapDataObject> res;
-			try {
-				res = c.searchMapIndex(searchRequest);
-			} catch (IOException e) {
-				res = new ArrayList<BinaryMapDataObject>();
-				log.debug("Search failed " + c.getRegionNames(), e); //$NON-NLS-1$
-			}
-			if (res.size() > 0) {
-				if(basemap) {
-					renderedState |= 1;
-				} else {
-					renderedState |= 2;
-				}
-				if (c.getCountryName().equals("Japan")) {
-					containsJapanMapData = true;
-				}
-			}
-			for (BinaryMapDataObject r : res) {
-				if (checkForDuplicateObjectIds && !basemap) {
-					if (ids.contains(r.getId()) && r.getId() > 0) {
-						// do not add object twice
-						continue;
-					}
-					ids.add(r.getId());
-				}
-				count[0]++;
-
-				if (r.containsType(r.getMapIndex().coastlineEncodingType)) {
-					if (basemap) {
-						basemapCoastLines.add(r);
-					} else {
-						coastLines.add(r);
-					}
-				} else {
-					// do not mess coastline and other types
-					if (basemap) {
-						basemapResult.add(r);
-					} else {
-						tempResult.add(r);
-					}
-				}
-				if (checkWhetherInterrupted()) {
-					return null;
-				}
-			}
-
-			if (searchRequest.isOcean()) {
-				mi = c.getMapIndexes().get(0);
-				ocean[0] = true;
-			}
-			if (searchRequest.isLand()) {
-				mi = c.getMapIndexes().get(0);
-				land[0] = true;
-			}
-		}
-		TransliterationHelper.setJapanese(containsJapanMapData);
-		return mi;
 	}
 
 	private void validateLatLonBox(QuadRect box) {
@@ -698,6 +803,7 @@ public class MapRenderRepositories {
 					loaded = loadVectorDataNative(dataBox, requestedBox.getZoom(), renderingReq, nativeLib);
 				} else {
 					cNativeObjects = null;
+					objectsCache.setFilterKey(getSearchFilterKey(storage, nightMode));
 					loaded = loadVectorData(dataBox, requestedBox.getZoom(), renderingReq);
 					
 				}
@@ -845,6 +951,21 @@ public class MapRenderRepositories {
 
 	}
 
+	@NonNull
+	private String getSearchFilterKey(@NonNull RenderingRulesStorage storage, boolean nightMode) {
+		StringBuilder key = new StringBuilder(storage.getName()).append(nightMode);
+		for (RenderingRuleProperty property : storage.PROPS.getCustomRules()) {
+			String attrName = property.getAttrName();
+			key.append(';').append(attrName).append('=');
+			if (property.isBoolean()) {
+				key.append(settings.getRenderBooleanPropertyValue(attrName));
+			} else {
+				key.append(settings.getRenderPropertyValue(attrName));
+			}
+		}
+		return key.toString();
+	}
+
 	public RenderingRuleSearchRequest getSearchRequestWithAppliedCustomRules(RenderingRulesStorage storage, boolean nightMode) {
 		// boolean moreDetail = prefs.SHOW_MORE_MAP_DETAIL.get();
 		RenderingRuleSearchRequest renderingReq = new RenderingRuleSearchRequest(storage);
@@ -898,6 +1019,7 @@ public class MapRenderRepositories {
 	public synchronized void clearCache() {
 		cObjects = new ArrayList<BinaryMapDataObject>();
 		cObjectsBox = new QuadRect();
+		objectsCache.clear();
 
 		requestedBox = prevBmpLocation = null;
 		// Do not clear main bitmap to not cause a screen refresh
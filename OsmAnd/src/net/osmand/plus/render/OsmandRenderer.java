@@ -30,6 +30,7 @@ import net.osmand.NativeLibrary.NativeSearchResult;
 import net.osmand.PlatformUtil;
 import net.osmand.RenderingContext.ShadowRenderingMode;
 import net.osmand.binary.BinaryMapDataObject;
+import net.osmand.binary.BinaryMapIndexReader.MapIndex;
 import net.osmand.binary.BinaryMapIndexReader.TagValuePair;
 import net.osmand.data.QuadRect;
 import net.osmand.data.QuadTree;
@@ -43,11 +44,18 @@ import net.osmand.util.MapUtils;
 import org.apache.commons.logging.Log;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.hash.TIntObjectHashMap;
@@ -55,8 +63,6 @@ import gnu.trove.map.hash.TIntObjectHashMap;
 public class OsmandRenderer {
 	private static final Log log = PlatformUtil.getLog(OsmandRenderer.class);
 
-	private final Paint paint;
-
 	private final Paint paintIcon;
 	public static final int DEFAULT_POLYGON_MAX = 11;
 	public static final int DEFAULT_LINE_MAX = 100;
@@ -67,6 +73,21 @@ public class OsmandRenderer {
 	private static final int MAX_V = 10;
 	private static final int MAX_V_AREA = 2000;
 
+	// sort key of map objects: order (11 bits), fraction of polygon order (20 bits), type index (4 bits),
+	// points count (8 bits), index in the array (20 bits)
+	private static final int SORT_ORDER_BIAS = 1 << 10;
+	private static final int SORT_FRACTION_BITS = 20;
+	private static final int SORT_INDEX_BITS = 20;
+	private static final int SORT_MAX_TYPE_IND = (1 << 4) - 1;
+	private static final int SORT_MAX_POINTS = (1 << 8) - 1;
+
+	// polygons and lines of big maps are drawn in parallel by horizontal slices
+	private static final int RENDER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+	private static final int MIN_OBJECTS_TO_SLICE = 300;
+	private static final int MIN_SLICE_HEIGHT = 128;
+	// objects are drawn in the slices not farther than this from them (strokes and shadows are out of the bbox)
+	private static final int SLICE_MARGIN = 64;
+
 	private final Map<float[], PathEffect> dashEffect = new LinkedHashMap<float[], PathEffect>();
 	private final Map<String, float[]> parsedDashEffects = new LinkedHashMap<String, float[]>();
 	private final Map<String, Shader> shaders = new LinkedHashMap<String, Shader>();
@@ -77,6 +98,11 @@ public class OsmandRenderer {
 
 	private final TextRenderer textRenderer;
 
+	private final ExecutorService renderExecutor = RENDER_THREADS > 1 ? Executors.newFixedThreadPool(RENDER_THREADS) : null;
+	// slice bitmaps are used by the render thread, they could be recycled from other threads
+	private final ReentrantLock sliceBitmapsLock = new ReentrantLock();
+	private Bitmap[] sliceBitmaps;
+
 	public class MapDataObjectPrimitive {
 		BinaryMapDataObject obj;
 		int typeInd;
@@ -84,6 +110,129 @@ public class OsmandRenderer {
 		double area;
 		int objectType;
 		int orderByDenisty;
+		// bounds of the object on the screen by y (calculated only to draw by slices)
+		float top;
+		float bottom;
+	}
+
+	/**
+	 * Horizontal part of the map drawn by one thread, so paint, rendering request and counters are its own.
+	 * Object is drawn in all slices it intersects but it is counted and its text is collected only in one slice.
+	 */
+	private static class RenderSlice {
+		final float top;
+		final float bottom;
+		final boolean first;
+		final boolean last;
+		final Canvas canvas;
+		final RenderingRuleSearchRequest req;
+		final Paint paint = new Paint();
+		final PointF tempPoint = new PointF();
+		Paint[] oneWay;
+		Paint[] reverseOneWay;
+
+		boolean owner;
+		boolean collectText;
+		PendingText text;
+
+		int pointCount;
+		int pointInsideCount;
+		int visible;
+		int allObjects;
+
+		RenderSlice(float top, float bottom, boolean first, boolean last, Canvas canvas, RenderingRuleSearchRequest req) {
+			this.top = top;
+			this.bottom = bottom;
+			this.first = first;
+			this.last = last;
+			this.canvas = canvas;
+			this.req = req;
+			paint.setAntiAlias(true);
+		}
+
+		boolean isOwner(MapDataObjectPrimitive o) {
+			return (first || o.top >= top) && (last || o.top < bottom);
+		}
+
+		boolean intersects(MapDataObjectPrimitive o, float margin) {
+			return o.bottom >= top - margin && o.top < bottom + margin;
+		}
+
+		void addCounters(RenderingContext rc) {
+			rc.pointCount += pointCount;
+			rc.pointInsideCount += pointInsideCount;
+			rc.visible += visible;
+			rc.allObjects += allObjects;
+		}
+	}
+
+	private static class PendingText {
+		final BinaryMapDataObject obj;
+		final TagValuePair pair;
+		final float x;
+		final float y;
+		final Path path;
+		final PointF[] points;
+
+		PendingText(BinaryMapDataObject obj, TagValuePair pair, float x, float y, Path path, PointF[] points) {
+			this.obj = obj;
+			this.pair = pair;
+			this.x = x;
+			this.y = y;
+			this.path = path;
+			this.points = points;
+		}
+	}
+
+	private static class OrderRuleKey {
+		MapIndex mapIndex;
+		int type;
+		int layer;
+		int flags;
+		int[] additionalTypes;
+
+		OrderRuleKey() {
+		}
+
+		OrderRuleKey(OrderRuleKey key) {
+			mapIndex = key.mapIndex;
+			type = key.type;
+			layer = key.layer;
+			flags = key.flags;
+			additionalTypes = key.additionalTypes;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			OrderRuleKey key = (OrderRuleKey) o;
+			return mapIndex == key.mapIndex && type == key.type && layer == key.layer && flags == key.flags
+					&& Arrays.equals(additionalTypes, key.additionalTypes);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = System.identityHashCode(mapIndex);
+			result = 31 * result + type;
+			result = 31 * result + layer;
+			result = 31 * result + flags;
+			result = 31 * result + Arrays.hashCode(additionalTypes);
+			return result;
+		}
+	}
+
+	// result of the order rules search (found is false if no rule matched)
+	private static class OrderRule {
+		boolean found;
+		int objectType;
+		boolean ignorePointArea;
+		int order;
+		int orderByDensity;
 	}
 
 	private static class IconDrawInfo {
@@ -107,16 +256,12 @@ public class OsmandRenderer {
 	public static class RenderingContext extends net.osmand.RenderingContext {
 		List<TextDrawInfo> textToDraw = new ArrayList<TextDrawInfo>();
 		List<IconDrawInfo> iconsToDraw = new ArrayList<IconDrawInfo>();
-		Paint[] oneWay ;
-		Paint[] reverseOneWay ;
 		final Context ctx;
 
 		public RenderingContext(Context ctx) {
 			this.ctx = ctx;
 		}
 
-		// use to calculate points
-		PointF tempPoint = new PointF();
 		float cosRotateTileSize;
 		float sinRotateTileSize;
 
@@ -140,15 +285,13 @@ public class OsmandRenderer {
 
 
 		textRenderer = new TextRenderer(context);
-		paint = new Paint();
-		paint.setAntiAlias(true);
 
 		dm = new DisplayMetrics();
 		WindowManager wmgr = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
 		wmgr.getDefaultDisplay().getMetrics(dm);
 	}
 
-	public PathEffect getDashEffect(RenderingContext rc, float[] cachedValues, float st){
+	public synchronized PathEffect getDashEffect(RenderingContext rc, float[] cachedValues, float st){
 		float[] dashes = new float[cachedValues.length / 2];
 		for (int i = 0; i < dashes.length; i++) {
 			dashes[i] = rc.getDensityValue(cachedValues[i * 2]) + cachedValues[i * 2 + 1];
@@ -159,7 +302,7 @@ public class OsmandRenderer {
 		return dashEffect.get(dashes);
 	}
 
-	public Shader getShader(String resId) {
+	public synchronized Shader getShader(String resId) {
 		if (shaders.get(resId) == null) {
 			Bitmap bmp = RenderingIcons.getIcon(context, resId, true);
 			if (bmp != null) {
@@ -218,33 +361,52 @@ public class OsmandRenderer {
 		}
 	}
 	
-	void drawObject(RenderingContext rc,  Canvas cv, RenderingRuleSearchRequest req,
-			List<MapDataObjectPrimitive> array, int objOrder) {
-			//double polygonLimit = 100;
-			//float orderToSwitch = 0;
-			double minPolygonSize = 1. / rc.polygonMinSizeToDisplay;
-			for (int i = 0; i < array.size(); i++) {
-				rc.allObjects++;
-				BinaryMapDataObject mObj = array.get(i).obj;
-				TagValuePair pair = mObj.getMapIndex().decodeType(mObj.getTypes()[array.get(i).typeInd]);
-				if (array.get(i).objectType == 3) {
-					if (array.get(i).order > minPolygonSize + ((int) array.get(i).order)) {
-						continue;
-					}
-					// polygon
-					
-					drawPolygon(mObj, req, cv, rc, pair, array.get(i).area);
-				} else if (array.get(i).objectType == 2) {
-					drawPolyline(mObj, req, cv, rc, pair, mObj.getSimpleLayer(), objOrder == 1);
-				} else if (array.get(i).objectType == 1) {
-					drawPoint(mObj, req, cv, rc, pair, array.get(i).typeInd == 0);
-				}
-				if (i % 25 == 0 && rc.interrupted) {
-					return;
+	private void drawObject(RenderingContext rc, RenderSlice slice, List<MapDataObjectPrimitive> array,
+	                        int objOrder, PendingText[] texts) {
+		double minPolygonSize = 1. / rc.polygonMinSizeToDisplay;
+		float margin = rc.getDensityValue(SLICE_MARGIN);
+		for (int i = 0; i < array.size(); i++) {
+			if (i % 25 == 0 && rc.interrupted) {
+				return;
+			}
+			MapDataObjectPrimitive primitive = array.get(i);
+			slice.owner = slice.isOwner(primitive);
+			if (!slice.owner && !slice.intersects(primitive, margin)) {
+				continue;
+			}
+			slice.collectText = slice.owner && texts != null;
+			slice.text = null;
+			if (slice.owner) {
+				slice.allObjects++;
+			}
+			BinaryMapDataObject mObj = primitive.obj;
+			TagValuePair pair = mObj.getMapIndex().decodeType(mObj.getTypes()[primitive.typeInd]);
+			if (primitive.objectType == 3) {
+				if (primitive.order > minPolygonSize + ((int) primitive.order)) {
+					continue;
 				}
+				// polygon
+				drawPolygon(mObj, slice, rc, pair, primitive.area);
+			} else if (primitive.objectType == 2) {
+				drawPolyline(mObj, slice, rc, pair, mObj.getSimpleLayer(), objOrder == 1);
+			} else if (primitive.objectType == 1) {
+				drawPoint(mObj, slice, rc, pair, primitive.typeInd == 0);
+			}
+			if (slice.text != null) {
+				texts[i] = slice.text;
 			}
 		}
-	
+	}
+
+	private void drawPolygonsAndLines(RenderingContext rc, RenderSlice slice, List<MapDataObjectPrimitive> polygonsArray,
+	                                  List<MapDataObjectPrimitive> linesArray, PendingText[] polygonTexts, PendingText[] lineTexts) {
+		drawObject(rc, slice, polygonsArray, 0, polygonTexts);
+		if (rc.shadowRenderingMode > 1) {
+			drawObject(rc, slice, linesArray, 1, null);
+		}
+		drawObject(rc, slice, linesArray, 2, lineTexts);
+	}
+
 	public void generateNewBitmap(RenderingContext rc, List<BinaryMapDataObject> objects, Bitmap bmp, 
 				RenderingRuleSearchRequest render, MapTileDownloader mapTileDownloader) {
 		long now = System.currentTimeMillis();
@@ -265,18 +427,23 @@ public class OsmandRenderer {
 
 			rc.lastRenderedKey = 0;
 
-			drawObject(rc, cv, render, polygonsArray, 0);
-			rc.lastRenderedKey = DEFAULT_POLYGON_MAX;
-			if (rc.shadowRenderingMode > 1) {
-				drawObject(rc, cv, render, linesArray, 1);
+			// text of polygons and lines is collected after drawing to keep the order of text independent of slices
+			PendingText[] polygonTexts = new PendingText[polygonsArray.size()];
+			PendingText[] lineTexts = new PendingText[linesArray.size()];
+			RenderSlice screen = new RenderSlice(0, rc.height, true, true, cv, render);
+			int slicesCount = getSlicesCount(rc, polygonsArray.size() + linesArray.size());
+			if (slicesCount > 1) {
+				drawSlices(rc, cv, bmp, render, slicesCount, polygonsArray, linesArray, polygonTexts, lineTexts);
+			} else {
+				drawPolygonsAndLines(rc, screen, polygonsArray, linesArray, polygonTexts, lineTexts);
 			}
-			rc.lastRenderedKey = (DEFAULT_LINE_MAX + DEFAULT_POLYGON_MAX) / 2;
-			drawObject(rc, cv, render, linesArray, 2);
 			rc.lastRenderedKey = DEFAULT_LINE_MAX;
+			collectText(rc, render, polygonTexts);
+			collectText(rc, render, lineTexts);
 
-			drawObject(rc, cv, render, pointsArray, 3);
+			drawObject(rc, screen, pointsArray, 3, null);
 			rc.lastRenderedKey = DEFAULT_POINTS_MAX;
-
+			screen.addCounters(rc);
 
 			long beforeIconTextTime = System.currentTimeMillis() - now;
 			notifyListeners(mapTileDownloader);
@@ -286,14 +453,133 @@ public class OsmandRenderer {
 			textRenderer.drawTextOverCanvas(rc, cv, rc.preferredLocale);
 
 			long time = System.currentTimeMillis() - now;
-			rc.renderingDebugInfo = String.format("Rendering: %s ms  (%s text)\n"
+			rc.renderingDebugInfo = String.format("Rendering: %s ms  (%s text, %s slices)\n"
 					+ "(%s points, %s points inside, %s of %s objects visible)",//$NON-NLS-1$
-					time, time - beforeIconTextTime, rc.pointCount, rc.pointInsideCount, rc.visible, rc.allObjects);
+					time, time - beforeIconTextTime, slicesCount, rc.pointCount, rc.pointInsideCount,
+					rc.visible, rc.allObjects);
 			log.info(rc.renderingDebugInfo);
 
 		}
 	}
 
+	private int getSlicesCount(RenderingContext rc, int objectsCount) {
+		if (renderExecutor == null || objectsCount < MIN_OBJECTS_TO_SLICE) {
+			return 1;
+		}
+		return Math.max(1, Math.min(RENDER_THREADS, rc.height / MIN_SLICE_HEIGHT));
+	}
+
+	/**
+	 * Draws polygons and lines in parallel into bitmaps of horizontal slices of the map and then draws
+	 * the slices over canvas. Each slice draws only objects which are not farther than the margin from it.
+	 */
+	private void drawSlices(RenderingContext rc, Canvas cv, Bitmap bmp, RenderingRuleSearchRequest render, int slicesCount,
+	                        List<MapDataObjectPrimitive> polygonsArray, List<MapDataObjectPrimitive> linesArray,
+	                        PendingText[] polygonTexts, PendingText[] lineTexts) {
+		calculateScreenBounds(rc, polygonsArray);
+		calculateScreenBounds(rc, linesArray);
+		sliceBitmapsLock.lock();
+		try {
+			int sliceHeight = (rc.height + slicesCount - 1) / slicesCount;
+			Bitmap.Config config = bmp.getConfig() != null ? bmp.getConfig() : Bitmap.Config.ARGB_8888;
+			Bitmap[] bitmaps = getSliceBitmaps(rc.width, sliceHeight, slicesCount, config);
+			List<RenderSlice> slices = new ArrayList<>();
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int i = 0; i < slicesCount; i++) {
+				int top = i * sliceHeight;
+				Bitmap bitmap = bitmaps[i];
+				Canvas canvas = new Canvas(bitmap);
+				if (rc.defaultColor != 0) {
+					canvas.drawColor(rc.defaultColor);
+				} else {
+					bitmap.eraseColor(Color.TRANSPARENT);
+				}
+				canvas.translate(0, -top);
+				RenderSlice slice = new RenderSlice(top, Math.min(rc.height, top + sliceHeight), i == 0,
+						i == slicesCount - 1, canvas, new RenderingRuleSearchRequest(render));
+				slices.add(slice);
+				tasks.add(renderExecutor.submit(() ->
+						drawPolygonsAndLines(rc, slice, polygonsArray, linesArray, polygonTexts, lineTexts)));
+			}
+			for (Future<?> task : tasks) {
+				try {
+					task.get();
+				} catch (InterruptedException | ExecutionException e) {
+					log.error(e.getMessage(), e);
+				}
+			}
+			for (int i = 0; i < slicesCount; i++) {
+				RenderSlice slice = slices.get(i);
+				cv.drawBitmap(bitmaps[i], 0, slice.top, null);
+				slice.addCounters(rc);
+			}
+		} finally {
+			sliceBitmapsLock.unlock();
+		}
+	}
+
+	private Bitmap[] getSliceBitmaps(int width, int height, int count, Bitmap.Config config) {
+		Bitmap[] bitmaps = sliceBitmaps;
+		if (bitmaps == null || bitmaps.length != count || bitmaps[0].getWidth() != width
+				|| bitmaps[0].getHeight() != height || bitmaps[0].getConfig() != config) {
+			recycleSliceBitmaps();
+			bitmaps = new Bitmap[count];
+			for (int i = 0; i < count; i++) {
+				bitmaps[i] = Bitmap.createBitmap(width, height, config);
+			}
+			sliceBitmaps = bitmaps;
+		}
+		return bitmaps;
+	}
+
+	private void recycleSliceBitmaps() {
+		if (sliceBitmaps != null) {
+			for (Bitmap bitmap : sliceBitmaps) {
+				bitmap.recycle();
+			}
+			sliceBitmaps = null;
+		}
+	}
+
+	private void calculateScreenBounds(RenderingContext rc, List<MapDataObjectPrimitive> array) {
+		for (MapDataObjectPrimitive primitive : array) {
+			BinaryMapDataObject obj = primitive.obj;
+			int left = Integer.MAX_VALUE;
+			int right = Integer.MIN_VALUE;
+			int top = Integer.MAX_VALUE;
+			int bottom = Integer.MIN_VALUE;
+			for (int i = 0; i < obj.getPointsLength(); i++) {
+				int x = obj.getPoint31XTile(i);
+				int y = obj.getPoint31YTile(i);
+				left = Math.min(left, x);
+				right = Math.max(right, x);
+				top = Math.min(top, y);
+				bottom = Math.max(bottom, y);
+			}
+			// y on the screen is linear by x and y, so its bounds are in the corners of the bbox
+			float y1 = calcScreenY(left, top, rc);
+			float y2 = calcScreenY(right, top, rc);
+			float y3 = calcScreenY(left, bottom, rc);
+			float y4 = calcScreenY(right, bottom, rc);
+			primitive.top = Math.min(Math.min(y1, y2), Math.min(y3, y4));
+			primitive.bottom = Math.max(Math.max(y1, y2), Math.max(y3, y4));
+		}
+	}
+
+	private float calcScreenY(int xt, int yt, RenderingContext rc) {
+		double dTileX = xt / rc.tileDivisor - rc.leftX;
+		double dTileY = yt / rc.tileDivisor - rc.topY;
+		return (float) (rc.sinRotateTileSize * dTileX + rc.cosRotateTileSize * dTileY);
+	}
+
+	private void collectText(RenderingContext rc, RenderingRuleSearchRequest render, PendingText[] texts) {
+		for (PendingText text : texts) {
+			if (text != null) {
+				textRenderer.renderText(text.obj, render, rc, text.pair, text.x, text.y, text.path, text.points);
+			}
+		}
+	}
+
 	private void notifyListenersWithDelay(RenderingContext rc, MapTileDownloader mapTileDownloader, Handler h) {
 		h.postDelayed(() -> {
 			if(!rc.ended) {
@@ -441,63 +727,60 @@ public class OsmandRenderer {
 			render.clearState();
 
 			float mult = (float) (1. / MapUtils.getPowZoom(Math.max(31 - (rc.zoom + 8), 0)));
+			// objects of the same type are ordered by the same rules, search them once
+			Map<OrderRuleKey, OrderRule> rules = new HashMap<>();
+			OrderRuleKey ruleKey = new OrderRuleKey();
 			for (int i = 0; i < sz; i++) {
 				BinaryMapDataObject o = objects.get(i);
+				int layer = 0;
+				if (o.getPointsLength() > 1) {
+					layer = o.getSimpleLayer();
+				}
 				for (int j = 0; j < o.getTypes().length; j++) {
-					int wholeType = o.getTypes()[j];
-					int layer = 0;
-					if (o.getPointsLength() > 1) {
-						layer = o.getSimpleLayer();
+					ruleKey.mapIndex = o.getMapIndex();
+					ruleKey.type = o.getTypes()[j];
+					ruleKey.layer = layer;
+					ruleKey.flags = (o.isArea() ? 1 : 0) | (o.getPointsLength() == 1 ? 2 : 0) | (o.isCycle() ? 4 : 0);
+					ruleKey.additionalTypes = o.getAdditionalTypes();
+					OrderRule rule = rules.get(ruleKey);
+					if (rule == null) {
+						rule = searchOrderRule(rc, render, o, ruleKey.type, layer);
+						rules.put(new OrderRuleKey(ruleKey), rule);
 					}
-
-					TagValuePair pair = o.getMapIndex().decodeType(wholeType);
-					if (pair != null) {
-						render.setTagValueZoomLayer(pair.tag, pair.value, rc.zoom, layer, o);
-						render.setBooleanFilter(render.ALL.R_AREA, o.isArea());
-						render.setBooleanFilter(render.ALL.R_POINT, o.getPointsLength() == 1);
-						render.setBooleanFilter(render.ALL.R_CYCLE, o.isCycle());
-						if (render.search(RenderingRulesStorage.ORDER_RULES)) {
-							int objectType = render.getIntPropertyValue(render.ALL.R_OBJECT_TYPE);
-							boolean ignorePointArea = render.getIntPropertyValue(render.ALL.R_IGNORE_POLYGON_AS_POINT_AREA) != 0;
-							int order = render.getIntPropertyValue(render.ALL.R_ORDER);
-							MapDataObjectPrimitive mapObj = new MapDataObjectPrimitive();
-							mapObj.objectType = objectType;
-							mapObj.order = order;
-							mapObj.typeInd = j;
-							mapObj.obj = o;
-							mapObj.orderByDenisty = render.getIntPropertyValue(render.ALL.R_ORDER_BY_DENSITY);
-							if(objectType == 3) {
-								MapDataObjectPrimitive pointObj = new MapDataObjectPrimitive();
-								pointObj.order = order;
-								pointObj.typeInd = j;
-								pointObj.obj = o;
-								pointObj.objectType = 1;
-								double area = polygonArea(mapObj, mult);
-								mapObj.area = area;
-								if(area > MAX_V) { 
-									mapObj.order = mapObj.order + (1. / area);
-									if(order < DEFAULT_POLYGON_MAX) {
-										polygonsArray.add(mapObj);	
-									} else {
-										linesArray.add(mapObj);
-									}
-									
-									if(area > MAX_V_AREA || ignorePointArea) {
-										pointsArray.add(pointObj);
-									}
+					if (rule.found) {
+						int objectType = rule.objectType;
+						int order = rule.order;
+						MapDataObjectPrimitive mapObj = new MapDataObjectPrimitive();
+						mapObj.objectType = objectType;
+						mapObj.order = order;
+						mapObj.typeInd = j;
+						mapObj.obj = o;
+						mapObj.orderByDenisty = rule.orderByDensity;
+						if(objectType == 3) {
+							double area = polygonArea(mapObj, mult);
+							mapObj.area = area;
+							if(area > MAX_V) { 
+								mapObj.order = mapObj.order + (1. / area);
+								if(order < DEFAULT_POLYGON_MAX) {
+									polygonsArray.add(mapObj);	
+								} else {
+									linesArray.add(mapObj);
+								}
+								
+								if(area > MAX_V_AREA || rule.ignorePointArea) {
+									MapDataObjectPrimitive pointObj = new MapDataObjectPrimitive();
+									pointObj.order = order;
+									pointObj.typeInd = j;
+									pointObj.obj = o;
+									pointObj.objectType = 1;
+									pointsArray.add(pointObj);
 								}
-							} else if(objectType == 1) {
-								pointsArray.add(mapObj);
-							} else {
-								linesArray.add(mapObj);
-							}
-							if (render.isSpecified(render.ALL.R_SHADOW_LEVEL)) {
-								rc.shadowLevelMin = Math.min(rc.shadowLevelMin, order);
-								rc.shadowLevelMax = Math.max(rc.shadowLevelMax, order);
-								render.clearValue(render.ALL.R_SHADOW_LEVEL);
 							}
+						} else if(objectType == 1) {
+							pointsArray.add(mapObj);
+						} else {
+							linesArray.add(mapObj);
 						}
-
 					}
 				}
 
@@ -506,12 +789,97 @@ public class OsmandRenderer {
 				}
 			}
 		}
-		Collections.sort(polygonsArray, sortByOrder());
-		Collections.sort(pointsArray, sortByOrder());
-		Collections.sort(linesArray, sortByOrder());
+		sortByOrder(polygonsArray);
+		sortByOrder(pointsArray);
+		sortByOrder(linesArray);
 		filterLinesByDensity(rc, linesResArray, linesArray);
 	}
 	
+	private OrderRule searchOrderRule(RenderingContext rc, RenderingRuleSearchRequest render,
+	                                  BinaryMapDataObject o, int wholeType, int layer) {
+		OrderRule rule = new OrderRule();
+		TagValuePair pair = o.getMapIndex().decodeType(wholeType);
+		if (pair != null) {
+			// cached result shouldn't depend on output values of the previous search
+			render.clearState();
+			render.setTagValueZoomLayer(pair.tag, pair.value, rc.zoom, layer, o);
+			render.setBooleanFilter(render.ALL.R_AREA, o.isArea());
+			render.setBooleanFilter(render.ALL.R_POINT, o.getPointsLength() == 1);
+			render.setBooleanFilter(render.ALL.R_CYCLE, o.isCycle());
+			if (render.search(RenderingRulesStorage.ORDER_RULES)) {
+				rule.found = true;
+				rule.objectType = render.getIntPropertyValue(render.ALL.R_OBJECT_TYPE);
+				rule.ignorePointArea = render.getIntPropertyValue(render.ALL.R_IGNORE_POLYGON_AS_POINT_AREA) != 0;
+				rule.order = render.getIntPropertyValue(render.ALL.R_ORDER);
+				rule.orderByDensity = render.getIntPropertyValue(render.ALL.R_ORDER_BY_DENSITY);
+				if (render.isSpecified(render.ALL.R_SHADOW_LEVEL)) {
+					rc.shadowLevelMin = Math.min(rc.shadowLevelMin, rule.order);
+					rc.shadowLevelMax = Math.max(rc.shadowLevelMax, rule.order);
+					render.clearValue(render.ALL.R_SHADOW_LEVEL);
+				}
+			}
+		}
+		return rule;
+	}
+
+	/**
+	 * Stable sort by {@link #sortByOrder()}. Objects are sorted by packed primitive keys first,
+	 * keys don't distinguish all objects (close area fractions, big orders), so objects with
+	 * equal keys are sorted by the comparator afterwards.
+	 */
+	private void sortByOrder(List<MapDataObjectPrimitive> array) {
+		int size = array.size();
+		if (size >= 1 << SORT_INDEX_BITS) {
+			Collections.sort(array, sortByOrder());
+			return;
+		}
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = getSortKey(array.get(i)) | i;
+		}
+		Arrays.sort(keys);
+		MapDataObjectPrimitive[] objects = array.toArray(new MapDataObjectPrimitive[size]);
+		for (int i = 0; i < size; i++) {
+			array.set(i, objects[(int) (keys[i] & ((1 << SORT_INDEX_BITS) - 1))]);
+		}
+		Comparator<MapDataObjectPrimitive> comparator = null;
+		int start = 0;
+		for (int i = 1; i <= size; i++) {
+			if (i == size || keys[i] >>> SORT_INDEX_BITS != keys[start] >>> SORT_INDEX_BITS) {
+				if (i - start > 1) {
+					if (comparator == null) {
+						comparator = sortByOrder();
+					}
+					Collections.sort(array.subList(start, i), comparator);
+				}
+				start = i;
+			}
+		}
+	}
+
+	private static long getSortKey(MapDataObjectPrimitive obj) {
+		double intOrder = Math.floor(obj.order);
+		long order = (long) intOrder + SORT_ORDER_BIAS;
+		double scaledFraction = (obj.order - intOrder) * (1 << SORT_FRACTION_BITS);
+		long fraction = (long) scaledFraction;
+		if (order <= 0 || order >= 2 * SORT_ORDER_BIAS - 1) {
+			// next fields are compared only for equal orders, so they are dropped from keys of clamped orders
+			long clamped = order <= 0 ? 0 : 2 * SORT_ORDER_BIAS - 1;
+			return clamped << (SORT_FRACTION_BITS + 4 + 8 + SORT_INDEX_BITS);
+		}
+		long typeInd = obj.typeInd;
+		long points = Math.min(obj.obj.getPointsLength(), SORT_MAX_POINTS);
+		if (fraction != scaledFraction) {
+			// truncated fraction is less than the order, so it goes after exact fractions with the same key
+			typeInd = SORT_MAX_TYPE_IND;
+			points = SORT_MAX_POINTS;
+		} else if (typeInd > SORT_MAX_TYPE_IND) {
+			typeInd = SORT_MAX_TYPE_IND;
+			points = 0;
+		}
+		return (((((order << SORT_FRACTION_BITS) | fraction) << 4 | typeInd) << 8 | points) << SORT_INDEX_BITS);
+	}
+
 	void filterLinesByDensity(RenderingContext rc, List<MapDataObjectPrimitive>  linesResArray,
 			List<MapDataObjectPrimitive> linesArray) {
 //		int roadsLimit = rc->roadsDensityLimitPerTile;
@@ -576,36 +944,52 @@ public class OsmandRenderer {
 		}
 	}
 
-	private PointF calcPoint(int xt, int yt, RenderingContext rc){
-		rc.pointCount ++;
+	private PointF calcPoint(int xt, int yt, RenderingContext rc, RenderSlice slice){
 		double tx = xt / rc.tileDivisor;
 		double ty = yt / rc.tileDivisor;
 		double dTileX = (tx - rc.leftX);
 		double dTileY = (ty - rc.topY);
 		float x = (float) (rc.cosRotateTileSize * dTileX - rc.sinRotateTileSize * dTileY);
 		float y = (float) (rc.sinRotateTileSize * dTileX + rc.cosRotateTileSize * dTileY);
-		rc.tempPoint.set(x, y);
-		if(rc.tempPoint.x >= 0 && rc.tempPoint.x < rc.width && 
-				rc.tempPoint.y >= 0 && rc.tempPoint.y < rc.height){
-			rc.pointInsideCount++;
+		slice.tempPoint.set(x, y);
+		if (slice.owner) {
+			slice.pointCount++;
+			if (x >= 0 && x < rc.width && y >= 0 && y < rc.height) {
+				slice.pointInsideCount++;
+			}
 		}
-		return rc.tempPoint;
+		return slice.tempPoint;
 	}
 	
-	private PointF calcPoint(BinaryMapDataObject o, int ind, RenderingContext rc){
-		return calcPoint(o.getPoint31XTile(ind), o.getPoint31YTile(ind), rc);
+	private PointF calcPoint(BinaryMapDataObject o, int ind, RenderingContext rc, RenderSlice slice){
+		return calcPoint(o.getPoint31XTile(ind), o.getPoint31YTile(ind), rc, slice);
 	}
 
 
 	public void clearCachedResources(){
-		shaders.clear();
+		synchronized (this) {
+			shaders.clear();
+		}
+		// not under renderer lock: slice threads take it while the render thread holds slice bitmaps.
+		// Called from the UI thread on low memory, so if a render is in progress its bitmaps are kept
+		// till the next cleanup instead of waiting for it
+		if (sliceBitmapsLock.tryLock()) {
+			try {
+				recycleSliceBitmaps();
+			} finally {
+				sliceBitmapsLock.unlock();
+			}
+		}
 	}
 	
-	private void drawPolygon(BinaryMapDataObject obj, RenderingRuleSearchRequest render, Canvas canvas, RenderingContext rc, TagValuePair pair, 
+	private void drawPolygon(BinaryMapDataObject obj, RenderSlice slice, RenderingContext rc, TagValuePair pair,
 			double area) {
+		RenderingRuleSearchRequest render = slice.req;
 		if(render == null || pair == null){
 			return;
 		}
+		Canvas canvas = slice.canvas;
+		Paint paint = slice.paint;
 		float xText = 0;
 		float yText = 0;
 		int zoom = rc.zoom;
@@ -617,7 +1001,9 @@ public class OsmandRenderer {
 		if(!rendered || !updatePaint(render, paint, 0, true, rc)){
 			return;
 		}
-		rc.visible++;
+		if (slice.owner) {
+			slice.visible++;
+		}
 		int len = obj.getPointsLength();
 //		if(len > 150) {
 //			int[] ts = obj.getTypes();
@@ -629,7 +1015,7 @@ public class OsmandRenderer {
 //		}
 		for (int i = 0; i < obj.getPointsLength(); i++) {
 
-			PointF p = calcPoint(obj, i, rc);
+			PointF p = calcPoint(obj, i, rc, slice);
 			xText += p.x;
 			yText += p.y;
 			if (path == null) {
@@ -644,7 +1030,7 @@ public class OsmandRenderer {
 			path.setFillType(FillType.EVEN_ODD);
 			for (int j = 0; j < polygonInnerCoordinates.length; j++) {
 				for (int i = 0; i < polygonInnerCoordinates[j].length; i += 2) {
-					PointF p = calcPoint(polygonInnerCoordinates[j][i], polygonInnerCoordinates[j][i + 1], rc);
+					PointF p = calcPoint(polygonInnerCoordinates[j][i], polygonInnerCoordinates[j][i + 1], rc, slice);
 					if (i == 0) {
 						path.moveTo(p.x, p.y);
 					} else {
@@ -660,8 +1046,8 @@ public class OsmandRenderer {
 				canvas.drawPath(path, paint);
 			}
 			boolean ignorePointArea = render.getIntPropertyValue(render.ALL.R_IGNORE_POLYGON_AS_POINT_AREA) != 0;
-			if(area > MAX_V_AREA || ignorePointArea) {
-				textRenderer.renderText(obj, render, rc, pair, xText / len, yText / len, null, null);
+			if (slice.collectText && (area > MAX_V_AREA || ignorePointArea)) {
+				slice.text = new PendingText(obj, pair, xText / len, yText / len, null, null);
 			}
 		}
 	}
@@ -739,27 +1125,31 @@ public class OsmandRenderer {
 			}
 			String pathEffect = req.getStringPropertyValue(rPathEff);
 			if (!Algorithms.isEmpty(pathEffect)) {
-				if(!parsedDashEffects.containsKey(pathEffect)) {
-					String[] vls = pathEffect.split("_");
-					float[] vs = new float[vls.length * 2];
-					for(int i = 0; i < vls.length; i++) {
-						int s = vls[i].indexOf(':');
-						String pre = vls[i];
-						String post = "";
-						if(s != -1) {
-							pre = vls[i].substring(0, i);
-							post = vls[i].substring(i + 1);
-						}
-						if(pre.length() > 0) {
-							vs[i*2 ] = Float.parseFloat(pre);
-						}
-						if(post.length() > 0) {
-							vs[i*2 +1] = Float.parseFloat(post);
+				float[] cachedValues;
+				// slices of the map are drawn in parallel
+				synchronized (parsedDashEffects) {
+					if(!parsedDashEffects.containsKey(pathEffect)) {
+						String[] vls = pathEffect.split("_");
+						float[] vs = new float[vls.length * 2];
+						for(int i = 0; i < vls.length; i++) {
+							int s = vls[i].indexOf(':');
+							String pre = vls[i];
+							String post = "";
+							if(s != -1) {
+								pre = vls[i].substring(0, i);
+								post = vls[i].substring(i + 1);
+							}
+							if(pre.length() > 0) {
+								vs[i*2 ] = Float.parseFloat(pre);
+							}
+							if(post.length() > 0) {
+								vs[i*2 +1] = Float.parseFloat(post);
+							}
 						}
+						parsedDashEffects.put(pathEffect, vs);
 					}
-					parsedDashEffects.put(pathEffect, vs);
+					cachedValues = parsedDashEffects.get(pathEffect);
 				}
-				float[] cachedValues = parsedDashEffects.get(pathEffect);
 				
 				p.setPathEffect(getDashEffect(rc, cachedValues, 0));
 			} else {
@@ -794,7 +1184,8 @@ public class OsmandRenderer {
 	}
 	
 
-	private void drawPoint(BinaryMapDataObject obj, RenderingRuleSearchRequest render, Canvas canvas, RenderingContext rc, TagValuePair pair, boolean renderText) {
+	private void drawPoint(BinaryMapDataObject obj, RenderSlice slice, RenderingContext rc, TagValuePair pair, boolean renderText) {
+		RenderingRuleSearchRequest render = slice.req;
 		if(render == null || pair == null){
 			return;
 		}
@@ -807,10 +1198,10 @@ public class OsmandRenderer {
 			return;
 		}
 		int len = obj.getPointsLength();
-		rc.visible++;
+		slice.visible++;
 		PointF ps = new PointF(0, 0);
 		for (int i = 0; i < len; i++) {
-			PointF p = calcPoint(obj, i, rc);
+			PointF p = calcPoint(obj, i, rc, slice);
 			ps.x += p.x;
 			ps.y += p.y;
 		}
@@ -840,7 +1231,9 @@ public class OsmandRenderer {
 
 	}
 
-	private void drawPolylineShadow(Canvas canvas, RenderingContext rc, Path path, int shadowColor, int shadowRadius) {
+	private void drawPolylineShadow(RenderSlice slice, RenderingContext rc, Path path, int shadowColor, int shadowRadius) {
+		Canvas canvas = slice.canvas;
+		Paint paint = slice.paint;
 		// blurred shadows
 		if (rc.shadowRenderingMode == ShadowRenderingMode.BLUR_SHADOW.value && shadowRadius > 0) {
 			// simply draw shadow? difference from option 3 ?
@@ -863,11 +1256,14 @@ public class OsmandRenderer {
 	}
 
 	
-	private void drawPolyline(BinaryMapDataObject obj, RenderingRuleSearchRequest render, Canvas canvas, RenderingContext rc, TagValuePair pair, int layer,
+	private void drawPolyline(BinaryMapDataObject obj, RenderSlice slice, RenderingContext rc, TagValuePair pair, int layer,
 			boolean drawOnlyShadow) {
+		RenderingRuleSearchRequest render = slice.req;
 		if(render == null || pair == null){
 			return;
 		}
+		Canvas canvas = slice.canvas;
+		Paint paint = slice.paint;
 		int length = obj.getPointsLength();
 		if(length < 2){
 			return;
@@ -887,21 +1283,23 @@ public class OsmandRenderer {
 			}
 		}
 
-		rc.visible++;
+		if (slice.owner) {
+			slice.visible++;
+		}
 
 		Path path = null;
 		float xMid = 0;
 		float yMid = 0;
 		int middle = obj.getPointsLength() / 2;
 		PointF[] textPoints = null;
-		if (!drawOnlyShadow) {
+		if (!drawOnlyShadow && slice.collectText) {
 			textPoints = new PointF[length];
 		}
 
 		boolean intersect = false;
 		PointF prev = null;
 		for (int i = 0; i < length ; i++) {
-			PointF p = calcPoint(obj, i, rc);
+			PointF p = calcPoint(obj, i, rc, slice);
 			if(textPoints != null) {
 				textPoints[i] = new PointF(p.x, p.y);
 			}
@@ -946,7 +1344,7 @@ public class OsmandRenderer {
 				if(shadowColor == 0) {
 					shadowColor = rc.shadowRenderingColor;
 				}
-				drawPolylineShadow(canvas, rc, path, shadowColor, shadowRadius);
+				drawPolylineShadow(slice, rc, path, shadowColor, shadowRadius);
 			} else {
 				boolean update = false;
 				if (updatePaint(render, paint, -3, false, rc)) {
@@ -980,13 +1378,13 @@ public class OsmandRenderer {
 			}
 			
 			if(oneway != 0 && !drawOnlyShadow){
-				Paint[] paints = oneway == -1? getReverseOneWayPaints(rc) :  getOneWayPaints(rc);
+				Paint[] paints = oneway == -1? getReverseOneWayPaints(rc, slice) :  getOneWayPaints(rc, slice);
 				for (int i = 0; i < paints.length; i++) {
 					canvas.drawPath(path, paints[i]);
 				}
 			}
 			if (textPoints != null) {
-				textRenderer.renderText(obj, render, rc, pair, xMid, yMid, path, textPoints);
+				slice.text = new PendingText(obj, pair, xMid, yMid, path, textPoints);
 			}
 		}
 	}
@@ -1000,8 +1398,8 @@ public class OsmandRenderer {
 		return oneWay; 
 	}
 	
-	public Paint[] getReverseOneWayPaints(RenderingContext rc){
-		if(rc.reverseOneWay == null){
+	private Paint[] getReverseOneWayPaints(RenderingContext rc, RenderSlice slice){
+		if(slice.reverseOneWay == null){
 			int rmin = (int)rc.getDensityValue(1);
 			if(rmin > 2) {
 				rmin = rmin / 2;
@@ -1010,29 +1408,29 @@ public class OsmandRenderer {
 			PathEffect arrowDashEffect2 = new DashPathEffect(new float[] { 0, 12 + rmin, 9 * rmin, 152 }, 1);
 			PathEffect arrowDashEffect3 = new DashPathEffect(new float[] { 0, 12 + 2 * rmin, 2 * rmin, 152 + 6 * rmin }, 1);
 			PathEffect arrowDashEffect4 = new DashPathEffect(new float[] { 0, 12 + 3 * rmin, 1 * rmin, 152 + 6 * rmin }, 1);
-			rc.reverseOneWay = new Paint[4];
-			rc.reverseOneWay[0] = oneWayPaint();
-			rc.reverseOneWay[0].setStrokeWidth(rmin * 2);
-			rc.reverseOneWay[0].setPathEffect(arrowDashEffect1);
+			slice.reverseOneWay = new Paint[4];
+			slice.reverseOneWay[0] = oneWayPaint();
+			slice.reverseOneWay[0].setStrokeWidth(rmin * 2);
+			slice.reverseOneWay[0].setPathEffect(arrowDashEffect1);
 			
-			rc.reverseOneWay[1] = oneWayPaint();
-			rc.reverseOneWay[1].setStrokeWidth(rmin);
-			rc.reverseOneWay[1].setPathEffect(arrowDashEffect2);
+			slice.reverseOneWay[1] = oneWayPaint();
+			slice.reverseOneWay[1].setStrokeWidth(rmin);
+			slice.reverseOneWay[1].setPathEffect(arrowDashEffect2);
 
-			rc.reverseOneWay[2] = oneWayPaint();
-			rc.reverseOneWay[2].setStrokeWidth(rmin * 3);
-			rc.reverseOneWay[2].setPathEffect(arrowDashEffect3);
+			slice.reverseOneWay[2] = oneWayPaint();
+			slice.reverseOneWay[2].setStrokeWidth(rmin * 3);
+			slice.reverseOneWay[2].setPathEffect(arrowDashEffect3);
 			
-			rc.reverseOneWay[3] = oneWayPaint();			
-			rc.reverseOneWay[3].setStrokeWidth(rmin * 4);
-			rc.reverseOneWay[3].setPathEffect(arrowDashEffect4);
+			slice.reverseOneWay[3] = oneWayPaint();			
+			slice.reverseOneWay[3].setStrokeWidth(rmin * 4);
+			slice.reverseOneWay[3].setPathEffect(arrowDashEffect4);
 			
 		}
-		return rc.reverseOneWay;
+		return slice.reverseOneWay;
 	}
 	
-	public Paint[] getOneWayPaints(RenderingContext rc){
-		if(rc.oneWay == null){
+	private Paint[] getOneWayPaints(RenderingContext rc, RenderSlice slice){
+		if(slice.oneWay == null){
 			float rmin = rc.getDensityValue(1);
 			if(rmin > 1) {
 				rmin = rmin * 2 / 3;
@@ -1041,24 +1439,24 @@ public class OsmandRenderer {
 			PathEffect arrowDashEffect2 = new DashPathEffect(new float[] { 0, 12, 9 * rmin, 152 + rmin }, 1);
 			PathEffect arrowDashEffect3 = new DashPathEffect(new float[] { 0, 12 + 6 * rmin, 2 * rmin, 152 + 2 * rmin}, 1);
 			PathEffect arrowDashEffect4 = new DashPathEffect(new float[] { 0, 12 + 6 * rmin, 1 * rmin, 152 + 3 * rmin}, 1);
-			rc.oneWay = new Paint[4];
-			rc.oneWay[0] = oneWayPaint();
-			rc.oneWay[0].setStrokeWidth(rmin);
-			rc.oneWay[0].setPathEffect(arrowDashEffect1);
+			slice.oneWay = new Paint[4];
+			slice.oneWay[0] = oneWayPaint();
+			slice.oneWay[0].setStrokeWidth(rmin);
+			slice.oneWay[0].setPathEffect(arrowDashEffect1);
 			
-			rc.oneWay[1] = oneWayPaint();
-			rc.oneWay[1].setStrokeWidth(rmin * 2);
-			rc.oneWay[1].setPathEffect(arrowDashEffect2);
+			slice.oneWay[1] = oneWayPaint();
+			slice.oneWay[1].setStrokeWidth(rmin * 2);
+			slice.oneWay[1].setPathEffect(arrowDashEffect2);
 
-			rc.oneWay[2] = oneWayPaint();
-			rc.oneWay[2].setStrokeWidth(rmin * 3);
-			rc.oneWay[2].setPathEffect(arrowDashEffect3);
+			slice.oneWay[2] = oneWayPaint();
+			slice.oneWay[2].setStrokeWidth(rmin * 3);
+			slice.oneWay[2].setPathEffect(arrowDashEffect3);
 			
-			rc.oneWay[3] = oneWayPaint();			
-			rc.oneWay[3].setStrokeWidth(rmin * 4);
-			rc.oneWay[3].setPathEffect(arrowDashEffect4);
+			slice.oneWay[3] = oneWayPaint();			
+			slice.oneWay[3].setStrokeWidth(rmin * 4);
+			slice.oneWay[3].setPathEffect(arrowDashEffect4);
 			
 		}
-		return rc.oneWay;
+		return slice.oneWay;
 	}
 }
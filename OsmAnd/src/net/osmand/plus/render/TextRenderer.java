@@ -18,8 +18,8 @@ import androidx.annotation.NonNull;
 
 import net.osmand.binary.BinaryMapDataObject;
 import net.osmand.binary.BinaryMapIndexReader.TagValuePair;
+import net.osmand.data.LabelGrid;
 import net.osmand.data.QuadRect;
-import net.osmand.data.QuadTree;
 import net.osmand.plus.render.OsmandRenderer.RenderingContext;
 import net.osmand.render.RenderingRuleSearchRequest;
 import net.osmand.render.RenderingRulesStorage;
@@ -31,6 +31,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
+import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.procedure.TIntObjectProcedure;
 
@@ -38,11 +39,18 @@ public class TextRenderer {
 
 	public static final String DROID_SERIF = "Droid Serif";
 
+	private static final float TEXT_GRID_CELL_SIZE = 64;
+
 	private final Context context;
 
 	private final Paint paintText = new Paint();
 	private final Paint paintIcon = new Paint();
 
+	// placed text in order of placement (indexes of the grid)
+	private final LabelGrid placedText = new LabelGrid(TEXT_GRID_CELL_SIZE);
+	private final List<TextDrawInfo> placedTextInfo = new ArrayList<>();
+	private final TIntArrayList tempSearch = new TIntArrayList();
+
 	private final Typeface defaultTypeface;
 	private final Typeface boldItalicTypeface;
 	private final Typeface italicTypeface;
@@ -69,48 +77,10 @@ public class TextRenderer {
 		return paintText;
 	}
 
-	private double sqr(double a) {
-		return a * a;
-	}
-
 	private float fsqr(float a) {
 		return a * a;
 	}
 
-	boolean intersects(QuadRect tRect, float tRot, QuadRect sRect, float sRot) {
-		if (Math.abs(tRot) < Math.PI / 15 && Math.abs(sRot) < Math.PI / 15) {
-			return QuadRect.intersects(tRect, sRect);
-		}
-		double dist = Math.sqrt(sqr(tRect.centerX() - sRect.centerX()) + sqr(tRect.centerY() - sRect.centerY()));
-		if (dist < 3) {
-			return true;
-		}
-
-		// difference close to 90/270 degrees
-		if (Math.abs(Math.cos(tRot - sRot)) < 0.3) {
-			// rotate one rectangle to 90 degrees
-			tRot += Math.PI / 2;
-			double l = tRect.centerX() - tRect.height() / 2;
-			double t = tRect.centerY() - tRect.width() / 2;
-			tRect = new QuadRect(l, t, l + tRect.height(), t + tRect.width());
-		}
-
-		// determine difference close to 180/0 degrees
-		if (Math.abs(Math.sin(tRot - sRot)) < 0.3) {
-			// rotate t box
-			// (calculate offset for t center suppose we rotate around s center)
-			float diff = (float) (-Math.atan2(tRect.centerX() - sRect.centerX(), tRect.centerY() - sRect.centerY()) + Math.PI / 2);
-			diff -= sRot;
-			double left = sRect.centerX() + dist * Math.cos(diff) - tRect.width() / 2;
-			double top = sRect.centerY() - dist * Math.sin(diff) - tRect.height() / 2;
-			QuadRect nRect = new QuadRect(left, top, left + tRect.width(), top + tRect.height());
-			return QuadRect.intersects(nRect, sRect);
-		}
-
-		// TODO other cases not covered
-		return QuadRect.intersects(tRect, sRect);
-	}
-
 	void drawTestBox(Canvas cv, RectF r, float rot, String text) {
 		cv.save();
 		cv.translate(r.centerX(), r.centerY());
@@ -125,32 +95,34 @@ public class TextRenderer {
 		cv.restore();
 	}
 
-	List<TextDrawInfo> tempSearch = new ArrayList<TextDrawInfo>();
-
-	private boolean findTextIntersection(Canvas cv, RenderingContext rc, QuadTree<TextDrawInfo> boundIntersections, TextDrawInfo text) {
+	private boolean findTextIntersection(Canvas cv, RenderingContext rc, TextDrawInfo text) {
 		// for test purposes
 //		drawTestBox(cv, text.bounds, text.pathRotate, text.text);
-		boundIntersections.queryInBox(text.bounds, tempSearch);
+		float left = (float) text.bounds.left;
+		float top = (float) text.bounds.top;
+		float right = (float) text.bounds.right;
+		float bottom = (float) text.bounds.bottom;
+		placedText.query(left, top, right, bottom, text.pathRotate, tempSearch);
 		for (int i = 0; i < tempSearch.size(); i++) {
-			TextDrawInfo t = tempSearch.get(i);
-			if (intersects(text.bounds, text.pathRotate, t.bounds, t.pathRotate)) {
+			if (placedText.intersects(tempSearch.getQuick(i), left, top, right, bottom, text.pathRotate)) {
 				return true;
 			}
 		}
 		if (text.minDistance > 0) {
-			QuadRect boundsSearch = new QuadRect(text.bounds);
-			boundsSearch.inset(-Math.max(rc.getDensityValue(5.0f), text.minDistance), -rc.getDensityValue(15));
-			boundIntersections.queryInBox(boundsSearch, tempSearch);
-			// drawTestBox(cv, &boundsSearch, text.pathRotate, paintIcon, text.text, NULL/*paintText*/);
+			float dx = Math.max(rc.getDensityValue(5.0f), text.minDistance);
+			float dy = rc.getDensityValue(15);
+			placedText.query(left - dx, top - dy, right + dx, bottom + dy, text.pathRotate, tempSearch);
 			for (int i = 0; i < tempSearch.size(); i++) {
-				TextDrawInfo t = tempSearch.get(i);
+				int ind = tempSearch.getQuick(i);
+				TextDrawInfo t = placedTextInfo.get(ind);
 				if (t.minDistance > 0 && t.text.equals(text.text) &&
-						intersects(boundsSearch, text.pathRotate, t.bounds, t.pathRotate)) {
+						placedText.intersects(ind, left - dx, top - dy, right + dx, bottom + dy, text.pathRotate)) {
 					return true;
 				}
 			}
 		}
-		boundIntersections.insert(text, text.bounds);
+		placedText.insert(left, top, right, bottom, text.pathRotate);
+		placedTextInfo.add(text);
 		return false;
 	}
 
@@ -180,9 +152,8 @@ public class TextRenderer {
 				return object1.textOrder - object2.textOrder;
 			}
 		});
-		QuadRect r = new QuadRect(0, 0, rc.width, rc.height);
-		r.inset(-100, -100);
-		QuadTree<TextDrawInfo> nonIntersectedBounds = new QuadTree<TextDrawInfo>(r, 4, 0.6f);
+		placedText.reset(-100, -100, rc.width + 100, rc.height + 100);
+		placedTextInfo.clear();
 
 		for (int i = 0; i < size; i++) {
 			TextDrawInfo text = rc.textToDraw.get(i);
@@ -195,7 +166,7 @@ public class TextRenderer {
 				text.centerY += (-paintText.ascent());
 
 				// calculate if there is intersection
-				boolean intersects = findTextIntersection(cv, rc, nonIntersectedBounds, text);
+				boolean intersects = findTextIntersection(cv, rc, text);
 				if (!intersects) {
 					if (text.drawOnPath != null) {
 						if (text.textShadow > 0) {
@@ -219,6 +190,7 @@ public class TextRenderer {
 				}
 			}
 		}
+		placedTextInfo.clear();
 	}
 
 	public void updateTextPaint(TextDrawInfo text, RenderingContext rc) {
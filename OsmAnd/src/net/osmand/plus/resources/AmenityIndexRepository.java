@@ -6,6 +6,7 @@ import net.osmand.Location;
 import net.osmand.ResultMatcher;
 import net.osmand.binary.BinaryMapIndexReader.SearchPoiTypeFilter;
 import net.osmand.data.Amenity;
+import net.osmand.data.RouteCorridorIndex;
 
 public interface AmenityIndexRepository {
 
@@ -21,8 +22,8 @@ public interface AmenityIndexRepository {
 	List<Amenity> searchAmenities(int stop, int sleft, int sbottom, int sright, int zoom, SearchPoiTypeFilter filter,
 			 ResultMatcher<Amenity> matcher);
 
-	List<Amenity> searchAmenitiesOnThePath(List<Location> locations, double radius, SearchPoiTypeFilter filter, 
-			ResultMatcher<Amenity> matcher);
+	List<Amenity> searchAmenitiesOnThePath(List<Location> locations, RouteCorridorIndex corridorIndex, double radius,
+			SearchPoiTypeFilter filter, ResultMatcher<Amenity> matcher);
 
 	
 }
@@ -14,6 +14,7 @@ import net.osmand.binary.BinaryMapIndexReader.SearchRequest;
 import net.osmand.binary.BinaryMapPoiReaderAdapter;
 import net.osmand.binary.BinaryMapPoiReaderAdapter.PoiSubType;
 import net.osmand.data.Amenity;
+import net.osmand.data.RouteCorridorIndex;
 import net.osmand.osm.MapPoiTypes;
 import net.osmand.osm.PoiCategory;
 import net.osmand.plus.OsmandApplication;
@@ -197,10 +198,11 @@ public class AmenityIndexRepositoryBinary implements AmenityIndexRepository {
 	}
 
 	@Override
-	public synchronized List<Amenity> searchAmenitiesOnThePath(List<Location> locations, double radius, SearchPoiTypeFilter filter, ResultMatcher<Amenity> matcher) {
+	public synchronized List<Amenity> searchAmenitiesOnThePath(List<Location> locations, RouteCorridorIndex corridorIndex,
+	                                                           double radius, SearchPoiTypeFilter filter, ResultMatcher<Amenity> matcher) {
 		long now = System.currentTimeMillis();
 		List<Amenity> result = null;
-		SearchRequest<Amenity> req = BinaryMapIndexReader.buildSearchPoiRequest(locations, radius,
+		SearchRequest<Amenity> req = BinaryMapIndexReader.buildSearchPoiRequest(locations, corridorIndex, radius,
 				filter, matcher);
 		try {
 			BinaryMapIndexReader reader = getOpenFile();
@@ -19,6 +19,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Thread to load map objects (POI, transport stops) async
@@ -26,15 +33,29 @@ import java.util.Stack;
 public class AsyncLoadingThread extends Thread {
 
 	private static final int CACHE_LAYER_SIZE_EXPIRE_TIME_MS = 30 * 1000;
+	private static final int TILE_LOADER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
 
 	private static final Log log = PlatformUtil.getLog(AsyncLoadingThread.class);
 
 	private final Stack<Object> requests = new Stack<>();
 	private final ResourceManager resourceManger;
 
+	// tiles are read and decoded in parallel, tiles of the latest map frame first
+	private final ThreadPoolExecutor tilesExecutor;
+	private final ConcurrentMap<String, TileLoadTask> pendingTiles = new ConcurrentHashMap<>();
+	private final AtomicLong tasksCounter = new AtomicLong();
+	private final AtomicBoolean tilesLoaded = new AtomicBoolean();
+
 	public AsyncLoadingThread(ResourceManager resourceManger) {
 		super("Loader map objects (synchronizer)");
 		this.resourceManger = resourceManger;
+		tilesExecutor = new ThreadPoolExecutor(TILE_LOADER_THREADS, TILE_LOADER_THREADS, 30, TimeUnit.SECONDS,
+				new PriorityBlockingQueue<>(), r -> {
+			Thread thread = new Thread(r, "Loader map tiles");
+			thread.setDaemon(true);
+			return thread;
+		});
+		tilesExecutor.allowCoreThreadTimeOut(true);
 	}
 
 	@Override
@@ -43,15 +64,11 @@ public class AsyncLoadingThread extends Thread {
 			try {
 				updateBitmapTilesCache();
 				int cacheCounter = 0;
-				boolean tileLoaded = false;
 				boolean mapLoaded = false;
 				while (!requests.isEmpty()) {
 					cacheCounter++;
 					Object req = requests.pop();
-					if (req instanceof TileLoadDownloadRequest) {
-						TileLoadDownloadRequest request = (TileLoadDownloadRequest) req;
-						tileLoaded |= resourceManger.hasRequestedTile(request);
-					} else if (req instanceof MapLoadRequest) {
+					if (req instanceof MapLoadRequest) {
 						MapLoadRequest request = (MapLoadRequest) req;
 						if (!mapLoaded || request.forceLoadMap) {
 							resourceManger.getRenderer().loadMap(request.tileBox, resourceManger.getMapTileDownloader());
@@ -67,7 +84,7 @@ public class AsyncLoadingThread extends Thread {
 						updateBitmapTilesCache();
 					}
 				}
-				if (tileLoaded || mapLoaded) {
+				if (mapLoaded) {
 					// use downloader callback
 					resourceManger.getMapTileDownloader().fireLoadCallback(null);
 				}
@@ -79,7 +96,13 @@ public class AsyncLoadingThread extends Thread {
 	}
 
 	public void requestToLoadTile(TileLoadDownloadRequest req) {
-		requests.push(req);
+		if (req.tileId == null) {
+			return;
+		}
+		TileLoadTask task = new TileLoadTask(req, tasksCounter.incrementAndGet());
+		// previous request of the same tile (if still queued) is superseded and skipped
+		pendingTiles.put(req.tileId, task);
+		tilesExecutor.execute(task);
 	}
 
 	public void requestToLoadMap(MapLoadRequest req) {
@@ -121,6 +144,39 @@ public class AsyncLoadingThread extends Thread {
 		}
 	}
 
+	private class TileLoadTask implements Runnable, Comparable<TileLoadTask> {
+
+		private final TileLoadDownloadRequest request;
+		private final long order;
+
+		TileLoadTask(@NonNull TileLoadDownloadRequest request, long order) {
+			this.request = request;
+			this.order = order;
+		}
+
+		@Override
+		public void run() {
+			try {
+				if (pendingTiles.remove(request.tileId, this) && resourceManger.hasRequestedTile(request)) {
+					tilesLoaded.set(true);
+				}
+			} catch (RuntimeException e) {
+				log.error(e, e);
+			} finally {
+				// coalesce repaint requests: one callback when the queue is drained
+				if (tilesExecutor.getQueue().isEmpty() && tilesLoaded.getAndSet(false)) {
+					resourceManger.getMapTileDownloader().fireLoadCallback(null);
+				}
+			}
+		}
+
+		@Override
+		public int compareTo(TileLoadTask another) {
+			int cmp = Long.compare(another.request.timestamp, request.timestamp);
+			return cmp != 0 ? cmp : Long.compare(another.order, order);
+		}
+	}
+
 	public static class TileLoadDownloadRequest extends DownloadRequest {
 
 		public final File dirWithTiles;
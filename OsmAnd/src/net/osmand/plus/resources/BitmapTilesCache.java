@@ -18,14 +18,46 @@ import java.util.Map;
 
 public class BitmapTilesCache extends TilesCache<Bitmap> {
 
+	// 256x256 ARGB_8888 tile
+	private static final long DEFAULT_TILE_BYTES = 256 * 256 * 4;
+
 	private final Map<String, Map<Integer, Long>> mapsTilesSizes = new HashMap<>();
+	// largest loaded tile, the default one until the first tile is loaded
+	private volatile long tileBytes = DEFAULT_TILE_BYTES;
+	private boolean tileBytesLoaded;
 
 	public BitmapTilesCache(AsyncLoadingThread asyncLoadingThread) {
 		super(asyncLoadingThread);
 		// it is not good investigated but no more than 64 (satellite images)
 		// Only 8 MB (from 16 Mb whole mem) available for images : image 64K * 128 = 8 MB (8 bit), 64 - 16 bit, 32 - 32 bit
 		// at least 3*9?
-		maxCacheSize = 28;
+		setMaxCacheSize(28);
+	}
+
+	@Override
+	public void setMaxCacheSize(int maxCacheSize) {
+		super.setMaxCacheSize(maxCacheSize);
+		updateMaxCacheBytes();
+	}
+
+	private void updateMaxCacheBytes() {
+		// count limit is adjusted to the tiles visible by layers, so bytes limit is the same count of the largest
+		// loaded tiles (retina 512px tiles take 4 times more) and tiles of the current view are not evicted.
+		// Bitmap pixels are not in java heap since Android 8, so the limit is not derived from maxMemory()
+		setMaxCacheBytes((long) maxCacheSize * tileBytes);
+	}
+
+	@Override
+	protected int getTileByteSize(@NonNull Bitmap tile) {
+		int bytes = tile.getByteCount();
+		synchronized (this) {
+			if (!tileBytesLoaded || bytes > tileBytes) {
+				tileBytesLoaded = true;
+				tileBytes = bytes;
+				updateMaxCacheBytes();
+			}
+		}
+		return bytes;
 	}
 
 	public synchronized long getTileSize(@NonNull ITileSource tileSource, int zoom) {
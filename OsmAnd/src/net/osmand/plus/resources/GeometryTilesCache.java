@@ -39,7 +39,7 @@ public class GeometryTilesCache extends TilesCache<GeometryTile> {
 	@Override
 	public void setMaxCacheSize(int maxCacheSize) {
 		super.setMaxCacheSize(maxCacheSize);
-		cache.clear();
+		clearAllTiles();
 	}
 
 	@Override
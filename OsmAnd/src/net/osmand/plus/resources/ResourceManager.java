@@ -28,6 +28,7 @@ import net.osmand.binary.BinaryMapPoiReaderAdapter.PoiSubType;
 import net.osmand.binary.CachedOsmandIndexes;
 import net.osmand.data.Amenity;
 import net.osmand.data.RotatedTileBox;
+import net.osmand.data.RouteCorridorIndex;
 import net.osmand.data.TransportRoute;
 import net.osmand.data.TransportStop;
 import net.osmand.map.ITileSource;
@@ -427,7 +428,7 @@ public class ResourceManager {
 		return null;
 	}
 
-	public synchronized void tileDownloaded(DownloadRequest request) {
+	public void tileDownloaded(DownloadRequest request) {
 		if (request instanceof TileLoadDownloadRequest) {
 			TileLoadDownloadRequest req = ((TileLoadDownloadRequest) request);
 			TilesCache<?> cache = getTilesCache(req.tileSource);
@@ -437,19 +438,19 @@ public class ResourceManager {
 		}
 	}
 
-	public synchronized boolean isTileDownloaded(String file, ITileSource map, int x, int y, int zoom) {
+	public boolean isTileDownloaded(String file, ITileSource map, int x, int y, int zoom) {
 		TilesCache<?> cache = getTilesCache(map);
 		return cache != null && cache.isTileDownloaded(file, map, x, y, zoom);
 	}
 
-	public synchronized boolean isTileSavedOnFileSystem(@NonNull String tileId, @Nullable ITileSource map,
-	                                                    int x, int y, int zoom) {
+	public boolean isTileSavedOnFileSystem(@NonNull String tileId, @Nullable ITileSource map,
+	                                       int x, int y, int zoom) {
 		TilesCache<?> cache = getTilesCache(map);
 		return cache != null && cache.isTileSavedOnFileSystem(tileId, map, x, y, zoom);
 	}
 
-	public synchronized int getTileBytesSizeOnFileSystem(@NonNull String tileId, @NonNull ITileSource map,
-	                                                     int x, int y, int zoom) {
+	public int getTileBytesSizeOnFileSystem(@NonNull String tileId, @NonNull ITileSource map,
+	                                        int x, int y, int zoom) {
 		TilesCache<?> cache = getTilesCache(map);
 		return cache != null
 				? cache.getTileBytesSizeOnFileSystem(tileId, map, x, y, zoom)
@@ -467,7 +468,7 @@ public class ResourceManager {
 	private boolean searchAmenitiesInProgress;
 
 	@Nullable
-	public synchronized String calculateTileId(ITileSource map, int x, int y, int zoom) {
+	public String calculateTileId(ITileSource map, int x, int y, int zoom) {
 		TilesCache<?> cache = getTilesCache(map);
 		if (cache != null) {
 			return cache.calculateTileId(map, x, y, zoom);
@@ -1212,7 +1213,8 @@ public class ResourceManager {
 		return new ArrayList<>(poiSubTypes);
 	}
 
-	public List<Amenity> searchAmenitiesOnThePath(List<Location> locations, double radius, SearchPoiTypeFilter filter,
+	public List<Amenity> searchAmenitiesOnThePath(List<Location> locations, @NonNull RouteCorridorIndex corridorIndex,
+	                                              double radius, SearchPoiTypeFilter filter,
 	                                              ResultMatcher<Amenity> matcher) {
 		searchAmenitiesInProgress = true;
 		List<Amenity> amenities = new ArrayList<>();
@@ -1241,7 +1243,7 @@ public class ResourceManager {
 					}
 					if (!repos.isEmpty()) {
 						for (AmenityIndexRepository r : repos) {
-							List<Amenity> res = r.searchAmenitiesOnThePath(locations, radius, filter, matcher);
+							List<Amenity> res = r.searchAmenitiesOnThePath(locations, corridorIndex, radius, filter, matcher);
 							if (res != null) {
 								amenities.addAll(res);
 							}
@@ -1555,6 +1557,7 @@ public class ResourceManager {
 			r.clearCache();
 		}
 		renderer.clearCache();
+		renderer.getRenderer().clearCachedResources();
 
 		System.gc();
 	}
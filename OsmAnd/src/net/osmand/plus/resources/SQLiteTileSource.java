@@ -29,9 +29,14 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
 
 public class SQLiteTileSource implements ITileSource {
 
@@ -54,6 +59,9 @@ public class SQLiteTileSource implements ITileSource {
 	private static final String TILESIZE = "tilesize";
 	private static final String TITLE = "title";
 
+	private static final int READ_AHEAD_RING = 1;
+	private static final int MAX_READ_AHEAD_TILES = 150;
+
 	private final OsmandApplication app;
 
 	private ITileSource base;
@@ -79,6 +87,19 @@ public class SQLiteTileSource implements ITileSource {
 	private boolean tileSizeSpecified;
 	private boolean onlyReadonlyAvailable;
 
+	// viewport tiles (with a ring of neighbours) are read with one query instead of a query per tile
+	private volatile TilesWindow readAheadWindow;
+	private final Object keysLock = new Object();
+	private TilesWindow keysWindow;
+	private final Map<Long, Long> existingTiles = new HashMap<>();
+	private final Object imagesLock = new Object();
+	private TilesWindow imagesWindow;
+	// window which images are being read (without holding imagesLock), changes of tiles discard the read images
+	private TilesWindow loadingImagesWindow;
+	private int imagesVersion;
+	private final TLongObjectHashMap<byte[]> readAheadImages = new TLongObjectHashMap<>();
+	private final Map<Long, Long> readAheadTimes = new HashMap<>();
+
 	public SQLiteTileSource(@NonNull OsmandApplication app, @Nullable File file, @NonNull List<TileSourceTemplate> toFindUrl) {
 		this.app = app;
 		this.file = file;
@@ -464,6 +485,11 @@ public class SQLiteTileSource implements ITileSource {
 		if (db == null) {
 			return false;
 		}
+		synchronized (keysLock) {
+			if (isReadAheadKeysLoaded(x, y, zoom)) {
+				return existingTiles.containsKey(getTileKey(x, y, zoom));
+			}
+		}
 		try {
 			int z = getFileZoom(zoom);
 			SQLiteCursor cursor = db.rawQuery(
@@ -488,6 +514,12 @@ public class SQLiteTileSource implements ITileSource {
 		long time = System.currentTimeMillis();
 		SQLiteConnection db = getDatabase();
 		if (db != null && zoom <= maxZoom && timeSupported) {
+			synchronized (keysLock) {
+				if (isReadAheadKeysLoaded(x, y, zoom)) {
+					long key = getTileKey(x, y, zoom);
+					return existingTiles.containsKey(key) ? existingTiles.get(key) : time;
+				}
+			}
 			String[] params = getTileDbParams(x, y, zoom);
 			SQLiteCursor cursor = db.rawQuery("SELECT time FROM tiles WHERE x = ? AND y = ? AND z = ?", params);
 			if (cursor.moveToFirst()) {
@@ -504,13 +536,16 @@ public class SQLiteTileSource implements ITileSource {
 		if (db == null) {
 			return null;
 		}
-		byte[] blob = null;
+		boolean queryTime = timeHolder != null && timeHolder.length > 0 && timeSupported;
+		byte[] blob = getReadAheadBytes(x, y, zoom, queryTime ? timeHolder : null);
+		if (blob != null) {
+			return blob;
+		}
 		long ts = System.currentTimeMillis();
 		try {
 			if (zoom <= maxZoom) {
 				// return the normal tile if exists
 				String[] params = getTileDbParams(x, y, zoom);
-				boolean queryTime = timeHolder != null && timeHolder.length > 0 && timeSupported;
 				SQLiteCursor cursor = db.rawQuery("SELECT image " + (queryTime ? ", time" : "")
 						+ " FROM tiles WHERE x = ? AND y = ? AND z = ?", params);
 				if (cursor.moveToFirst()) {
@@ -534,6 +569,193 @@ public class SQLiteTileSource implements ITileSource {
 		return getBytes(x, y, zoom, dirWithTiles, null);
 	}
 
+	/**
+	 * Sets visible tiles of the map. Existence of the tiles is checked and the tiles are read
+	 * (together with a ring of neighbours) by a single query when the first of them is requested.
+	 */
+	public void setReadAheadWindow(int zoom, int left, int top, int right, int bottom) {
+		int maxTile = (1 << zoom) - 1;
+		TilesWindow window = new TilesWindow(zoom, Math.max(0, left - READ_AHEAD_RING), Math.max(0, top - READ_AHEAD_RING),
+				Math.min(maxTile, right + READ_AHEAD_RING), Math.min(maxTile, bottom + READ_AHEAD_RING));
+		boolean readAhead = zoom <= maxZoom && window.getTilesCount() <= MAX_READ_AHEAD_TILES;
+		readAheadWindow = readAhead ? window : null;
+	}
+
+	private boolean isReadAheadKeysLoaded(int x, int y, int zoom) {
+		if (keysWindow != null && keysWindow.contains(x, y, zoom)) {
+			return true;
+		}
+		TilesWindow window = readAheadWindow;
+		if (window != null && window.contains(x, y, zoom)) {
+			return loadReadAheadKeys(window);
+		}
+		return false;
+	}
+
+	private boolean loadReadAheadKeys(@NonNull TilesWindow window) {
+		SQLiteConnection db = getDatabase();
+		if (db == null) {
+			return false;
+		}
+		long ts = System.currentTimeMillis();
+		existingTiles.clear();
+		keysWindow = null;
+		try {
+			SQLiteCursor cursor = db.rawQuery("SELECT x, y" + (timeSupported ? ", time" : "")
+					+ " FROM tiles WHERE z = ? AND x >= ? AND x <= ? AND y >= ? AND y <= ?", window.getDbParams());
+			if (cursor.moveToFirst()) {
+				do {
+					existingTiles.put(getTileKey(cursor.getInt(0), cursor.getInt(1), window.zoom),
+							timeSupported ? cursor.getLong(2) : 0);
+				} while (cursor.moveToNext());
+			}
+			cursor.close();
+			keysWindow = window;
+		} catch (RuntimeException e) {
+			LOG.error(e);
+			return false;
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Check tiles " + window + " for " + (System.currentTimeMillis() - ts) + " ms found " + existingTiles.size());
+		}
+		return true;
+	}
+
+	@Nullable
+	private byte[] getReadAheadBytes(int x, int y, int zoom, @Nullable long[] timeHolder) {
+		TilesWindow loadWindow = null;
+		TilesWindow previous = null;
+		int version;
+		synchronized (imagesLock) {
+			TilesWindow window = readAheadWindow;
+			if (window != null && window.contains(x, y, zoom) && !window.equals(imagesWindow)
+					&& !window.equals(loadingImagesWindow)) {
+				// images of the previous window were already given or are still valid
+				previous = imagesWindow != null && imagesWindow.zoom == window.zoom ? imagesWindow : null;
+				removeReadAheadImagesOutside(window);
+				imagesWindow = null;
+				loadingImagesWindow = window;
+				loadWindow = window;
+			}
+			version = imagesVersion;
+			if (loadWindow == null) {
+				return takeReadAheadImage(x, y, zoom, timeHolder);
+			}
+		}
+		// images are read without the lock, so other tiles are read meanwhile by a query per tile
+		TLongObjectHashMap<byte[]> images = new TLongObjectHashMap<>();
+		Map<Long, Long> times = new HashMap<>();
+		boolean loaded = loadReadAheadImages(loadWindow, previous, images, times);
+		synchronized (imagesLock) {
+			if (loadingImagesWindow == loadWindow) {
+				loadingImagesWindow = null;
+				if (loaded && version == imagesVersion && loadWindow.equals(readAheadWindow)) {
+					readAheadImages.putAll(images);
+					readAheadTimes.putAll(times);
+					imagesWindow = loadWindow;
+				}
+			}
+			return takeReadAheadImage(x, y, zoom, timeHolder);
+		}
+	}
+
+	@Nullable
+	private byte[] takeReadAheadImage(int x, int y, int zoom, @Nullable long[] timeHolder) {
+		if (imagesWindow != null && imagesWindow.contains(x, y, zoom)) {
+			// image is given once, afterwards it is kept by tiles cache
+			long key = getTileKey(x, y, zoom);
+			byte[] blob = readAheadImages.remove(key);
+			Long time = readAheadTimes.remove(key);
+			if (blob != null && time != null && timeHolder != null) {
+				timeHolder[0] = time;
+			}
+			return blob;
+		}
+		return null;
+	}
+
+	private void removeReadAheadImagesOutside(@NonNull TilesWindow window) {
+		TLongObjectIterator<byte[]> it = readAheadImages.iterator();
+		while (it.hasNext()) {
+			it.advance();
+			if (!window.contains(it.key())) {
+				readAheadTimes.remove(it.key());
+				it.remove();
+			}
+		}
+	}
+
+	private boolean loadReadAheadImages(@NonNull TilesWindow window, @Nullable TilesWindow previous,
+	                                    @NonNull TLongObjectHashMap<byte[]> images, @NonNull Map<Long, Long> times) {
+		SQLiteConnection db = getDatabase();
+		if (db == null) {
+			return false;
+		}
+		long ts = System.currentTimeMillis();
+		String[] params = window.getDbParams();
+		String sql = "SELECT x, y, image" + (timeSupported ? ", time" : "")
+				+ " FROM tiles WHERE z = ? AND x >= ? AND x <= ? AND y >= ? AND y <= ?";
+		if (previous != null) {
+			sql += " AND NOT (x >= ? AND x <= ? AND y >= ? AND y <= ?)";
+			String[] previousParams = previous.getDbParams();
+			params = Arrays.copyOf(params, params.length + 4);
+			System.arraycopy(previousParams, 1, params, 5, 4);
+		}
+		try {
+			SQLiteCursor cursor = db.rawQuery(sql + " ORDER BY x, y", params);
+			if (cursor.moveToFirst()) {
+				do {
+					long key = getTileKey(cursor.getInt(0), cursor.getInt(1), window.zoom);
+					images.put(key, cursor.getBlob(2));
+					times.put(key, timeSupported ? cursor.getLong(3) : 0);
+				} while (cursor.moveToNext());
+			}
+			cursor.close();
+		} catch (RuntimeException e) {
+			LOG.error(e);
+			return false;
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Read ahead tiles " + window + " for " + (System.currentTimeMillis() - ts) + " ms loaded " + images.size());
+		}
+		return true;
+	}
+
+	private void updateReadAheadTile(int x, int y, int zoom, boolean exists, long time) {
+		long key = getTileKey(x, y, zoom);
+		synchronized (keysLock) {
+			if (keysWindow != null && keysWindow.contains(x, y, zoom)) {
+				if (exists) {
+					existingTiles.put(key, time);
+				} else {
+					existingTiles.remove(key);
+				}
+			}
+		}
+		synchronized (imagesLock) {
+			imagesVersion++;
+			readAheadImages.remove(key);
+			readAheadTimes.remove(key);
+		}
+	}
+
+	private void resetReadAhead() {
+		synchronized (keysLock) {
+			keysWindow = null;
+			existingTiles.clear();
+		}
+		synchronized (imagesLock) {
+			imagesVersion++;
+			imagesWindow = null;
+			readAheadImages.clear();
+			readAheadTimes.clear();
+		}
+	}
+
+	private static long getTileKey(int x, int y, int zoom) {
+		return ((long) zoom << 58) | ((long) x << 29) | y;
+	}
+
 	public Bitmap getImage(int x, int y, int zoom, long[] timeHolder) {
 		byte[] blob;
 		try {
@@ -605,6 +827,7 @@ public class SQLiteTileSource implements ITileSource {
 			return;
 		}
 		db.execSQL("DELETE FROM tiles WHERE x = ? AND y = ? AND z = ?", new String[] {x+"", y+"", getFileZoom(zoom)+""});    //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$//$NON-NLS-4$
+		updateReadAheadTile(x, y, zoom, false, 0);
 	}
 
 	private static final int BUF_SIZE = 1024;
@@ -630,6 +853,7 @@ public class SQLiteTileSource implements ITileSource {
 		}
 		db.execSQL("DELETE FROM tiles");
 		db.execSQL("VACUUM");
+		resetReadAhead();
 	}
 
 	@Override
@@ -667,30 +891,56 @@ public class SQLiteTileSource implements ITileSource {
 	 * let all writing attempts to wait outside of this method   
 	 */
 	public /*synchronized*/ void insertImage(int x, int y, int zoom, byte[] dataToSave) throws IOException {
-		SQLiteConnection db = getDatabase();
-		if (db == null || db.isReadOnly() || onlyReadonlyAvailable) {
-			return;
-		}
 		/*There is no sense to download and do not save. If needed, check should perform before download 
 		  if (exists(x, y, zoom)) {
 
 			return;
 		}*/
-		
+		insertImages(Collections.singletonList(new TileImage(x, y, zoom, dataToSave)));
+	}
+
+	/**
+	 * Inserts tiles with one prepared statement in a single transaction
+	 */
+	public void insertImages(@NonNull List<TileImage> tiles) throws IOException {
+		SQLiteConnection db = getDatabase();
+		if (db == null || db.isReadOnly() || onlyReadonlyAvailable || tiles.isEmpty()) {
+			return;
+		}
 		String query = timeSupported ? "INSERT OR REPLACE INTO tiles(x,y,z,s,image,time) VALUES(?, ?, ?, ?, ?, ?)"
 				: "INSERT OR REPLACE INTO tiles(x,y,z,s,image) VALUES(?, ?, ?, ?, ?)";
+		long time = System.currentTimeMillis();
+		boolean transaction = tiles.size() > 1;
+		if (transaction) {
+			db.beginTransaction();
+		}
 		net.osmand.plus.api.SQLiteAPI.SQLiteStatement statement = db.compileStatement(query); //$NON-NLS-1$
-		statement.bindLong(1, x);
-		statement.bindLong(2, y);
-		statement.bindLong(3, getFileZoom(zoom));
-		statement.bindLong(4, 0);
-		statement.bindBlob(5, dataToSave);
-		if (timeSupported) {
-			statement.bindLong(6, System.currentTimeMillis());
+		try {
+			for (TileImage tile : tiles) {
+				statement.bindLong(1, tile.x);
+				statement.bindLong(2, tile.y);
+				statement.bindLong(3, getFileZoom(tile.zoom));
+				statement.bindLong(4, 0);
+				statement.bindBlob(5, tile.data);
+				if (timeSupported) {
+					statement.bindLong(6, time);
+				}
+				statement.execute();
+			}
+			if (transaction) {
+				db.setTransactionSuccessful();
+			}
+		} catch (SQLException e) {
+			throw new IOException(e);
+		} finally {
+			statement.close();
+			if (transaction) {
+				db.endTransaction();
+			}
+		}
+		for (TileImage tile : tiles) {
+			updateReadAheadTile(tile.x, tile.y, tile.zoom, true, timeSupported ? time : 0);
 		}
-		statement.execute();
-		statement.close();
-
 	}
 
 	private int getFileZoom(int zoom) {
@@ -706,6 +956,7 @@ public class SQLiteTileSource implements ITileSource {
 			db.close();
 			db = null;
 		}
+		resetReadAhead();
 	}
 
 	public void clearOld() {
@@ -719,6 +970,7 @@ public class SQLiteTileSource implements ITileSource {
 		LOG.debug(sql);
 		db.execSQL(sql);
 		db.execSQL("VACUUM");
+		resetReadAhead();
 	}
 
 	@Override
@@ -799,4 +1051,77 @@ public class SQLiteTileSource implements ITileSource {
 	public boolean isFileExist() {
 		return file == null ? false : file.exists();
 	}
+
+	public static class TileImage {
+
+		public final int x;
+		public final int y;
+		public final int zoom;
+		public final byte[] data;
+
+		public TileImage(int x, int y, int zoom, @NonNull byte[] data) {
+			this.x = x;
+			this.y = y;
+			this.zoom = zoom;
+			this.data = data;
+		}
+	}
+
+	private class TilesWindow {
+
+		private final int zoom;
+		private final int left;
+		private final int top;
+		private final int right;
+		private final int bottom;
+
+		TilesWindow(int zoom, int left, int top, int right, int bottom) {
+			this.zoom = zoom;
+			this.left = left;
+			this.top = top;
+			this.right = right;
+			this.bottom = bottom;
+		}
+
+		int getTilesCount() {
+			return (right - left + 1) * (bottom - top + 1);
+		}
+
+		boolean contains(int x, int y, int zoom) {
+			return this.zoom == zoom && x >= left && x <= right && y >= top && y <= bottom;
+		}
+
+		boolean contains(long key) {
+			return contains((int) ((key >> 29) & 0x1FFFFFFF), (int) (key & 0x1FFFFFFF), (int) (key >>> 58));
+		}
+
+		@NonNull
+		String[] getDbParams() {
+			return new String[] {String.valueOf(getFileZoom(zoom)), String.valueOf(left), String.valueOf(right),
+					String.valueOf(top), String.valueOf(bottom)};
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			TilesWindow that = (TilesWindow) o;
+			return zoom == that.zoom && left == that.left && top == that.top && right == that.right && bottom == that.bottom;
+		}
+
+		@Override
+		public int hashCode() {
+			return ((zoom * 31 + left) * 31 + top) * 31 + right * 17 + bottom;
+		}
+
+		@NonNull
+		@Override
+		public String toString() {
+			return zoom + ": " + left + "-" + right + " x " + top + "-" + bottom;
+		}
+	}
 }
@@ -11,31 +11,43 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 public abstract class TilesCache<T> {
 
+	private static final int LOCK_STRIPES = 32;
+	private static final int MAX_TILES_ON_FS_CACHE_SIZE = 10000;
+
 	private final AsyncLoadingThread asyncLoadingThread;
 	protected static final Log log = PlatformUtil.getLog(TilesCache.class);
 
-	Map<String, CacheEntry<T>> cache = new LinkedHashMap<>();
-	Map<String, Boolean> tilesOnFS = new LinkedHashMap<>();
+	// reads are lock free, loading of the same tile is guarded by striped locks
+	final ConcurrentMap<String, CacheEntry<T>> cache = new ConcurrentHashMap<>();
+	// false is stored for the tiles known to be missing
+	final Map<String, Boolean> tilesOnFS = new ConcurrentHashMap<>();
+	private final Object[] loadLocks = new Object[LOCK_STRIPES];
+	private final Object evictionLock = new Object();
+	private final AtomicLong cacheBytes = new AtomicLong();
 
 	protected File dirWithTiles;
-	protected int maxCacheSize = 30;
+	protected volatile int maxCacheSize = 30;
+	protected volatile long maxCacheBytes = Long.MAX_VALUE;
 
 	public TilesCache(AsyncLoadingThread asyncLoadingThread) {
 		this.asyncLoadingThread = asyncLoadingThread;
+		for (int i = 0; i < loadLocks.length; i++) {
+			loadLocks[i] = new Object();
+		}
 	}
 
-	protected StringBuilder builder = new StringBuilder(40);
-
 	public int getMaxCacheSize() {
 		return maxCacheSize;
 	}
@@ -44,6 +56,30 @@ public abstract class TilesCache<T> {
 		this.maxCacheSize = maxCacheSize;
 	}
 
+	public long getMaxCacheBytes() {
+		return maxCacheBytes;
+	}
+
+	public void setMaxCacheBytes(long maxCacheBytes) {
+		this.maxCacheBytes = maxCacheBytes;
+	}
+
+	public long getCacheBytes() {
+		return cacheBytes.get();
+	}
+
+	/**
+	 * @return memory used by the tile, tiles are evicted when sum of sizes exceeds {@link #getMaxCacheBytes()}
+	 */
+	protected int getTileByteSize(@NonNull T tile) {
+		return 0;
+	}
+
+	@NonNull
+	private Object getLoadLock(@NonNull String tileId) {
+		return loadLocks[(tileId.hashCode() & 0x7fffffff) % loadLocks.length];
+	}
+
 	public void setDirWithTiles(File dirWithTiles) {
 		this.dirWithTiles = dirWithTiles;
 	}
@@ -51,8 +87,8 @@ public abstract class TilesCache<T> {
 	public abstract boolean isTileSourceSupported(ITileSource tileSource);
 
 	@NonNull
-	public synchronized String calculateTileId(@Nullable ITileSource map, int x, int y, int zoom) {
-		builder.setLength(0);
+	public String calculateTileId(@Nullable ITileSource map, int x, int y, int zoom) {
+		StringBuilder builder = new StringBuilder(40);
 		if (map == null) {
 			builder.append(IndexConstants.TEMP_SOURCE_TO_LOAD);
 		} else {
@@ -72,26 +108,29 @@ public abstract class TilesCache<T> {
 		return builder.toString();
 	}
 
-	public synchronized boolean isTileDownloaded(@Nullable String tileId, ITileSource map, int x, int y, int zoom) {
+	public boolean isTileDownloaded(@Nullable String tileId, ITileSource map, int x, int y, int zoom) {
 		tileId = tileId == null ? calculateTileId(map, x, y, zoom) : tileId;
-		return cache.get(tileId) != null || isTileSavedOnFileSystem(tileId, map, x, y, zoom);
+		return cache.containsKey(tileId) || isTileSavedOnFileSystem(tileId, map, x, y, zoom);
 	}
 
-	public synchronized boolean isTileSavedOnFileSystem(@NonNull String tileId, @Nullable ITileSource map,
-	                                                    int x, int y, int zoom) {
-		if (!tilesOnFS.containsKey(tileId)) {
-			boolean exist;
+	public boolean isTileSavedOnFileSystem(@NonNull String tileId, @Nullable ITileSource map,
+	                                       int x, int y, int zoom) {
+		Boolean exist = tilesOnFS.get(tileId);
+		if (exist == null) {
 			if (map instanceof SQLiteTileSource) {
 				exist = ((SQLiteTileSource) map).exists(x, y, zoom);
 			} else {
 				exist = new File(dirWithTiles, tileId).exists();
 			}
-			tilesOnFS.put(tileId, exist ? true : null);
+			if (tilesOnFS.size() > MAX_TILES_ON_FS_CACHE_SIZE) {
+				tilesOnFS.clear();
+			}
+			tilesOnFS.put(tileId, exist);
 		}
-		return tilesOnFS.get(tileId) != null;
+		return exist;
 	}
 
-	public synchronized int getTileBytesSizeOnFileSystem(@NonNull String tileId,
+	public int getTileBytesSizeOnFileSystem(@NonNull String tileId,
 	                                                     @NonNull ITileSource map,
 	                                                     int x, int y, int zoom) {
 		if (isTileDownloaded(tileId, map, x, y, zoom)) {
@@ -126,24 +165,26 @@ public abstract class TilesCache<T> {
 		return getTileForMap(file, map, x, y, zoom, loadFromInternetIfNeeded, sync, false, timestamp);
 	}
 
-	protected synchronized T getTileForMap(String tileId, ITileSource map, int x, int y, int zoom,
-	                                       boolean loadFromInternetIfNeeded, boolean sync,
-	                                       boolean deleteBefore, long timestamp) {
+	protected T getTileForMap(String tileId, ITileSource map, int x, int y, int zoom,
+	                          boolean loadFromInternetIfNeeded, boolean sync,
+	                          boolean deleteBefore, long timestamp) {
 		if (tileId == null) {
 			tileId = calculateTileId(map, x, y, zoom);
 		}
 
 		if (deleteBefore) {
-			cache.remove(tileId);
-			if (map instanceof SQLiteTileSource) {
-				((SQLiteTileSource) map).deleteImage(x, y, zoom);
-			} else {
-				File f = new File(dirWithTiles, tileId);
-				if (f.exists()) {
-					f.delete();
+			synchronized (getLoadLock(tileId)) {
+				remove(tileId);
+				if (map instanceof SQLiteTileSource) {
+					((SQLiteTileSource) map).deleteImage(x, y, zoom);
+				} else {
+					File f = new File(dirWithTiles, tileId);
+					if (f.exists()) {
+						f.delete();
+					}
 				}
+				tilesOnFS.put(tileId, false);
 			}
-			tilesOnFS.put(tileId, null);
 		}
 
 		if (map != null) {
@@ -161,10 +202,11 @@ public abstract class TilesCache<T> {
 			}
 			TileLoadDownloadRequest req = new TileLoadDownloadRequest(dirWithTiles, url, toSave,
 					tileId, map, x, y, zoom, timestamp, map.getReferer(), map.getUserAgent());
-			if (cache.get(tileId) == null || isExpired(req)) {
+			if (!cache.containsKey(tileId) || isExpired(req)) {
 				if (sync) {
 					return getRequestedTile(req);
 				} else {
+					req.cancellable = true;
 					asyncLoadingThread.requestToLoadTile(req);
 				}
 			}
@@ -172,21 +214,25 @@ public abstract class TilesCache<T> {
 		return get(tileId, timestamp);
 	}
 
-	protected synchronized T getRequestedTile(TileLoadDownloadRequest req) {
+	protected T getRequestedTile(TileLoadDownloadRequest req) {
 		if (req.tileId == null || req.dirWithTiles == null) {
 			return null;
 		}
+		synchronized (getLoadLock(req.tileId)) {
+			return loadRequestedTile(req);
+		}
+	}
+
+	private T loadRequestedTile(TileLoadDownloadRequest req) {
 		T cacheObject = get(req.tileId, req.timestamp);
 		if (cacheObject != null) {
 			if (isExpired(req)) {
-				cache.remove(req.tileId);
+				remove(req.tileId);
 			} else {
 				return cacheObject;
 			}
 		}
-		if (cache.size() > maxCacheSize) {
-			clearTiles();
-		}
+		trimToSize();
 		if (req.dirWithTiles.canRead() && !asyncLoadingThread.isFileCurrentlyDownloaded(req.fileToSave)
 				&& !asyncLoadingThread.isFilePendingToDownload(req.fileToSave)) {
 			long time = System.currentTimeMillis();
@@ -203,7 +249,7 @@ public abstract class TilesCache<T> {
 				}
 			}
 
-			if (cache.get(req.tileId) == null && req.url != null) {
+			if (!cache.containsKey(req.tileId) && req.url != null) {
 				asyncLoadingThread.requestToDownload(req);
 			}
 
@@ -234,21 +280,48 @@ public abstract class TilesCache<T> {
 		}
 	}
 
-	protected synchronized void clearTiles() {
+	/**
+	 * Removes least recently accessed tiles if the cache exceeds its count or bytes limit.
+	 */
+	protected void trimToSize() {
+		if (cache.size() > maxCacheSize) {
+			clearTiles();
+		} else if (cacheBytes.get() > maxCacheBytes) {
+			log.info("Cleaning tiles - bytes = " + cacheBytes.get());
+			removeOldestTiles(cache.size(), maxCacheBytes / 2);
+		}
+	}
+
+	protected void clearTiles() {
 		log.info("Cleaning tiles - size = " + cache.size());
-		List<Map.Entry<String, CacheEntry<T>>> list = new ArrayList<>(cache.entrySet());
-		Collections.sort(list, (left, right) -> Long.compare(left.getValue().accessTime, right.getValue().accessTime));
-		for (int i = 0; i < list.size() / 2; i++) {
-			cache.remove(list.get(i).getKey());
+		removeOldestTiles(cache.size() / 2, Long.MAX_VALUE);
+	}
+
+	private void removeOldestTiles(int maxCount, long maxBytes) {
+		synchronized (evictionLock) {
+			List<Map.Entry<String, CacheEntry<T>>> list = new ArrayList<>(cache.entrySet());
+			Collections.sort(list, (left, right) -> Long.compare(left.getValue().accessTime, right.getValue().accessTime));
+			int count = list.size();
+			long bytes = cacheBytes.get();
+			for (int i = 0; i < list.size() && (count > maxCount || bytes > maxBytes); i++) {
+				Map.Entry<String, CacheEntry<T>> e = list.get(i);
+				if (cache.remove(e.getKey(), e.getValue())) {
+					cacheBytes.addAndGet(-e.getValue().bytes);
+					bytes -= e.getValue().bytes;
+				}
+				count--;
+			}
 		}
 	}
 
-	protected synchronized void clearAllTiles() {
+	protected void clearAllTiles() {
 		log.info("Cleaning tiles - size = " + cache.size());
-		cache.clear();
+		for (String key : new ArrayList<>(cache.keySet())) {
+			remove(key);
+		}
 	}
 
-	public synchronized T get(String key, long accessTime) {
+	public T get(String key, long accessTime) {
 		CacheEntry<T> entry = cache.get(key);
 		if (entry == null) {
 			return null;
@@ -257,20 +330,25 @@ public abstract class TilesCache<T> {
 		return entry.tile;
 	}
 
-	public synchronized void put(String key, T value, long timestamp) {
-		cache.put(key, new CacheEntry<>(value, timestamp));
+	public void put(String key, T value, long timestamp) {
+		CacheEntry<T> entry = new CacheEntry<>(value, timestamp, getTileByteSize(value));
+		CacheEntry<T> old = cache.put(key, entry);
+		cacheBytes.addAndGet(entry.bytes - (old == null ? 0 : old.bytes));
 	}
 
-	public synchronized T remove(String key) {
+	public T remove(String key) {
 		CacheEntry<T> entry = cache.remove(key);
+		if (entry != null) {
+			cacheBytes.addAndGet(-entry.bytes);
+		}
 		return entry == null ? null : entry.tile;
 	}
 
-	public synchronized int size() {
+	public int size() {
 		return cache.size();
 	}
 
-	public synchronized Set<String> keySet() {
+	public Set<String> keySet() {
 		return cache.keySet();
 	}
 
@@ -280,12 +358,14 @@ public abstract class TilesCache<T> {
 
 	private static class CacheEntry<T> {
 
-		T tile;
-		long accessTime;
+		final T tile;
+		final int bytes;
+		volatile long accessTime;
 
-		public CacheEntry(T tile, long accessTime) {
+		public CacheEntry(T tile, long accessTime, int bytes) {
 			this.tile = tile;
 			this.accessTime = accessTime;
+			this.bytes = bytes;
 		}
 	}
 }
\ No newline at end of file
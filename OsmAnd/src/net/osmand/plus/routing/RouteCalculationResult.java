@@ -15,6 +15,7 @@ import net.osmand.binary.RouteDataObject;
 import net.osmand.data.LatLon;
 import net.osmand.data.LocationPoint;
 import net.osmand.data.QuadRect;
+import net.osmand.data.RouteCorridorIndex;
 import net.osmand.map.WorldRegion;
 import net.osmand.plus.OsmandApplication;
 import net.osmand.plus.R;
@@ -22,6 +23,7 @@ import net.osmand.plus.routing.AlarmInfo.AlarmInfoType;
 import net.osmand.plus.settings.backend.ApplicationMode;
 import net.osmand.router.ExitInfo;
 import net.osmand.router.RoutePlannerFrontEnd;
+import net.osmand.router.RouteProgressTracker;
 import net.osmand.router.RouteSegmentResult;
 import net.osmand.router.RoutingContext;
 import net.osmand.router.TurnType;
@@ -61,6 +63,8 @@ public class RouteCalculationResult {
 	protected List<LocationPoint> locationPoints = new ArrayList<>();
 
 	protected List<WorldRegion> missingMaps;
+	private RouteCorridorIndex corridorIndex;
+	private RouteProgressTracker progressTracker;
 
 	// params
 	protected final ApplicationMode appMode;
@@ -991,6 +995,22 @@ public class RouteCalculationResult {
 		return locations;
 	}
 
+	@NonNull
+	public synchronized RouteCorridorIndex getCorridorIndex() {
+		if (corridorIndex == null) {
+			corridorIndex = new RouteCorridorIndex(locations);
+		}
+		return corridorIndex;
+	}
+
+	@NonNull
+	public synchronized RouteProgressTracker getProgressTracker() {
+		if (progressTracker == null) {
+			progressTracker = new RouteProgressTracker(getCorridorIndex());
+		}
+		return progressTracker;
+	}
+
 	public List<RouteDirectionInfo> getImmutableAllDirections() {
 		return directions;
 	}
@@ -170,6 +170,10 @@ class RouteRecalculationHelper {
 	}
 
 	private void setNewRoute(RouteCalculationResult prevRoute, RouteCalculationResult res, Location start) {
+		if (res.isCalculated()) {
+			// build the index here and not on the first location update
+			res.getCorridorIndex();
+		}
 		routingHelper.setRoute(res);
 		boolean newRoute = !prevRoute.isCalculated();
 		if (isFollowingMode()) {
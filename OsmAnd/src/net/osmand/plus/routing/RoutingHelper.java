@@ -28,6 +28,7 @@ import net.osmand.plus.utils.OsmAndFormatter;
 import net.osmand.router.RouteExporter;
 import net.osmand.router.RoutePlannerFrontEnd.GpxPoint;
 import net.osmand.router.RoutePlannerFrontEnd.GpxRouteApproximation;
+import net.osmand.router.RouteProgressTracker;
 import net.osmand.router.RouteSegmentResult;
 import net.osmand.util.Algorithms;
 import net.osmand.util.MapUtils;
@@ -630,6 +631,25 @@ public class RoutingHelper {
 						log.debug("Processed by distance : (new) " + newDist + " (old) " + dist); //$NON-NLS-1$//$NON-NLS-2$
 					}
 					processed = true;
+				} else if (routeNodes == route.getImmutableAllLocations()) {
+					// location jumped out of the look ahead window (e.g. after a tunnel),
+					// jump is limited by the distance which could be passed since the last location
+					long elapsedTime = 0;
+					double travelledDistance = Double.POSITIVE_INFINITY;
+					if (lastFixedLocation != null) {
+						elapsedTime = currentLocation.getTime() - lastFixedLocation.getTime();
+						travelledDistance = lastFixedLocation.distanceTo(currentLocation);
+					}
+					RouteProgressTracker tracker = route.getProgressTracker();
+					tracker.setCurrentRoute(currentRoute + 1);
+					if (tracker.updateLocation(currentLocation.getLatitude(), currentLocation.getLongitude(), posTolerance,
+							RouteProgressTracker.getMaxJumpDistance(elapsedTime, travelledDistance))) {
+						if (log.isDebugEnabled()) {
+							log.debug("Processed by route index : " + tracker.getCurrentRoute() + " (old) " + currentRoute); //$NON-NLS-1$//$NON-NLS-2$
+						}
+						newCurrentRoute = tracker.getCurrentRoute() - 1;
+						processed = true;
+					}
 				}
 			} else if (newDist < dist || newDist < posTolerance / 8) {
 				// newDist < posTolerance / 8 - 4-8 m (avoid distance 0 till next turn)
@@ -101,12 +101,11 @@ public class RoutingHelperUtils {
 
 	@NonNull
 	public static Location getProject(@NonNull Location loc, @NonNull Location from, @NonNull Location to) {
-		LatLon project = MapUtils.getProjection(loc.getLatitude(),
-				loc.getLongitude(), from.getLatitude(), from.getLongitude(),
-				to.getLatitude(), to.getLongitude());
+		double coeff = MapUtils.getProjectionCoeff(loc.getLatitude(), loc.getLongitude(),
+				from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude());
 		Location locationProjection = new Location(loc);
-		locationProjection.setLatitude(project.getLatitude());
-		locationProjection.setLongitude(project.getLongitude());
+		locationProjection.setLatitude(from.getLatitude() + (to.getLatitude() - from.getLatitude()) * coeff);
+		locationProjection.setLongitude(from.getLongitude() + (to.getLongitude() - from.getLongitude()) * coeff);
 		return locationProjection;
 	}
 
@@ -121,9 +120,12 @@ public class RoutingHelperUtils {
 	}
 
 	static double getOrthogonalDistance(Location loc, Location from, Location to) {
-		return MapUtils.getOrthogonalDistance(loc.getLatitude(),
-				loc.getLongitude(), from.getLatitude(), from.getLongitude(),
-				to.getLatitude(), to.getLongitude());
+		// same as MapUtils.getOrthogonalDistance without allocation of projection
+		double coeff = MapUtils.getProjectionCoeff(loc.getLatitude(), loc.getLongitude(),
+				from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude());
+		return MapUtils.getDistance(from.getLatitude() + (to.getLatitude() - from.getLatitude()) * coeff,
+				from.getLongitude() + (to.getLongitude() - from.getLongitude()) * coeff,
+				loc.getLatitude(), loc.getLongitude());
 	}
 
 	static int lookAheadFindMinOrthogonalDistance(Location currentLocation, List<Location> routeNodes, int currentRoute, int iterations) {
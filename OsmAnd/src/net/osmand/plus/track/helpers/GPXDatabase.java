@@ -8,9 +8,12 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import net.osmand.data.LatLon;
+import net.osmand.data.QuadRect;
 import net.osmand.gpx.GPXFile;
 import net.osmand.gpx.GPXTrackAnalysis;
 import net.osmand.gpx.GPXUtilities;
+import net.osmand.gpx.GPXUtilities.TrkSegment;
+import net.osmand.gpx.GPXUtilities.WptPt;
 import net.osmand.plus.OsmandApplication;
 import net.osmand.plus.api.SQLiteAPI.SQLiteConnection;
 import net.osmand.plus.api.SQLiteAPI.SQLiteCursor;
@@ -23,18 +26,24 @@ import net.osmand.plus.track.helpers.GpsFilterHelper.SmoothingFilter;
 import net.osmand.plus.track.helpers.GpsFilterHelper.SpeedFilter;
 import net.osmand.plus.utils.AndroidUtils;
 import net.osmand.util.Algorithms;
+import net.osmand.util.MapUtils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.set.hash.TLongHashSet;
+
 public class GPXDatabase {
 
-	private static final int DB_VERSION = 16;
+	private static final int DB_VERSION = 17;
 	private static final String DB_NAME = "gpx_database";
 
 	private static final String GPX_TABLE_NAME = "gpxTable";
@@ -102,6 +111,22 @@ public class GPXDatabase {
 	private static final String GPX_COL_START_LON = "startLon";
 	private static final String GPX_COL_NEAREST_CITY_NAME = "nearestCityName";
 
+	// tiles crossed by track lines, to find tracks by area without reading files
+	private static final String GPX_TILES_TABLE_NAME = "gpxTilesTable";
+	private static final String GPX_TILES_COL_X = "tileX";
+	private static final String GPX_TILES_COL_Y = "tileY";
+	private static final String GPX_TILES_INDEX_XY = "indexTilesXY";
+	private static final String GPX_TILES_INDEX_NAME_DIR = "indexTilesNameDir";
+	private static final int GPX_TILES_ZOOM = 12;
+	// row marking a track as indexed, so that tracks without points are not indexed again
+	private static final int GPX_TILES_INDEXED_MARK = -1;
+
+	private static final String GPX_TILES_TABLE_CREATE = "CREATE TABLE IF NOT EXISTS " + GPX_TILES_TABLE_NAME + " (" +
+			GPX_COL_NAME + " TEXT, " +
+			GPX_COL_DIR + " TEXT, " +
+			GPX_TILES_COL_X + " int, " +
+			GPX_TILES_COL_Y + " int);";
+
 	private static final String TMP_NAME_COLUMN_COUNT = "itemsCount";
 	private static final String TMP_NAME_COLUMN_NOT_NULL = "nonnull";
 
@@ -534,6 +559,13 @@ public class GPXDatabase {
 	private void onCreate(SQLiteConnection db) {
 		db.execSQL(GPX_TABLE_CREATE);
 		db.execSQL("CREATE INDEX IF NOT EXISTS " + GPX_INDEX_NAME_DIR + " ON " + GPX_TABLE_NAME + " (" + GPX_COL_NAME + ", " + GPX_COL_DIR + ");");
+		createTilesTable(db);
+	}
+
+	private void createTilesTable(SQLiteConnection db) {
+		db.execSQL(GPX_TILES_TABLE_CREATE);
+		db.execSQL("CREATE INDEX IF NOT EXISTS " + GPX_TILES_INDEX_XY + " ON " + GPX_TILES_TABLE_NAME + " (" + GPX_TILES_COL_X + ", " + GPX_TILES_COL_Y + ");");
+		db.execSQL("CREATE INDEX IF NOT EXISTS " + GPX_TILES_INDEX_NAME_DIR + " ON " + GPX_TILES_TABLE_NAME + " (" + GPX_COL_NAME + ", " + GPX_COL_DIR + ");");
 	}
 
 	private void onUpgrade(SQLiteConnection db, int oldVersion, int newVersion) {
@@ -646,6 +678,10 @@ public class GPXDatabase {
 		if (oldVersion < 16) {
 			db.execSQL("ALTER TABLE " + GPX_TABLE_NAME + " ADD " + GPX_COL_FILE_CREATION_TIME + " long");
 		}
+		if (oldVersion < 17) {
+			// filled for existing tracks by GpxDbHelper in background
+			createTilesTable(db);
+		}
 		db.execSQL("CREATE INDEX IF NOT EXISTS " + GPX_INDEX_NAME_DIR + " ON " + GPX_TABLE_NAME + " (" + GPX_COL_NAME + ", " + GPX_COL_DIR + ");");
 	}
 
@@ -692,13 +728,7 @@ public class GPXDatabase {
 		SQLiteConnection db = openConnection(false);
 		if (db != null) {
 			try {
-				String fileName = getFileName(item.file);
-				String fileDir = getFileDir(item.file);
-				db.execSQL("UPDATE " + GPX_TABLE_NAME + " SET " +
-								GPX_COL_FILE_CREATION_TIME + " = ? " +
-								" WHERE " + GPX_COL_NAME + " = ? AND " + GPX_COL_DIR + " = ?",
-						new Object[] {fileCreatedTime, fileName, fileDir});
-				item.fileCreationTime = fileCreatedTime;
+				updateCreateTime(item, fileCreatedTime, db);
 			} finally {
 				db.close();
 			}
@@ -707,6 +737,16 @@ public class GPXDatabase {
 		return false;
 	}
 
+	void updateCreateTime(@NonNull GpxDataItem item, long fileCreatedTime, @NonNull SQLiteConnection db) {
+		String fileName = getFileName(item.file);
+		String fileDir = getFileDir(item.file);
+		db.execSQL("UPDATE " + GPX_TABLE_NAME + " SET " +
+						GPX_COL_FILE_CREATION_TIME + " = ? " +
+						" WHERE " + GPX_COL_NAME + " = ? AND " + GPX_COL_DIR + " = ?",
+				new Object[] {fileCreatedTime, fileName, fileDir});
+		item.fileCreationTime = fileCreatedTime;
+	}
+
 	public boolean rename(@Nullable GpxDataItem item, File currentFile, File newFile) {
 		SQLiteConnection db = openConnection(false);
 		if (db != null) {
@@ -720,6 +760,11 @@ public class GPXDatabase {
 								GPX_COL_DIR + " = ? " +
 								" WHERE " + GPX_COL_NAME + " = ? AND " + GPX_COL_DIR + " = ?",
 						new Object[] {newFileName, newFileDir, fileName, fileDir});
+				db.execSQL("UPDATE " + GPX_TILES_TABLE_NAME + " SET " +
+								GPX_COL_NAME + " = ? " + ", " +
+								GPX_COL_DIR + " = ? " +
+								" WHERE " + GPX_COL_NAME + " = ? AND " + GPX_COL_DIR + " = ?",
+						new Object[] {newFileName, newFileDir, fileName, fileDir});
 				if (item != null) {
 					item.file = newFile;
 				}
@@ -1006,6 +1051,8 @@ public class GPXDatabase {
 				String fileDir = getFileDir(file);
 				db.execSQL("DELETE FROM " + GPX_TABLE_NAME + " WHERE " + GPX_COL_NAME + " = ? AND " + GPX_COL_DIR + " = ?",
 						new Object[] {fileName, fileDir});
+				db.execSQL("DELETE FROM " + GPX_TILES_TABLE_NAME + " WHERE " + GPX_COL_NAME + " = ? AND " + GPX_COL_DIR + " = ?",
+						new Object[] {fileName, fileDir});
 			} finally {
 				db.close();
 			}
@@ -1031,6 +1078,38 @@ public class GPXDatabase {
 		return false;
 	}
 
+	public boolean add(@NonNull List<GpxDataItem> items) {
+		SQLiteConnection db = openConnection(false);
+		if (db != null) {
+			try {
+				db.beginTransaction();
+				try {
+					for (GpxDataItem item : items) {
+						insert(item, db);
+					}
+					db.setTransactionSuccessful();
+				} finally {
+					db.endTransaction();
+				}
+			} finally {
+				db.close();
+			}
+			return true;
+		}
+		return false;
+	}
+
+	@NonNull
+	private File getFile(@NonNull String fileName, @Nullable String fileDir) {
+		File dir;
+		if (Algorithms.isEmpty(fileDir)) {
+			dir = app.getAppPath(GPX_INDEX_DIR);
+		} else {
+			dir = new File(app.getAppPath(GPX_INDEX_DIR), fileDir);
+		}
+		return new File(dir, fileName);
+	}
+
 	@NonNull
 	private String getFileName(@NonNull File file) {
 		return file.getName();
@@ -1228,13 +1307,7 @@ public class GPXDatabase {
 		analysis.latLonStart = latLonStart;
 		analysis.wptCategoryNames = wptCategoryNames != null ? Algorithms.decodeStringSet(wptCategoryNames) : null;
 
-		File dir;
-		if (Algorithms.isEmpty(fileDir)) {
-			dir = app.getAppPath(GPX_INDEX_DIR);
-		} else {
-			dir = new File(app.getAppPath(GPX_INDEX_DIR), fileDir);
-		}
-		GpxDataItem item = new GpxDataItem(new File(dir, fileName), analysis);
+		GpxDataItem item = new GpxDataItem(getFile(fileName, fileDir), analysis);
 		item.containingFolder = fileDir;
 		item.color = GPXUtilities.parseColor(color, 0);
 		item.fileLastModifiedTime = fileLastModifiedTime;
@@ -1352,6 +1425,221 @@ public class GPXDatabase {
 		return folderCollection;
 	}
 
+	/**
+	 * @return tiles (x << 32 | y) of the index zoom crossed by track lines and containing track points
+	 */
+	@NonNull
+	static TLongHashSet getTrackTiles(@NonNull GPXFile gpxFile) {
+		TLongHashSet tiles = new TLongHashSet();
+		for (TrkSegment segment : gpxFile.getSegments(false)) {
+			List<WptPt> points = segment.points;
+			double prevX = 0;
+			double prevY = 0;
+			for (int i = 0; i < points.size(); i++) {
+				WptPt point = points.get(i);
+				double x = MapUtils.getTileNumberX(GPX_TILES_ZOOM, point.lon);
+				double y = MapUtils.getTileNumberY(GPX_TILES_ZOOM, point.lat);
+				if (i > 0) {
+					// sample line with a step less than a half of tile
+					int steps = (int) Math.ceil(Math.max(Math.abs(x - prevX), Math.abs(y - prevY)) * 2);
+					for (int s = 1; s < steps; s++) {
+						double t = (double) s / steps;
+						tiles.add(getTileKey(prevX + (x - prevX) * t, prevY + (y - prevY) * t));
+					}
+				}
+				tiles.add(getTileKey(x, y));
+				prevX = x;
+				prevY = y;
+			}
+		}
+		for (WptPt point : gpxFile.getPoints()) {
+			tiles.add(getTileKey(MapUtils.getTileNumberX(GPX_TILES_ZOOM, point.lon),
+					MapUtils.getTileNumberY(GPX_TILES_ZOOM, point.lat)));
+		}
+		return tiles;
+	}
+
+	/**
+	 * @return distance from the point to the nearest point of the tile of the index zoom
+	 */
+	private static double getTileDistance(@NonNull LatLon latLon, int x, int y) {
+		double left = MapUtils.getLongitudeFromTile(GPX_TILES_ZOOM, x);
+		double right = MapUtils.getLongitudeFromTile(GPX_TILES_ZOOM, x + 1);
+		double top = MapUtils.getLatitudeFromTile(GPX_TILES_ZOOM, y);
+		double bottom = MapUtils.getLatitudeFromTile(GPX_TILES_ZOOM, y + 1);
+		double lat = Math.max(bottom, Math.min(top, latLon.getLatitude()));
+		double lon = Math.max(left, Math.min(right, latLon.getLongitude()));
+		return MapUtils.getDistance(latLon.getLatitude(), latLon.getLongitude(), lat, lon);
+	}
+
+	/**
+	 * @return true if any track line or point is within the radius from the point
+	 */
+	static boolean isTrackInRadius(@NonNull GPXFile gpxFile, @NonNull LatLon latLon, int radiusMeters) {
+		double lat = latLon.getLatitude();
+		double lon = latLon.getLongitude();
+		for (TrkSegment segment : gpxFile.getSegments(false)) {
+			List<WptPt> points = segment.points;
+			for (int i = 0; i < points.size(); i++) {
+				WptPt point = points.get(i);
+				double distance;
+				if (i > 0) {
+					WptPt prev = points.get(i - 1);
+					distance = MapUtils.getOrthogonalDistance(lat, lon, prev.lat, prev.lon, point.lat, point.lon);
+				} else {
+					distance = MapUtils.getDistance(lat, lon, point.lat, point.lon);
+				}
+				if (distance <= radiusMeters) {
+					return true;
+				}
+			}
+		}
+		for (WptPt point : gpxFile.getPoints()) {
+			if (MapUtils.getDistance(lat, lon, point.lat, point.lon) <= radiusMeters) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long getTileKey(double x, double y) {
+		return ((long) x << 32) | (long) y;
+	}
+
+	void updateTrackTiles(@NonNull File file, @NonNull TLongHashSet tiles, @NonNull SQLiteConnection db) {
+		String fileName = getFileName(file);
+		String fileDir = getFileDir(file);
+		db.execSQL("DELETE FROM " + GPX_TILES_TABLE_NAME + " WHERE " + GPX_COL_NAME + " = ? AND " + GPX_COL_DIR + " = ?",
+				new Object[] {fileName, fileDir});
+		String insertQuery = AndroidUtils.createDbInsertQuery(GPX_TILES_TABLE_NAME,
+				new LinkedHashSet<>(Arrays.asList(GPX_COL_NAME, GPX_COL_DIR, GPX_TILES_COL_X, GPX_TILES_COL_Y)));
+		db.execSQL(insertQuery, new Object[] {fileName, fileDir, GPX_TILES_INDEXED_MARK, GPX_TILES_INDEXED_MARK});
+		TLongIterator iterator = tiles.iterator();
+		while (iterator.hasNext()) {
+			long tile = iterator.next();
+			db.execSQL(insertQuery, new Object[] {fileName, fileDir, (int) (tile >> 32), (int) tile});
+		}
+	}
+
+	void updateTracksTiles(@NonNull Map<File, TLongHashSet> tracksTiles) {
+		SQLiteConnection db = openConnection(false);
+		if (db != null) {
+			try {
+				db.beginTransaction();
+				try {
+					for (Map.Entry<File, TLongHashSet> entry : tracksTiles.entrySet()) {
+						updateTrackTiles(entry.getKey(), entry.getValue(), db);
+					}
+					db.setTransactionSuccessful();
+				} finally {
+					db.endTransaction();
+				}
+			} finally {
+				db.close();
+			}
+		}
+	}
+
+	/**
+	 * @return tracks which have no rows in tiles table yet, at most limit
+	 */
+	@NonNull
+	List<File> getNotIndexedTrackFiles(int limit) {
+		List<File> files = new ArrayList<>();
+		SQLiteConnection db = openConnection(true);
+		if (db != null) {
+			try {
+				SQLiteCursor query = db.rawQuery("SELECT " + GPX_COL_NAME + ", " + GPX_COL_DIR + " FROM " + GPX_TABLE_NAME +
+								" g WHERE NOT EXISTS (SELECT 1 FROM " + GPX_TILES_TABLE_NAME + " t WHERE t." + GPX_COL_NAME +
+								" = g." + GPX_COL_NAME + " AND t." + GPX_COL_DIR + " = g." + GPX_COL_DIR + ") LIMIT " + limit,
+						null);
+				if (query != null) {
+					try {
+						if (query.moveToFirst()) {
+							do {
+								files.add(getFile(query.getString(0), query.getString(1)));
+							} while (query.moveToNext());
+						}
+					} finally {
+						query.close();
+					}
+				}
+			} finally {
+				db.close();
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Tracks not indexed yet by the background pass of GpxDbHelper are not returned.
+	 * Bounds with left greater than right cross the antimeridian.
+	 *
+	 * @return tracks with lines or points in the tiles which intersect the bounds
+	 */
+	@NonNull
+	public Set<File> getTrackFiles(@NonNull QuadRect latLonBounds) {
+		return getTrackFiles(latLonBounds, null, 0);
+	}
+
+	/**
+	 * Tracks are prefiltered by the tiles, so returned tracks are only candidates to be checked
+	 * by the exact distance, see {@link #isTrackInRadius}.
+	 *
+	 * @return tracks with lines or points in the tiles within the radius
+	 */
+	@NonNull
+	public Set<File> getTrackFiles(@NonNull LatLon latLon, int radiusMeters) {
+		QuadRect bbox = MapUtils.calculateLatLonBbox(latLon.getLatitude(), latLon.getLongitude(), radiusMeters);
+		return getTrackFiles(bbox, latLon, radiusMeters);
+	}
+
+	@NonNull
+	private Set<File> getTrackFiles(@NonNull QuadRect latLonBounds, @Nullable LatLon latLon, int radiusMeters) {
+		Set<File> files = new HashSet<>();
+		SQLiteConnection db = openConnection(true);
+		if (db != null) {
+			try {
+				int left = (int) MapUtils.getTileNumberX(GPX_TILES_ZOOM, latLonBounds.left);
+				int right = (int) MapUtils.getTileNumberX(GPX_TILES_ZOOM, latLonBounds.right);
+				int top = (int) MapUtils.getTileNumberY(GPX_TILES_ZOOM, latLonBounds.top);
+				int bottom = (int) MapUtils.getTileNumberY(GPX_TILES_ZOOM, latLonBounds.bottom);
+				int maxTile = (1 << GPX_TILES_ZOOM) - 1;
+				String[] args;
+				String xCondition;
+				if (left <= right) {
+					xCondition = GPX_TILES_COL_X + " BETWEEN ? AND ?";
+					args = new String[] {String.valueOf(left), String.valueOf(right),
+							String.valueOf(top), String.valueOf(bottom)};
+				} else {
+					xCondition = "(" + GPX_TILES_COL_X + " BETWEEN ? AND ? OR " + GPX_TILES_COL_X + " BETWEEN ? AND ?)";
+					args = new String[] {String.valueOf(left), String.valueOf(maxTile), "0", String.valueOf(right),
+							String.valueOf(top), String.valueOf(bottom)};
+				}
+				String columns = latLon == null ? "DISTINCT " + GPX_COL_NAME + ", " + GPX_COL_DIR
+						: GPX_COL_NAME + ", " + GPX_COL_DIR + ", " + GPX_TILES_COL_X + ", " + GPX_TILES_COL_Y;
+				SQLiteCursor query = db.rawQuery("SELECT " + columns + " FROM " + GPX_TILES_TABLE_NAME +
+						" WHERE " + xCondition + " AND " + GPX_TILES_COL_Y + " BETWEEN ? AND ?", args);
+				if (query != null) {
+					try {
+						if (query.moveToFirst()) {
+							do {
+								if (latLon == null || getTileDistance(latLon, query.getInt(2), query.getInt(3)) <= radiusMeters) {
+									files.add(getFile(query.getString(0), query.getString(1)));
+								}
+							} while (query.moveToNext());
+						}
+					} finally {
+						query.close();
+					}
+				}
+			} finally {
+				db.close();
+			}
+		}
+		return files;
+	}
+
 	@NonNull
 	public List<GpxDataItem> getItems() {
 		Set<GpxDataItem> items = new HashSet<>();
@@ -7,8 +7,13 @@ import android.util.Pair;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 
+import net.osmand.data.LatLon;
+import net.osmand.data.QuadRect;
+import net.osmand.gpx.GPXFile;
 import net.osmand.gpx.GPXTrackAnalysis;
+import net.osmand.gpx.GPXUtilities;
 import net.osmand.plus.OsmandApplication;
 import net.osmand.plus.configmap.tracks.TrackItem;
 import net.osmand.plus.track.GpxSplitType;
@@ -18,14 +23,23 @@ import net.osmand.plus.track.helpers.GpxReaderTask.GpxDbReaderCallback;
 import net.osmand.util.Algorithms;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import gnu.trove.set.hash.TLongHashSet;
 
 public class GpxDbHelper implements GpxDbReaderCallback {
 
 	private static final int MAX_ITEMS_CACHE_SIZE = 5000;
+	private static final int TILES_INDEX_BATCH_SIZE = 50;
 
 	private final OsmandApplication app;
 	private final GPXDatabase database;
@@ -36,6 +50,8 @@ public class GpxDbHelper implements GpxDbReaderCallback {
 	private final Map<File, GpxDataItem> readingItemsMap = new ConcurrentHashMap<>();
 	private final Map<File, GpxDataItemCallback> readingItemsCallbacks = new ConcurrentHashMap<>();
 
+	private final ExecutorService tilesIndexExecutor = Executors.newSingleThreadExecutor();
+
 	private GpxReaderTask readerTask;
 
 	public interface GpxDataItemCallback {
@@ -58,15 +74,44 @@ public class GpxDbHelper implements GpxDbReaderCallback {
 			putToCache(item);
 		}
 		loadNewGpxItems();
+		indexTrackTiles();
+	}
+
+	private void indexTrackTiles() {
+		tilesIndexExecutor.execute(() -> {
+			Set<File> processed = new HashSet<>();
+			List<File> files = database.getNotIndexedTrackFiles(TILES_INDEX_BATCH_SIZE);
+			// stop if files are not marked as indexed, e.g. database is not writable
+			while (!files.isEmpty() && processed.addAll(files)) {
+				Map<File, TLongHashSet> tracksTiles = new HashMap<>();
+				for (File file : files) {
+					TLongHashSet tiles = new TLongHashSet();
+					if (file.exists()) {
+						GPXFile gpxFile = GPXUtilities.loadGPXFile(file, null, false);
+						tiles = GPXDatabase.getTrackTiles(gpxFile);
+					}
+					tracksTiles.put(file, tiles);
+				}
+				database.updateTracksTiles(tracksTiles);
+				files = database.getNotIndexedTrackFiles(TILES_INDEX_BATCH_SIZE);
+			}
+		});
 	}
 
 	private void loadNewGpxItems() {
 		File gpxDir = app.getAppPath(GPX_INDEX_DIR);
 		List<GPXInfo> gpxInfos = GpxUiHelper.getGPXFiles(gpxDir, true);
+		List<GpxDataItem> newItems = new ArrayList<>();
 		for (GPXInfo gpxInfo : gpxInfos) {
 			File file = new File(gpxInfo.getFileName());
 			if (file.exists() && !file.isDirectory() && !hasItem(file)) {
-				add(new GpxDataItem(file));
+				newItems.add(new GpxDataItem(file));
+			}
+		}
+		if (!newItems.isEmpty()) {
+			database.add(newItems);
+			for (GpxDataItem item : newItems) {
+				putToCache(item);
 			}
 		}
 	}
@@ -216,6 +261,37 @@ public class GpxDbHelper implements GpxDbReaderCallback {
 		return database.getItems();
 	}
 
+	/**
+	 * @return tracks which pass through the bounds, tracks which were not indexed yet are not included
+	 */
+	@NonNull
+	public Set<File> getTrackFiles(@NonNull QuadRect latLonBounds) {
+		return database.getTrackFiles(latLonBounds);
+	}
+
+	/**
+	 * Candidates found by the tiles index are loaded to check the exact distance,
+	 * tracks which were not indexed yet are not included
+	 *
+	 * @return tracks with lines or points within the radius
+	 */
+	@NonNull
+	@WorkerThread
+	public Set<File> getTrackFiles(@NonNull LatLon latLon, int radiusMeters) {
+		Set<File> files = new HashSet<>();
+		for (File file : database.getTrackFiles(latLon, radiusMeters)) {
+			SelectedGpxFile selectedGpxFile = app.getSelectedGpxHelper().getSelectedFileByPath(file.getAbsolutePath());
+			GPXFile gpxFile = selectedGpxFile != null ? selectedGpxFile.getGpxFile() : null;
+			if (gpxFile == null && file.exists()) {
+				gpxFile = GPXUtilities.loadGPXFile(file, null, false);
+			}
+			if (gpxFile != null && GPXDatabase.isTrackInRadius(gpxFile, latLon, radiusMeters)) {
+				files.add(file);
+			}
+		}
+		return files;
+	}
+
 	public List<Pair<String, Integer>> getNearestCityList() {
 		return database.getNearestCityCollection();
 	}
@@ -270,7 +346,7 @@ public class GpxDbHelper implements GpxDbReaderCallback {
 
 	private boolean isGpxReading(@NonNull File file) {
 		GpxReaderTask analyser = this.readerTask;
-		return readingItems.contains(file) || (analyser != null && file.equals(analyser.getFile()));
+		return readingItems.contains(file) || (analyser != null && analyser.isReading(file));
 	}
 
 	private void readGpxItem(@NonNull File gpxFile, @Nullable GpxDataItem item, @Nullable GpxDataItemCallback callback) {
@@ -6,6 +6,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import net.osmand.CallbackWithObject;
+import net.osmand.PlatformUtil;
 import net.osmand.data.City.CityType;
 import net.osmand.data.LatLon;
 import net.osmand.gpx.GPXFile;
@@ -26,15 +27,30 @@ import net.osmand.search.core.SearchSettings;
 import net.osmand.util.Algorithms;
 import net.osmand.util.MapUtils;
 
+import org.apache.commons.logging.Log;
+
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import gnu.trove.set.hash.TLongHashSet;
 
 class GpxReaderTask extends AsyncTask<Void, GpxDataItem, Void> {
 
+	private static final Log log = PlatformUtil.getLog(GpxReaderTask.class);
+
+	private static final int READER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+	private static final int BATCH_SIZE = READER_THREADS * 4;
+
 	private final OsmandApplication app;
 	private final GPXDatabase database;
 	private final GpxDbHelper gpxDbHelper;
@@ -45,7 +61,7 @@ class GpxReaderTask extends AsyncTask<Void, GpxDataItem, Void> {
 	private final Map<File, GpxDataItem> readingItemsMap;
 	private final GpxDbReaderCallback listener;
 
-	private File file;
+	private final Set<File> processingFiles = Collections.newSetFromMap(new ConcurrentHashMap<>());
 	private SearchSettings searchSettings;
 
 
@@ -61,51 +77,29 @@ class GpxReaderTask extends AsyncTask<Void, GpxDataItem, Void> {
 		this.listener = listener;
 	}
 
-	@Nullable
-	public File getFile() {
-		return file;
+	public boolean isReading(@NonNull File file) {
+		return processingFiles.contains(file);
 	}
 
 	public boolean isReading() {
-		return !Algorithms.isEmpty(readingItems) || file != null;
+		return !Algorithms.isEmpty(readingItems) || !processingFiles.isEmpty();
 	}
 
 	@Override
 	protected Void doInBackground(Void... voids) {
 		SQLiteConnection conn = database.openConnection(false);
 		if (conn != null) {
+			ExecutorService executor = Executors.newFixedThreadPool(READER_THREADS);
 			try {
-				file = readingItems.poll();
-				while (file != null && !isCancelled()) {
-					GpxDataItem item = readingItemsMap.remove(file);
-					if (item != null && item.getFile() == null) {
-						item = database.getItem(file, conn);
-					}
-					if (GpxDbHelper.isAnalyseNeeded(file, item)) {
-						GPXFile gpxFile = GPXUtilities.loadGPXFile(file);
-						GPXTrackAnalysis analysis = gpxFile.getAnalysis(file.lastModified());
-						if (item == null || item.getFile() == null) {
-							item = new GpxDataItem(file, analysis);
-							database.insert(item, conn);
-						} else {
-							database.updateAnalysis(item, analysis, conn);
-						}
-						if (item.getFileCreationTime() <= 0) {
-							database.updateCreateTime(item, GPXUtilities.getCreationTime(gpxFile));
-						}
-					}
-					if (GpxDbHelper.isCitySearchNeeded(item)) {
-						setupNearestCityName(item);
-					}
-					if (listener != null) {
-						listener.onGpxDataItemRead(item);
-					}
-					if (!isCancelled()) {
-						publishProgress(item);
-					}
-					file = readingItems.poll();
+				List<File> files = pollFiles();
+				while (!files.isEmpty() && !isCancelled()) {
+					readFiles(files, conn, executor);
+					processingFiles.clear();
+					files = pollFiles();
 				}
 			} finally {
+				processingFiles.clear();
+				executor.shutdownNow();
 				conn.close();
 			}
 		} else {
@@ -114,6 +108,93 @@ class GpxReaderTask extends AsyncTask<Void, GpxDataItem, Void> {
 		return null;
 	}
 
+	@NonNull
+	private List<File> pollFiles() {
+		List<File> files = new ArrayList<>();
+		File file;
+		while (files.size() < BATCH_SIZE && (file = readingItems.poll()) != null) {
+			processingFiles.add(file);
+			files.add(file);
+		}
+		return files;
+	}
+
+	/**
+	 * Parses and analyses files in parallel, results of the batch are written in one transaction,
+	 * so already indexed files are not read again after restart.
+	 */
+	private void readFiles(@NonNull List<File> files, @NonNull SQLiteConnection conn, @NonNull ExecutorService executor) {
+		List<GpxDataItem> items = new ArrayList<>();
+		List<Future<GpxReadResult>> results = new ArrayList<>();
+		for (File file : files) {
+			GpxDataItem item = readingItemsMap.remove(file);
+			if (item != null && item.getFile() == null) {
+				item = database.getItem(file, conn);
+			}
+			items.add(item);
+			results.add(GpxDbHelper.isAnalyseNeeded(file, item) ? executor.submit(() -> readFile(file)) : null);
+		}
+		List<GpxDataItem> readItems = new ArrayList<>();
+		conn.beginTransaction();
+		try {
+			for (int i = 0; i < files.size() && !isCancelled(); i++) {
+				GpxDataItem item = items.get(i);
+				Future<GpxReadResult> future = results.get(i);
+				if (future != null) {
+					GpxReadResult result = getResult(future);
+					if (result == null) {
+						continue;
+					}
+					if (item == null || item.getFile() == null) {
+						item = new GpxDataItem(files.get(i), result.analysis);
+						database.insert(item, conn);
+					} else {
+						database.updateAnalysis(item, result.analysis, conn);
+					}
+					if (item.getFileCreationTime() <= 0) {
+						database.updateCreateTime(item, result.creationTime, conn);
+					}
+					database.updateTrackTiles(item.getFile(), result.tiles, conn);
+				}
+				if (item != null) {
+					readItems.add(item);
+				}
+			}
+			conn.setTransactionSuccessful();
+		} finally {
+			conn.endTransaction();
+		}
+		for (GpxDataItem item : readItems) {
+			if (GpxDbHelper.isCitySearchNeeded(item)) {
+				setupNearestCityName(item);
+			}
+			if (listener != null) {
+				listener.onGpxDataItemRead(item);
+			}
+		}
+		if (!isCancelled() && !readItems.isEmpty()) {
+			publishProgress(readItems.toArray(new GpxDataItem[0]));
+		}
+	}
+
+	@NonNull
+	private static GpxReadResult readFile(@NonNull File file) {
+		// general track is not used by analysis
+		GPXFile gpxFile = GPXUtilities.loadGPXFile(file, null, false);
+		GPXTrackAnalysis analysis = gpxFile.getAnalysis(file.lastModified());
+		return new GpxReadResult(analysis, GPXUtilities.getCreationTime(gpxFile), GPXDatabase.getTrackTiles(gpxFile));
+	}
+
+	@Nullable
+	private static GpxReadResult getResult(@NonNull Future<GpxReadResult> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException | ExecutionException e) {
+			log.error("Failed to read gpx file", e);
+			return null;
+		}
+	}
+
 	private void setupNearestCityName(@NonNull GpxDataItem item) {
 		if (app.isApplicationInitializing()) {
 			app.getAppInitializer().addListener(new AppInitializeListener() {
@@ -197,6 +278,19 @@ class GpxReaderTask extends AsyncTask<Void, GpxDataItem, Void> {
 		}
 	}
 
+	private static class GpxReadResult {
+
+		private final GPXTrackAnalysis analysis;
+		private final long creationTime;
+		private final TLongHashSet tiles;
+
+		GpxReadResult(@NonNull GPXTrackAnalysis analysis, long creationTime, @NonNull TLongHashSet tiles) {
+			this.analysis = analysis;
+			this.creationTime = creationTime;
+			this.tiles = tiles;
+		}
+	}
+
 	interface GpxDbReaderCallback {
 
 		@NonNull
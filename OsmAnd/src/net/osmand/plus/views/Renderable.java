@@ -12,6 +12,7 @@ import androidx.annotation.Nullable;
 
 import net.osmand.gpx.GPXUtilities;
 import net.osmand.gpx.GPXUtilities.WptPt;
+import net.osmand.gpx.GpxPointsIndex;
 import net.osmand.data.QuadRect;
 import net.osmand.data.RotatedTileBox;
 import net.osmand.plus.routing.ColoringType;
@@ -33,6 +34,8 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import gnu.trove.list.array.TIntArrayList;
+
 public class Renderable {
 
     private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
@@ -74,6 +77,7 @@ public class Renderable {
         protected List<RouteSegmentResult> routeSegments;
 
         protected QuadRect trackBounds;
+        protected GpxPointsIndex pointsIndex;
         protected double zoom = -1;
         protected AsynchronousResampler culler;       // The currently active resampler
         protected Paint paint;                        // MUST be set by 'updateLocalPaint' before use
@@ -132,6 +136,26 @@ public class Renderable {
             return changed;
         }
 
+        @NonNull
+        public GpxPointsIndex getPointsIndex() {
+            GpxPointsIndex index = pointsIndex;
+            if (index == null || index.getPoints() != points) {
+                index = new GpxPointsIndex(points);
+                pointsIndex = index;
+            } else {
+                index.update();
+            }
+            return index;
+        }
+
+        /**
+         * @return inclusive index ranges of the list which could be visible or null if all points should be checked
+         */
+        @Nullable
+        protected TIntArrayList getVisibleRanges(@NonNull List<WptPt> pts, @NonNull QuadRect tileBounds) {
+            return pts == points ? getPointsIndex().getRanges(tileBounds) : null;
+        }
+
         public GpxGeometryWay getGeometryWay() {
             return geometryWay;
         }
@@ -198,6 +222,7 @@ public class Renderable {
                     geometryWay.setTrackStyleParams(trackColor, trackWidth, dashPattern, drawArrows,
                             coloringType, routeInfoAttribute);
                     geometryWay.updateSegment(tileBox, points, routeSegments);
+                    geometryWay.setPointsIndex(points == this.points ? getPointsIndex() : null);
                     geometryWay.drawSegments(tileBox, canvas, quadRect.top, quadRect.left,
                             quadRect.bottom, quadRect.right, null, 0);
                 }
@@ -207,11 +232,26 @@ public class Renderable {
         protected void drawSolid(@NonNull List<WptPt> pts, @NonNull Paint p,
                                  @NonNull Canvas canvas, @NonNull RotatedTileBox tileBox) {
             QuadRect tileBounds = tileBox.getLatLonBounds();
-            WptPt lastPt = pts.get(0);
+            TIntArrayList ranges = getVisibleRanges(pts, tileBounds);
+            int rangesCount = ranges != null ? ranges.size() / 2 : 1;
+            Path path = new Path();
+            for (int r = 0; r < rangesCount; r++) {
+                int from = ranges != null ? ranges.get(r * 2) : 0;
+                int to = ranges != null ? ranges.get(r * 2 + 1) : pts.size() - 1;
+                drawSolidRange(pts, from, to, path, p, canvas, tileBox, tileBounds);
+            }
+            if (!path.isEmpty()) {
+                canvas.drawPath(path, p);
+            }
+        }
+
+        private void drawSolidRange(@NonNull List<WptPt> pts, int from, int to, @NonNull Path path,
+                                    @NonNull Paint p, @NonNull Canvas canvas, @NonNull RotatedTileBox tileBox,
+                                    @NonNull QuadRect tileBounds) {
+            WptPt lastPt = pts.get(from);
             boolean recalculateLastXY = true;
             boolean specificLast = false;
-            Path path = new Path();
-            for (int i = 1; i < pts.size(); i++) {
+            for (int i = from + 1; i <= to; i++) {
                 WptPt pt = pts.get(i);
                 if (arePointsInsideTile(pt, lastPt, tileBounds)) {
                     if (recalculateLastXY) {
@@ -244,9 +284,6 @@ public class Renderable {
                     lastPt = pt;
                 }
             }
-            if (!path.isEmpty()) {
-                canvas.drawPath(path, p);
-            }
         }
 
         protected void drawGradient(double zoom, @NonNull List<WptPt> pts, @NonNull Paint p,
@@ -258,9 +295,6 @@ public class Renderable {
             QuadRect tileBounds = tileBox.getLatLonBounds();
             boolean drawSegmentBorder = DRAW_BORDER && zoom >= BORDER_TYPE_ZOOM_THRESHOLD;
             Path path = new Path();
-            boolean recalculateLastXY = true;
-            boolean specificLast = false;
-            WptPt lastPt = pts.get(0);
 
             List<PointF> gradientPoints = new ArrayList<>();
             List<Integer> gradientColors = new ArrayList<>();
@@ -269,60 +303,69 @@ public class Renderable {
             List<Path> paths = new ArrayList<>();
             List<LinearGradient> gradients = new ArrayList<>();
 
-            for (int i = 1; i < pts.size(); i++) {
-                WptPt pt = pts.get(i);
-                WptPt nextPt = i + 1 < pts.size() ? pts.get(i + 1) : null;
-                float nextX = nextPt == null ? 0 : tileBox.getPixXFromLatLon(nextPt.lat, nextPt.lon);
-                float nextY = nextPt == null ? 0 : tileBox.getPixYFromLatLon(nextPt.lat, nextPt.lon);
-                float lastX = 0;
-                float lastY = 0;
-                if (arePointsInsideTile(pt, lastPt, tileBounds)) {
-                    if (recalculateLastXY) {
-                        recalculateLastXY = false;
-                        lastX = tileBox.getPixXFromLatLon(lastPt.lat, lastPt.lon);
-                        lastY = tileBox.getPixYFromLatLon(lastPt.lat, lastPt.lon);
-                        if (!path.isEmpty()) {
-                            paths.add(new Path(path));
-                            gradients.add(createGradient(gradientPoints, gradientColors));
+            TIntArrayList ranges = getVisibleRanges(pts, tileBounds);
+            int rangesCount = ranges != null ? ranges.size() / 2 : 1;
+            for (int r = 0; r < rangesCount; r++) {
+                int from = ranges != null ? ranges.get(r * 2) : 0;
+                int to = ranges != null ? ranges.get(r * 2 + 1) : pts.size() - 1;
+                boolean recalculateLastXY = true;
+                boolean specificLast = false;
+                WptPt lastPt = pts.get(from);
+                for (int i = from + 1; i <= to; i++) {
+                    WptPt pt = pts.get(i);
+                    WptPt nextPt = i + 1 < pts.size() ? pts.get(i + 1) : null;
+                    float nextX = nextPt == null ? 0 : tileBox.getPixXFromLatLon(nextPt.lat, nextPt.lon);
+                    float nextY = nextPt == null ? 0 : tileBox.getPixYFromLatLon(nextPt.lat, nextPt.lon);
+                    float lastX = 0;
+                    float lastY = 0;
+                    if (arePointsInsideTile(pt, lastPt, tileBounds)) {
+                        if (recalculateLastXY) {
+                            recalculateLastXY = false;
+                            lastX = tileBox.getPixXFromLatLon(lastPt.lat, lastPt.lon);
+                            lastY = tileBox.getPixYFromLatLon(lastPt.lat, lastPt.lon);
+                            if (!path.isEmpty()) {
+                                paths.add(new Path(path));
+                                gradients.add(createGradient(gradientPoints, gradientColors));
+                            }
+                            path.reset();
+                            path.moveTo(lastX, lastY);
+
+                            gradientPoints.clear();
+                            gradientColors.clear();
+                            gradientPoints.add(new PointF(lastX, lastY));
+                            gradientColors.add(lastPt.getColor(scaleType.toColorizationType()));
                         }
-                        path.reset();
-                        path.moveTo(lastX, lastY);
-
-                        gradientPoints.clear();
-                        gradientColors.clear();
-                        gradientPoints.add(new PointF(lastX, lastY));
-                        gradientColors.add(lastPt.getColor(scaleType.toColorizationType()));
-                    }
-                    if (Math.abs(pt.lon - lastPt.lon) >= 180) {
-                        pt = GPXUtilities.projectionOnPrimeMeridian(lastPt, pt);
-                        lastPt = new WptPt(pt);
-                        lastPt.lon = -lastPt.lon;
-                        recalculateLastXY = true;
-                        specificLast = true;
-                        i--;
-                    }
-                    float x = tileBox.getPixXFromLatLon(pt.lat, pt.lon);
-                    float y = tileBox.getPixYFromLatLon(pt.lat, pt.lon);
-                    path.lineTo(x, y);
-                    gradientPoints.add(new PointF(x, y));
-                    gradientColors.add(pt.getColor(scaleType.toColorizationType()));
-
-                    if (gradientColors.size() == 2) {
-                        gradientAngle = calculateAngle(lastX, lastY, x, y);
-                    }
-                    if (nextPt != null) {
-                        float nextAngle = calculateAngle(x, y, nextX, nextY);
-                        if (Math.abs(nextAngle - gradientAngle) > 20) {
+                        if (Math.abs(pt.lon - lastPt.lon) >= 180) {
+                            pt = GPXUtilities.projectionOnPrimeMeridian(lastPt, pt);
+                            lastPt = new WptPt(pt);
+                            lastPt.lon = -lastPt.lon;
                             recalculateLastXY = true;
+                            specificLast = true;
+                            i--;
+                        }
+                        float x = tileBox.getPixXFromLatLon(pt.lat, pt.lon);
+                        float y = tileBox.getPixYFromLatLon(pt.lat, pt.lon);
+                        path.lineTo(x, y);
+                        gradientPoints.add(new PointF(x, y));
+                        gradientColors.add(pt.getColor(scaleType.toColorizationType()));
+
+                        if (gradientColors.size() == 2) {
+                            gradientAngle = calculateAngle(lastX, lastY, x, y);
+                        }
+                        if (nextPt != null) {
+                            float nextAngle = calculateAngle(x, y, nextX, nextY);
+                            if (Math.abs(nextAngle - gradientAngle) > 20) {
+                                recalculateLastXY = true;
+                            }
                         }
+                    } else {
+                        recalculateLastXY = true;
+                    }
+                    if (specificLast) {
+                        specificLast = false;
+                    } else {
+                        lastPt = pt;
                     }
-                } else {
-                    recalculateLastXY = true;
-                }
-                if (specificLast) {
-                    specificLast = false;
-                } else {
-                    lastPt = pt;
                 }
             }
             if (!path.isEmpty()) {
@@ -109,6 +109,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import gnu.trove.list.array.TIntArrayList;
+
 public class GPXLayer extends OsmandMapLayer implements IContextMenuProvider, IMoveObjectProvider, MapTextProvider<WptPt> {
 
 	private static final Log log = PlatformUtil.getLog(GPXLayer.class);
@@ -1387,6 +1389,7 @@ public class GPXLayer extends OsmandMapLayer implements IContextMenuProvider, IM
 		}
 
 		LatLon latLonFromPixel = null;
+		QuadRect touchBounds = getTouchLatLonBounds(tb, point, radius, touchPolygon31);
 
 		for (SelectedGpxFile selectedGpxFile : selectedGpxFiles) {
 			if (!isGpxFileVisible(selectedGpxFile, tb)) {
@@ -1395,9 +1398,7 @@ public class GPXLayer extends OsmandMapLayer implements IContextMenuProvider, IM
 
 			Pair<WptPt, WptPt> line = null;
 			for (TrkSegment segment : selectedGpxFile.getPointsToDisplay()) {
-				line = mapRenderer != null
-						? GpxUtils.findLineInPolygon31(touchPolygon31, segment.points)
-						: GpxUtils.findLineNearPoint(tb, segment.points, radius, (int) point.x, (int) point.y);
+				line = findLineNearPoint(tb, segment, touchBounds, touchPolygon31, radius, point);
 				if (line != null) {
 					break;
 				}
@@ -1412,6 +1413,59 @@ public class GPXLayer extends OsmandMapLayer implements IContextMenuProvider, IM
 		}
 	}
 
+	@Nullable
+	private Pair<WptPt, WptPt> findLineNearPoint(@NonNull RotatedTileBox tb, @NonNull TrkSegment segment,
+	                                             @NonNull QuadRect touchBounds, @Nullable List<PointI> touchPolygon31,
+	                                             int radius, @NonNull PointF point) {
+		List<WptPt> points = segment.points;
+		TIntArrayList ranges = null;
+		if (segment.renderer instanceof RenderableSegment) {
+			RenderableSegment renderableSegment = (RenderableSegment) segment.renderer;
+			if (renderableSegment.points == points) {
+				ranges = renderableSegment.getPointsIndex().getRanges(touchBounds);
+			}
+		}
+		int rangesCount = ranges != null ? ranges.size() / 2 : 1;
+		for (int i = 0; i < rangesCount; i++) {
+			List<WptPt> pts = ranges != null ? points.subList(ranges.get(i * 2), ranges.get(i * 2 + 1) + 1) : points;
+			Pair<WptPt, WptPt> line = touchPolygon31 != null
+					? GpxUtils.findLineInPolygon31(touchPolygon31, pts)
+					: GpxUtils.findLineNearPoint(tb, pts, radius, (int) point.x, (int) point.y);
+			if (line != null) {
+				return line;
+			}
+		}
+		return null;
+	}
+
+	@NonNull
+	private QuadRect getTouchLatLonBounds(@NonNull RotatedTileBox tb, @NonNull PointF point, int radius,
+	                                      @Nullable List<PointI> touchPolygon31) {
+		QuadRect bounds = new QuadRect(Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+				Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+		if (touchPolygon31 != null) {
+			for (PointI p : touchPolygon31) {
+				extendBounds(bounds, MapUtils.get31LatitudeY(p.getY()), MapUtils.get31LongitudeX(p.getX()));
+			}
+		} else {
+			int[] offsets = {-radius, radius};
+			for (int dx : offsets) {
+				for (int dy : offsets) {
+					LatLon latLon = tb.getLatLonFromPixel(point.x + dx, point.y + dy);
+					extendBounds(bounds, latLon.getLatitude(), latLon.getLongitude());
+				}
+			}
+		}
+		return bounds;
+	}
+
+	private static void extendBounds(@NonNull QuadRect bounds, double lat, double lon) {
+		bounds.left = Math.min(bounds.left, lon);
+		bounds.right = Math.max(bounds.right, lon);
+		bounds.top = Math.max(bounds.top, lat);
+		bounds.bottom = Math.min(bounds.bottom, lat);
+	}
+
 	@Override
 	public PointDescription getObjectName(Object o) {
 		if (o instanceof WptPt) {
@@ -31,6 +31,7 @@ import net.osmand.plus.plugins.PluginsHelper;
 import net.osmand.plus.plugins.mapillary.MapillaryPlugin;
 import net.osmand.plus.plugins.rastermaps.OsmandRasterMapsPlugin;
 import net.osmand.plus.resources.ResourceManager;
+import net.osmand.plus.resources.SQLiteTileSource;
 import net.osmand.plus.settings.backend.OsmandSettings;
 import net.osmand.plus.settings.backend.preferences.CommonPreference;
 import net.osmand.plus.views.MapTileAdapter;
@@ -357,9 +358,16 @@ public class MapTileLayer extends BaseMapLayer {
 
 		int tiles = (width + ADDITIONAL_TILE_CACHE) * (height + ADDITIONAL_TILE_CACHE);
 		mgr.setMapTileLayerSizes(this, tiles);
+		if (map instanceof SQLiteTileSource) {
+			((SQLiteTileSource) map).setReadAheadWindow(nzoom, left, top, left + width - 1, top + height - 1);
+		}
 
 		boolean useInternet = (PluginsHelper.isActive(OsmandRasterMapsPlugin.class) || PluginsHelper.isActive(MapillaryPlugin.class))
 				&& settings.isInternetConnectionAvailable() && map.couldBeDownloadedFromInternet();
+		if (useInternet) {
+			// same for all tile layers (without elliptic correction), otherwise layers would cancel requests of each other
+			mgr.getMapTileDownloader().updateViewport(nzoom, tilesRect.left, tilesRect.top, tilesRect.right, tilesRect.bottom);
+		}
 		int maxLevel = map.getMaximumZoomSupported();
 		int tileSize = map.getTileSize();
 		boolean oneTileShown = false;
@@ -25,6 +25,8 @@ import java.util.TreeMap;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import gnu.trove.list.array.TByteArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.set.hash.TIntHashSet;
 
 public abstract class GeometryWay<T extends GeometryWayContext, D extends GeometryWayDrawer<T>> {
 
@@ -36,6 +38,7 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 	private GeometryWayProvider locationProvider;
 	protected Map<Integer, GeometryWayStyle<?>> styleMap = Collections.emptyMap();
 	protected TreeMap<Integer, PathGeometryZoom> zooms = new TreeMap<>();
+	private GeometryWaySimplificationIndex simplificationIndex;
 
 	// cache arrays
 	private final List<Integer> indexes = new ArrayList<>();
@@ -135,6 +138,7 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 		this.styleMap = styleMap == null ? Collections.emptyMap() : styleMap;
 		this.mapDensity = tb.getMapDensity();
 		this.zooms = new TreeMap<>();
+		this.simplificationIndex = null;
 		clearPathCache();
 	}
 
@@ -147,6 +151,7 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 		this.styleMap = styleMap == null ? Collections.emptyMap() : styleMap;
 		this.mapDensity = tb.getMapDensity();
 		this.zooms = new TreeMap<>();
+		this.simplificationIndex = null;
 		clearPathCache();
 	}
 
@@ -154,6 +159,7 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 		this.locationProvider = null;
 		this.styleMap = Collections.emptyMap();
 		this.zooms = new TreeMap<>();
+		this.simplificationIndex = null;
 		resetSymbolProviders();
 		clearPathCache();
 	}
@@ -189,15 +195,26 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 
 	protected PathGeometryZoom getGeometryZoom(RotatedTileBox tb) {
 		int zoom = tb.getZoom();
-		PathGeometryZoom zm = zooms.size() > zoom ? zooms.get(zoom) : null;
+		PathGeometryZoom zm = zooms.get(zoom);
 		if (zm == null) {
 			boolean simplify = tb.getZoom() < context.getSimplificationZoom();
-			zm = new PathGeometryZoom(locationProvider, tb, simplify, getForceIncludedLocationIndexes());
+			zm = new PathGeometryZoom(locationProvider, tb, simplify, getForceIncludedLocationIndexes(),
+					simplify ? getSimplificationIndex() : null);
 			zooms.put(zoom, zm);
 		}
 		return zm;
 	}
 
+	@NonNull
+	protected GeometryWaySimplificationIndex getSimplificationIndex() {
+		GeometryWaySimplificationIndex index = simplificationIndex;
+		if (index == null || index.getSize() != locationProvider.getSize()) {
+			index = new GeometryWaySimplificationIndex(locationProvider);
+			simplificationIndex = index;
+		}
+		return index;
+	}
+
 	@NonNull
 	protected List<Integer> getForceIncludedLocationIndexes() {
 		return Collections.emptyList();
@@ -220,7 +237,8 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 		boolean hasMapRenderer = mapRenderer != null;
 		PathGeometryZoom geometryZoom = !hasMapRenderer ? getGeometryZoom(tb) : null;
 		TByteArrayList simplification = geometryZoom != null ? geometryZoom.getSimplifyPoints() : null;
-		List<Double> odistances = geometryZoom != null ? geometryZoom.getDistances() : null;
+		double[] odistances = geometryZoom != null ? geometryZoom.getDistances() : null;
+		int odistancesSize = geometryZoom != null ? geometryZoom.getSize() : 0;
 
 		clearArrays();
 
@@ -249,15 +267,35 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 		int previous = -1;
 		int previousVisibleIdx = -1;
 		boolean ignorePrevious = false;
+		TIntArrayList ranges = getVisibleRanges(topLatitude, leftLongitude, bottomLatitude, rightLongitude);
+		int rangeIdx = 0;
 
 		for (int i = startLocationIndex; i < locationProvider.getSize(); i++) {
+			if (ranges != null && !previousVisible) {
+				while (rangeIdx < ranges.size() && ranges.getQuick(rangeIdx + 1) < i) {
+					rangeIdx += 2;
+				}
+				if (rangeIdx >= ranges.size()) {
+					break;
+				}
+				int rangeStart = ranges.getQuick(rangeIdx);
+				if (rangeStart > i) {
+					for (int k = rangeStart - 1; k >= i; k--) {
+						if (!shouldSkipLocation(simplification, styleMap, k)) {
+							previous = k;
+							break;
+						}
+					}
+					i = rangeStart;
+				}
+			}
 			style = getStyle(i, defaultWayStyle);
 			if (shouldSkipLocation(simplification, styleMap, i)) {
 				continue;
 			}
 			if (shouldAddLocation(simplification, leftLongitude, rightLongitude, bottomLatitude, topLatitude,
 					locationProvider, previousVisibleIdx, i)) {
-				double dist = previous == -1 || odistances == null ? 0 : odistances.get(i);
+				double dist = previous == -1 || odistances == null ? 0 : odistances[i];
 				if (!previousVisible && !ignorePrevious) {
 					if (previous != -1 && !isPreviousPointFarAway(locationProvider, previous, i)) {
 						addLocation(tb, previous, dist, style, indexes, tx, ty, tx31, ty31, angles, distances, styles);
@@ -275,14 +313,14 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 					ignorePrevious = true;
 					previousVisibleIdx = -1;
 				} else {
-					addLocation(tb, i, previous == -1 || odistances == null ? 0 : odistances.get(i), style,
+					addLocation(tb, i, previous == -1 || odistances == null ? 0 : odistances[i], style,
 							indexes, tx, ty, tx31, ty31, angles, distances, styles);
 					ignorePrevious = false;
 				}
 				double distToFinish = 0;
 				if (odistances != null) {
-					for (int ki = i + 1; ki < odistances.size(); ki++) {
-						distToFinish += odistances.get(ki);
+					for (int ki = i + 1; ki < odistancesSize; ki++) {
+						distToFinish += odistances[ki];
 					}
 				}
 				drawRouteSegment(tb, canvas, indexes, tx, ty, tx31, ty31, angles, distances, distToFinish, styles);
@@ -294,6 +332,16 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 		drawRouteSegment(tb, canvas, indexes, tx, ty, tx31, ty31, angles, distances, 0, styles);
 	}
 
+	/**
+	 * @return sorted inclusive index ranges (from, to pairs) of the locations which could be inside of the bounds
+	 * or could form a line crossing them, null if every location should be checked
+	 */
+	@Nullable
+	protected TIntArrayList getVisibleRanges(double topLatitude, double leftLongitude,
+	                                         double bottomLatitude, double rightLongitude) {
+		return null;
+	}
+
 	protected boolean shouldSkipLocation(@Nullable TByteArrayList simplification, Map<Integer, GeometryWayStyle<?>> styleMap, int locationIdx) {
 		return simplification != null && simplification.getQuick(locationIdx) == 0 && !styleMap.containsKey(locationIdx);
 	}
@@ -722,18 +770,29 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 		private static final float EPSILON_IN_DPI = 2;
 
 		private final TByteArrayList simplifyPoints;
-		private final List<Double> distances;
-		private final List<Double> angles;
+		private final double[] distances;
+		private final double[] angles;
+		private int size;
+		@Nullable
+		private final GeometryWaySimplificationIndex simplificationIndex;
 
 		public PathGeometryZoom(GeometryWayProvider locationProvider, RotatedTileBox tb, boolean simplify,
 		                        @NonNull List<Integer> forceIncludedIndexes) {
+			this(locationProvider, tb, simplify, forceIncludedIndexes, null);
+		}
+
+		public PathGeometryZoom(GeometryWayProvider locationProvider, RotatedTileBox tb, boolean simplify,
+		                        @NonNull List<Integer> forceIncludedIndexes,
+		                        @Nullable GeometryWaySimplificationIndex simplificationIndex) {
 			//  this.locations = locations;
+			this.simplificationIndex = simplificationIndex;
 			tb = new RotatedTileBox(tb);
 			tb.setZoomAndAnimation(tb.getZoom(), 0, tb.getZoomFloatPart());
 			int size = locationProvider.getSize();
 			simplifyPoints = new TByteArrayList(size);
-			distances = new ArrayList<>(size);
-			angles = new ArrayList<>(size);
+			distances = new double[size];
+			angles = new double[size];
+			TIntHashSet forceIncluded = new TIntHashSet(forceIncludedIndexes);
 			if (simplify) {
 				simplifyPoints.fill(0, size, (byte) 0);
 				simplify(tb, locationProvider, simplifyPoints);
@@ -744,7 +803,7 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 			for (int i = 0; i < size; i++) {
 				double d = 0;
 				double angle = 0;
-				if (simplifyPoints.get(i) > 0 || forceIncludedIndexes.contains(i)) {
+				if (simplifyPoints.get(i) > 0 || forceIncluded.contains(i)) {
 					if (previousIndex > -1) {
 						float x = tb.getPixXFromLatLon(locationProvider.getLatitude(i), locationProvider.getLongitude(i));
 						float y = tb.getPixYFromLatLon(locationProvider.getLatitude(i), locationProvider.getLongitude(i));
@@ -758,8 +817,9 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 					}
 					previousIndex = i;
 				}
-				distances.add(d);
-				angles.add(angle);
+				distances[this.size] = d;
+				angles[this.size] = angle;
+				this.size++;
 			}
 		}
 
@@ -770,36 +830,21 @@ public abstract class GeometryWay<T extends GeometryWayContext, D extends Geomet
 			}
 			double distInPix = (tb.getDistance(0, 0, tb.getPixWidth(), 0) / tb.getPixWidth());
 			double cullDistance = (distInPix * (EPSILON_IN_DPI * Math.max(1, tb.getDensity())));
-			cullRamerDouglasPeucker(simplifyPoints, locationProvider, 0, size - 1, cullDistance);
+			GeometryWaySimplificationIndex index = simplificationIndex != null && simplificationIndex.getSize() == size
+					? simplificationIndex : new GeometryWaySimplificationIndex(locationProvider);
+			index.simplify(cullDistance, simplifyPoints);
 		}
 
-		public List<Double> getDistances() {
+		public double[] getDistances() {
 			return distances;
 		}
 
-		public List<Double> getAngles() {
+		public double[] getAngles() {
 			return angles;
 		}
 
-		private void cullRamerDouglasPeucker(TByteArrayList survivor, GeometryWayProvider locationProvider,
-											 int start, int end, double epsillon) {
-			double dmax = Double.NEGATIVE_INFINITY;
-			int index = -1;
-			for (int i = start + 1; i < end; i++) {
-				double d = MapUtils.getOrthogonalDistance(locationProvider.getLatitude(i), locationProvider.getLongitude(i),
-						locationProvider.getLatitude(start), locationProvider.getLongitude(start),
-						locationProvider.getLatitude(end), locationProvider.getLongitude(end));
-				if (d > dmax) {
-					dmax = d;
-					index = i;
-				}
-			}
-			if (dmax > epsillon) {
-				cullRamerDouglasPeucker(survivor, locationProvider, start, index, epsillon);
-				cullRamerDouglasPeucker(survivor, locationProvider, index, end, epsillon);
-			} else {
-				survivor.set(end, (byte) 1);
-			}
+		public int getSize() {
+			return size;
 		}
 
 		public TByteArrayList getSimplifyPoints() {
@@ -0,0 +1,103 @@
+package net.osmand.plus.views.layers.geometry;
+
+import androidx.annotation.NonNull;
+
+import net.osmand.plus.views.layers.geometry.GeometryWay.GeometryWayProvider;
+import net.osmand.util.MapUtils;
+
+import java.util.Arrays;
+
+import gnu.trove.list.array.TByteArrayList;
+
+/**
+ * Ramer-Douglas-Peucker ranks of the way points, calculated once per way.
+ * Point is kept by RDP with tolerance epsilon only if its rank is greater than epsilon,
+ * so simplification for any zoom is a linear filter over the ranks.
+ */
+public class GeometryWaySimplificationIndex {
+
+	private final double[] ranks;
+
+	public GeometryWaySimplificationIndex(@NonNull GeometryWayProvider provider) {
+		int size = provider.getSize();
+		double[] lats = new double[size];
+		double[] lons = new double[size];
+		for (int i = 0; i < size; i++) {
+			lats[i] = provider.getLatitude(i);
+			lons[i] = provider.getLongitude(i);
+		}
+		ranks = new double[size];
+		if (size > 0) {
+			ranks[0] = Double.POSITIVE_INFINITY;
+			ranks[size - 1] = Double.POSITIVE_INFINITY;
+		}
+		// explicit stack instead of recursion (long tracks)
+		int[] starts = new int[64];
+		int[] ends = new int[64];
+		double[] limits = new double[64];
+		int stackSize = 0;
+		if (size > 2) {
+			starts[0] = 0;
+			ends[0] = size - 1;
+			limits[0] = Double.POSITIVE_INFINITY;
+			stackSize = 1;
+		}
+		while (stackSize > 0) {
+			stackSize--;
+			int start = starts[stackSize];
+			int end = ends[stackSize];
+			double limit = limits[stackSize];
+			double dmax = Double.NEGATIVE_INFINITY;
+			int index = -1;
+			for (int i = start + 1; i < end; i++) {
+				double d = MapUtils.getOrthogonalDistance(lats[i], lons[i], lats[start], lons[start], lats[end], lons[end]);
+				if (d > dmax) {
+					dmax = d;
+					index = i;
+				}
+			}
+			if (index == -1) {
+				for (int i = start + 1; i < end; i++) {
+					ranks[i] = Double.NEGATIVE_INFINITY;
+				}
+				continue;
+			}
+			double rank = Math.min(limit, dmax);
+			ranks[index] = rank;
+			if (stackSize + 2 > starts.length) {
+				int capacity = starts.length * 2;
+				starts = Arrays.copyOf(starts, capacity);
+				ends = Arrays.copyOf(ends, capacity);
+				limits = Arrays.copyOf(limits, capacity);
+			}
+			if (index - start > 1) {
+				starts[stackSize] = start;
+				ends[stackSize] = index;
+				limits[stackSize] = rank;
+				stackSize++;
+			}
+			if (end - index > 1) {
+				starts[stackSize] = index;
+				ends[stackSize] = end;
+				limits[stackSize] = rank;
+				stackSize++;
+			}
+		}
+	}
+
+	public int getSize() {
+		return ranks.length;
+	}
+
+	public double getRank(int index) {
+		return ranks[index];
+	}
+
+	public void simplify(double epsilon, @NonNull TByteArrayList simplifyPoints) {
+		for (int i = 0; i < ranks.length; i++) {
+			if (ranks[i] > epsilon) {
+				simplifyPoints.set(i, (byte) 1);
+			}
+		}
+	}
+}
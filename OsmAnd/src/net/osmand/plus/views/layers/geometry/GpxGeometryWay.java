@@ -4,6 +4,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import net.osmand.gpx.GPXUtilities.WptPt;
+import net.osmand.gpx.GpxPointsIndex;
 import net.osmand.data.RotatedTileBox;
 import net.osmand.plus.routing.ColoringType;
 import net.osmand.plus.routing.RouteProvider;
@@ -18,12 +19,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
+import gnu.trove.list.array.TIntArrayList;
+
 public class GpxGeometryWay extends MultiColoringGeometryWay<GpxGeometryWayContext, GpxGeometryWayDrawer> {
 
 	public static final int VECTOR_LINES_RESERVED = 1000;
 
 	private List<WptPt> points;
 	private List<RouteSegmentResult> routeSegments;
+	private GpxPointsIndex pointsIndex;
 
 	private boolean drawDirectionArrows;
 
@@ -154,6 +158,23 @@ public class GpxGeometryWay extends MultiColoringGeometryWay<GpxGeometryWayConte
 		updateWay(new GradientGeometryWayProvider(null, colorizationPoints), createGradientStyles(colorizationPoints), tb);
 	}
 
+	public void setPointsIndex(@Nullable GpxPointsIndex pointsIndex) {
+		this.pointsIndex = pointsIndex;
+	}
+
+	@Nullable
+	@Override
+	protected TIntArrayList getVisibleRanges(double topLatitude, double leftLongitude,
+	                                         double bottomLatitude, double rightLongitude) {
+		GpxPointsIndex index = pointsIndex;
+		GeometryWayProvider provider = getLocationProvider();
+		if (index != null && !hasMapRenderer() && provider instanceof GeometryWayWptPtProvider
+				&& ((GeometryWayWptPtProvider) provider).points == index.getPoints()) {
+			return index.getRanges(leftLongitude, topLatitude, rightLongitude, bottomLatitude);
+		}
+		return null;
+	}
+
 	@Override
 	protected GeometryWayStyle<?> getStyle(int index, GeometryWayStyle<?> defaultWayStyle) {
 		return coloringType.isGradient() && styleMap.containsKey(index)
@@ -3,6 +3,7 @@ package net.osmand.plus.wikivoyage.data;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import net.osmand.ResultMatcher;
 import net.osmand.gpx.GPXFile;
 import net.osmand.data.LatLon;
 import net.osmand.data.QuadRect;
@@ -34,6 +35,15 @@ public interface TravelHelper {
 	@NonNull
 	List<WikivoyageSearchResult> search(@NonNull String searchQuery);
 
+	/**
+	 * @param resultMatcher gets found results before they are sorted, search is stopped when it's cancelled
+	 */
+	@NonNull
+	default List<WikivoyageSearchResult> search(@NonNull String searchQuery,
+	                                            @Nullable ResultMatcher<WikivoyageSearchResult> resultMatcher) {
+		return search(searchQuery);
+	}
+
 	@NonNull
 	List<TravelArticle> getPopularArticles();
 
@@ -26,12 +26,15 @@ import static net.osmand.util.Algorithms.capitalizeFirstLetter;
 
 import android.os.AsyncTask;
 import android.text.TextUtils;
+import android.util.LruCache;
 import android.util.Pair;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import net.osmand.Collator;
+import net.osmand.CollatorStringMatcher;
+import net.osmand.CollatorStringMatcher.StringMatcherMode;
 import net.osmand.gpx.GPXFile;
 import net.osmand.gpx.GPXUtilities.Track;
 import net.osmand.gpx.GPXUtilities.TrkSegment;
@@ -76,9 +79,11 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.set.TLongSet;
@@ -91,13 +96,18 @@ public class TravelObfHelper implements TravelHelper {
 	public static final int ARTICLE_SEARCH_RADIUS = 50 * 1000;
 	public static final int SAVED_ARTICLE_SEARCH_RADIUS = 30 * 1000;
 	public static final int MAX_SEARCH_RADIUS = 800 * 1000;
+	private static final int MAX_CACHED_ARTICLES = 100;
+	private static final int SEARCH_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
 
 	private final OsmandApplication app;
 	private final Collator collator;
 
 	private PopularArticles popularArticles = new PopularArticles();
-	private final Map<TravelArticleIdentifier, Map<String, TravelArticle>> cachedArticles = new ConcurrentHashMap<>();
+	private final LruCache<TravelArticleIdentifier, Map<String, TravelArticle>> cachedArticles = new LruCache<>(MAX_CACHED_ARTICLES);
 	private final TravelLocalDataHelper localDataHelper;
+	// every reader is used by one thread at a time, different readers are searched in parallel
+	private final ExecutorService searchExecutor = Executors.newFixedThreadPool(SEARCH_THREADS);
+	private final Object popularArticlesLock = new Object();
 	private int searchRadius = ARTICLE_SEARCH_RADIUS;
 	private int foundAmenitiesIndex;
 	private final List<Pair<File, Amenity>> foundAmenities = new ArrayList<>();
@@ -121,17 +131,26 @@ public class TravelObfHelper implements TravelHelper {
 	@Override
 	public void initializeDataToDisplay(boolean resetData) {
 		if (resetData) {
-			foundAmenities.clear();
-			foundAmenitiesIndex = 0;
-			popularArticles.clear();
-			searchRadius = ARTICLE_SEARCH_RADIUS;
+			synchronized (popularArticlesLock) {
+				foundAmenities.clear();
+				foundAmenitiesIndex = 0;
+				popularArticles.clear();
+				searchRadius = ARTICLE_SEARCH_RADIUS;
+			}
 		}
 		localDataHelper.refreshCachedData();
 		loadPopularArticles();
 	}
 
 	@NonNull
-	public synchronized PopularArticles loadPopularArticles() {
+	public PopularArticles loadPopularArticles() {
+		synchronized (popularArticlesLock) {
+			return loadPopularArticlesImpl();
+		}
+	}
+
+	@NonNull
+	private PopularArticles loadPopularArticlesImpl() {
 		String lang = app.getLanguage();
 		PopularArticles popularArticles = new PopularArticles(this.popularArticles);
 		if (isAnyTravelBookPresent()) {
@@ -139,13 +158,14 @@ public class TravelObfHelper implements TravelHelper {
 			do {
 				if (foundAmenities.size() - foundAmenitiesIndex < ARTICLES_PER_PAGE) {
 					LatLon location = app.getMapViewTrackingUtilities().getMapLocation();
-					for (BinaryMapIndexReader reader : getReaders()) {
-						try {
-							searchAmenity(foundAmenities, location, reader, searchRadius, -1, ROUTE_ARTICLE, lang);
-							searchAmenity(foundAmenities, location, reader, searchRadius / 5, 15, ROUTE_TRACK, null);
-						} catch (Exception e) {
-							LOG.error(e.getMessage(), e);
-						}
+					int radius = searchRadius;
+					for (List<Pair<File, Amenity>> amenities : searchReaders(getReaders(), reader -> {
+						List<Pair<File, Amenity>> found = new ArrayList<>();
+						searchAmenity(found, location, reader, radius, -1, ROUTE_ARTICLE, lang);
+						searchAmenity(found, location, reader, radius / 5, 15, ROUTE_TRACK, null);
+						return found;
+					})) {
+						foundAmenities.addAll(amenities);
 					}
 					if (foundAmenities.size() > 0) {
 						Collections.sort(foundAmenities, new Comparator<Pair<File, Amenity>>() {
@@ -188,17 +208,18 @@ public class TravelObfHelper implements TravelHelper {
 	}
 
 	@Nullable
-	public synchronized TravelGpx searchGpx(@NonNull LatLon location, @Nullable String filter, @Nullable String ref) {
+	public TravelGpx searchGpx(@NonNull LatLon location, @Nullable String filter, @Nullable String ref) {
 		List<Pair<File, Amenity>> foundAmenities = new ArrayList<>();
 		int searchRadius = ARTICLE_SEARCH_RADIUS;
 		TravelGpx travelGpx = null;
 		do {
-			for (BinaryMapIndexReader reader : getReaders()) {
-				try {
-					searchAmenity(foundAmenities, location, reader, searchRadius, 15, ROUTE_TRACK, null);
-				} catch (Exception e) {
-					LOG.error(e.getMessage(), e);
-				}
+			int radius = searchRadius;
+			for (List<Pair<File, Amenity>> amenities : searchReaders(getReaders(), reader -> {
+				List<Pair<File, Amenity>> found = new ArrayList<>();
+				searchAmenity(found, location, reader, radius, 15, ROUTE_TRACK, null);
+				return found;
+			})) {
+				foundAmenities.addAll(amenities);
 			}
 			for (Pair<File, Amenity> foundGpx : foundAmenities) {
 				Amenity amenity = foundGpx.second;
@@ -214,6 +235,59 @@ public class TravelObfHelper implements TravelHelper {
 		return travelGpx;
 	}
 
+	/**
+	 * Searches all readers in parallel, every reader is locked while it is searched.
+	 *
+	 * @return not null results in the order of readers
+	 */
+	@NonNull
+	private <T> List<T> searchReaders(@NonNull List<BinaryMapIndexReader> readers, @NonNull ReaderSearch<T> search) {
+		List<Future<T>> futures = new ArrayList<>();
+		for (BinaryMapIndexReader reader : readers) {
+			futures.add(searchExecutor.submit(() -> {
+				synchronized (reader) {
+					return search.search(reader);
+				}
+			}));
+		}
+		List<T> results = new ArrayList<>();
+		for (Future<T> future : futures) {
+			try {
+				T result = future.get();
+				if (result != null) {
+					results.add(result);
+				}
+			} catch (ExecutionException e) {
+				LOG.error(e.getMessage(), e);
+			} catch (InterruptedException e) {
+				for (Future<T> f : futures) {
+					f.cancel(false);
+				}
+				break;
+			}
+		}
+		return results;
+	}
+
+	private static void searchPoi(@NonNull BinaryMapIndexReader reader, @NonNull SearchRequest<Amenity> req) throws IOException {
+		synchronized (reader) {
+			reader.searchPoi(req);
+		}
+	}
+
+	private static void searchPoiByName(@NonNull BinaryMapIndexReader reader, @NonNull SearchRequest<Amenity> req) throws IOException {
+		synchronized (reader) {
+			reader.searchPoiByName(req);
+		}
+	}
+
+	private static void searchMapIndex(@NonNull BinaryMapIndexReader reader,
+	                                   @NonNull SearchRequest<BinaryMapDataObject> req) throws IOException {
+		synchronized (reader) {
+			reader.searchMapIndex(req);
+		}
+	}
+
 	private void searchAmenity(List<Pair<File, Amenity>> amenitiesList, LatLon location,
 	                           BinaryMapIndexReader reader, int searchRadius, int zoom,
 	                           String searchFilter, String lang) throws IOException {
@@ -345,46 +419,49 @@ public class TravelObfHelper implements TravelHelper {
 
 	@NonNull
 	@Override
-	public synchronized List<WikivoyageSearchResult> search(@NonNull String searchQuery) {
+	public List<WikivoyageSearchResult> search(@NonNull String searchQuery) {
+		return search(searchQuery, null);
+	}
+
+	@NonNull
+	@Override
+	public List<WikivoyageSearchResult> search(@NonNull String searchQuery,
+	                                           @Nullable ResultMatcher<WikivoyageSearchResult> resultMatcher) {
 		List<WikivoyageSearchResult> res = new ArrayList<>();
-		Map<File, List<Amenity>> amenityMap = new HashMap<>();
 		String appLang = app.getLanguage();
 		SearchUICore searchUICore = app.getSearchUICore().getCore();
 		SearchSettings settings = searchUICore.getSearchSettings();
 		SearchPhrase phrase = searchUICore.getPhrase().generateNewPhrase(searchQuery, settings);
 		NameStringMatcher matcher = phrase.getFirstUnknownNameStringMatcher();
 
-		for (BinaryMapIndexReader reader : getReaders()) {
-			try {
-				SearchRequest<Amenity> searchRequest = BinaryMapIndexReader.buildSearchPoiRequest(0, 0, searchQuery,
-						0, Integer.MAX_VALUE, 0, Integer.MAX_VALUE, getSearchFilter(ROUTE_ARTICLE), new ResultMatcher<Amenity>() {
-							@Override
-							public boolean publish(Amenity object) {
-								List<String> otherNames = object.getOtherNames(false);
-								String localeName = object.getName(appLang);
-								return matcher.matches(localeName) || matcher.matches(otherNames);
-							}
+		List<Pair<File, List<Amenity>>> amenitiesByFile = searchReaders(getReaders(), reader -> {
+			SearchRequest<Amenity> searchRequest = BinaryMapIndexReader.buildSearchPoiRequest(0, 0, searchQuery,
+					0, Integer.MAX_VALUE, 0, Integer.MAX_VALUE, getSearchFilter(ROUTE_ARTICLE), new ResultMatcher<Amenity>() {
+						@Override
+						public boolean publish(Amenity object) {
+							List<String> otherNames = object.getOtherNames(false);
+							String localeName = object.getName(appLang);
+							return matcher.matches(localeName) || matcher.matches(otherNames);
+						}
 
-							@Override
-							public boolean isCancelled() {
-								return false;
-							}
-						}, null);
+						@Override
+						public boolean isCancelled() {
+							return resultMatcher != null && resultMatcher.isCancelled();
+						}
+					}, null);
 
-				List<Amenity> amenities = reader.searchPoiByName(searchRequest);
-				if (!Algorithms.isEmpty(amenities)) {
-					amenityMap.put(reader.getFile(), amenities);
-				}
-			} catch (IOException e) {
-				LOG.error(e.getMessage(), e);
-			}
+			List<Amenity> amenities = reader.searchPoiByName(searchRequest);
+			return Algorithms.isEmpty(amenities) ? null : new Pair<>(reader.getFile(), amenities);
+		});
+		if (resultMatcher != null && resultMatcher.isCancelled()) {
+			return res;
 		}
-		if (!Algorithms.isEmpty(amenityMap)) {
+		if (!Algorithms.isEmpty(amenitiesByFile)) {
 			boolean appLangEn = "en".equals(appLang);
 			TLongSet uniqueIds = new TLongHashSet();
-			for (Entry<File, List<Amenity>> entry : amenityMap.entrySet()) {
-				File file = entry.getKey();
-				for (Amenity amenity : entry.getValue()) {
+			for (Pair<File, List<Amenity>> entry : amenitiesByFile) {
+				File file = entry.first;
+				for (Amenity amenity : entry.second) {
 					if (!uniqueIds.add(amenity.getId())) {
 						continue;
 					}
@@ -411,10 +488,13 @@ public class TravelObfHelper implements TravelHelper {
 						});
 						WikivoyageSearchResult r = new WikivoyageSearchResult(article, langs);
 						res.add(r);
+						if (resultMatcher != null) {
+							resultMatcher.publish(r);
+						}
 					}
 				}
 			}
-			sortSearchResults(res);
+			sortSearchResults(res, searchQuery);
 		}
 		return res;
 	}
@@ -441,6 +521,32 @@ public class TravelObfHelper implements TravelHelper {
 		Collections.sort(results, (o1, o2) -> collator.compare(o1.getArticleTitle(), o2.getArticleTitle()));
 	}
 
+	/**
+	 * Sorts titles equal to the query first, then titles starting with the query, then others by title.
+	 */
+	private void sortSearchResults(@NonNull List<WikivoyageSearchResult> results, @NonNull String query) {
+		List<WikivoyageSearchResult> equal = new ArrayList<>();
+		List<WikivoyageSearchResult> startsWith = new ArrayList<>();
+		List<WikivoyageSearchResult> others = new ArrayList<>();
+		for (WikivoyageSearchResult result : results) {
+			String title = result.getArticleTitle();
+			if (collator.equals(title, query)) {
+				equal.add(result);
+			} else if (CollatorStringMatcher.cmatches(collator, title, query, StringMatcherMode.CHECK_ONLY_STARTS_WITH)) {
+				startsWith.add(result);
+			} else {
+				others.add(result);
+			}
+		}
+		sortSearchResults(equal);
+		sortSearchResults(startsWith);
+		sortSearchResults(others);
+		results.clear();
+		results.addAll(equal);
+		results.addAll(startsWith);
+		results.addAll(others);
+	}
+
 	@NonNull
 	@Override
 	public List<TravelArticle> getPopularArticles() {
@@ -449,7 +555,7 @@ public class TravelObfHelper implements TravelHelper {
 
 	@NonNull
 	@Override
-	public synchronized Map<WikivoyageSearchResult, List<WikivoyageSearchResult>> getNavigationMap(@NonNull TravelArticle article) {
+	public Map<WikivoyageSearchResult, List<WikivoyageSearchResult>> getNavigationMap(@NonNull TravelArticle article) {
 		String lang = article.getLang();
 		String title = article.getTitle();
 		if (TextUtils.isEmpty(lang) || TextUtils.isEmpty(title)) {
@@ -518,39 +624,31 @@ public class TravelObfHelper implements TravelHelper {
 	}
 
 	private TravelArticle getParentArticleByTitle(String title, String lang) {
-		TravelArticle article = null;
-		List<Amenity> amenities = new ArrayList<>();
-		for (BinaryMapIndexReader reader : getReaders()) {
-			try {
-				SearchRequest<Amenity> req = BinaryMapIndexReader.buildSearchPoiRequest(
-						0, 0, title, 0, Integer.MAX_VALUE, 0, Integer.MAX_VALUE, getSearchFilter(ROUTE_ARTICLE),
-						new ResultMatcher<Amenity>() {
-							boolean done;
-
-							@Override
-							public boolean publish(Amenity amenity) {
-								if (Algorithms.stringsEqual(title, Algorithms.emptyIfNull(amenity.getName(lang)))) {
-									amenities.add(amenity);
-									done = true;
-								}
-								return false;
+		List<TravelArticle> articles = searchReaders(getReaders(), reader -> {
+			List<Amenity> amenities = new ArrayList<>();
+			SearchRequest<Amenity> req = BinaryMapIndexReader.buildSearchPoiRequest(
+					0, 0, title, 0, Integer.MAX_VALUE, 0, Integer.MAX_VALUE, getSearchFilter(ROUTE_ARTICLE),
+					new ResultMatcher<Amenity>() {
+						boolean done;
+
+						@Override
+						public boolean publish(Amenity amenity) {
+							if (Algorithms.stringsEqual(title, Algorithms.emptyIfNull(amenity.getName(lang)))) {
+								amenities.add(amenity);
+								done = true;
 							}
+							return false;
+						}
 
-							@Override
-							public boolean isCancelled() {
-								return done;
-							}
-						}, null);
-				reader.searchPoiByName(req);
-			} catch (IOException e) {
-				LOG.error(e.getMessage());
-			}
-			if (!Algorithms.isEmpty(amenities)) {
-				article = readArticle(reader.getFile(), amenities.get(0), lang);
-				break;
-			}
-		}
-		return article;
+						@Override
+						public boolean isCancelled() {
+							return done;
+						}
+					}, null);
+			reader.searchPoiByName(req);
+			return Algorithms.isEmpty(amenities) ? null : readArticle(reader.getFile(), amenities.get(0), lang);
+		});
+		return articles.isEmpty() ? null : articles.get(0);
 	}
 
 	@Override
@@ -659,12 +757,12 @@ public class TravelObfHelper implements TravelHelper {
 				if (!Double.isNaN(articleId.lat)) {
 					req.setBBoxRadius(articleId.lat, articleId.lon, ARTICLE_SEARCH_RADIUS);
 					if (!Algorithms.isEmpty(articleId.title)) {
-						reader.searchPoiByName(req);
+						searchPoiByName(reader, req);
 					} else {
-						reader.searchPoi(req);
+						searchPoi(reader, req);
 					}
 				} else {
-					reader.searchPoi(req);
+					searchPoi(reader, req);
 				}
 			} catch (IOException e) {
 				LOG.error(e.getMessage());
@@ -720,12 +818,12 @@ public class TravelObfHelper implements TravelHelper {
 				if (req != null) {
 					if (!Double.isNaN(articleId.lat)) {
 						if (!Algorithms.isEmpty(articleId.title)) {
-							reader.searchPoiByName(req);
+							searchPoiByName(reader, req);
 						} else {
-							reader.searchPoi(req);
+							searchPoi(reader, req);
 						}
 					} else {
-						reader.searchPoi(req);
+						searchPoi(reader, req);
 					}
 					break;
 				}
@@ -739,9 +837,9 @@ public class TravelObfHelper implements TravelHelper {
 					req = getEqualsTitleRequest(articleId, lang, amenities, reader);
 					req.setBBoxRadius(articleId.lat, articleId.lon, SAVED_ARTICLE_SEARCH_RADIUS);
 					if (!Double.isNaN(articleId.lat)) {
-						reader.searchPoiByName(req);
+						searchPoiByName(reader, req);
 					} else {
-						reader.searchPoi(req);
+						searchPoi(reader, req);
 					}
 				} catch (IOException e) {
 					LOG.error(e.getMessage());
@@ -776,12 +874,12 @@ public class TravelObfHelper implements TravelHelper {
 					req.setBBoxRadius(articleId.lat, articleId.lon, SAVED_ARTICLE_SEARCH_RADIUS);
 					if (!Double.isNaN(articleId.lat)) {
 						if (!Algorithms.isEmpty(articleId.title)) {
-							reader.searchPoiByName(req);
+							searchPoiByName(reader, req);
 						} else {
-							reader.searchPoi(req);
+							searchPoi(reader, req);
 						}
 					} else {
-						reader.searchPoi(req);
+						searchPoi(reader, req);
 					}
 				} catch (IOException e) {
 					LOG.error(e.getMessage());
@@ -875,7 +973,7 @@ public class TravelObfHelper implements TravelHelper {
 								return done;
 							}
 						}, null);
-				reader.searchPoiByName(req);
+				searchPoiByName(reader, req);
 			} catch (IOException e) {
 				LOG.error(e.getMessage());
 			}
@@ -899,7 +997,7 @@ public class TravelObfHelper implements TravelHelper {
 	@Override
 	public TravelArticleIdentifier getArticleId(@NonNull String title, @NonNull String lang) {
 		TravelArticle a = null;
-		for (Map<String, TravelArticle> articles : cachedArticles.values()) {
+		for (Map<String, TravelArticle> articles : cachedArticles.snapshot().values()) {
 			for (TravelArticle article : articles.values()) {
 				if (article.getTitle().equals(title)) {
 					a = article;
@@ -1004,7 +1102,7 @@ public class TravelObfHelper implements TravelHelper {
 					if (article.routeRadius >= 0) {
 						sr.setBBoxRadius(article.lat, article.lon, article.routeRadius);
 					}
-					reader.searchMapIndex(sr);
+					searchMapIndex(reader, sr);
 				}
 
 				BinaryMapIndexReader.SearchRequest<Amenity> pointRequest = BinaryMapIndexReader.buildSearchPoiRequest(
@@ -1035,9 +1133,9 @@ public class TravelObfHelper implements TravelHelper {
 					pointRequest.setBBoxRadius(article.lat, article.lon, article.routeRadius);
 				}
 				if (!Algorithms.isEmpty(article.title)) {
-					reader.searchPoiByName(pointRequest);
+					searchPoiByName(reader, pointRequest);
 				} else {
-					reader.searchPoi(pointRequest);
+					searchPoi(reader, pointRequest);
 				}
 				if (!Algorithms.isEmpty(segmentList)) {
 					break;
@@ -1104,6 +1202,12 @@ public class TravelObfHelper implements TravelHelper {
 		return capitalizeFirstLetter(getGpxTitle(name));
 	}
 
+	private interface ReaderSearch<T> {
+
+		@Nullable
+		T search(@NonNull BinaryMapIndexReader reader) throws IOException;
+	}
+
 	private class GpxFileReader extends AsyncTask<Void, Void, GPXFile> {
 
 		private final TravelArticle article;
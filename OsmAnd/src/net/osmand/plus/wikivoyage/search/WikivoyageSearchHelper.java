@@ -42,7 +42,18 @@ public class WikivoyageSearchHelper {
 					}
 
 					if (!isCancelled()) {
-						List<WikivoyageSearchResult> results = application.getTravelHelper().search(query);
+						List<WikivoyageSearchResult> results = application.getTravelHelper().search(query,
+								new ResultMatcher<WikivoyageSearchResult>() {
+									@Override
+									public boolean publish(WikivoyageSearchResult object) {
+										return true;
+									}
+
+									@Override
+									public boolean isCancelled() {
+										return requestNumber.get() != request || rm.isCancelled();
+									}
+								});
 						if (!isCancelled()) {
 							rm.publish(results);
 						}